@@ -0,0 +1,314 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * JMH benchmarks of the Graph operations of ConcreteEdgesGraph,
+ * ConcreteVerticesGraph and AdjacencyMapGraph, on graphs of 1k to 1M edges
+ * whose endpoints are drawn uniformly or from a power law (see Workload).
+ *
+ * <p>The observers vertices(), sources() and targets() are measured in the
+ * steady state on a graph built once per trial; sources() and targets() also
+ * iterate over the returned map, since a copy and a view cost differently to
+ * create and to read. The mutators are measured as batches of BATCH distinct
+ * operations on that graph ({@link Mode#SingleShotTime} with a batch size;
+ * REMOVE_BATCH for remove(), since the smallest graphs have few vertices),
+ * and every iteration ends by undoing its batch, so each iteration starts
+ * from the same graph without rebuilding it.
+ *
+ * <p>These classes are the bench subproject of the Gradle build, which
+ * declares jmh-core and jmh-generator-annprocess; the annotation processor
+ * generates the harness. {@code gradle :bench:jmh} runs them all and writes
+ * build/results/jmh.json; bench/results holds a baseline run. Use
+ * -PjmhArgs='-p graph=... -p distribution=...' to run a subset.
+ *
+ * <p>The implementation and the number of edges are one parameter, graph,
+ * so that the trials that cannot finish are never generated:
+ * ConcreteEdgesGraph scans all of its edges in every set(), so building it is
+ * quadratic in the number of edges, and it is only benchmarked up to 100k
+ * edges.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class GraphBenchmark {
+
+    /** number of mutations timed per iteration */
+    static final int BATCH = 1000;
+
+    /** number of vertices removed per iteration, a quarter of the smallest graph's vertices */
+    static final int REMOVE_BATCH = 25;
+
+    /**
+     * Parameters and the graph built from them, shared by all the benchmarks
+     * of a trial.
+     */
+    @State(Scope.Benchmark)
+    public static class GraphState {
+
+    	// a Workload.Implementation and a number of edges; the parameters are
+    	// strings since the generated harness cannot see Workload's enums
+    	@Param({ "CONCRETE_EDGES:1000", "CONCRETE_EDGES:10000", "CONCRETE_EDGES:100000",
+    			"CONCRETE_VERTICES:1000", "CONCRETE_VERTICES:10000", "CONCRETE_VERTICES:100000", "CONCRETE_VERTICES:1000000",
+    			"ADJACENCY_MAP:1000", "ADJACENCY_MAP:10000", "ADJACENCY_MAP:100000", "ADJACENCY_MAP:1000000" })
+    	String graph;
+
+    	// a Workload.Distribution
+    	@Param({ "UNIFORM", "POWER_LAW" })
+    	String distribution;
+
+    	Workload workload;
+    	Graph<String> built;
+
+    	@Setup(Level.Trial)
+    	public void build() {
+    		String[] implementationAndEdges = graph.split(":");
+    		if (implementationAndEdges.length != 2) {
+    			throw new IllegalArgumentException("expected IMPLEMENTATION:EDGES, got " + graph);
+    		}
+    		Workload.Implementation implementation = Workload.Implementation.valueOf(implementationAndEdges[0]);
+    		int edges = Integer.parseInt(implementationAndEdges[1]);
+    		CheckLevel.setCurrent(CheckLevel.OFF);
+    		workload = new Workload(edges, Workload.Distribution.valueOf(distribution), 6005);
+    		built = workload.build(implementation);
+    	}
+    }
+
+    /**
+     * Vertices queried by the observer benchmarks, drawn from the workload's
+     * distribution, so that power-law graphs are queried mostly at their hubs.
+     */
+    @State(Scope.Thread)
+    public static class Queries {
+
+    	private static final int COUNT = 1024;
+
+    	String[] labels;
+    	int next;
+
+    	@Setup(Level.Trial)
+    	public void choose(GraphState state) {
+    		Random random = new Random(6031);
+    		labels = new String[COUNT];
+    		for (int i = 0; i < COUNT; i++) {
+    			labels[i] = state.workload.label(state.workload.vertex(random));
+    		}
+    	}
+
+    	String next() {
+    		next = (next + 1) & (COUNT - 1);
+    		return labels[next];
+    	}
+    }
+
+    /**
+     * The operands of one batch of each mutation, chosen before the
+     * iteration, and the records needed to undo them after it.
+     */
+    @State(Scope.Thread)
+    public static class Mutations {
+
+    	String[] newVertices;
+    	String[] insertSources;
+    	String[] insertTargets;
+    	String[] existingSources;
+    	String[] existingTargets;
+    	int[] existingWeights;
+    	String[] removedVertices;
+    	List<Map<String, Integer>> removedTargets;
+    	List<Map<String, Integer>> removedSources;
+    	int next;
+    	private int iteration;
+
+    	@Setup(Level.Iteration)
+    	public void choose(GraphState state) {
+    		Graph<String> graph = state.built;
+    		Workload workload = state.workload;
+    		Random random = new Random(6043 + iteration++);
+    		next = 0;
+
+    		newVertices = new String[BATCH];
+    		for (int i = 0; i < BATCH; i++) {
+    			newVertices[i] = "new" + i;
+    		}
+
+    		insertSources = new String[BATCH];
+    		insertTargets = new String[BATCH];
+    		Set<String> chosen = new HashSet<>();
+    		for (int i = 0; i < BATCH; ) {
+    			String source = workload.label(workload.vertex(random));
+    			String target = workload.label(workload.vertex(random));
+    			if (!graph.targets(source).containsKey(target) && chosen.add(source + "->" + target)) {
+    				insertSources[i] = source;
+    				insertTargets[i] = target;
+    				i++;
+    			}
+    		}
+
+    		existingSources = new String[BATCH];
+    		existingTargets = new String[BATCH];
+    		existingWeights = new int[BATCH];
+    		chosen.clear();
+    		for (int i = 0; i < BATCH; ) {
+    			int edge = random.nextInt(workload.edgeCount());
+    			if (chosen.add(Integer.toString(edge))) {
+    				existingSources[i] = workload.source(edge);
+    				existingTargets[i] = workload.target(edge);
+    				existingWeights[i] = graph.targets(existingSources[i]).get(existingTargets[i]);
+    				i++;
+    			}
+    		}
+
+    		removedVertices = new String[REMOVE_BATCH];
+    		removedTargets = new ArrayList<>(REMOVE_BATCH);
+    		removedSources = new ArrayList<>(REMOVE_BATCH);
+    		chosen.clear();
+    		for (int i = 0; i < REMOVE_BATCH; ) {
+    			String vertex = workload.label(workload.vertex(random));
+    			if (chosen.add(vertex)) {
+    				removedVertices[i] = vertex;
+    				removedTargets.add(new HashMap<>(graph.targets(vertex)));
+    				removedSources.add(new HashMap<>(graph.sources(vertex)));
+    				i++;
+    			}
+    		}
+    	}
+
+    	/**
+    	 * Restore the graph whichever benchmark ran; undoing an operation that
+    	 * did not run leaves the graph unchanged.
+    	 */
+    	@TearDown(Level.Iteration)
+    	public void undo(GraphState state) {
+    		Graph<String> graph = state.built;
+    		for (String vertex : newVertices) {
+    			graph.remove(vertex);
+    		}
+    		for (int i = 0; i < BATCH; i++) {
+    			graph.set(insertSources[i], insertTargets[i], 0);
+    			graph.set(existingSources[i], existingTargets[i], existingWeights[i]);
+    		}
+    		for (String vertex : removedVertices) {
+    			graph.add(vertex);
+    		}
+    		for (int i = 0; i < removedVertices.length; i++) {
+    			String vertex = removedVertices[i];
+    			for (Map.Entry<String, Integer> edge : removedTargets.get(i).entrySet()) {
+    				graph.set(vertex, edge.getKey(), edge.getValue());
+    			}
+    			for (Map.Entry<String, Integer> edge : removedSources.get(i).entrySet()) {
+    				graph.set(edge.getKey(), vertex, edge.getValue());
+    			}
+    		}
+    	}
+    }
+
+    /*
+     * Observers, in the steady state.
+     */
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public boolean vertices(GraphState state, Queries queries) {
+    	return state.built.vertices().contains(queries.next());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void sources(GraphState state, Queries queries, Blackhole blackhole) {
+    	for (Map.Entry<String, Integer> edge : state.built.sources(queries.next()).entrySet()) {
+    		blackhole.consume(edge.getKey());
+    		blackhole.consume(edge.getValue().intValue());
+    	}
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void targets(GraphState state, Queries queries, Blackhole blackhole) {
+    	for (Map.Entry<String, Integer> edge : state.built.targets(queries.next()).entrySet()) {
+    		blackhole.consume(edge.getKey());
+    		blackhole.consume(edge.getValue().intValue());
+    	}
+    }
+
+    /*
+     * Mutators, BATCH (REMOVE_BATCH for remove) operations per iteration.
+     */
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(batchSize = BATCH)
+    @Measurement(batchSize = BATCH)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public boolean add(GraphState state, Mutations mutations) {
+    	return state.built.add(mutations.newVertices[mutations.next++]);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(batchSize = BATCH)
+    @Measurement(batchSize = BATCH)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int setInsert(GraphState state, Mutations mutations) {
+    	int i = mutations.next++;
+    	return state.built.set(mutations.insertSources[i], mutations.insertTargets[i], 1);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(batchSize = BATCH)
+    @Measurement(batchSize = BATCH)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int setUpdate(GraphState state, Mutations mutations) {
+    	int i = mutations.next++;
+    	return state.built.set(mutations.existingSources[i], mutations.existingTargets[i], mutations.existingWeights[i] + 1);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(batchSize = BATCH)
+    @Measurement(batchSize = BATCH)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int setDelete(GraphState state, Mutations mutations) {
+    	int i = mutations.next++;
+    	return state.built.set(mutations.existingSources[i], mutations.existingTargets[i], 0);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(batchSize = REMOVE_BATCH)
+    @Measurement(batchSize = REMOVE_BATCH)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public boolean remove(GraphState state, Mutations mutations) {
+    	return state.built.remove(mutations.removedVertices[mutations.next++]);
+    }
+
+}
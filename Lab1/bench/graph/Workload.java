@@ -0,0 +1,171 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * A reproducible random graph for the benchmarks: a number of distinct
+ * edges over vertices labeled "v0", "v1", ..., with an average out-degree
+ * of 8 and endpoints drawn either uniformly or from a power law.
+ * Immutable.
+ */
+final class Workload {
+
+    /**
+     * How the endpoints of edges are drawn.
+     */
+    enum Distribution {
+    	/** every vertex is equally likely */
+    	UNIFORM,
+    	/** vertex i is drawn with probability proportional to 1/(i+1), so a
+    	 *  few hubs have most of the edges, as in word bigram graphs */
+    	POWER_LAW
+    }
+
+    /**
+     * The Graph implementations compared by the benchmarks.
+     */
+    enum Implementation {
+    	CONCRETE_EDGES(ConcreteEdgesGraph::new),
+    	CONCRETE_VERTICES(ConcreteVerticesGraph::new),
+    	ADJACENCY_MAP(AdjacencyMapGraph::new);
+
+    	private final Supplier<Graph<String>> factory;
+
+    	private Implementation(Supplier<Graph<String>> factory) {
+    		this.factory = factory;
+    	}
+
+    	/**
+    	 * @return a new empty graph of this implementation
+    	 */
+    	Graph<String> newGraph() {
+    		return factory.get();
+    	}
+    }
+
+    private static final int AVERAGE_DEGREE = 8;
+    private static final int MAX_WEIGHT = 100;
+
+    private final Distribution distribution;
+    private final String[] labels;
+    private final int[] sources;
+    private final int[] targets;
+    private final int[] weights;
+
+    // Abstraction function:
+    //   AF(distribution, labels, sources, targets, weights) = the graph with
+    //     vertices labels and an edge from labels[sources[i]] to
+    //     labels[targets[i]] of weight weights[i] for every i
+    // Representation invariant:
+    //   sources, targets and weights have the same length
+    //   the pairs (sources[i], targets[i]) are distinct indices into labels
+    //   every weight is in 1..MAX_WEIGHT
+    // Safety from rep exposure:
+    //   all fields are private and final; the arrays are never returned
+
+    /**
+     * Generate a workload.
+     *
+     * @param edges number of distinct edges, positive
+     * @param distribution how the endpoints are drawn
+     * @param seed seed of the random generator; the same arguments always
+     *             give the same workload
+     */
+    Workload(int edges, Distribution distribution, long seed) {
+    	Random random = new Random(seed);
+    	int n = Math.max(16, edges / AVERAGE_DEGREE);
+    	this.distribution = distribution;
+    	this.labels = new String[n];
+    	for (int i = 0; i < n; i++) {
+    		labels[i] = "v" + i;
+    	}
+    	this.sources = new int[edges];
+    	this.targets = new int[edges];
+    	this.weights = new int[edges];
+    	Set<Long> seen = new HashSet<>();
+    	for (int i = 0; i < edges; ) {
+    		int source = vertex(random);
+    		int target = vertex(random);
+    		if (seen.add((long) source * n + target)) {
+    			sources[i] = source;
+    			targets[i] = target;
+    			weights[i] = 1 + random.nextInt(MAX_WEIGHT);
+    			i++;
+    		}
+    	}
+    }
+
+    /**
+     * @return the index of a vertex drawn from the distribution of this workload
+     */
+    int vertex(Random random) {
+    	int n = labels.length;
+    	if (distribution == Distribution.UNIFORM) {
+    		return random.nextInt(n);
+    	}
+    	// log-uniform in 1..n+1, which is Zipf with exponent 1
+    	return Math.min(n - 1, (int) Math.pow(n + 1, random.nextDouble()) - 1);
+    }
+
+    /**
+     * @param i index of a vertex
+     * @return its label
+     */
+    String label(int i) {
+    	return labels[i];
+    }
+
+    /**
+     * @return the number of vertices
+     */
+    int vertexCount() {
+    	return labels.length;
+    }
+
+    /**
+     * @return the number of edges
+     */
+    int edgeCount() {
+    	return sources.length;
+    }
+
+    /**
+     * @param i index of an edge
+     * @return the label of its source
+     */
+    String source(int i) {
+    	return labels[sources[i]];
+    }
+
+    /**
+     * @param i index of an edge
+     * @return the label of its target
+     */
+    String target(int i) {
+    	return labels[targets[i]];
+    }
+
+    /**
+     * Build the graph of this workload.
+     *
+     * @param implementation implementation to build
+     * @return a new graph with every vertex and edge of this workload
+     */
+    Graph<String> build(Implementation implementation) {
+    	Graph<String> graph = implementation.newGraph();
+    	for (String label : labels) {
+    		graph.add(label);
+    	}
+    	for (int i = 0; i < sources.length; i++) {
+    		graph.set(labels[sources[i]], labels[targets[i]], weights[i]);
+    	}
+    	return graph;
+    }
+
+}
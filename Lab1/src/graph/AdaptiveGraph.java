@@ -0,0 +1,255 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An implementation of Graph that changes its representation as it grows
+ * and as it is used.
+ *
+ * <p>A graph usually starts as an EDGE_LIST (a ConcreteEdgesGraph), which is the
+ * smallest representation and fast enough while it has few edges. Once it
+ * has more than smallEdgeLimit edges it migrates, in one pass through
+ * GraphBuilder, to an ADJACENCY_MAP (an AdjacencyMapGraph), whose operations
+ * only touch the vertices involved. If compaction is enabled, a graph that is
+ * read many times without being mutated is frozen into a COMPACT
+ * representation (a CompactGraph); the next call that would change it thaws
+ * it back into an adjacency map. Freezing and thawing each take time linear
+ * in the size of the graph, so a graph is only frozen after at least as many
+ * reads as it has edges (and at least MIN_READS_TO_COMPACT), which bounds the
+ * cost of migrating back and forth by the cost of the reads themselves.
+ *
+ * <p>Migration is invisible to callers: vertices(), sources() and targets()
+ * return live unmodifiable views that always read the current
+ * representation. An iterator obtained before a migration keeps iterating
+ * over the representation it started on. This class is not thread-safe.
+ *
+ * @param <L> type of vertex labels in this graph, must be immutable
+ */
+public class AdaptiveGraph<L> implements Graph<L> {
+
+    /**
+     * The representations an AdaptiveGraph moves between.
+     */
+    public enum Representation { EDGE_LIST, ADJACENCY_MAP, COMPACT }
+
+    /** default number of edges up to which a graph stays an edge list */
+    public static final int DEFAULT_SMALL_EDGE_LIMIT = 32;
+
+    /** fewest reads in a row that make a graph worth freezing */
+    static final int MIN_READS_TO_COMPACT = 1024;
+
+    private final int smallEdgeLimit;
+    private final boolean compaction;
+    private Graph<L> current;
+    private Representation representation;
+    private long readsSinceMutation = 0;
+    private final Set<L> vertexView = new VertexView();
+
+    // Abstraction function:
+    //   AF(current) = the graph current
+    // Representation invariant:
+    //   smallEdgeLimit is non-negative
+    //   representation names the class of current: ConcreteEdgesGraph,
+    //     AdjacencyMapGraph or CompactGraph
+    //   if representation is EDGE_LIST, current has at most smallEdgeLimit edges
+    //   representation is COMPACT only if compaction is true
+    //   readsSinceMutation is non-negative
+    // Safety from rep exposure:
+    //   all fields are private; current is never returned
+    //   observers return unmodifiable views that read through current
+
+    /**
+     * Create an empty graph that starts as an edge list, with compaction.
+     */
+    public AdaptiveGraph() {
+    	this(DEFAULT_SMALL_EDGE_LIMIT, true);
+    }
+
+    /**
+     * Create an empty graph.
+     *
+     * @param smallEdgeLimit number of edges up to which the graph stays an
+     *                       edge list; 0 to start as an adjacency map
+     * @param compaction true to freeze the graph after many reads in a row
+     * @throws IllegalArgumentException if smallEdgeLimit is negative
+     */
+    public AdaptiveGraph(int smallEdgeLimit, boolean compaction) {
+    	this(smallEdgeLimit, compaction, 0);
+    }
+
+    /**
+     * Create an empty graph, sized for a number of vertices if it starts as
+     * an adjacency map.
+     *
+     * @param smallEdgeLimit number of edges up to which the graph stays an
+     *                       edge list; 0 to start as an adjacency map
+     * @param compaction true to freeze the graph after many reads in a row
+     * @param expectedVertices number of vertices expected, non-negative
+     * @throws IllegalArgumentException if smallEdgeLimit is negative
+     */
+    AdaptiveGraph(int smallEdgeLimit, boolean compaction, int expectedVertices) {
+    	if (smallEdgeLimit < 0) {
+    		throw new IllegalArgumentException("smallEdgeLimit should be non-negative: " + smallEdgeLimit);
+    	}
+    	this.smallEdgeLimit = smallEdgeLimit;
+    	this.compaction = compaction;
+    	if (smallEdgeLimit == 0) {
+    		this.current = new AdjacencyMapGraph<>(expectedVertices);
+    		this.representation = Representation.ADJACENCY_MAP;
+    	} else {
+    		this.current = new ConcreteEdgesGraph<>();
+    		this.representation = Representation.EDGE_LIST;
+    	}
+    	checkRep();
+    }
+
+    private void checkRep() {
+    	assert smallEdgeLimit >= 0 && readsSinceMutation >= 0:"limits and counters should be non-negative";
+    	switch (representation) {
+    	case EDGE_LIST:
+    		assert current instanceof ConcreteEdgesGraph:"an edge list should be a ConcreteEdgesGraph";
+    		assert ((ConcreteEdgesGraph<L>) current).edgeCount() <= smallEdgeLimit:"an edge list should have at most smallEdgeLimit edges";
+    		break;
+    	case ADJACENCY_MAP:
+    		assert current instanceof AdjacencyMapGraph:"an adjacency map should be an AdjacencyMapGraph";
+    		break;
+    	default:
+    		assert compaction && current instanceof CompactGraph:"a compact graph should be a CompactGraph, and only with compaction";
+    	}
+    }
+
+    /**
+     * @return the representation this graph currently uses
+     */
+    public Representation representation() {
+    	return representation;
+    }
+
+    /**
+     * Copy the current graph into an adjacency map.
+     */
+    private void toAdjacencyMap() {
+    	GraphBuilder<L> builder = new GraphBuilder<>(current.vertices().size());
+    	for (L vertex : current.vertices()) {
+    		builder.addVertex(vertex);
+    		for (Map.Entry<L, Integer> edge : current.targets(vertex).entrySet()) {
+    			builder.set(vertex, edge.getKey(), edge.getValue());
+    		}
+    	}
+    	current = builder.build();
+    	representation = Representation.ADJACENCY_MAP;
+    }
+
+    /**
+     * Prepare for a call that changes the graph: thaw a compact graph.
+     */
+    private void beforeMutation() {
+    	readsSinceMutation = 0;
+    	if (representation == Representation.COMPACT) {
+    		toAdjacencyMap();
+    	}
+    }
+
+    /**
+     * Migrate an edge list that has grown past smallEdgeLimit.
+     */
+    private void afterMutation() {
+    	if (representation == Representation.EDGE_LIST && ((ConcreteEdgesGraph<L>) current).edgeCount() > smallEdgeLimit) {
+    		toAdjacencyMap();
+    	}
+    	checkRep();
+    }
+
+    /**
+     * Count a read, and freeze the graph once reads have paid for it.
+     */
+    private void read() {
+    	readsSinceMutation++;
+    	if (compaction && representation == Representation.ADJACENCY_MAP
+    			&& readsSinceMutation >= Math.max(MIN_READS_TO_COMPACT, ((AdjacencyMapGraph<L>) current).edgeCount())) {
+    		current = CompactGraph.freeze(current);
+    		representation = Representation.COMPACT;
+    		checkRep();
+    	}
+    }
+
+    @Override public boolean add(L vertex) {
+    	if (current.vertices().contains(vertex)) {
+    		return false;
+    	}
+    	beforeMutation();
+    	current.add(vertex);
+    	afterMutation();
+    	return true;
+    }
+
+    @Override public int set(L source, L target, int weight) {
+    	Integer previousWeight = current.targets(source).get(target);
+    	int previous = previousWeight == null ? 0 : previousWeight;
+    	if (previous == weight) {
+    		// nothing changes; in particular no vertices are added for weight 0
+    		return previous;
+    	}
+    	beforeMutation();
+    	current.set(source, target, weight);
+    	afterMutation();
+    	return previous;
+    }
+
+    @Override public boolean remove(L vertex) {
+    	if (!current.vertices().contains(vertex)) {
+    		return false;
+    	}
+    	beforeMutation();
+    	current.remove(vertex);
+    	afterMutation();
+    	return true;
+    }
+
+    @Override public Set<L> vertices() {
+    	read();
+    	return vertexView;
+    }
+
+    @Override public Map<L, Integer> sources(L target) {
+    	read();
+    	return new NeighborMapView<>(() -> current.sources(target));
+    }
+
+    @Override public Map<L, Integer> targets(L source) {
+    	read();
+    	return new NeighborMapView<>(() -> current.targets(source));
+    }
+
+	@Override
+	public String toString() {
+		String adaptiveGraphString = "AdaptiveGraph{" + representation + "," + current + "}";
+		return adaptiveGraphString;
+	}
+
+    /**
+     * A live unmodifiable view of the vertices of the current representation.
+     */
+    private final class VertexView extends AbstractSet<L> {
+
+    	@Override public int size() {
+    		return current.vertices().size();
+    	}
+
+    	@Override public boolean contains(Object label) {
+    		return current.vertices().contains(label);
+    	}
+
+    	@Override public Iterator<L> iterator() {
+    		return Collections.unmodifiableSet(current.vertices()).iterator();
+    	}
+    }
+
+}
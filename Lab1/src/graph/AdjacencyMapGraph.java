@@ -0,0 +1,317 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * An implementation of Graph that indexes edges by both endpoints.
+ *
+ * <p>Every vertex owns a map of its outgoing edges and a map of its incoming
+ * edges, so set(), sources(), targets() and remove() only touch the vertices
+ * involved and run in time proportional to their degree instead of the
+ * number of edges in the whole graph.
+ *
+ * <p>vertices(), sources() and targets() return live unmodifiable views
+ * instead of copies, so read-heavy callers do not allocate per query. The
+ * views reflect later mutations of this graph; they are not thread-safe, and
+ * iterating over a view while the graph is mutated fails fast with
+ * ConcurrentModificationException on a best-effort basis. Callers that need a
+ * stable snapshot should copy the view.
+ *
+ * <p>Weights are stored unboxed in ObjectIntMap rows; the WeightedGraph
+ * methods read them without allocating.
+ *
+ * <p>Degrees and weight totals come from the rows, which keep their own size
+ * and sum, and the graph keeps its edge count and total weight up to date in
+ * set() and remove(), so the StatisticsGraph methods take constant time.
+ */
+public class AdjacencyMapGraph<L> implements WeightedGraph<L>, StatisticsGraph<L> {
+
+    private final Map<L, ObjectIntMap<L>> outgoing;
+    private final Map<L, ObjectIntMap<L>> incoming;
+    private final Set<L> vertexView;
+    private long edgeCount;
+    private long totalWeight;
+
+    // Abstraction function:
+    //   AF(outgoing, incoming) = a graph whose vertices are the keys of outgoing,
+    //     with an edge from s to t of weight w for every outgoing[s][t] = w
+    //     incoming is the same set of edges indexed by target
+    // Representation invariant:
+    //   outgoing and incoming have the same key set
+    //   outgoing[s][t] = w if and only if incoming[t][s] = w
+    //   every key of the inner maps is a vertex, every weight is positive
+    //   vertexView is an unmodifiable view of outgoing.keySet()
+    //   edgeCount is the sum of the sizes of the outgoing rows, and totalWeight
+    //     the sum of their sums
+    // Safety from rep exposure:
+    //   all fields are private and final
+    //   the maps are mutable, so observers return unmodifiable views of them
+
+    /**
+     * Create an empty graph.
+     */
+    public AdjacencyMapGraph() {
+    	this.outgoing = new HashMap<>();
+    	this.incoming = new HashMap<>();
+    	this.vertexView = Collections.unmodifiableSet(outgoing.keySet());
+    }
+
+    /**
+     * Create an empty graph sized for a number of vertices.
+     *
+     * @param expectedVertices number of vertices expected, non-negative
+     */
+    AdjacencyMapGraph(int expectedVertices) {
+    	this.outgoing = GraphBuilder.newVertexMap(expectedVertices);
+    	this.incoming = GraphBuilder.newVertexMap(expectedVertices);
+    	this.vertexView = Collections.unmodifiableSet(outgoing.keySet());
+    }
+
+    /**
+     * Create a graph that takes over a complete outgoing index, as collected by
+     * GraphBuilder. The incoming index is derived in one pass and the rep is
+     * checked once at the end instead of once per edge.
+     *
+     * @param outgoing map from every vertex to its targets and the weights of
+     *                 the edges to them; every target must also be a key and
+     *                 every weight must be positive. The graph owns the map
+     *                 afterwards, so the caller must not keep using it.
+     */
+    AdjacencyMapGraph(Map<L, ObjectIntMap<L>> outgoing) {
+    	this.outgoing = outgoing;
+    	this.incoming = GraphBuilder.newVertexMap(outgoing.size());
+    	this.vertexView = Collections.unmodifiableSet(outgoing.keySet());
+    	for (L vertex : outgoing.keySet()) {
+    		incoming.put(vertex, new ObjectIntMap<>());
+    	}
+    	for (Map.Entry<L, ObjectIntMap<L>> entry : outgoing.entrySet()) {
+    		L source = entry.getKey();
+    		ObjectIntMap<L> targetsMap = entry.getValue();
+    		targetsMap.forEach((target, weight) -> incoming.get(target).put(source, weight));
+    		edgeCount += targetsMap.size();
+    		totalWeight += targetsMap.sum();
+    	}
+    	if (CheckLevel.current() != CheckLevel.OFF) {
+    		checkRep();
+    	}
+    }
+
+    /**
+     * Check the rep invariant after a mutation, as much as
+     * {@link CheckLevel#current()} asks for.
+     *
+     * @param source label of a vertex touched by the mutation
+     * @param target label of the other vertex touched by the mutation
+     */
+    private void checkRep(L source, L target) {
+    	CheckLevel level = CheckLevel.current();
+    	if (level.checksWholeRep()) {
+    		checkRep();
+    	} else if (level.checksTouchedVertices()) {
+    		checkVertex(source);
+    		checkVertex(target);
+    	}
+    }
+
+    /**
+     * Check the whole rep invariant.
+     */
+    private void checkRep() {
+    	assert outgoing.keySet().equals(incoming.keySet()):"outgoing and incoming should have the same key set";
+    	long edges = 0;
+    	long weights = 0;
+    	for (L vertex : outgoing.keySet()) {
+    		checkVertex(vertex);
+    		edges += outgoing.get(vertex).size();
+    		weights += outgoing.get(vertex).sum();
+    	}
+    	assert edges == edgeCount:"edgeCount should count the edges";
+    	assert weights == totalWeight:"totalWeight should add up the weights";
+    }
+
+    /**
+     * Check the rep invariant around one vertex: each of its edges is stored
+     * at the other end with the same positive weight.
+     *
+     * @param vertex label of the vertex whose edges are checked
+     */
+    private void checkVertex(L vertex) {
+    	assert outgoing.size() == incoming.size():"outgoing and incoming should have the same key set";
+    	ObjectIntMap<L> targetsMap = outgoing.get(vertex);
+    	ObjectIntMap<L> sourcesMap = incoming.get(vertex);
+    	if (targetsMap == null) {
+    		assert sourcesMap == null:"a vertex should be a key of both outgoing and incoming";
+    		return;
+    	}
+    	assert sourcesMap != null:"a vertex should be a key of both outgoing and incoming";
+    	targetsMap.forEach((target, weight) -> {
+    		assert weight > 0:"weight should be positive";
+    		ObjectIntMap<L> mirror = incoming.get(target);
+    		assert mirror != null && mirror.get(vertex) == weight:"an outgoing edge should be stored as an incoming edge of its target";
+    	});
+    	sourcesMap.forEach((source, weight) -> {
+    		assert weight > 0:"weight should be positive";
+    		ObjectIntMap<L> mirror = outgoing.get(source);
+    		assert mirror != null && mirror.get(vertex) == weight:"an incoming edge should be stored as an outgoing edge of its source";
+    	});
+    }
+
+    @Override public boolean add(L vertex) {
+    	if (outgoing.containsKey(vertex)) {
+    		return false;
+    	}
+    	outgoing.put(vertex, new ObjectIntMap<>());
+    	incoming.put(vertex, new ObjectIntMap<>());
+    	checkRep(vertex, vertex);
+    	return true;
+    }
+
+    @Override public int set(L source, L target, int weight) {
+    	assert weight >= 0:"weight should be non-negative";
+    	ObjectIntMap<L> targetsMap = outgoing.get(source);
+    	if (weight == 0) {
+    		int previousWeight = targetsMap == null ? 0 : targetsMap.remove(target);
+    		if (previousWeight == 0) {
+    			return 0;
+    		}
+    		incoming.get(target).remove(source);
+    		edgeCount--;
+    		totalWeight -= previousWeight;
+    		checkRep(source, target);
+    		return previousWeight;
+    	}
+    	this.add(source);
+    	this.add(target);
+    	int previousWeight = outgoing.get(source).put(target, weight);
+    	incoming.get(target).put(source, weight);
+    	if (previousWeight == 0) {
+    		edgeCount++;
+    	}
+    	totalWeight += weight - previousWeight;
+    	checkRep(source, target);
+    	return previousWeight;
+    }
+
+    @Override public boolean remove(L vertex) {
+    	ObjectIntMap<L> targetsMap = outgoing.remove(vertex);
+    	if (targetsMap == null) {
+    		return false;
+    	}
+    	ObjectIntMap<L> sourcesMap = incoming.remove(vertex);
+    	// a self-loop is in both rows but is only one edge
+    	int loopWeight = targetsMap.get(vertex);
+    	edgeCount -= targetsMap.size() + sourcesMap.size() - (loopWeight == 0 ? 0 : 1);
+    	totalWeight -= targetsMap.sum() + sourcesMap.sum() - loopWeight;
+    	targetsMap.forEach((target, weight) -> {
+    		ObjectIntMap<L> mirror = incoming.get(target);
+    		if (mirror != null) {
+    			mirror.remove(vertex);
+    		}
+    	});
+    	sourcesMap.forEach((source, weight) -> {
+    		ObjectIntMap<L> mirror = outgoing.get(source);
+    		if (mirror != null) {
+    			mirror.remove(vertex);
+    		}
+    	});
+    	CheckLevel level = CheckLevel.current();
+    	if (level.checksWholeRep()) {
+    		checkRep();
+    	} else if (level.checksTouchedVertices()) {
+    		targetsMap.forEach((target, weight) -> checkVertex(target));
+    		sourcesMap.forEach((source, weight) -> checkVertex(source));
+    	}
+    	return true;
+    }
+
+    @Override public Set<L> vertices() {
+    	return vertexView;
+    }
+
+    @Override public Map<L, Integer> sources(L target) {
+    	return new NeighborMapView<>(() -> {
+    		ObjectIntMap<L> sourcesMap = incoming.get(target);
+    		return sourcesMap == null ? Collections.emptyMap() : sourcesMap.asMap();
+    	});
+    }
+
+    @Override public Map<L, Integer> targets(L source) {
+    	return new NeighborMapView<>(() -> {
+    		ObjectIntMap<L> targetsMap = outgoing.get(source);
+    		return targetsMap == null ? Collections.emptyMap() : targetsMap.asMap();
+    	});
+    }
+
+    @Override public int weight(L source, L target) {
+    	ObjectIntMap<L> targetsMap = outgoing.get(source);
+    	return targetsMap == null ? 0 : targetsMap.get(target);
+    }
+
+    @Override public void forEachTarget(L source, ObjIntConsumer<? super L> action) {
+    	ObjectIntMap<L> targetsMap = outgoing.get(source);
+    	if (targetsMap != null) {
+    		targetsMap.forEach(action);
+    	}
+    }
+
+    @Override public void forEachSource(L target, ObjIntConsumer<? super L> action) {
+    	ObjectIntMap<L> sourcesMap = incoming.get(target);
+    	if (sourcesMap != null) {
+    		sourcesMap.forEach(action);
+    	}
+    }
+
+    @Override public int vertexCount() {
+    	return outgoing.size();
+    }
+
+    @Override public long edgeCount() {
+    	return edgeCount;
+    }
+
+    @Override public long totalWeight() {
+    	return totalWeight;
+    }
+
+    @Override public int outDegree(L vertex) {
+    	ObjectIntMap<L> targetsMap = outgoing.get(vertex);
+    	return targetsMap == null ? 0 : targetsMap.size();
+    }
+
+    @Override public int inDegree(L vertex) {
+    	ObjectIntMap<L> sourcesMap = incoming.get(vertex);
+    	return sourcesMap == null ? 0 : sourcesMap.size();
+    }
+
+    @Override public long outWeight(L vertex) {
+    	ObjectIntMap<L> targetsMap = outgoing.get(vertex);
+    	return targetsMap == null ? 0 : targetsMap.sum();
+    }
+
+    @Override public long inWeight(L vertex) {
+    	ObjectIntMap<L> sourcesMap = incoming.get(vertex);
+    	return sourcesMap == null ? 0 : sourcesMap.sum();
+    }
+
+    @Override public double transitionProbability(L source, L target) {
+    	ObjectIntMap<L> targetsMap = outgoing.get(source);
+    	int weight = targetsMap == null ? 0 : targetsMap.get(target);
+    	return weight == 0 ? 0 : (double) weight / targetsMap.sum();
+    }
+
+	@Override
+	public String toString() {
+		String adjacencyMapGraphString = "AdjacencyMapGraph{"
+				+ "vertices=" + outgoing.keySet()
+				+ ",edges=" + outgoing + "}";
+		return adjacencyMapGraphString;
+	}
+
+}
@@ -0,0 +1,176 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * A compact, versioned binary format for graphs with String labels.
+ *
+ * <p>A stream in this format holds, in order:
+ * <ul><li> the magic bytes "GBIN" and a version number
+ *     <li> the number of vertices, then each label as its UTF-8 length and bytes;
+ *          the position of a label in this dictionary is the id of its vertex
+ *     <li> for each vertex in id order, the number of its targets, then each
+ *          target as the difference from the previous target id (the ids are
+ *          sorted, so the differences are small) followed by the weight </ul>
+ * <p>Every number is an unsigned LEB128 varint, so a typical edge of a word
+ * graph takes two or three bytes. Each label is stored once, however many
+ * edges it has.
+ *
+ * <p>Both {@link #write(Graph, OutputStream)} and {@link #read(InputStream)}
+ * stream: the writer never holds more than the label ids and one row, and the
+ * reader feeds edges straight into a GraphBuilder, so no rep invariant is
+ * checked until the whole graph has been read.
+ */
+public final class BinaryGraphFormat {
+
+    private static final byte[] MAGIC = { 'G', 'B', 'I', 'N' };
+    private static final int VERSION = 1;
+
+    private BinaryGraphFormat() {
+    	throw new AssertionError("BinaryGraphFormat is not instantiable");
+    }
+
+    /**
+     * Write a graph to a stream. The stream is flushed but not closed.
+     *
+     * @param graph graph to write
+     * @param out stream to write to
+     * @throws IOException if the stream cannot be written
+     */
+    public static void write(Graph<String> graph, OutputStream out) throws IOException {
+    	OutputStream buffered = new BufferedOutputStream(out, 1 << 16);
+    	buffered.write(MAGIC);
+    	writeVarint(buffered, VERSION);
+    	Map<String, Integer> ids = GraphBuilder.newVertexMap(graph.vertices().size());
+    	String[] labels = graph.vertices().toArray(new String[0]);
+    	writeVarint(buffered, labels.length);
+    	for (String label : labels) {
+    		ids.put(label, ids.size());
+    		byte[] encoded = label.getBytes(StandardCharsets.UTF_8);
+    		writeVarint(buffered, encoded.length);
+    		buffered.write(encoded);
+    	}
+    	long[] row = new long[0];
+    	for (String source : labels) {
+    		Map<String, Integer> targetsMap = graph.targets(source);
+    		if (row.length < targetsMap.size()) {
+    			row = new long[Math.max(targetsMap.size(), 2 * row.length)];
+    		}
+    		int degree = 0;
+    		for (Map.Entry<String, Integer> edge : targetsMap.entrySet()) {
+    			// pack the id above the weight so that sorting sorts by id
+    			row[degree++] = ((long) ids.get(edge.getKey()) << 32) | edge.getValue();
+    		}
+    		Arrays.sort(row, 0, degree);
+    		writeVarint(buffered, degree);
+    		int previous = 0;
+    		for (int k = 0; k < degree; k++) {
+    			int target = (int) (row[k] >>> 32);
+    			writeVarint(buffered, target - previous);
+    			writeVarint(buffered, (int) row[k]);
+    			previous = target;
+    		}
+    	}
+    	buffered.flush();
+    }
+
+    /**
+     * Read a graph written by {@link #write(Graph, OutputStream)}. The stream
+     * is buffered, so it may be read past the end of the graph; it is not closed.
+     *
+     * @param in stream to read from
+     * @return a new mutable graph with the vertices and edges that were written
+     * @throws IOException if the stream cannot be read, is truncated, or is
+     *         not in this format
+     */
+    public static Graph<String> read(InputStream in) throws IOException {
+    	InputStream buffered = new BufferedInputStream(in, 1 << 16);
+    	byte[] magic = new byte[MAGIC.length];
+    	readFully(buffered, magic, magic.length);
+    	if (!Arrays.equals(magic, MAGIC)) {
+    		throw new IOException("not a binary graph: bad magic number");
+    	}
+    	int version = readVarint(buffered);
+    	if (version != VERSION) {
+    		throw new IOException("unsupported binary graph version " + version);
+    	}
+    	int vertexCount = readVarint(buffered);
+    	String[] labels = new String[vertexCount];
+    	byte[] encoded = new byte[64];
+    	for (int id = 0; id < vertexCount; id++) {
+    		int length = readVarint(buffered);
+    		if (encoded.length < length) {
+    			encoded = new byte[Math.max(length, 2 * encoded.length)];
+    		}
+    		readFully(buffered, encoded, length);
+    		labels[id] = new String(encoded, 0, length, StandardCharsets.UTF_8);
+    	}
+    	GraphBuilder<String> builder = new GraphBuilder<>(vertexCount);
+    	for (int source = 0; source < vertexCount; source++) {
+    		builder.addVertex(labels[source]);
+    		int degree = readVarint(buffered);
+    		long target = 0;
+    		for (int k = 0; k < degree; k++) {
+    			target += readVarint(buffered);
+    			int weight = readVarint(buffered);
+    			if (target >= vertexCount || weight == 0) {
+    				throw new IOException("corrupt binary graph: bad edge from " + labels[source]);
+    			}
+    			builder.set(labels[source], labels[(int) target], weight);
+    		}
+    	}
+    	return builder.build();
+    }
+
+    private static void writeVarint(OutputStream out, int value) throws IOException {
+    	while ((value & ~0x7F) != 0) {
+    		out.write((value & 0x7F) | 0x80);
+    		value >>>= 7;
+    	}
+    	out.write(value);
+    }
+
+    /**
+     * @return the non-negative int read as an unsigned LEB128 varint
+     * @throws IOException if the stream ends, or the value does not fit a non-negative int
+     */
+    private static int readVarint(InputStream in) throws IOException {
+    	int value = 0;
+    	for (int shift = 0; shift < 35; shift += 7) {
+    		int b = in.read();
+    		if (b < 0) {
+    			throw new EOFException("truncated binary graph");
+    		}
+    		value |= (b & 0x7F) << shift;
+    		if ((b & 0x80) == 0) {
+    			if (shift == 28 && b > 0x07) {
+    				throw new IOException("corrupt binary graph: varint out of range");
+    			}
+    			return value;
+    		}
+    	}
+    	throw new IOException("corrupt binary graph: varint too long");
+    }
+
+    private static void readFully(InputStream in, byte[] buffer, int length) throws IOException {
+    	for (int offset = 0; offset < length; ) {
+    		int read = in.read(buffer, offset, length - offset);
+    		if (read < 0) {
+    			throw new EOFException("truncated binary graph");
+    		}
+    		offset += read;
+    	}
+    }
+
+}
@@ -0,0 +1,112 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * How much of the rep invariant the graph implementations check after a
+ * mutation.
+ *
+ * <p>The level is shared by every graph in the JVM. It is read from the system
+ * property {@code graph.checkLevel} (one of the constant names, in any case)
+ * when this class is loaded; without the property, or if it names no level,
+ * it is FULL when assertions are enabled and OFF otherwise, so production
+ * runs pay nothing while tests run with -ea keep full verification. The checks themselves are assert
+ * statements, so they only report a broken rep when assertions are enabled.
+ */
+public enum CheckLevel {
+
+    /** Never check the rep. */
+    OFF,
+
+    /** Check the whole rep after about one in {@link #SAMPLE_PERIOD} mutations. */
+    SAMPLED,
+
+    /** Check only the part of the rep around the vertices a mutation touched. */
+    INCREMENTAL,
+
+    /** Check the whole rep after every mutation. */
+    FULL;
+
+    /** On average, SAMPLED checks the whole rep once per this many mutations. */
+    public static final int SAMPLE_PERIOD = 64;
+
+    private static final String PROPERTY = "graph.checkLevel";
+
+    private static volatile CheckLevel current = fromProperty(System.getProperty(PROPERTY));
+
+    /**
+     * Parse the value of the graph.checkLevel property.
+     *
+     * @param property value of the property, or null if it is not set
+     * @return the level the property names, in any case and ignoring
+     *         surrounding whitespace; if it is not set or names no level,
+     *         FULL when assertions are enabled and OFF otherwise, so that a
+     *         mistyped property cannot keep the graph classes from loading
+     */
+    static CheckLevel fromProperty(String property) {
+    	if (property != null) {
+    		String name = property.trim().toUpperCase(Locale.ROOT);
+    		for (CheckLevel level : values()) {
+    			if (level.name().equals(name)) {
+    				return level;
+    			}
+    		}
+    	}
+    	boolean assertionsEnabled = false;
+    	assert assertionsEnabled = true;
+    	return assertionsEnabled ? FULL : OFF;
+    }
+
+    /**
+     * Get the level used by all graphs.
+     *
+     * @return the current check level
+     */
+    public static CheckLevel current() {
+    	return current;
+    }
+
+    /**
+     * Change the level used by all graphs.
+     *
+     * @param level the new check level, must be non-null
+     */
+    public static void setCurrent(CheckLevel level) {
+    	if (level == null) {
+    		throw new NullPointerException("level");
+    	}
+    	current = level;
+    }
+
+    /**
+     * Decide whether the mutation that is just finishing checks the whole rep.
+     *
+     * @return true for FULL, true for about one call in SAMPLE_PERIOD for SAMPLED,
+     *         otherwise false
+     */
+    boolean checksWholeRep() {
+    	switch (this) {
+    	case FULL:
+    		return true;
+    	case SAMPLED:
+    		return ThreadLocalRandom.current().nextInt(SAMPLE_PERIOD) == 0;
+    	default:
+    		return false;
+    	}
+    }
+
+    /**
+     * Decide whether the mutation that is just finishing checks the vertices it
+     * touched, when it does not check the whole rep.
+     *
+     * @return true iff this is INCREMENTAL
+     */
+    boolean checksTouchedVertices() {
+    	return this == INCREMENTAL;
+    }
+
+}
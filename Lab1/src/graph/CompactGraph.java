@@ -0,0 +1,594 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * An immutable snapshot of a Graph in compressed sparse row form.
+ *
+ * <p>Vertex labels are interned to dense int ids 0..n-1. The edges of each
+ * direction are stored in three int arrays: the edges from (or to) vertex i
+ * are at positions offsets[i] (inclusive) to offsets[i+1] (exclusive) of a
+ * neighbor id array and a weight array, sorted by neighbor id. There are no
+ * per-edge objects and no boxed weights, so a frozen graph takes a fraction of
+ * the memory of the mutable implementations and sources() and targets() read
+ * contiguous memory.
+ *
+ * <p>sources() and targets() return unmodifiable views over the arrays; looking
+ * up a neighbor costs a hash lookup of the label plus a binary search in the
+ * row. Each row is also ranked by weight, so topTargets() and topSources()
+ * take O(k) time. Degrees come from the row offsets and the weight totals of
+ * every vertex are summed once when freezing, so the StatisticsGraph methods
+ * take constant time. The mutators add(), set() and remove() throw
+ * UnsupportedOperationException.
+ *
+ * @param <L> type of vertex labels in this graph, must be immutable
+ */
+public final class CompactGraph<L> implements WeightedGraph<L>, StatisticsGraph<L> {
+
+    private final Object[] labels;
+    private final int[] table;
+    private final int[] outOffsets;
+    private final int[] outTargets;
+    private final int[] outWeights;
+    private final int[] inOffsets;
+    private final int[] inSources;
+    private final int[] inWeights;
+    private final int[] outByWeight;
+    private final int[] inByWeight;
+    private final long[] outTotals;
+    private final long[] inTotals;
+    private final long totalWeight;
+
+    // Abstraction function:
+    //   AF(labels, table, outOffsets, outTargets, outWeights, inOffsets, inSources, inWeights) =
+    //     a graph whose vertices are the elements of labels, with an edge from
+    //     labels[s] to labels[outTargets[k]] of weight outWeights[k] for every
+    //     outOffsets[s] <= k < outOffsets[s+1]
+    //     inOffsets, inSources and inWeights are the same edges indexed by target
+    //     table is an open-addressing hash index from labels to their ids:
+    //       a slot holds id + 1, or 0 if it is empty
+    //     outByWeight and inByWeight rank each row by weight: the positions
+    //       offsets[i]..offsets[i+1]-1 of a row, heaviest edge first
+    //     outTotals[id] and inTotals[id] are the total weights of the rows of id
+    // Representation invariant:
+    //   labels are non-null and distinct
+    //   table.length is a power of two greater than labels.length, every id
+    //     appears in exactly one slot, reachable by linear probing from the
+    //     hash of its label
+    //   outOffsets.length == inOffsets.length == labels.length + 1, both start
+    //     at 0, are non-decreasing and end at the number of edges
+    //   within each row neighbor ids are strictly increasing and in 0..n-1
+    //   every weight is positive
+    //   the out and in arrays describe the same set of edges
+    //   each row of outByWeight (inByWeight) is a permutation of the positions
+    //     of the same row of outWeights (inWeights), in non-increasing order of weight
+    //   outTotals[id] (inTotals[id]) is the sum of the out (in) row of id, and
+    //     totalWeight is the sum of all the weights
+    // Safety from rep exposure:
+    //   all fields are private and final, and the arrays are never exposed
+    //   observers return unmodifiable views
+
+    /**
+     * Freeze a graph into a compact snapshot. Later mutations of the graph do
+     * not affect the snapshot.
+     *
+     * @param <L> type of vertex labels in the graph
+     * @param graph graph to freeze
+     * @return an immutable graph with the same vertices and edges as graph
+     */
+    public static <L> CompactGraph<L> freeze(Graph<L> graph) {
+    	if (graph instanceof CompactGraph) {
+    		return (CompactGraph<L>) graph;
+    	}
+    	return new CompactGraph<>(graph);
+    }
+
+    private CompactGraph(Graph<L> graph) {
+    	Set<L> vertices = graph.vertices();
+    	int n = vertices.size();
+    	this.labels = vertices.toArray();
+    	this.table = new int[tableSize(n)];
+    	for (int id = 0; id < n; id++) {
+    		int slot = slotOf(labels[id]);
+    		while (table[slot] != 0) {
+    			slot = (slot + 1) & (table.length - 1);
+    		}
+    		table[slot] = id + 1;
+    	}
+
+    	// out rows, sorted by target id; each row is asked for once, since
+    	// targets() can be costly (a scan of every edge for ConcreteEdgesGraph),
+    	// and packed into one array that grows as the rows arrive
+    	this.outOffsets = new int[n + 1];
+    	long[] packed = new long[Math.max(16, n)];
+    	int edgeCount = 0;
+    	int[] inDegrees = new int[n];
+    	for (int source = 0; source < n; source++) {
+    		@SuppressWarnings("unchecked")
+    		Map<L, Integer> targetsMap = graph.targets((L) labels[source]);
+    		if (packed.length - edgeCount < targetsMap.size()) {
+    			packed = Arrays.copyOf(packed, Math.max(2 * packed.length, edgeCount + targetsMap.size()));
+    		}
+    		int start = edgeCount;
+    		for (Map.Entry<L, Integer> edge : targetsMap.entrySet()) {
+    			int target = idOf(edge.getKey());
+    			packed[edgeCount++] = ((long) target << 32) | edge.getValue();
+    			inDegrees[target]++;
+    		}
+    		Arrays.sort(packed, start, edgeCount);
+    		outOffsets[source + 1] = edgeCount;
+    	}
+    	this.outTargets = new int[edgeCount];
+    	this.outWeights = new int[edgeCount];
+    	for (int k = 0; k < edgeCount; k++) {
+    		outTargets[k] = (int) (packed[k] >>> 32);
+    		outWeights[k] = (int) packed[k];
+    	}
+
+    	// in rows by counting sort; visiting sources in id order keeps each row sorted
+    	this.inOffsets = new int[n + 1];
+    	for (int target = 0; target < n; target++) {
+    		inOffsets[target + 1] = inOffsets[target] + inDegrees[target];
+    	}
+    	this.inSources = new int[edgeCount];
+    	this.inWeights = new int[edgeCount];
+    	int[] next = Arrays.copyOf(inOffsets, n);
+    	for (int source = 0; source < n; source++) {
+    		for (int k = outOffsets[source]; k < outOffsets[source + 1]; k++) {
+    			int position = next[outTargets[k]]++;
+    			inSources[position] = source;
+    			inWeights[position] = outWeights[k];
+    		}
+    	}
+    	this.outByWeight = rankByWeight(outOffsets, outWeights);
+    	this.inByWeight = rankByWeight(inOffsets, inWeights);
+    	this.outTotals = rowTotals(outOffsets, outWeights);
+    	this.inTotals = rowTotals(inOffsets, inWeights);
+    	long total = 0;
+    	for (long rowTotal : outTotals) {
+    		total += rowTotal;
+    	}
+    	this.totalWeight = total;
+    	checkRep();
+    }
+
+    /**
+     * @return the sum of the weights of every row
+     */
+    private static long[] rowTotals(int[] offsets, int[] weights) {
+    	long[] totals = new long[offsets.length - 1];
+    	for (int id = 0; id < totals.length; id++) {
+    		for (int k = offsets[id]; k < offsets[id + 1]; k++) {
+    			totals[id] += weights[k];
+    		}
+    	}
+    	return totals;
+    }
+
+    /**
+     * @return the positions of every row, each row sorted heaviest edge first
+     */
+    private static int[] rankByWeight(int[] offsets, int[] weights) {
+    	int[] ranked = new int[weights.length];
+    	long[] packed = new long[16];
+    	for (int id = 0; id + 1 < offsets.length; id++) {
+    		int degree = offsets[id + 1] - offsets[id];
+    		if (packed.length < degree) {
+    			packed = new long[degree];
+    		}
+    		for (int i = 0; i < degree; i++) {
+    			int k = offsets[id] + i;
+    			// heavier edges get smaller keys, so an ascending sort puts them first
+    			packed[i] = ((long) (Integer.MAX_VALUE - weights[k]) << 32) | k;
+    		}
+    		Arrays.sort(packed, 0, degree);
+    		for (int i = 0; i < degree; i++) {
+    			ranked[offsets[id] + i] = (int) packed[i];
+    		}
+    	}
+    	return ranked;
+    }
+
+    private void checkRep() {
+    	if (CheckLevel.current() == CheckLevel.OFF) {
+    		return;
+    	}
+    	int n = labels.length;
+    	assert Integer.bitCount(table.length) == 1 && table.length > n:"table size should be a power of two greater than the number of vertices";
+    	assert outOffsets.length == n + 1 && inOffsets.length == n + 1:"there should be one row per vertex";
+    	assert outOffsets[n] == outTargets.length && inOffsets[n] == inSources.length && outTargets.length == inSources.length:"both directions should hold every edge";
+    	long outSum = 0;
+    	long inSum = 0;
+    	for (int id = 0; id < n; id++) {
+    		outSum += outTotals[id];
+    		inSum += inTotals[id];
+    		assert labels[id] != null && idOf(labels[id]) == id:"every label should be indexed under its own id";
+    		checkRow(outOffsets, outTargets, outWeights, id);
+    		checkRow(inOffsets, inSources, inWeights, id);
+    		checkRanking(outOffsets, outWeights, outByWeight, id);
+    		checkRanking(inOffsets, inWeights, inByWeight, id);
+    	}
+    	assert Arrays.equals(outTotals, rowTotals(outOffsets, outWeights)) && Arrays.equals(inTotals, rowTotals(inOffsets, inWeights)):"the totals should add up the rows";
+    	assert outSum == totalWeight && inSum == totalWeight:"both directions should add up to totalWeight";
+    }
+
+    private void checkRanking(int[] offsets, int[] weights, int[] ranked, int id) {
+    	for (int i = offsets[id]; i < offsets[id + 1]; i++) {
+    		assert ranked[i] >= offsets[id] && ranked[i] < offsets[id + 1]:"a ranked row should hold positions of the same row";
+    		assert i == offsets[id] || weights[ranked[i - 1]] >= weights[ranked[i]]:"a ranked row should be heaviest first";
+    	}
+    }
+
+    private void checkRow(int[] offsets, int[] neighbors, int[] weights, int id) {
+    	assert offsets[id] <= offsets[id + 1]:"offsets should be non-decreasing";
+    	for (int k = offsets[id]; k < offsets[id + 1]; k++) {
+    		assert neighbors[k] >= 0 && neighbors[k] < labels.length:"neighbor ids should be vertex ids";
+    		assert k == offsets[id] || neighbors[k - 1] < neighbors[k]:"rows should be sorted by neighbor id";
+    		assert weights[k] > 0:"weight should be positive";
+    	}
+    }
+
+    private static int tableSize(int n) {
+    	int size = 2;
+    	while (size < 2 * n) {
+    		size <<= 1;
+    	}
+    	return size;
+    }
+
+    private int slotOf(Object label) {
+    	int hash = label.hashCode();
+    	return (hash ^ (hash >>> 16)) & (table.length - 1);
+    }
+
+    /**
+     * @param label a label, possibly null
+     * @return the id of the vertex with that label, or -1 if there is none
+     */
+    int idOf(Object label) {
+    	if (label == null) {
+    		return -1;
+    	}
+    	for (int slot = slotOf(label); ; slot = (slot + 1) & (table.length - 1)) {
+    		int id = table[slot] - 1;
+    		if (id < 0 || labels[id].equals(label)) {
+    			return id;
+    		}
+    	}
+    }
+
+    /**
+     * @param id a vertex id in 0..n-1
+     * @return the label of that vertex
+     */
+    @SuppressWarnings("unchecked")
+    L label(int id) {
+    	return (L) labels[id];
+    }
+
+
+    /**
+     * @param id a vertex id
+     * @return the position of the first edge from that vertex in the out arrays
+     */
+    int outStart(int id) {
+    	return outOffsets[id];
+    }
+
+    /**
+     * @param id a vertex id
+     * @return one past the position of the last edge from that vertex in the out arrays
+     */
+    int outEnd(int id) {
+    	return outOffsets[id + 1];
+    }
+
+    /**
+     * @param k a position in the out arrays
+     * @return the id of the target of the edge at that position
+     */
+    int outTarget(int k) {
+    	return outTargets[k];
+    }
+
+    /**
+     * @param k a position in the out arrays
+     * @return the weight of the edge at that position
+     */
+    int outEdgeWeight(int k) {
+    	return outWeights[k];
+    }
+
+    /**
+     * @param id a vertex id
+     * @return the position of the first edge to that vertex in the in arrays
+     */
+    int inStart(int id) {
+    	return inOffsets[id];
+    }
+
+    /**
+     * @param id a vertex id
+     * @return one past the position of the last edge to that vertex in the in arrays
+     */
+    int inEnd(int id) {
+    	return inOffsets[id + 1];
+    }
+
+    /**
+     * @param k a position in the in arrays
+     * @return the id of the source of the edge at that position
+     */
+    int inSource(int k) {
+    	return inSources[k];
+    }
+
+    /**
+     * @param k a position in the in arrays
+     * @return the weight of the edge at that position
+     */
+    int inEdgeWeight(int k) {
+    	return inWeights[k];
+    }
+
+    /**
+     * @throws UnsupportedOperationException always, a compact graph is immutable
+     */
+    @Override public boolean add(L vertex) {
+    	throw new UnsupportedOperationException("CompactGraph is immutable");
+    }
+
+    /**
+     * @throws UnsupportedOperationException always, a compact graph is immutable
+     */
+    @Override public int set(L source, L target, int weight) {
+    	throw new UnsupportedOperationException("CompactGraph is immutable");
+    }
+
+    /**
+     * @throws UnsupportedOperationException always, a compact graph is immutable
+     */
+    @Override public boolean remove(L vertex) {
+    	throw new UnsupportedOperationException("CompactGraph is immutable");
+    }
+
+    @Override public Set<L> vertices() {
+    	return new AbstractSet<L>() {
+    		@Override public int size() {
+    			return labels.length;
+    		}
+
+    		@Override public boolean contains(Object label) {
+    			return idOf(label) >= 0;
+    		}
+
+    		@Override public Iterator<L> iterator() {
+    			return new Iterator<L>() {
+    				private int id = 0;
+
+    				@Override public boolean hasNext() {
+    					return id < labels.length;
+    				}
+
+    				@Override public L next() {
+    					if (!hasNext()) {
+    						throw new NoSuchElementException();
+    					}
+    					return label(id++);
+    				}
+    			};
+    		}
+    	};
+    }
+
+    @Override public Map<L, Integer> sources(L target) {
+    	int id = idOf(target);
+    	if (id < 0) {
+    		return Collections.emptyMap();
+    	}
+    	return new Row(inSources, inWeights, inOffsets[id], inOffsets[id + 1]);
+    }
+
+    @Override public Map<L, Integer> targets(L source) {
+    	int id = idOf(source);
+    	if (id < 0) {
+    		return Collections.emptyMap();
+    	}
+    	return new Row(outTargets, outWeights, outOffsets[id], outOffsets[id + 1]);
+    }
+
+    @Override public int weight(L source, L target) {
+    	int sourceId = idOf(source);
+    	int targetId = idOf(target);
+    	if (sourceId < 0 || targetId < 0) {
+    		return 0;
+    	}
+    	int k = Arrays.binarySearch(outTargets, outOffsets[sourceId], outOffsets[sourceId + 1], targetId);
+    	return k < 0 ? 0 : outWeights[k];
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Rows are also kept sorted by weight, so this takes O(k) time.
+     */
+    @Override public List<Map.Entry<L, Integer>> topTargets(L source, int k) {
+    	return top(idOf(source), k, outOffsets, outTargets, outWeights, outByWeight);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Rows are also kept sorted by weight, so this takes O(k) time.
+     */
+    @Override public List<Map.Entry<L, Integer>> topSources(L target, int k) {
+    	return top(idOf(target), k, inOffsets, inSources, inWeights, inByWeight);
+    }
+
+    private List<Map.Entry<L, Integer>> top(int id, int k, int[] offsets, int[] neighbors, int[] weights, int[] ranked) {
+    	if (k < 0) {
+    		throw new IllegalArgumentException("k should be non-negative: " + k);
+    	}
+    	if (id < 0) {
+    		return new ArrayList<>();
+    	}
+    	int end = (int) Math.min(offsets[id + 1], (long) offsets[id] + k);
+    	List<Map.Entry<L, Integer>> result = new ArrayList<>(end - offsets[id]);
+    	for (int i = offsets[id]; i < end; i++) {
+    		result.add(new AbstractMap.SimpleImmutableEntry<>(label(neighbors[ranked[i]]), weights[ranked[i]]));
+    	}
+    	return result;
+    }
+
+    @Override public void forEachTarget(L source, ObjIntConsumer<? super L> action) {
+    	int id = idOf(source);
+    	if (id < 0) {
+    		return;
+    	}
+    	for (int k = outOffsets[id]; k < outOffsets[id + 1]; k++) {
+    		action.accept(label(outTargets[k]), outWeights[k]);
+    	}
+    }
+
+    @Override public void forEachSource(L target, ObjIntConsumer<? super L> action) {
+    	int id = idOf(target);
+    	if (id < 0) {
+    		return;
+    	}
+    	for (int k = inOffsets[id]; k < inOffsets[id + 1]; k++) {
+    		action.accept(label(inSources[k]), inWeights[k]);
+    	}
+    }
+
+    @Override public int vertexCount() {
+    	return labels.length;
+    }
+
+    @Override public long edgeCount() {
+    	return outTargets.length;
+    }
+
+    @Override public long totalWeight() {
+    	return totalWeight;
+    }
+
+    @Override public int outDegree(L vertex) {
+    	int id = idOf(vertex);
+    	return id < 0 ? 0 : outOffsets[id + 1] - outOffsets[id];
+    }
+
+    @Override public int inDegree(L vertex) {
+    	int id = idOf(vertex);
+    	return id < 0 ? 0 : inOffsets[id + 1] - inOffsets[id];
+    }
+
+    @Override public long outWeight(L vertex) {
+    	int id = idOf(vertex);
+    	return id < 0 ? 0 : outTotals[id];
+    }
+
+    @Override public long inWeight(L vertex) {
+    	int id = idOf(vertex);
+    	return id < 0 ? 0 : inTotals[id];
+    }
+
+    @Override public double transitionProbability(L source, L target) {
+    	int weight = weight(source, target);
+    	return weight == 0 ? 0 : (double) weight / outTotals[idOf(source)];
+    }
+
+	@Override
+	public String toString() {
+		StringBuilder compactGraphString = new StringBuilder("CompactGraph{vertices=")
+				.append(vertices()).append(",edges={");
+		for (int source = 0; source < labels.length; source++) {
+			if (source > 0) {
+				compactGraphString.append(", ");
+			}
+			compactGraphString.append(labels[source]).append('=').append(targets(label(source)));
+		}
+		return compactGraphString.append("}}").toString();
+	}
+
+    /**
+     * An unmodifiable map view of one row: the neighbors of a vertex in one
+     * direction and the weights of the edges to or from them.
+     */
+    private final class Row extends AbstractMap<L, Integer> {
+
+    	private final int[] neighbors;
+    	private final int[] weights;
+    	private final int start;
+    	private final int end;
+
+    	Row(int[] neighbors, int[] weights, int start, int end) {
+    		this.neighbors = neighbors;
+    		this.weights = weights;
+    		this.start = start;
+    		this.end = end;
+    	}
+
+    	private int indexOf(Object label) {
+    		int id = idOf(label);
+    		if (id < 0) {
+    			return -1;
+    		}
+    		int k = Arrays.binarySearch(neighbors, start, end, id);
+    		return k < 0 ? -1 : k;
+    	}
+
+    	@Override public int size() {
+    		return end - start;
+    	}
+
+    	@Override public boolean containsKey(Object label) {
+    		return indexOf(label) >= 0;
+    	}
+
+    	@Override public Integer get(Object label) {
+    		int k = indexOf(label);
+    		return k < 0 ? null : weights[k];
+    	}
+
+    	@Override public Set<Map.Entry<L, Integer>> entrySet() {
+    		return new AbstractSet<Map.Entry<L, Integer>>() {
+    			@Override public int size() {
+    				return end - start;
+    			}
+
+    			@Override public Iterator<Map.Entry<L, Integer>> iterator() {
+    				return new Iterator<Map.Entry<L, Integer>>() {
+    					private int k = start;
+
+    					@Override public boolean hasNext() {
+    						return k < end;
+    					}
+
+    					@Override public Map.Entry<L, Integer> next() {
+    						if (!hasNext()) {
+    							throw new NoSuchElementException();
+    						}
+    						Map.Entry<L, Integer> entry = new AbstractMap.SimpleImmutableEntry<>(label(neighbors[k]), weights[k]);
+    						k++;
+    						return entry;
+    					}
+    				};
+    			}
+    		};
+    	}
+    }
+
+}
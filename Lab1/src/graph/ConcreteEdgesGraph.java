@@ -4,6 +4,7 @@
 package graph;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -17,21 +18,33 @@ import java.util.Set;
  * An implementation of Graph.
  * 
  * <p>PS2 instructions: you MUST use the provided rep.
+ * 
+ * <p>Besides the list of edges, the graph keeps the degrees and weight totals
+ * of every vertex and updates them in set() and remove(), so the
+ * StatisticsGraph methods take constant time instead of a scan of all edges.
  */
-public class ConcreteEdgesGraph<L> implements Graph<L> {
+public class ConcreteEdgesGraph<L> implements StatisticsGraph<L> {
     
     private final Set<L> vertices = new HashSet<>();
     private final List<Edge<L>> edges = new ArrayList<>();
+    private final Set<L> vertexView = Collections.unmodifiableSet(vertices);
+    private final Map<L, Totals> totals = new HashMap<>();
+    private long totalWeight = 0;
     
     // Abstraction function:
     //   AF(vertices, edges) = graph G(vertices, edges)
     // Representation invariant:
     //   for all edge in edges, edge's source and target must be in vertices
     //   there are no repeating elements in edges
+    //   vertexView is an unmodifiable view of vertices
+    //   totals maps every vertex, and nothing else, to the number and total
+    //     weight of the edges in edges from it and to it
+    //   totalWeight is the sum of the weights of edges
     // Safety from rep exposure:
     //   All fields are private and final
     //   vertices and edges are mutable
     //   so producer and observer should make defensive copy of them
+    //   except vertices(), which returns an unmodifiable view of vertices
     
     // TODO constructor
     public ConcreteEdgesGraph() {
@@ -39,6 +52,57 @@ public class ConcreteEdgesGraph<L> implements Graph<L> {
     }
     
     // TODO checkRep
+    /**
+     * Check the rep invariant after a mutation, as much as
+     * {@link CheckLevel#current()} asks for.
+     * 
+     * @param source label of a vertex touched by the mutation
+     * @param target label of the other vertex touched by the mutation
+     */
+    private void checkRep(L source, L target) {
+    	CheckLevel level = CheckLevel.current();
+    	if (level.checksWholeRep()) {
+    		checkRep();
+    	} else if (level.checksTouchedVertices()) {
+    		checkTotalsOf(source, target);
+    	}
+    }
+    
+    /**
+     * Check the rep around source and target in constant time, from the
+     * totals alone: each of them is a key of totals if and only if it is a
+     * vertex, and its totals are consistent with edges of positive weight;
+     * totals has one key per vertex; and the edge added last joins two
+     * vertices. Finding the edges of a vertex takes a scan of the whole list,
+     * so repeated edges and totals that disagree with the edges themselves
+     * are left to the whole-rep check.
+     */
+    private void checkTotalsOf(L source, L target) {
+    	assert this.totals.size() == this.vertices.size():"totals should map every vertex, and nothing else";
+    	assert this.totalWeight >= this.edges.size():"every edge should have a positive weight";
+    	for(L vertex : Arrays.asList(source, target)) {
+    		Totals vertexTotals = this.totals.get(vertex);
+    		assert (vertexTotals != null) == this.vertices.contains(vertex):"totals should map every vertex, and nothing else";
+    		assert vertexTotals == null || vertexTotals.isConsistent():"totals should count edges of positive weight";
+    	}
+    	if(!this.edges.isEmpty()) {
+    		Edge<L> last = this.edges.get(this.edges.size() - 1);
+    		assert this.vertices.contains(last.getSource()) && this.vertices.contains(last.getTarget()):"for all edge in edges, edge's source and target must be in vertices";
+    	}
+    }
+    
+    /**
+     * Add an edge to the totals of those of its endpoints that are keys of totalsMap.
+     */
+    private static <L> void count(Map<L, Totals> totalsMap, Edge<L> edge) {
+    	Totals sourceTotals = totalsMap.get(edge.getSource());
+    	if(sourceTotals != null)
+    		sourceTotals.addOutgoing(edge.getWeight());
+    	Totals targetTotals = totalsMap.get(edge.getTarget());
+    	if(targetTotals != null)
+    		targetTotals.addIncoming(edge.getWeight());
+    }
+    
     private void checkRep() {
     	if (this.vertices.isEmpty()) {
     		assert this.edges.isEmpty():"if G has not vertices, then it cannot have edges";
@@ -51,6 +115,17 @@ public class ConcreteEdgesGraph<L> implements Graph<L> {
     		verticesSetForEdges.add((L) edge.getTarget());
     	}
     	assert this.vertices.containsAll(verticesSetForEdges):"for all edge in edges, edge's source and target must be in vertices";
+    	Map<L, Totals> expected = new HashMap<>();
+    	for(L vertex : this.vertices) {
+    		expected.put(vertex, new Totals());
+    	}
+    	long weights = 0;
+    	for(Edge<L> edge : this.edges) {
+    		count(expected, edge);
+    		weights += edge.getWeight();
+    	}
+    	assert expected.equals(this.totals):"totals should match the edges of every vertex";
+    	assert weights == this.totalWeight:"totalWeight should add up the weights";
     }
     
     @Override public boolean add(L vertex) {
@@ -60,9 +135,10 @@ public class ConcreteEdgesGraph<L> implements Graph<L> {
     		b = false;
     	} else {
     		vertices.add(vertex);
+    		totals.put(vertex, new Totals());
     		b = true;
     	}
-    	checkRep();
+    	checkRep(vertex, vertex);
     	return b;
     }
     
@@ -96,7 +172,16 @@ public class ConcreteEdgesGraph<L> implements Graph<L> {
     		previousWeight = 0;
     		edges.add(newEdge);
     	}
-    	checkRep();
+    	if(previousWeight > 0) {
+    		totals.get(source).addOutgoing(-previousWeight);
+    		totals.get(target).addIncoming(-previousWeight);
+    	}
+    	if(weight > 0) {
+    		totals.get(source).addOutgoing(weight);
+    		totals.get(target).addIncoming(weight);
+    	}
+    	totalWeight += weight - previousWeight;
+    	checkRep(source, target);
     	return previousWeight;
     }
     
@@ -105,24 +190,37 @@ public class ConcreteEdgesGraph<L> implements Graph<L> {
     	Boolean b = false;
     	if(this.vertices.contains(vertex)) {
     		vertices.remove(vertex);
+    		totals.remove(vertex);
     		Iterator<Edge<L>> iterator = this.edges.iterator();
     		while(iterator.hasNext()) {
     			Edge<L> edge = (Edge<L>)iterator.next();
     			if(edge.getSource().equals(vertex) || edge.getTarget().equals(vertex)) {
     				iterator.remove();
+    				// the totals of vertex are gone, so only the other end is updated
+    				if(!edge.getTarget().equals(vertex))
+    					totals.get(edge.getTarget()).addIncoming(-edge.getWeight());
+    				if(!edge.getSource().equals(vertex))
+    					totals.get(edge.getSource()).addOutgoing(-edge.getWeight());
+    				totalWeight -= edge.getWeight();
     			}
     		}
     		b = true;
     	}
-    	checkRep();
+    	checkRep(vertex, vertex);
     	return b;
     }
     
+    /**
+     * {@inheritDoc}
+     * 
+     * <p>The returned set is a live unmodifiable view: it reflects later
+     * mutations of this graph. Iterating over it while the graph is mutated
+     * fails fast with ConcurrentModificationException on a best-effort basis.
+     * sources() and targets() still return copies, because with this rep every
+     * query through a live view would scan all the edges again.
+     */
     @Override public Set<L> vertices() {
-//        throw new RuntimeException("not implemented");
-    	Set<L> verticesShallowCopy = new HashSet<>(this.vertices);
-    	Set<L> unmodifiableVertices = Collections.unmodifiableSet(verticesShallowCopy);
-    	return unmodifiableVertices;
+    	return vertexView;
     }
     
     @Override public Map<L, Integer> sources(L target) {
@@ -153,6 +251,38 @@ public class ConcreteEdgesGraph<L> implements Graph<L> {
     	return unmodifiableTargetsMap;
     }
     
+    @Override public int vertexCount() {
+    	return this.vertices.size();
+    }
+    
+    @Override public long edgeCount() {
+    	return this.edges.size();
+    }
+    
+    @Override public long totalWeight() {
+    	return this.totalWeight;
+    }
+    
+    @Override public int outDegree(L vertex) {
+    	Totals vertexTotals = this.totals.get(vertex);
+    	return vertexTotals == null ? 0 : vertexTotals.outDegree;
+    }
+    
+    @Override public int inDegree(L vertex) {
+    	Totals vertexTotals = this.totals.get(vertex);
+    	return vertexTotals == null ? 0 : vertexTotals.inDegree;
+    }
+    
+    @Override public long outWeight(L vertex) {
+    	Totals vertexTotals = this.totals.get(vertex);
+    	return vertexTotals == null ? 0 : vertexTotals.outWeight;
+    }
+    
+    @Override public long inWeight(L vertex) {
+    	Totals vertexTotals = this.totals.get(vertex);
+    	return vertexTotals == null ? 0 : vertexTotals.inWeight;
+    }
+    
     // TODO toString()
 	@Override
 	public String toString() {
@@ -162,6 +292,73 @@ public class ConcreteEdgesGraph<L> implements Graph<L> {
 		return ConcreteEdgesGraphString;
 	}
     
+    /**
+     * The number and total weight of the edges from and to one vertex.
+     * Mutable.
+     */
+    private static final class Totals {
+    	
+    	private int outDegree = 0;
+    	private int inDegree = 0;
+    	private long outWeight = 0;
+    	private long inWeight = 0;
+    	
+    	// Abstraction function:
+    	//   AF(outDegree, inDegree, outWeight, inWeight) = a vertex with outDegree
+    	//     edges from it of total weight outWeight, and inDegree edges to it of
+    	//     total weight inWeight
+    	// Representation invariant:
+    	//   all fields are non-negative
+    	// Safety from rep exposure:
+    	//   the class is private to ConcreteEdgesGraph
+    	
+    	/**
+    	 * Count an edge from the vertex, or uncount it if weight is negative.
+    	 */
+    	void addOutgoing(int weight) {
+    		outDegree += Integer.signum(weight);
+    		outWeight += weight;
+    	}
+    	
+    	/**
+    	 * Count an edge to the vertex, or uncount it if weight is negative.
+    	 */
+    	void addIncoming(int weight) {
+    		inDegree += Integer.signum(weight);
+    		inWeight += weight;
+    	}
+    	
+    	/**
+    	 * @return true iff these totals can count edges of positive weight:
+    	 *         every edge adds at least 1 to its weight total
+    	 */
+    	boolean isConsistent() {
+    		return outDegree >= 0 && outWeight >= outDegree && (outDegree == 0) == (outWeight == 0)
+    				&& inDegree >= 0 && inWeight >= inDegree && (inDegree == 0) == (inWeight == 0);
+    	}
+    	
+    	@Override
+    	public boolean equals(Object obj) {
+    		if (!(obj instanceof Totals))
+    			return false;
+    		Totals other = (Totals) obj;
+    		return outDegree == other.outDegree && inDegree == other.inDegree && outWeight == other.outWeight && inWeight == other.inWeight;
+    	}
+    	
+    	@Override
+    	public int hashCode() {
+    		return Objects.hash(outDegree, inDegree, outWeight, inWeight);
+    	}
+    	
+    	@Override
+    	public String toString() {
+    		String totalsString = "Totals{" + "outDegree=" + outDegree + ",inDegree=" + inDegree
+    				+ ",outWeight=" + outWeight + ",inWeight=" + inWeight + "}";
+    		return totalsString;
+    	}
+    	
+    }
+    
 }
 
 /**
@@ -175,7 +372,7 @@ final class Edge<L> {
     // TODO fields
 	private final L source;
 	private final L target;
-	private Integer weight;
+	private final int weight;
     
     // Abstraction function:
     //   AF(source, target, weight) = an edge with weight from source to target
@@ -194,7 +391,7 @@ final class Edge<L> {
 	 * @param target vertex that the edge to
 	 * @param weight weight of the edge from source to target
 	 */
-	public Edge(L source, L target, Integer weight) {
+	public Edge(L source, L target, int weight) {
 		this.source = source;
 		this.target = target;
 		this.weight = weight;
@@ -233,7 +430,11 @@ final class Edge<L> {
     
     @Override
 	public int hashCode() {
-		return Objects.hash(source, target, weight);
+		// the same value as Objects.hash(source, target, weight), without boxing
+		// weight or allocating the varargs array
+		int result = 31 + Objects.hashCode(source);
+		result = 31 * result + Objects.hashCode(target);
+		return 31 * result + weight;
 	}
     
     // TODO toString()
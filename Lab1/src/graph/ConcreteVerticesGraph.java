@@ -3,30 +3,41 @@
  */
 package graph;
 
-import static org.junit.Assert.*;
-
-import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
-import java.util.List;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.function.ObjIntConsumer;
 
 /**
  * An implementation of Graph.
  * 
  * <p>PS2 instructions: you MUST use the provided rep.
+ * 
+ * <p>Degrees and weight totals come from the size and sum of each vertex's
+ * maps, and set() keeps the edge count and total weight up to date, so the
+ * StatisticsGraph methods take constant time.
+ * 
+ * <p>The keys of every predecessorMap and successorMap are the very instances
+ * held as the labels of the vertices, so a label is stored once however many
+ * edges it has, and comparing it against a key succeeds on identity.
  */
-public class ConcreteVerticesGraph<L> implements Graph<L> {
+public class ConcreteVerticesGraph<L> implements WeightedGraph<L>, StatisticsGraph<L> {
     
-    private final List<Vertex<L>> vertices = new ArrayList<>();
+    private final Map<L, Vertex<L>> index = new LinkedHashMap<>();
+    private final Collection<Vertex<L>> vertices = Collections.unmodifiableCollection(index.values());
+    private final Set<L> vertexView = Collections.unmodifiableSet(index.keySet());
+    private long edgeCount = 0;
+    private long totalWeight = 0;
     
     // Abstraction function:
     //   AF(vertices) = a graph that
-    //     its vertices are all the labels in the List(vertices)
+    //     its vertices are all the labels of the vertices in index, in the
+    //       order they were added
     //     for any vertex, its predecessors are stored as key in its predecessorMap
     //       for a key value pair in this map
     //       the value corresponding to the key are the weight of edge from the predecessor to this vertex
@@ -34,10 +45,19 @@ public class ConcreteVerticesGraph<L> implements Graph<L> {
     // Representation invariant:
 	//     the key of elements in predecessorMap or successorMap belongs to the set of all labels in Vertex
 	//     if A is the predecessor of B, B is the successor of A and their weight are the same, vice versa
-	//     there are no repeating elements in vertices
+	//     index maps the label of every vertex to that vertex, and has no other keys
+	//     vertices is an unmodifiable view of index.values(), so a vertex is
+	//       added and removed in constant time
+	//     every key of a predecessorMap or successorMap is the same instance as
+	//       the label of the vertex it names
+	//     vertexView is an unmodifiable view of index.keySet()
+	//     edgeCount is the number of entries in all the successorMaps, and
+	//       totalWeight is the sum of their values
     // Safety from rep exposure:
-    //   vertices is private and final but mutable
-    //   producer and observer should make defensive copy of it
+    //   index is private and final but mutable, and vertices is a view of it
+    //   producer should make defensive copy of them
+    //   observers return unmodifiable views, which reflect later mutations of
+    //   the graph but cannot be used to mutate it
     
     // TODO constructor
     public ConcreteVerticesGraph() {
@@ -45,10 +65,50 @@ public class ConcreteVerticesGraph<L> implements Graph<L> {
     }
     
     // TODO checkRep
+    /**
+     * Check the rep invariant after a mutation, as much as
+     * {@link CheckLevel#current()} asks for.
+     * 
+     * @param source label of a vertex touched by the mutation
+     * @param target label of the other vertex touched by the mutation
+     */
+    private void checkRep(L source, L target) {
+    	CheckLevel level = CheckLevel.current();
+    	if (level.checksWholeRep()) {
+    		checkRep();
+    	} else if (level.checksTouchedVertices()) {
+    		checkVertex(source);
+    		checkVertex(target);
+    	}
+    }
+    
+    /**
+     * Check the rep invariant around one vertex: it is indexed under its
+     * label, and each of its edges is stored at the other end with the same weight.
+     * 
+     * @param label label of the vertex to check
+     */
+    private void checkVertex(L label) {
+    	Vertex<L> vertex = this.filterByLabel(label);
+    	if(vertex == null)
+    		return;
+    	assert vertex.getLabel().equals(label):"index should map the label of every vertex to that vertex";
+    	vertex.predecessorWeights().forEach((source, weight) -> {
+    		Vertex<L> sourceVertex = this.filterByLabel(source);
+    		assert sourceVertex != null:"the key of elements in predecessorMap should belong to the set of all labels in Vertex";
+    		assert sourceVertex.successorWeights().get(label) == weight:"if A is the predecessor of B, B is the successor of A with the same weight";
+    	});
+    	vertex.successorWeights().forEach((target, weight) -> {
+    		Vertex<L> targetVertex = this.filterByLabel(target);
+    		assert targetVertex != null:"the key of elements in successorMap should belong to the set of all labels in Vertex";
+    		assert targetVertex.predecessorWeights().get(label) == weight:"if A is the successor of B, B is the predecessor of A with the same weight";
+    	});
+    }
+    
     /**
      * the key of elements in predecessorMap or successorMap belongs to the set of all labels in Vertex
      * if A is the predecessor of B, B is the successor of A and their weight are the same, vice versa
-     * there are no repeating elements in vertices
+     * index maps the label of every vertex in vertices to that vertex
      */
     public void checkRep() {
     	Set<L> labelSet = new HashSet<>();
@@ -60,9 +120,9 @@ public class ConcreteVerticesGraph<L> implements Graph<L> {
     		Iterator<Map.Entry<L, Integer>> iteratorPredecessorMap = next.getPredecessorMap().entrySet().iterator();
     		while (iteratorPredecessorMap.hasNext()){
     			Map.Entry<L, Integer> nextEntry = iteratorPredecessorMap.next();
-    			if(!this.vertices().contains(nextEntry.getKey()))
-    				continue;
     			Vertex<L> sourceVertex = this.filterByLabel(nextEntry.getKey());
+    			if(sourceVertex == null)
+    				continue;
     			Map<L, Integer> newSuccessorMap = sourceVertex.getSuccessorMap();
     			assert newSuccessorMap.keySet().contains(next.getLabel()):"if A is the predecessor of B, B is the successor of A, vice versa";
     			assert newSuccessorMap.get(next.getLabel()).equals(nextEntry.getValue()):"the weight from A to B are stored in two places:A's successorMap and B's predecessorMap, they shpuld be equal";
@@ -70,60 +130,79 @@ public class ConcreteVerticesGraph<L> implements Graph<L> {
     		Iterator<Map.Entry<L, Integer>> iteratorSuccessorMap = next.getSuccessorMap().entrySet().iterator();
     		while (iteratorSuccessorMap.hasNext()){
     			Map.Entry<L, Integer> nextEntry = iteratorSuccessorMap.next();
-    			if(!this.vertices().contains(nextEntry.getKey()))
-    				continue;
     			Vertex<L> targetVertex = this.filterByLabel(nextEntry.getKey());
+    			if(targetVertex == null)
+    				continue;
     			Map<L, Integer> newPredecessorMap = targetVertex.getPredecessorMap();
     			assert newPredecessorMap.keySet().contains(next.getLabel()):"if A is the predecessor of B, B is the successor of A, vice versa";
     			assert newPredecessorMap.get(next.getLabel()).equals(nextEntry.getValue()):"the weight from A to B are stored in two places:A's successorMap and B's predecessorMap, they shpuld be equal";
     		}
     	}
-    	assert this.vertices().containsAll(labelSet):"the key of elements in predecessorMap or successorMap should belong to the set of all labels in Vertex";
-    	assert this.vertices().size() == this.vertices.size():"there should be no repeating elements in vertices";
+    	assert this.index.keySet().containsAll(labelSet):"the key of elements in predecessorMap or successorMap should belong to the set of all labels in Vertex";
+    	long edges = 0;
+    	long weights = 0;
+    	for(Vertex<L> vertex : this.vertices) {
+    		assert this.index.get(vertex.getLabel()) == vertex:"index should map the label of every vertex to that vertex";
+    		vertex.successorWeights().forEach((target, weight) -> {
+    			assert this.index.get(target).getLabel() == target:"keys should be the labels the vertices hold";
+    		});
+    		edges += vertex.successorWeights().size();
+    		weights += vertex.successorWeights().sum();
+    	}
+    	assert edges == this.edgeCount:"edgeCount should count the edges";
+    	assert weights == this.totalWeight:"totalWeight should add up the weights";
     }
     
+    /**
+     * Look up a vertex by its label.
+     * 
+     * @param label label of the vertex
+     * @return the vertex in vertices whose label is label, or null if there is no such vertex
+     */
     private Vertex<L> filterByLabel(L label){
-    	List<Vertex<L>> vertexListFilteredByLabel = this.vertices.stream().filter(item -> item.getLabel().equals(label)).collect(Collectors.toList());
-    	return vertexListFilteredByLabel.get(0);
+    	return this.index.get(label);
     }
     
     @Override public boolean add(L vertex) {
 //        throw new RuntimeException("not implemented");
     	Boolean b = false;
-    	Map<L, Integer> predecessorMap = new HashMap<>();
-    	Map<L, Integer> successorMap = new HashMap<>();
-    	Vertex<L> newVertex = new Vertex<L>(vertex, predecessorMap, successorMap);
-    	Set<L> labelSet = this.vertices();
-    	if(!labelSet.contains(vertex)) {
+    	if(!this.index.containsKey(vertex)) {
     		b = true;
-    		this.vertices.add(newVertex);
+    		Vertex<L> newVertex = new Vertex<L>(vertex, Collections.emptyMap(), Collections.emptyMap());
+    		this.index.put(vertex, newVertex);
     	}
-    	checkRep();
+    	checkRep(vertex, vertex);
     	return b;
     }
     
     @Override public int set(L source, L target, int weight) {
 //        throw new RuntimeException("not implemented");
-    	if(!this.vertices().contains(source)) {
+    	if(!this.index.containsKey(source)) {
     		this.add(source);
     	}
-    	if(!this.vertices().contains(target)) {
+    	if(!this.index.containsKey(target)) {
     		this.add(target);
     	}
     	Vertex<L> sourceVertex = this.filterByLabel(source);
     	Vertex<L> targetVertex = this.filterByLabel(target);
-    	int result = sourceVertex.addEdgeToTarget(target, weight);
-    	targetVertex.addEdgeFromSource(source, weight);
-    	checkRep();
+    	// key the maps by the labels the vertices hold, so each label is stored once
+    	int result = sourceVertex.addEdgeToTarget(targetVertex.getLabel(), weight);
+    	targetVertex.addEdgeFromSource(sourceVertex.getLabel(), weight);
+    	if(result == 0 && weight > 0)
+    		this.edgeCount++;
+    	else if(result > 0 && weight == 0)
+    		this.edgeCount--;
+    	this.totalWeight += weight - result;
+    	checkRep(source, target);
     	return result;
     }
     
     @Override public boolean remove(L vertex) {
 //        throw new RuntimeException("not implemented");
     	Boolean b = false;
-    	if(this.vertices().contains(vertex)) {
+    	Vertex<L> theVertexToRemove = this.filterByLabel(vertex);
+    	if(theVertexToRemove != null) {
     		b = true;
-    		Vertex<L> theVertexToRemove = this.filterByLabel(vertex);
     		Iterator<Map.Entry<L, Integer>> iterator = theVertexToRemove.getPredecessorMap().entrySet().iterator();
     		while (iterator.hasNext()){
     			// TODO
@@ -135,40 +214,102 @@ public class ConcreteVerticesGraph<L> implements Graph<L> {
     			Map.Entry<L, Integer> next = iterator2.next();
     			this.set(vertex, next.getKey(), 0);
     		}
-    		this.vertices.remove(theVertexToRemove);
+    		this.index.remove(vertex);
     	}
-    	checkRep();
+    	checkRep(vertex, vertex);
     	return b;
     }
     
+    /**
+     * {@inheritDoc}
+     * 
+     * <p>The returned set is a live unmodifiable view: it reflects later
+     * mutations of this graph. Iterating over it while the graph is mutated
+     * fails fast with ConcurrentModificationException on a best-effort basis.
+     */
     @Override public Set<L> vertices() {
-//        throw new RuntimeException("not implemented");
-    	List<L> labelList = (List<L>) this.vertices.stream().map(Vertex<L>::getLabel).distinct().collect(Collectors.toList());
-    	Set<L> verticesShallowCopy = new HashSet<>(labelList);
-    	Set<L> unmodifiableVertices = Collections.unmodifiableSet(verticesShallowCopy);
-    	return unmodifiableVertices;
+    	return vertexView;
     }
     
+    /**
+     * {@inheritDoc}
+     * 
+     * <p>The returned map is a live unmodifiable view, with the same behavior
+     * under mutation as {@link #vertices()}.
+     */
     @Override public Map<L, Integer> sources(L target) {
-//        throw new RuntimeException("not implemented");
-    	Map<L, Integer> newSourcesMap = new HashMap<>();
-    	if(this.vertices().size() > 0) {
-    		Vertex<L> newVertex = this.filterByLabel(target);
-    		newSourcesMap.putAll(newVertex.getPredecessorMap());
-    	}
-    	Map<L, Integer> unmodifiableSourcesMap = Collections.unmodifiableMap(newSourcesMap);
-    	return unmodifiableSourcesMap;
+    	return new NeighborMapView<>(() -> {
+    		Vertex<L> vertex = this.filterByLabel(target);
+    		return vertex == null ? Collections.emptyMap() : vertex.predecessors();
+    	});
     }
     
+    /**
+     * {@inheritDoc}
+     * 
+     * <p>The returned map is a live unmodifiable view, with the same behavior
+     * under mutation as {@link #vertices()}.
+     */
     @Override public Map<L, Integer> targets(L source) {
-//        throw new RuntimeException("not implemented");
-    	Map<L, Integer> newTargetsMap = new HashMap<>();
-    	if(this.vertices().size() > 0) {
-    		Vertex<L> newVertex = this.filterByLabel(source);
-    		newTargetsMap.putAll(newVertex.getSuccessorMap());
-    	}
-    	Map<L, Integer> unmodifiableTargetsMap = Collections.unmodifiableMap(newTargetsMap);
-    	return unmodifiableTargetsMap;
+    	return new NeighborMapView<>(() -> {
+    		Vertex<L> vertex = this.filterByLabel(source);
+    		return vertex == null ? Collections.emptyMap() : vertex.successors();
+    	});
+    }
+    
+    @Override public int weight(L source, L target) {
+    	Vertex<L> vertex = this.filterByLabel(source);
+    	return vertex == null ? 0 : vertex.successorWeights().get(target);
+    }
+    
+    @Override public void forEachTarget(L source, ObjIntConsumer<? super L> action) {
+    	Vertex<L> vertex = this.filterByLabel(source);
+    	if(vertex != null)
+    		vertex.successorWeights().forEach(action);
+    }
+    
+    @Override public void forEachSource(L target, ObjIntConsumer<? super L> action) {
+    	Vertex<L> vertex = this.filterByLabel(target);
+    	if(vertex != null)
+    		vertex.predecessorWeights().forEach(action);
+    }
+    
+    @Override public int vertexCount() {
+    	return this.index.size();
+    }
+    
+    @Override public long edgeCount() {
+    	return this.edgeCount;
+    }
+    
+    @Override public long totalWeight() {
+    	return this.totalWeight;
+    }
+    
+    @Override public int outDegree(L vertex) {
+    	Vertex<L> theVertex = this.filterByLabel(vertex);
+    	return theVertex == null ? 0 : theVertex.successorWeights().size();
+    }
+    
+    @Override public int inDegree(L vertex) {
+    	Vertex<L> theVertex = this.filterByLabel(vertex);
+    	return theVertex == null ? 0 : theVertex.predecessorWeights().size();
+    }
+    
+    @Override public long outWeight(L vertex) {
+    	Vertex<L> theVertex = this.filterByLabel(vertex);
+    	return theVertex == null ? 0 : theVertex.successorWeights().sum();
+    }
+    
+    @Override public long inWeight(L vertex) {
+    	Vertex<L> theVertex = this.filterByLabel(vertex);
+    	return theVertex == null ? 0 : theVertex.predecessorWeights().sum();
+    }
+    
+    @Override public double transitionProbability(L source, L target) {
+    	Vertex<L> vertex = this.filterByLabel(source);
+    	int weight = vertex == null ? 0 : vertex.successorWeights().get(target);
+    	return weight == 0 ? 0 : (double) weight / vertex.successorWeights().sum();
     }
     
     // TODO toString()
@@ -191,8 +332,8 @@ class Vertex<L> {
     
     // TODO fields
 	private L label;
-	private Map<L, Integer> predecessorMap = new HashMap<>();
-	private Map<L, Integer> successorMap = new HashMap<>();
+	private final ObjectIntMap<L> predecessorMap = new ObjectIntMap<>();
+	private final ObjectIntMap<L> successorMap = new ObjectIntMap<>();
     
     // Abstraction function:
     //   AF(label, predecessorMap, successorMap) = 
@@ -208,29 +349,38 @@ class Vertex<L> {
     //   Safety from rep exposure:
     //     label is immutable
 	//     two Maps are mutable so let the constructor return  defensive copies
+	//     the weights are stored unboxed in ObjectIntMaps, and getters return
+	//     copies or unmodifiable views of them
     
     // TODO constructor
 	public Vertex(L label, Map<L, Integer> predecessorMap, Map<L, Integer> successorMap) {
 		this.label = label;
-		// the method putAll() is a shallow copy
-		this.predecessorMap.putAll(predecessorMap);
-		this.successorMap.putAll(successorMap);
+		// a shallow copy
+		setPredecessorMap(predecessorMap);
+		setSuccessorMap(successorMap);
 	}
     
     // TODO checkRep
 	public void checkRep() {
-		assertFalse("expected that label is non-null", label == null);
-		Iterator<Map.Entry<L, Integer>> iterator = predecessorMap.entrySet().iterator();
-		while (iterator.hasNext()){
-			Map.Entry<L, Integer> next = iterator.next();
-			assertFalse("expected that key is non-null", next.getKey() == null);
-			assertTrue("expected that value is positive", next.getValue() > 0);
-		}
-		Iterator<Map.Entry<L, Integer>> iterator2 = successorMap.entrySet().iterator();
-		while (iterator2.hasNext()){
-			Map.Entry<L, Integer> next = iterator2.next();
-			assertFalse("expected that key is non-null", next.getKey() == null);
-			assertTrue("expected that value is positive", next.getValue() > 0);
+		assert label != null:"expected that label is non-null";
+		predecessorMap.forEach((key, value) -> {
+			assert key != null:"expected that key is non-null";
+			assert value > 0:"expected that value is positive";
+		});
+		successorMap.forEach((key, value) -> {
+			assert key != null:"expected that key is non-null";
+			assert value > 0:"expected that value is positive";
+		});
+	}
+	
+	/**
+	 * Check the rep after a mutation unless {@link CheckLevel#current()} is OFF
+	 * or a SAMPLED level skips this mutation.
+	 */
+	private void checkRepAfterMutation() {
+		CheckLevel level = CheckLevel.current();
+		if (level.checksWholeRep() || level.checksTouchedVertices()) {
+			checkRep();
 		}
 	}
     
@@ -245,59 +395,71 @@ class Vertex<L> {
 
 	public Map<L, Integer> getPredecessorMap() {
 		Map<L, Integer> map = new HashMap<>();
-		map.putAll(predecessorMap);
+		map.putAll(predecessorMap.asMap());
 		return map;
 	}
 
+	/**
+	 * @return an unmodifiable view of the predecessors of this vertex and the
+	 *         weights of the edges from them, without copying
+	 */
+	Map<L, Integer> predecessors() {
+		return predecessorMap.asMap();
+	}
+
+	/**
+	 * @return the weights of the edges from the predecessors of this vertex,
+	 *         unboxed; callers must not mutate it
+	 */
+	ObjectIntMap<L> predecessorWeights() {
+		return predecessorMap;
+	}
+
 	public void setPredecessorMap(Map<L, Integer> predecessorMap) {
-		this.predecessorMap.putAll(predecessorMap);
+		for (Map.Entry<L, Integer> entry : predecessorMap.entrySet()) {
+			this.predecessorMap.put(entry.getKey(), entry.getValue());
+		}
 	}
 
 	public Map<L, Integer> getSuccessorMap() {
 		Map<L, Integer> map = new HashMap<>();
-		map.putAll(successorMap);
+		map.putAll(successorMap.asMap());
 		return map;
 	}
 
+	/**
+	 * @return an unmodifiable view of the successors of this vertex and the
+	 *         weights of the edges to them, without copying
+	 */
+	Map<L, Integer> successors() {
+		return successorMap.asMap();
+	}
+
+	/**
+	 * @return the weights of the edges to the successors of this vertex,
+	 *         unboxed; callers must not mutate it
+	 */
+	ObjectIntMap<L> successorWeights() {
+		return successorMap;
+	}
+
 	public void setSuccessorMap(Map<L, Integer> successorMap) {
-		this.successorMap.putAll(successorMap);
+		for (Map.Entry<L, Integer> entry : successorMap.entrySet()) {
+			this.successorMap.put(entry.getKey(), entry.getValue());
+		}
 	}
 	
-	public int addEdgeToTarget(L label, Integer weight) {
-		int previousWeight = 0;
-		if(!this.successorMap.containsKey(label) && weight > 0) {
-			// add
-			previousWeight = 0;
-			this.successorMap.put(label, weight);
-		} else if(this.successorMap.containsKey(label) && weight > 0) {
-			// change
-			previousWeight = this.successorMap.get(label);
-			this.successorMap.put(label, weight);
-		} else if(this.successorMap.containsKey(label) && weight == 0) {
-			// remove
-			previousWeight = this.successorMap.get(label);
-			this.successorMap.remove(label);
-		}
-		checkRep();
+	public int addEdgeToTarget(L label, int weight) {
+		// add or change, or remove if weight is 0
+		int previousWeight = weight > 0 ? this.successorMap.put(label, weight) : this.successorMap.remove(label);
+		checkRepAfterMutation();
 		return previousWeight;
 	}
 	
-	public int addEdgeFromSource(L label, Integer weight) {
-		int previousWeight = 0;
-		if(!this.predecessorMap.containsKey(label) && weight > 0) {
-			// add
-			previousWeight = 0;
-			this.predecessorMap.put(label, weight);
-		} else if(this.predecessorMap.containsKey(label) && weight > 0) {
-			// change
-			previousWeight = this.predecessorMap.get(label);
-			this.predecessorMap.put(label, weight);
-		} else if(this.predecessorMap.containsKey(label) && weight == 0) {
-			// remove
-			previousWeight = this.predecessorMap.get(label);
-			this.predecessorMap.remove(label);
-		}
-		checkRep();
+	public int addEdgeFromSource(L label, int weight) {
+		// add or change, or remove if weight is 0
+		int previousWeight = weight > 0 ? this.predecessorMap.put(label, weight) : this.predecessorMap.remove(label);
+		checkRepAfterMutation();
 		return previousWeight;
 	}
     
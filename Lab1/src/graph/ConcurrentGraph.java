@@ -0,0 +1,293 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A thread-safe implementation of Graph.
+ *
+ * <p>Like AdjacencyMapGraph, every vertex owns a map of its outgoing edges and
+ * a map of its incoming edges, but all the maps are ConcurrentHashMaps and
+ * writers coordinate with two kinds of locks:
+ * <ul><li> add() and set() hold a lock stripe for each vertex they touch, so
+ *          writers on disjoint pairs of vertices proceed in parallel;
+ *     <li> remove() holds an exclusive lock that add() and set() share, so the
+ *          vertex and all of its incident edges disappear atomically. </ul>
+ *
+ * <p>vertices(), sources() and targets() take no locks and never block
+ * writers. They return live unmodifiable views that are weakly consistent:
+ * they reflect each completed set() and add() as a whole and never throw
+ * ConcurrentModificationException, but while a remove() is in progress a
+ * reader may see some of the removed vertex's edges and not others.
+ *
+ * @param <L> type of vertex labels in this graph, must be immutable
+ */
+public class ConcurrentGraph<L> implements Graph<L> {
+
+    private static final int STRIPES = 64;
+
+    private final Map<L, Map<L, Integer>> outgoing = new ConcurrentHashMap<>();
+    private final Map<L, Map<L, Integer>> incoming = new ConcurrentHashMap<>();
+    private final Set<L> vertexView = Collections.unmodifiableSet(outgoing.keySet());
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+    private final ReentrantReadWriteLock structure = new ReentrantReadWriteLock();
+
+    // Abstraction function:
+    //   AF(outgoing, incoming) = a graph whose vertices are the keys of outgoing,
+    //     with an edge from s to t of weight w for every outgoing[s][t] = w
+    //     incoming is the same set of edges indexed by target
+    // Representation invariant (whenever no writer holds the locks below):
+    //   outgoing and incoming have the same key set
+    //   outgoing[s][t] = w if and only if incoming[t][s] = w
+    //   every key of the inner maps is a vertex, every weight is positive
+    //   vertexView is an unmodifiable view of outgoing.keySet()
+    // Thread safety argument:
+    //   outgoing[s][t] and incoming[t][s] are only written by a thread that
+    //     holds the stripes of both s and t and the read lock of structure,
+    //     or the write lock of structure
+    //   stripes are always acquired in increasing index order, after the read
+    //     lock, so writers cannot deadlock
+    //   a vertex is put into incoming before outgoing, so a vertex visible
+    //     in vertices() always has both maps
+    //   every map is a ConcurrentHashMap, so readers need no lock
+    // Safety from rep exposure:
+    //   all fields are private and final
+    //   observers return unmodifiable views
+
+    /**
+     * Create an empty graph.
+     */
+    public ConcurrentGraph() {
+    	for (int i = 0; i < STRIPES; i++) {
+    		stripes[i] = new ReentrantLock();
+    	}
+    }
+
+    private int stripeOf(L vertex) {
+    	int hash = vertex.hashCode();
+    	return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+
+    /**
+     * Lock the stripes of two vertices in index order, after the read lock.
+     *
+     * @return the stripes to release with unlock(), in release order
+     */
+    private ReentrantLock[] lock(L source, L target) {
+    	int first = stripeOf(source);
+    	int second = stripeOf(target);
+    	structure.readLock().lock();
+    	if (first == second) {
+    		stripes[first].lock();
+    		return new ReentrantLock[] { stripes[first] };
+    	}
+    	ReentrantLock low = stripes[Math.min(first, second)];
+    	ReentrantLock high = stripes[Math.max(first, second)];
+    	low.lock();
+    	high.lock();
+    	return new ReentrantLock[] { high, low };
+    }
+
+    private void unlock(ReentrantLock[] held) {
+    	for (ReentrantLock lock : held) {
+    		lock.unlock();
+    	}
+    	structure.readLock().unlock();
+    }
+
+    /**
+     * Check the rep invariant around the vertices a mutation touched, as much
+     * as {@link CheckLevel#current()} asks for, while their stripes are still
+     * held, since no other writer can change their edges then. add() and
+     * set() never check the whole rep, even at FULL: that would take the
+     * write lock after every mutation and serialize all writers. A FULL or
+     * sampled mutation checks its touched vertices instead, and checkRep()
+     * checks the whole rep on demand.
+     */
+    private void checkTouched(CheckLevel level, L source, L target) {
+    	if (level.checksWholeRep() || level.checksTouchedVertices()) {
+    		checkVertex(source);
+    		checkVertex(target);
+    	}
+    }
+
+    /**
+     * Check the whole rep invariant. Takes the write lock, so it waits for the
+     * writers in progress and holds off new ones until it is done; call it
+     * once writers are finished, for example after the threads of a test
+     * have joined.
+     */
+    void checkRep() {
+    	structure.writeLock().lock();
+    	try {
+    		checkAllVertices();
+    	} finally {
+    		structure.writeLock().unlock();
+    	}
+    }
+
+    /**
+     * Check the whole rep invariant; the caller must hold the write lock.
+     */
+    private void checkAllVertices() {
+    	assert outgoing.keySet().equals(incoming.keySet()):"outgoing and incoming should have the same key set";
+    	for (L vertex : outgoing.keySet()) {
+    		checkVertex(vertex);
+    	}
+    }
+
+    /**
+     * Check the rep invariant around one vertex: each of its edges is stored
+     * at the other end with the same positive weight. The caller must hold the
+     * stripe of the vertex or the write lock.
+     */
+    private void checkVertex(L vertex) {
+    	Map<L, Integer> targetsMap = outgoing.get(vertex);
+    	if (targetsMap == null) {
+    		return;
+    	}
+    	Map<L, Integer> sourcesMap = incoming.get(vertex);
+    	assert sourcesMap != null:"a vertex should be a key of both outgoing and incoming";
+    	for (Map.Entry<L, Integer> entry : targetsMap.entrySet()) {
+    		assert entry.getValue() > 0:"weight should be positive";
+    		Map<L, Integer> mirror = incoming.get(entry.getKey());
+    		assert mirror != null && entry.getValue().equals(mirror.get(vertex)):"an outgoing edge should be stored as an incoming edge of its target";
+    	}
+    	for (Map.Entry<L, Integer> entry : sourcesMap.entrySet()) {
+    		assert entry.getValue() > 0:"weight should be positive";
+    		Map<L, Integer> mirror = outgoing.get(entry.getKey());
+    		assert mirror != null && entry.getValue().equals(mirror.get(vertex)):"an incoming edge should be stored as an outgoing edge of its source";
+    	}
+    }
+
+    /**
+     * Add a vertex; the caller must hold its stripe.
+     */
+    private boolean addLocked(L vertex) {
+    	if (outgoing.containsKey(vertex)) {
+    		return false;
+    	}
+    	incoming.put(vertex, new ConcurrentHashMap<>());
+    	outgoing.put(vertex, new ConcurrentHashMap<>());
+    	return true;
+    }
+
+    @Override public boolean add(L vertex) {
+    	CheckLevel level = CheckLevel.current();
+    	boolean added;
+    	ReentrantLock[] held = lock(vertex, vertex);
+    	try {
+    		added = addLocked(vertex);
+    		checkTouched(level, vertex, vertex);
+    	} finally {
+    		unlock(held);
+    	}
+    	return added;
+    }
+
+    @Override public int set(L source, L target, int weight) {
+    	assert weight >= 0:"weight should be non-negative";
+    	CheckLevel level = CheckLevel.current();
+    	Integer previousWeight;
+    	ReentrantLock[] held = lock(source, target);
+    	try {
+    		if (weight == 0) {
+    			Map<L, Integer> targetsMap = outgoing.get(source);
+    			previousWeight = targetsMap == null ? null : targetsMap.remove(target);
+    			if (previousWeight != null) {
+    				incoming.get(target).remove(source);
+    			}
+    		} else {
+    			addLocked(source);
+    			addLocked(target);
+    			previousWeight = outgoing.get(source).put(target, weight);
+    			incoming.get(target).put(source, weight);
+    		}
+    		checkTouched(level, source, target);
+    	} finally {
+    		unlock(held);
+    	}
+    	return previousWeight == null ? 0 : previousWeight;
+    }
+
+    @Override public boolean remove(L vertex) {
+    	CheckLevel level = CheckLevel.current();
+    	structure.writeLock().lock();
+    	try {
+    		Map<L, Integer> targetsMap = outgoing.remove(vertex);
+    		if (targetsMap == null) {
+    			return false;
+    		}
+    		Map<L, Integer> sourcesMap = incoming.remove(vertex);
+    		for (L target : targetsMap.keySet()) {
+    			Map<L, Integer> mirror = incoming.get(target);
+    			if (mirror != null) {
+    				mirror.remove(vertex);
+    			}
+    		}
+    		for (L source : sourcesMap.keySet()) {
+    			Map<L, Integer> mirror = outgoing.get(source);
+    			if (mirror != null) {
+    				mirror.remove(vertex);
+    			}
+    		}
+    		// remove() already holds the write lock, so it can afford the whole rep
+    		if (level.checksWholeRep()) {
+    			checkAllVertices();
+    		} else if (level.checksTouchedVertices()) {
+    			for (L target : targetsMap.keySet()) {
+    				checkVertex(target);
+    			}
+    			for (L source : sourcesMap.keySet()) {
+    				checkVertex(source);
+    			}
+    		}
+    	} finally {
+    		structure.writeLock().unlock();
+    	}
+    	return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The returned set is a live, weakly consistent, unmodifiable view.
+     */
+    @Override public Set<L> vertices() {
+    	return vertexView;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The returned map is a live, weakly consistent, unmodifiable view.
+     */
+    @Override public Map<L, Integer> sources(L target) {
+    	return new NeighborMapView<>(() -> incoming.getOrDefault(target, Collections.emptyMap()));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The returned map is a live, weakly consistent, unmodifiable view.
+     */
+    @Override public Map<L, Integer> targets(L source) {
+    	return new NeighborMapView<>(() -> outgoing.getOrDefault(source, Collections.emptyMap()));
+    }
+
+	@Override
+	public String toString() {
+		String concurrentGraphString = "ConcurrentGraph{"
+				+ "vertices=" + outgoing.keySet()
+				+ ",edges=" + outgoing + "}";
+		return concurrentGraphString;
+	}
+
+}
@@ -0,0 +1,221 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A mutable builder that collects weighted directed edges in bulk and then
+ * produces a Graph in one step.
+ *
+ * <p>Unlike calling {@link Graph#set(Object, Object, int)} once per edge, the
+ * builder does not check any rep invariant while edges are collected: the
+ * graph returned by {@link #build()} checks its rep once, as much as
+ * {@link CheckLevel#current()} asks for. Edges given more than once for the
+ * same pair of vertices are merged, either by summing their weights
+ * ({@link #add(Object, Object, int) add}) or by keeping the last weight
+ * ({@link #set(Object, Object, int) set}).
+ *
+ * <p>Labels are interned in a {@link SymbolTable} as they arrive, so the
+ * graph built stores one instance of each distinct label however many equal
+ * copies were passed in, and each edge costs one hash lookup per label.
+ *
+ * @param <L> type of vertex labels in the graph, must be immutable
+ */
+public class GraphBuilder<L> {
+
+    private SymbolTable<L> symbols;
+    private List<ObjectIntMap<L>> rows;
+    private final int expectedVertices;
+
+    // Abstraction function:
+    //   AF(symbols, rows, expectedVertices) = the graph that build() will
+    //     return: its vertices are the labels of symbols, with an edge from
+    //     symbols.label(s) to t of weight w for every rows[s][t] = w
+    //     expectedVertices is only a sizing hint
+    // Representation invariant:
+    //   rows.size() == symbols.size()
+    //   every key of the rows is a canonical label of symbols
+    //   every weight is positive
+    //   expectedVertices is non-negative
+    // Safety from rep exposure:
+    //   all fields are private
+    //   build() hands the rows over to the new graph and starts new ones,
+    //   so the builder never shares a map with a graph it built
+
+    /**
+     * Create an empty builder.
+     */
+    public GraphBuilder() {
+    	this(0);
+    }
+
+    /**
+     * Create an empty builder sized for a number of vertices.
+     *
+     * @param expectedVertices number of distinct vertices expected, must be non-negative
+     * @throws IllegalArgumentException if expectedVertices is negative
+     */
+    public GraphBuilder(int expectedVertices) {
+    	if (expectedVertices < 0) {
+    		throw new IllegalArgumentException("expectedVertices should be non-negative: " + expectedVertices);
+    	}
+    	this.expectedVertices = expectedVertices;
+    	this.symbols = new SymbolTable<>(expectedVertices);
+    	this.rows = new ArrayList<>(expectedVertices);
+    }
+
+    /**
+     * @return a HashMap that holds expected keys without being resized
+     */
+    static <K, V> Map<K, V> newVertexMap(int expected) {
+    	return new HashMap<>(Math.max(16, (int) (expected / 0.75f) + 1));
+    }
+
+    /**
+     * Add a vertex without edges.
+     *
+     * @param vertex label of the vertex
+     * @return this builder
+     */
+    public GraphBuilder<L> addVertex(L vertex) {
+    	targetsOf(vertex);
+    	return this;
+    }
+
+    /**
+     * Add weight to the edge from source to target, adding the edge and its
+     * vertices if they are not in the builder yet.
+     *
+     * @param source label of the source vertex
+     * @param target label of the target vertex
+     * @param weight nonnegative weight to add to the edge; zero only adds the vertices
+     * @return this builder
+     * @throws IllegalArgumentException if weight is negative
+     * @throws ArithmeticException if the summed weight overflows an int
+     */
+    public GraphBuilder<L> add(L source, L target, int weight) {
+    	checkWeight(weight);
+    	ObjectIntMap<L> targetsMap = targetsOf(source);
+    	L canonicalTarget = symbols.label(vertexId(target));
+    	if (weight > 0) {
+    		targetsMap.put(canonicalTarget, Math.addExact(targetsMap.get(canonicalTarget), weight));
+    	}
+    	return this;
+    }
+
+    /**
+     * Set the weight of the edge from source to target, as
+     * {@link Graph#set(Object, Object, int)} would: a positive weight adds or
+     * replaces the edge and adds its vertices, zero removes the edge.
+     *
+     * @param source label of the source vertex
+     * @param target label of the target vertex
+     * @param weight nonnegative weight of the edge
+     * @return this builder
+     * @throws IllegalArgumentException if weight is negative
+     */
+    public GraphBuilder<L> set(L source, L target, int weight) {
+    	checkWeight(weight);
+    	if (weight == 0) {
+    		int id = symbols.idOf(source);
+    		if (id >= 0) {
+    			rows.get(id).remove(target);
+    		}
+    		return this;
+    	}
+    	L canonicalTarget = symbols.label(vertexId(target));
+    	targetsOf(source).put(canonicalTarget, weight);
+    	return this;
+    }
+
+    /**
+     * Add all the vertices and edges of another builder to this one, summing
+     * the weights of edges that are in both. The other builder is not modified.
+     *
+     * @param other builder whose vertices and edges are added
+     * @return this builder
+     * @throws ArithmeticException if a summed weight overflows an int
+     */
+    public GraphBuilder<L> addAll(GraphBuilder<L> other) {
+    	for (int source = 0; source < other.rows.size(); source++) {
+    		ObjectIntMap<L> targetsMap = targetsOf(other.symbols.label(source));
+    		other.rows.get(source).forEach((target, weight) -> {
+    			L canonicalTarget = symbols.label(vertexId(target));
+    			targetsMap.put(canonicalTarget, Math.addExact(targetsMap.get(canonicalTarget), weight));
+    		});
+    	}
+    	return this;
+    }
+
+    /**
+     * Add all the vertices of another builder to this one and set all its
+     * edges, as {@link #set(Object, Object, int) set} would: the weight of an
+     * edge that is in both builders becomes the other builder's. The other
+     * builder is not modified.
+     *
+     * @param other builder whose vertices and edges are set
+     * @return this builder
+     */
+    public GraphBuilder<L> setAll(GraphBuilder<L> other) {
+    	for (int source = 0; source < other.rows.size(); source++) {
+    		ObjectIntMap<L> targetsMap = targetsOf(other.symbols.label(source));
+    		other.rows.get(source).forEach((target, weight) -> {
+    			targetsMap.put(symbols.label(vertexId(target)), weight);
+    		});
+    	}
+    	return this;
+    }
+
+    /**
+     * Produce a graph with the vertices and edges collected so far, and empty
+     * this builder so it can be reused.
+     *
+     * @return a new mutable graph
+     */
+    public Graph<L> build() {
+    	Map<L, ObjectIntMap<L>> collected = newVertexMap(rows.size());
+    	for (int id = 0; id < rows.size(); id++) {
+    		collected.put(symbols.label(id), rows.get(id));
+    	}
+    	symbols = new SymbolTable<>(expectedVertices);
+    	rows = new ArrayList<>(expectedVertices);
+    	return new AdjacencyMapGraph<>(collected);
+    }
+
+    /**
+     * Intern a vertex, adding it without edges if it is new.
+     *
+     * @param vertex label of the vertex
+     * @return the id of vertex in symbols
+     */
+    private int vertexId(L vertex) {
+    	int id = symbols.id(vertex);
+    	if (id == rows.size()) {
+    		rows.add(new ObjectIntMap<>());
+    	}
+    	return id;
+    }
+
+    private ObjectIntMap<L> targetsOf(L vertex) {
+    	return rows.get(vertexId(vertex));
+    }
+
+    private static void checkWeight(int weight) {
+    	if (weight < 0) {
+    		throw new IllegalArgumentException("weight should be non-negative: " + weight);
+    	}
+    }
+
+	@Override
+	public String toString() {
+		String graphBuilderString = "GraphBuilder{"
+				+ "vertices=" + symbols.labels() + ",edges=" + rows + "}";
+		return graphBuilderString;
+	}
+
+}
@@ -0,0 +1,160 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.Objects;
+
+/**
+ * A mutation of a graph, as reported by ObservableGraph.
+ * Immutable.
+ *
+ * <p>A vertex event names one vertex. An edge event names the edge from
+ * source to target and its weight before and after the mutation, where zero
+ * means that there is no edge: an edge is added when oldWeight is zero and
+ * removed when newWeight is zero.
+ *
+ * @param <L> type of vertex labels in the graph
+ */
+public final class GraphEvent<L> {
+
+    /**
+     * The kinds of mutation.
+     */
+    public enum Kind {
+    	/** a vertex was added */
+    	VERTEX_ADDED,
+    	/** a vertex was removed, after events removing all of its edges */
+    	VERTEX_REMOVED,
+    	/** an edge was added, removed or changed weight */
+    	EDGE_CHANGED
+    }
+
+    private final Kind kind;
+    private final L source;
+    private final L target;
+    private final int oldWeight;
+    private final int newWeight;
+
+    // Abstraction function:
+    //   AF(kind, source, target, oldWeight, newWeight) =
+    //     the addition or removal of vertex source if kind is a vertex kind,
+    //     otherwise the change of the edge from source to target from weight
+    //     oldWeight to weight newWeight
+    // Representation invariant:
+    //   source and target are non-null
+    //   for a vertex kind, target == source and both weights are zero
+    //   for EDGE_CHANGED, weights are non-negative and different
+    // Safety from rep exposure:
+    //   all fields are private and final, labels are immutable
+
+    private GraphEvent(Kind kind, L source, L target, int oldWeight, int newWeight) {
+    	this.kind = kind;
+    	this.source = source;
+    	this.target = target;
+    	this.oldWeight = oldWeight;
+    	this.newWeight = newWeight;
+    	checkRep();
+    }
+
+    private void checkRep() {
+    	assert source != null && target != null:"labels should be non-null";
+    	if (kind == Kind.EDGE_CHANGED) {
+    		assert oldWeight >= 0 && newWeight >= 0 && oldWeight != newWeight:"an edge event should change a non-negative weight";
+    	} else {
+    		assert source == target && oldWeight == 0 && newWeight == 0:"a vertex event should name one vertex and no weights";
+    	}
+    }
+
+    /**
+     * @param <L> type of vertex labels
+     * @param vertex label of the vertex added
+     * @return the event of adding vertex
+     */
+    public static <L> GraphEvent<L> vertexAdded(L vertex) {
+    	return new GraphEvent<>(Kind.VERTEX_ADDED, vertex, vertex, 0, 0);
+    }
+
+    /**
+     * @param <L> type of vertex labels
+     * @param vertex label of the vertex removed
+     * @return the event of removing vertex
+     */
+    public static <L> GraphEvent<L> vertexRemoved(L vertex) {
+    	return new GraphEvent<>(Kind.VERTEX_REMOVED, vertex, vertex, 0, 0);
+    }
+
+    /**
+     * @param <L> type of vertex labels
+     * @param source label of the source of the edge
+     * @param target label of the target of the edge
+     * @param oldWeight weight before the change, zero if there was no edge
+     * @param newWeight weight after the change, zero if the edge was removed;
+     *                  different from oldWeight
+     * @return the event of changing the edge from source to target
+     */
+    public static <L> GraphEvent<L> edgeChanged(L source, L target, int oldWeight, int newWeight) {
+    	return new GraphEvent<>(Kind.EDGE_CHANGED, source, target, oldWeight, newWeight);
+    }
+
+    /**
+     * @return the kind of mutation
+     */
+    public Kind kind() {
+    	return kind;
+    }
+
+    /**
+     * @return the vertex of a vertex event, or the source of an edge event
+     */
+    public L source() {
+    	return source;
+    }
+
+    /**
+     * @return the vertex of a vertex event, or the target of an edge event
+     */
+    public L target() {
+    	return target;
+    }
+
+    /**
+     * @return the weight of the edge before an edge event, or zero
+     */
+    public int oldWeight() {
+    	return oldWeight;
+    }
+
+    /**
+     * @return the weight of the edge after an edge event, or zero
+     */
+    public int newWeight() {
+    	return newWeight;
+    }
+
+    @Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof GraphEvent))
+			return false;
+		GraphEvent<?> other = (GraphEvent<?>) obj;
+		return kind == other.kind && source.equals(other.source) && target.equals(other.target)
+				&& oldWeight == other.oldWeight && newWeight == other.newWeight;
+	}
+
+    @Override
+	public int hashCode() {
+		return Objects.hash(kind, source, target, oldWeight, newWeight);
+	}
+
+	@Override
+	public String toString() {
+		String graphEventString = kind == Kind.EDGE_CHANGED
+				? "GraphEvent{" + kind + ",source=" + source + ",target=" + target
+						+ ",oldWeight=" + oldWeight + ",newWeight=" + newWeight + "}"
+				: "GraphEvent{" + kind + ",vertex=" + source + "}";
+		return graphEventString;
+	}
+
+}
@@ -0,0 +1,81 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+/**
+ * Creates empty graphs whose implementation suits how they will be used.
+ *
+ * <p>{@link Graph#empty()} always returns an AdjacencyMapGraph. Callers that
+ * know roughly how large a graph will get and how it will be accessed can
+ * ask this factory instead:
+ * <ul><li> CONCURRENT graphs are ConcurrentGraphs;
+ *     <li> WRITE_HEAVY graphs are AdjacencyMapGraphs, which never pay for
+ *          migrating or counting reads;
+ *     <li> MIXED and READ_MOSTLY graphs are AdaptiveGraphs, which start as an
+ *          edge list if they are expected to stay small and as an adjacency
+ *          map otherwise; READ_MOSTLY graphs are also frozen into a
+ *          CompactGraph after many reads in a row. </ul>
+ * Graphs that start as adjacency maps are sized for the expected number of
+ * vertices. Expected sizes are hints: every graph created still accepts any
+ * number of vertices and edges.
+ */
+public final class GraphFactory {
+
+    /**
+     * How a graph will mostly be accessed.
+     */
+    public enum AccessPattern {
+    	/** reads and writes interleave */
+    	MIXED,
+    	/** the graph is built and then mostly read, like a GraphPoet's */
+    	READ_MOSTLY,
+    	/** the graph keeps being mutated and is rarely read in between */
+    	WRITE_HEAVY,
+    	/** several threads read and write the graph at once */
+    	CONCURRENT
+    }
+
+    private GraphFactory() {
+    	throw new AssertionError("GraphFactory is not instantiable");
+    }
+
+    /**
+     * Create an empty graph for a mixed workload.
+     *
+     * @param <L> type of vertex labels in the graph, must be immutable
+     * @param expectedVertices roughly how many vertices the graph will have, non-negative
+     * @param expectedEdges roughly how many edges the graph will have, non-negative
+     * @return a new empty graph
+     * @throws IllegalArgumentException if an expected size is negative
+     */
+    public static <L> Graph<L> create(int expectedVertices, long expectedEdges) {
+    	return create(expectedVertices, expectedEdges, AccessPattern.MIXED);
+    }
+
+    /**
+     * Create an empty graph.
+     *
+     * @param <L> type of vertex labels in the graph, must be immutable
+     * @param expectedVertices roughly how many vertices the graph will have, non-negative
+     * @param expectedEdges roughly how many edges the graph will have, non-negative
+     * @param pattern how the graph will mostly be accessed
+     * @return a new empty graph suited to that size and access pattern
+     * @throws IllegalArgumentException if an expected size is negative
+     */
+    public static <L> Graph<L> create(int expectedVertices, long expectedEdges, AccessPattern pattern) {
+    	if (expectedVertices < 0 || expectedEdges < 0) {
+    		throw new IllegalArgumentException("expected sizes should be non-negative: " + expectedVertices + ", " + expectedEdges);
+    	}
+    	switch (pattern) {
+    	case CONCURRENT:
+    		return new ConcurrentGraph<>();
+    	case WRITE_HEAVY:
+    		return new AdjacencyMapGraph<>(expectedVertices);
+    	default:
+    		int smallEdgeLimit = expectedEdges <= AdaptiveGraph.DEFAULT_SMALL_EDGE_LIMIT ? AdaptiveGraph.DEFAULT_SMALL_EDGE_LIMIT : 0;
+    		return new AdaptiveGraph<>(smallEdgeLimit, pattern == AccessPattern.READ_MOSTLY, expectedVertices);
+    	}
+    }
+
+}
@@ -0,0 +1,27 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.List;
+
+/**
+ * A consumer of the mutations of an ObservableGraph.
+ *
+ * @param <L> type of vertex labels in the graph
+ */
+@FunctionalInterface
+public interface GraphListener<L> {
+
+    /**
+     * Receive a batch of mutations. Applying the events in order to a copy of
+     * the graph as it was before the batch yields the graph after the batch.
+     * Called on the thread that mutated the graph; it must not mutate the
+     * graph it is listening to.
+     *
+     * @param events the mutations, in the order they happened; non-empty and
+     *               unmodifiable
+     */
+    public void onEvents(List<GraphEvent<L>> events);
+
+}
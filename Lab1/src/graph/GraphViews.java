@@ -0,0 +1,468 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Lazy, read-only views of part of a graph.
+ *
+ * <p>A view holds no copy of the graph it is taken from: vertices(),
+ * sources() and targets() return live unmodifiable views that ask the graph
+ * for its vertices or neighbors again on every query, and filter or flip
+ * them, so creating a view takes constant time and a view always reflects
+ * the graph's current vertices and edges, even if the graph's own
+ * observers return snapshots. Asking for one neighbor by get() or containsKey() costs one lookup
+ * in the graph plus the predicates; size() and iteration cost a pass over
+ * the graph's neighbors of that vertex (or over all its vertices, for
+ * vertices() of an induced view). Views compose, for example
+ * {@code induced(filterEdges(graph, w -> w >= 2), vocabulary::contains)}.
+ *
+ * <p>The mutators add(), set() and remove() of a view throw
+ * UnsupportedOperationException; mutate the underlying graph instead. A view
+ * is as thread-safe as the graph it is taken from, provided the predicates
+ * are.
+ */
+public final class GraphViews {
+
+    private GraphViews() {
+    	throw new AssertionError("GraphViews is not instantiable");
+    }
+
+    /**
+     * Take the subgraph induced by a set of vertices.
+     *
+     * @param <L> type of vertex labels in the graph
+     * @param graph graph to view
+     * @param vertices predicate that holds for the vertices to keep; it is
+     *                 evaluated on every query and must always give the same
+     *                 answer for the same label
+     * @return a view whose vertices are the vertices of graph satisfying the
+     *         predicate, and whose edges are the edges of graph between two
+     *         such vertices
+     */
+    public static <L> Graph<L> induced(Graph<L> graph, Predicate<? super L> vertices) {
+    	return new InducedView<>(graph, vertices);
+    }
+
+    /**
+     * Keep only the edges whose weights satisfy a predicate.
+     *
+     * @param <L> type of vertex labels in the graph
+     * @param graph graph to view
+     * @param weights predicate that holds for the positive weights of the
+     *                edges to keep
+     * @return a view with all the vertices of graph, and the edges of graph
+     *         whose weights satisfy the predicate
+     */
+    public static <L> Graph<L> filterEdges(Graph<L> graph, IntPredicate weights) {
+    	return new EdgeFilterView<>(graph, weights);
+    }
+
+    /**
+     * Reverse every edge of a graph.
+     *
+     * @param <L> type of vertex labels in the graph
+     * @param graph graph to view
+     * @return a view with the vertices of graph and an edge from t to s of
+     *         weight w for every edge from s to t of weight w in graph
+     */
+    public static <L> Graph<L> reversed(Graph<L> graph) {
+    	return new ReversedView<>(graph);
+    }
+
+    /**
+     * A view whose mutators all throw UnsupportedOperationException.
+     */
+    private abstract static class ReadOnlyView<L> implements Graph<L> {
+
+    	final Graph<L> graph;
+
+    	ReadOnlyView(Graph<L> graph) {
+    		this.graph = graph;
+    	}
+
+    	/**
+    	 * @throws UnsupportedOperationException always, a view is read-only
+    	 */
+    	@Override public boolean add(L vertex) {
+    		throw new UnsupportedOperationException("a graph view is read-only");
+    	}
+
+    	/**
+    	 * @throws UnsupportedOperationException always, a view is read-only
+    	 */
+    	@Override public int set(L source, L target, int weight) {
+    		throw new UnsupportedOperationException("a graph view is read-only");
+    	}
+
+    	/**
+    	 * @throws UnsupportedOperationException always, a view is read-only
+    	 */
+    	@Override public boolean remove(L vertex) {
+    		throw new UnsupportedOperationException("a graph view is read-only");
+    	}
+
+    	/**
+    	 * @return a string listing the vertices of this view and their targets
+    	 */
+    	String edgesString() {
+    		StringBuilder edges = new StringBuilder("{");
+    		for (L vertex : vertices()) {
+    			if (edges.length() > 1) {
+    				edges.append(", ");
+    			}
+    			edges.append(vertex).append('=').append(targets(vertex));
+    		}
+    		return edges.append('}').toString();
+    	}
+    }
+
+    /**
+     * The subgraph of a graph induced by a vertex predicate.
+     */
+    private static final class InducedView<L> extends ReadOnlyView<L> {
+
+    	private final Predicate<? super L> keep;
+    	private final Set<L> vertexView;
+
+    	// Abstraction function:
+    	//   AF(graph, keep) = the subgraph of graph induced by the vertices v
+    	//     with keep.test(v)
+    	// Representation invariant:
+    	//   graph and keep are non-null
+    	//   vertexView filters the current graph.vertices() by keep
+    	// Safety from rep exposure:
+    	//   all fields are final; observers return unmodifiable views
+
+    	InducedView(Graph<L> graph, Predicate<? super L> keep) {
+    		super(graph);
+    		this.keep = keep;
+    		this.vertexView = new FilteredSet<>(graph::vertices, keep);
+    	}
+
+    	@Override public Set<L> vertices() {
+    		return vertexView;
+    	}
+
+    	@Override public Map<L, Integer> sources(L target) {
+    		if (!keep.test(target)) {
+    			return Collections.emptyMap();
+    		}
+    		return new FilteredMap<>(() -> graph.sources(target), keep, weight -> true);
+    	}
+
+    	@Override public Map<L, Integer> targets(L source) {
+    		if (!keep.test(source)) {
+    			return Collections.emptyMap();
+    		}
+    		return new FilteredMap<>(() -> graph.targets(source), keep, weight -> true);
+    	}
+
+		@Override
+		public String toString() {
+			String inducedViewString = "InducedView{" + "vertices=" + vertexView + ",edges=" + edgesString() + "}";
+			return inducedViewString;
+		}
+    }
+
+    /**
+     * A graph with only the edges whose weights satisfy a predicate.
+     */
+    private static final class EdgeFilterView<L> extends ReadOnlyView<L> {
+
+    	private final IntPredicate keep;
+    	private final Set<L> vertexView;
+
+    	// Abstraction function:
+    	//   AF(graph, keep) = the graph with the vertices of graph and the edges
+    	//     of graph whose weights w have keep.test(w)
+    	// Representation invariant:
+    	//   graph and keep are non-null
+    	//   vertexView is a view of the current graph.vertices()
+    	// Safety from rep exposure:
+    	//   all fields are final; observers return unmodifiable views
+
+    	EdgeFilterView(Graph<L> graph, IntPredicate keep) {
+    		super(graph);
+    		this.keep = keep;
+    		this.vertexView = new CurrentSet<>(graph::vertices);
+    	}
+
+    	@Override public Set<L> vertices() {
+    		return vertexView;
+    	}
+
+    	@Override public Map<L, Integer> sources(L target) {
+    		return new FilteredMap<>(() -> graph.sources(target), label -> true, keep);
+    	}
+
+    	@Override public Map<L, Integer> targets(L source) {
+    		return new FilteredMap<>(() -> graph.targets(source), label -> true, keep);
+    	}
+
+		@Override
+		public String toString() {
+			String edgeFilterViewString = "EdgeFilterView{" + "vertices=" + graph.vertices() + ",edges=" + edgesString() + "}";
+			return edgeFilterViewString;
+		}
+    }
+
+    /**
+     * A graph with every edge reversed.
+     */
+    private static final class ReversedView<L> extends ReadOnlyView<L> {
+
+    	private final Set<L> vertexView;
+
+    	// Abstraction function:
+    	//   AF(graph) = graph with every edge reversed
+    	// Representation invariant:
+    	//   graph is non-null
+    	//   vertexView is a view of the current graph.vertices()
+    	// Safety from rep exposure:
+    	//   all fields are final; observers return unmodifiable views
+
+    	ReversedView(Graph<L> graph) {
+    		super(graph);
+    		this.vertexView = new CurrentSet<>(graph::vertices);
+    	}
+
+    	@Override public Set<L> vertices() {
+    		return vertexView;
+    	}
+
+    	@Override public Map<L, Integer> sources(L target) {
+    		return new CurrentMap<>(() -> graph.targets(target));
+    	}
+
+    	@Override public Map<L, Integer> targets(L source) {
+    		return new CurrentMap<>(() -> graph.sources(source));
+    	}
+
+		@Override
+		public String toString() {
+			String reversedViewString = "ReversedView{" + "vertices=" + graph.vertices() + ",edges=" + edgesString() + "}";
+			return reversedViewString;
+		}
+    }
+
+    /**
+     * A live unmodifiable view of the elements of a set that satisfy a
+     * predicate. The set is asked for again on every query, so the view
+     * follows a graph whose vertices() is a snapshot, such as a
+     * VersionedGraph, as well as one whose vertices() is live.
+     */
+    private static final class FilteredSet<L> extends AbstractSet<L> {
+
+    	private final Supplier<Set<L>> elements;
+    	private final Predicate<? super L> keep;
+
+    	FilteredSet(Supplier<Set<L>> elements, Predicate<? super L> keep) {
+    		this.elements = elements;
+    		this.keep = keep;
+    	}
+
+    	@SuppressWarnings("unchecked")
+    	@Override public boolean contains(Object element) {
+    		// an element of the set is an L, so the predicate can take it
+    		return elements.get().contains(element) && keep.test((L) element);
+    	}
+
+    	@Override public int size() {
+    		int size = 0;
+    		for (L element : elements.get()) {
+    			if (keep.test(element)) {
+    				size++;
+    			}
+    		}
+    		return size;
+    	}
+
+    	@Override public Iterator<L> iterator() {
+    		return new FilteringIterator<L, L>(elements.get().iterator()) {
+    			@Override boolean accept(L element) {
+    				return keep.test(element);
+    			}
+    			@Override L result(L element) {
+    				return element;
+    			}
+    		};
+    	}
+    }
+
+    /**
+     * A live unmodifiable view of the elements of a set, which is asked for
+     * again on every query, as FilteredSet does.
+     */
+    private static final class CurrentSet<L> extends AbstractSet<L> {
+
+    	private final Supplier<Set<L>> elements;
+
+    	CurrentSet(Supplier<Set<L>> elements) {
+    		this.elements = elements;
+    	}
+
+    	@Override public boolean contains(Object element) {
+    		return elements.get().contains(element);
+    	}
+
+    	@Override public int size() {
+    		return elements.get().size();
+    	}
+
+    	@Override public Iterator<L> iterator() {
+    		return Collections.unmodifiableSet(elements.get()).iterator();
+    	}
+    }
+
+    /**
+     * A live unmodifiable view of a neighbor map, which is asked for again on
+     * every query, as FilteredSet does.
+     */
+    private static final class CurrentMap<L> extends AbstractMap<L, Integer> {
+
+    	private final Supplier<Map<L, Integer>> neighbors;
+    	private final Set<Map.Entry<L, Integer>> entryView = new EntryView();
+
+    	CurrentMap(Supplier<Map<L, Integer>> neighbors) {
+    		this.neighbors = neighbors;
+    	}
+
+    	@Override public Integer get(Object label) {
+    		return neighbors.get().get(label);
+    	}
+
+    	@Override public boolean containsKey(Object label) {
+    		return neighbors.get().containsKey(label);
+    	}
+
+    	@Override public Set<Map.Entry<L, Integer>> entrySet() {
+    		return entryView;
+    	}
+
+    	private final class EntryView extends AbstractSet<Map.Entry<L, Integer>> {
+
+    		@Override public int size() {
+    			return neighbors.get().size();
+    		}
+
+    		@Override public Iterator<Map.Entry<L, Integer>> iterator() {
+    			return Collections.unmodifiableMap(neighbors.get()).entrySet().iterator();
+    		}
+    	}
+    }
+
+    /**
+     * A live unmodifiable view of the entries of a neighbor map whose labels
+     * and weights satisfy two predicates. The map is asked for again on every
+     * query, as FilteredSet does.
+     */
+    private static final class FilteredMap<L> extends AbstractMap<L, Integer> {
+
+    	private final Supplier<Map<L, Integer>> neighbors;
+    	private final Predicate<? super L> keepLabel;
+    	private final IntPredicate keepWeight;
+    	private final Set<Map.Entry<L, Integer>> entryView = new EntryView();
+
+    	FilteredMap(Supplier<Map<L, Integer>> neighbors, Predicate<? super L> keepLabel, IntPredicate keepWeight) {
+    		this.neighbors = neighbors;
+    		this.keepLabel = keepLabel;
+    		this.keepWeight = keepWeight;
+    	}
+
+    	private boolean accept(L label, int weight) {
+    		return keepWeight.test(weight) && keepLabel.test(label);
+    	}
+
+    	@SuppressWarnings("unchecked")
+    	@Override public Integer get(Object label) {
+    		Integer weight = neighbors.get().get(label);
+    		// a key of the neighbor map is an L, so the predicate can take it
+    		return weight != null && accept((L) label, weight) ? weight : null;
+    	}
+
+    	@Override public boolean containsKey(Object label) {
+    		return get(label) != null;
+    	}
+
+    	@Override public Set<Map.Entry<L, Integer>> entrySet() {
+    		return entryView;
+    	}
+
+    	private final class EntryView extends AbstractSet<Map.Entry<L, Integer>> {
+
+    		@Override public int size() {
+    			int size = 0;
+    			for (Map.Entry<L, Integer> entry : neighbors.get().entrySet()) {
+    				if (accept(entry.getKey(), entry.getValue())) {
+    					size++;
+    				}
+    			}
+    			return size;
+    		}
+
+    		@Override public Iterator<Map.Entry<L, Integer>> iterator() {
+    			return new FilteringIterator<Map.Entry<L, Integer>, Map.Entry<L, Integer>>(neighbors.get().entrySet().iterator()) {
+    				@Override boolean accept(Map.Entry<L, Integer> entry) {
+    					return FilteredMap.this.accept(entry.getKey(), entry.getValue());
+    				}
+    				@Override Map.Entry<L, Integer> result(Map.Entry<L, Integer> entry) {
+    					return new AbstractMap.SimpleImmutableEntry<>(entry);
+    				}
+    			};
+    		}
+    	}
+    }
+
+    /**
+     * An unmodifiable iterator over the elements of another iterator that
+     * are accepted, transformed by result().
+     */
+    private abstract static class FilteringIterator<T, R> implements Iterator<R> {
+
+    	private final Iterator<T> elements;
+    	private T next;
+    	private boolean hasNext;
+
+    	FilteringIterator(Iterator<T> elements) {
+    		this.elements = elements;
+    	}
+
+    	abstract boolean accept(T element);
+
+    	abstract R result(T element);
+
+    	@Override public boolean hasNext() {
+    		while (!hasNext && elements.hasNext()) {
+    			T element = elements.next();
+    			if (accept(element)) {
+    				next = element;
+    				hasNext = true;
+    			}
+    		}
+    		return hasNext;
+    	}
+
+    	@Override public R next() {
+    		if (!hasNext()) {
+    			throw new NoSuchElementException();
+    		}
+    		hasNext = false;
+    		T element = next;
+    		next = null;
+    		return result(element);
+    	}
+    }
+
+}
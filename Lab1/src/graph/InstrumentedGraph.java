@@ -0,0 +1,349 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A Graph that measures the calls made to another graph.
+ *
+ * <p>For each Graph method an InstrumentedGraph counts the calls, records
+ * their latencies in a {@link LatencyHistogram}, and estimates the bytes
+ * they allocate from the allocation counter of the calling thread (on JVMs
+ * that provide one, see {@link #allocationTracking()}). vertices(), sources()
+ * and targets() are timed until they return; reading the view or map they
+ * return is not measured. {@link #snapshot()} returns the figures so far and
+ * {@link #report()} formats them as a table.
+ *
+ * <p>Measuring can be turned off and on at any time with
+ * {@link #setEnabled(boolean)}; while it is off every call costs one volatile
+ * read on top of the wrapped graph's own cost. The counters are LongAdders
+ * and the histograms are lock-free, so an InstrumentedGraph is exactly as
+ * thread-safe as the graph it wraps.
+ *
+ * @param <L> type of vertex labels in this graph, must be immutable
+ */
+public class InstrumentedGraph<L> implements Graph<L> {
+
+    /**
+     * The measured methods of Graph.
+     */
+    public enum Operation { ADD, SET, REMOVE, VERTICES, SOURCES, TARGETS }
+
+    private static final com.sun.management.ThreadMXBean THREADS = allocationCounter();
+
+    private final Graph<L> graph;
+    private final Map<Operation, Metrics> metrics = new EnumMap<>(Operation.class);
+    private volatile boolean enabled = true;
+
+    // Abstraction function:
+    //   AF(graph, metrics) = the graph graph, together with the count, latencies
+    //     and allocated bytes of the calls to each operation since the last reset
+    // Representation invariant:
+    //   metrics has a key for every Operation
+    // Safety from rep exposure:
+    //   all fields are private; metrics are only read through immutable Stats
+    //   the observers return what graph returns; graph's own observers keep
+    //   callers from mutating it
+
+    /**
+     * The counters of one operation.
+     */
+    private static final class Metrics {
+    	final LongAdder calls = new LongAdder();
+    	final LongAdder allocatedBytes = new LongAdder();
+    	final LatencyHistogram latencies = new LatencyHistogram();
+    }
+
+    /**
+     * @return the HotSpot thread bean if it can count allocated bytes, else null
+     */
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+    	try {
+    		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    		if (bean instanceof com.sun.management.ThreadMXBean) {
+    			com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+    			if (threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+    				return threads;
+    			}
+    		}
+    	} catch (LinkageError | UnsupportedOperationException e) {
+    		// not a HotSpot JVM, or the management module is missing
+    	}
+    	return null;
+    }
+
+    /**
+     * Measure the calls made to a graph.
+     *
+     * @param graph graph to measure; calls made to it directly are not measured
+     */
+    public InstrumentedGraph(Graph<L> graph) {
+    	this.graph = graph;
+    	for (Operation operation : Operation.values()) {
+    		metrics.put(operation, new Metrics());
+    	}
+    	checkRep();
+    }
+
+    private void checkRep() {
+    	assert metrics.size() == Operation.values().length:"every operation should have metrics";
+    }
+
+    /**
+     * @return true if and only if this JVM reports the bytes allocated by a
+     *         thread, so that allocatedBytes in the statistics is measured;
+     *         otherwise it is always zero
+     */
+    public static boolean allocationTracking() {
+    	return THREADS != null;
+    }
+
+    /**
+     * Turn measuring on or off. Figures already recorded are kept.
+     *
+     * @param enabled true to measure later calls, false to stop
+     */
+    public void setEnabled(boolean enabled) {
+    	this.enabled = enabled;
+    }
+
+    /**
+     * @return true if and only if calls are being measured
+     */
+    public boolean isEnabled() {
+    	return enabled;
+    }
+
+    /**
+     * Forget every figure recorded. Calls in progress may or may not be kept.
+     */
+    public void reset() {
+    	for (Metrics operationMetrics : metrics.values()) {
+    		operationMetrics.calls.reset();
+    		operationMetrics.allocatedBytes.reset();
+    		operationMetrics.latencies.reset();
+    	}
+    }
+
+    /**
+     * @return the figures recorded so far for every operation, including
+     *         operations that were never called
+     */
+    public Map<Operation, Stats> snapshot() {
+    	Map<Operation, Stats> stats = new EnumMap<>(Operation.class);
+    	for (Map.Entry<Operation, Metrics> entry : metrics.entrySet()) {
+    		stats.put(entry.getKey(), new Stats(entry.getKey(), entry.getValue()));
+    	}
+    	return Collections.unmodifiableMap(stats);
+    }
+
+    /**
+     * @return a table of snapshot(), one line per operation, with latencies in
+     *         nanoseconds
+     */
+    public String report() {
+    	StringBuilder report = new StringBuilder(String.format("%-9s %10s %10s %10s %10s %10s %12s %14s%n",
+    			"operation", "calls", "mean", "p50", "p99", "p99.9", "max", "bytes/call"));
+    	for (Stats stats : snapshot().values()) {
+    		report.append(String.format("%-9s %10d %10.0f %10d %10d %10d %12d %14.1f%n",
+    				stats.operation(), stats.calls(), stats.meanNanos(), stats.percentileNanos(50),
+    				stats.percentileNanos(99), stats.percentileNanos(99.9), stats.maxNanos(),
+    				stats.calls() == 0 ? 0.0 : (double) stats.allocatedBytes() / stats.calls()));
+    	}
+    	return report.toString();
+    }
+
+    /**
+     * @return the bytes allocated so far by the current thread, or 0 if
+     *         allocations are not tracked
+     */
+    private static long allocatedBytes() {
+    	return THREADS == null ? 0 : THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private void record(Operation operation, long startNanos, long startBytes) {
+    	long nanos = System.nanoTime() - startNanos;
+    	long bytes = allocatedBytes() - startBytes;
+    	Metrics operationMetrics = metrics.get(operation);
+    	operationMetrics.calls.increment();
+    	operationMetrics.latencies.record(nanos);
+    	operationMetrics.allocatedBytes.add(Math.max(0, bytes));
+    }
+
+    @Override public boolean add(L vertex) {
+    	if (!enabled) {
+    		return graph.add(vertex);
+    	}
+    	long startBytes = allocatedBytes();
+    	long startNanos = System.nanoTime();
+    	boolean result = graph.add(vertex);
+    	record(Operation.ADD, startNanos, startBytes);
+    	return result;
+    }
+
+    @Override public int set(L source, L target, int weight) {
+    	if (!enabled) {
+    		return graph.set(source, target, weight);
+    	}
+    	long startBytes = allocatedBytes();
+    	long startNanos = System.nanoTime();
+    	int result = graph.set(source, target, weight);
+    	record(Operation.SET, startNanos, startBytes);
+    	return result;
+    }
+
+    @Override public boolean remove(L vertex) {
+    	if (!enabled) {
+    		return graph.remove(vertex);
+    	}
+    	long startBytes = allocatedBytes();
+    	long startNanos = System.nanoTime();
+    	boolean result = graph.remove(vertex);
+    	record(Operation.REMOVE, startNanos, startBytes);
+    	return result;
+    }
+
+    @Override public Set<L> vertices() {
+    	if (!enabled) {
+    		return graph.vertices();
+    	}
+    	long startBytes = allocatedBytes();
+    	long startNanos = System.nanoTime();
+    	Set<L> result = graph.vertices();
+    	record(Operation.VERTICES, startNanos, startBytes);
+    	return result;
+    }
+
+    @Override public Map<L, Integer> sources(L target) {
+    	if (!enabled) {
+    		return graph.sources(target);
+    	}
+    	long startBytes = allocatedBytes();
+    	long startNanos = System.nanoTime();
+    	Map<L, Integer> result = graph.sources(target);
+    	record(Operation.SOURCES, startNanos, startBytes);
+    	return result;
+    }
+
+    @Override public Map<L, Integer> targets(L source) {
+    	if (!enabled) {
+    		return graph.targets(source);
+    	}
+    	long startBytes = allocatedBytes();
+    	long startNanos = System.nanoTime();
+    	Map<L, Integer> result = graph.targets(source);
+    	record(Operation.TARGETS, startNanos, startBytes);
+    	return result;
+    }
+
+	@Override
+	public String toString() {
+		String instrumentedGraphString = "InstrumentedGraph{" + graph + "}";
+		return instrumentedGraphString;
+	}
+
+    /**
+     * The figures recorded for one operation at one moment.
+     * Immutable.
+     */
+    public static final class Stats {
+
+    	private final Operation operation;
+    	private final long calls;
+    	private final long totalNanos;
+    	private final long maxNanos;
+    	private final long allocatedBytes;
+    	private final long[] buckets;
+
+    	// Abstraction function:
+    	//   AF(operation, calls, totalNanos, maxNanos, allocatedBytes, buckets) =
+    	//     calls calls to operation taking totalNanos in all, at most maxNanos
+    	//     each, distributed over the LatencyHistogram buckets as buckets
+    	//     says, and allocating allocatedBytes
+    	// Representation invariant:
+    	//   all the numbers are non-negative
+    	// Safety from rep exposure:
+    	//   all fields are private and final; buckets is a copy that is never returned
+
+    	private Stats(Operation operation, Metrics metrics) {
+    		this.operation = operation;
+    		this.calls = metrics.calls.sum();
+    		this.buckets = metrics.latencies.counts();
+    		this.totalNanos = metrics.latencies.total();
+    		this.maxNanos = metrics.latencies.max();
+    		this.allocatedBytes = metrics.allocatedBytes.sum();
+    	}
+
+    	/**
+    	 * @return the operation measured
+    	 */
+    	public Operation operation() {
+    		return operation;
+    	}
+
+    	/**
+    	 * @return the number of calls
+    	 */
+    	public long calls() {
+    		return calls;
+    	}
+
+    	/**
+    	 * @return the total time spent in the calls, in nanoseconds
+    	 */
+    	public long totalNanos() {
+    		return totalNanos;
+    	}
+
+    	/**
+    	 * @return the mean time of a call in nanoseconds, or 0 if there were none
+    	 */
+    	public double meanNanos() {
+    		return calls == 0 ? 0 : (double) totalNanos / calls;
+    	}
+
+    	/**
+    	 * @return the time of the slowest call in nanoseconds, or 0 if there were none
+    	 */
+    	public long maxNanos() {
+    		return maxNanos;
+    	}
+
+    	/**
+    	 * @param percentile a percentile in 0..100
+    	 * @return an upper estimate, within 1/16, of the time within which that
+    	 *         percentage of the calls returned, in nanoseconds; 0 if there
+    	 *         were no calls
+    	 * @throws IllegalArgumentException if percentile is not in 0..100
+    	 */
+    	public long percentileNanos(double percentile) {
+    		if (!(percentile >= 0 && percentile <= 100)) {
+    			throw new IllegalArgumentException("percentile should be in 0..100: " + percentile);
+    		}
+    		return LatencyHistogram.valueAtPercentile(buckets, percentile, maxNanos);
+    	}
+
+    	/**
+    	 * @return the bytes allocated by the calls, or 0 if allocations are not tracked
+    	 */
+    	public long allocatedBytes() {
+    		return allocatedBytes;
+    	}
+
+    	@Override
+    	public String toString() {
+    		String statsString = "Stats{" + operation + ",calls=" + calls + ",totalNanos=" + totalNanos
+    				+ ",maxNanos=" + maxNanos + ",allocatedBytes=" + allocatedBytes + "}";
+    		return statsString;
+    	}
+
+    }
+
+}
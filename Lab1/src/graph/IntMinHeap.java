@@ -0,0 +1,187 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A binary min-heap of non-negative int items keyed by long priorities, with
+ * decrease-key.
+ *
+ * <p>Items, keys and heap positions are kept in int and long arrays indexed
+ * by item, so the heap allocates nothing after it is created unless an item
+ * beyond its capacity is offered; the arrays then double. It is the priority
+ * queue of the searches in ShortestPaths.
+ * This class is internal to the rep of the graph algorithms.
+ */
+final class IntMinHeap {
+
+    private int[] heap;
+    private long[] keys;
+    private int[] position;
+    private int size;
+
+    // Abstraction function:
+    //   AF(heap, keys, size) = the set of items heap[0..size-1], item i having priority keys[i]
+    // Representation invariant:
+    //   0 <= size <= heap.length == keys.length == position.length
+    //   position[heap[k]] == k for 0 <= k < size, and position[i] == -1 for
+    //   every other item i
+    //   keys[heap[(k-1)/2]] <= keys[heap[k]] for 0 < k < size
+    // Safety from rep exposure:
+    //   all fields are private; only ints and longs cross the interface
+
+    /**
+     * Create an empty heap.
+     *
+     * @param capacity number of items, 0..capacity-1, the heap holds
+     *                 before it grows
+     */
+    IntMinHeap(int capacity) {
+    	this.heap = new int[capacity];
+    	this.keys = new long[capacity];
+    	this.position = new int[capacity];
+    	Arrays.fill(position, -1);
+    }
+
+    /**
+     * Check the rep invariant. It takes linear time, so it is only called
+     * from tests.
+     */
+    void checkRep() {
+    	assert size >= 0 && size <= heap.length:"size should be within capacity";
+    	int present = 0;
+    	for (int item = 0; item < position.length; item++) {
+    		if (position[item] >= 0) {
+    			present++;
+    			assert heap[position[item]] == item:"position should locate the item";
+    		}
+    	}
+    	assert present == size:"exactly the items in the heap should have positions";
+    	for (int k = 1; k < size; k++) {
+    		assert keys[heap[(k - 1) / 2]] <= keys[heap[k]]:"a parent should not have a larger key than its child";
+    	}
+    }
+
+    /**
+     * @return true if and only if the heap has no items
+     */
+    boolean isEmpty() {
+    	return size == 0;
+    }
+
+    /**
+     * @param item a non-negative item
+     * @return true if and only if item is in the heap
+     */
+    boolean contains(int item) {
+    	return item < position.length && position[item] >= 0;
+    }
+
+    /**
+     * @return the smallest key in the heap
+     * @throws NoSuchElementException if the heap is empty
+     */
+    long minKey() {
+    	if (size == 0) {
+    		throw new NoSuchElementException();
+    	}
+    	return keys[heap[0]];
+    }
+
+    /**
+     * Remove an item with the smallest key.
+     *
+     * @return the item removed
+     * @throws NoSuchElementException if the heap is empty
+     */
+    int pollMin() {
+    	if (size == 0) {
+    		throw new NoSuchElementException();
+    	}
+    	int min = heap[0];
+    	position[min] = -1;
+    	size--;
+    	if (size > 0) {
+    		heap[0] = heap[size];
+    		position[heap[0]] = 0;
+    		siftDown(0);
+    	}
+    	return min;
+    }
+
+    /**
+     * Insert an item, or lower its key if it is already in the heap. A key
+     * that is not lower than the item's current key is ignored.
+     *
+     * @param item a non-negative item
+     * @param key priority of the item
+     * @return true if the item was inserted or its key lowered
+     */
+    boolean offer(int item, long key) {
+    	if (item >= position.length) {
+    		grow(item + 1);
+    	}
+    	int k = position[item];
+    	if (k < 0) {
+    		k = size++;
+    		heap[k] = item;
+    		position[item] = k;
+    	} else if (key >= keys[item]) {
+    		return false;
+    	}
+    	keys[item] = key;
+    	siftUp(k);
+    	return true;
+    }
+
+    private void grow(int capacity) {
+    	int newCapacity = Math.max(capacity, 2 * position.length);
+    	int oldCapacity = position.length;
+    	heap = Arrays.copyOf(heap, newCapacity);
+    	keys = Arrays.copyOf(keys, newCapacity);
+    	position = Arrays.copyOf(position, newCapacity);
+    	Arrays.fill(position, oldCapacity, newCapacity, -1);
+    }
+
+    private void siftUp(int k) {
+    	int item = heap[k];
+    	long key = keys[item];
+    	while (k > 0) {
+    		int parent = (k - 1) >>> 1;
+    		if (keys[heap[parent]] <= key) {
+    			break;
+    		}
+    		heap[k] = heap[parent];
+    		position[heap[k]] = k;
+    		k = parent;
+    	}
+    	heap[k] = item;
+    	position[item] = k;
+    }
+
+    private void siftDown(int k) {
+    	int item = heap[k];
+    	long key = keys[item];
+    	while (true) {
+    		int child = 2 * k + 1;
+    		if (child >= size) {
+    			break;
+    		}
+    		if (child + 1 < size && keys[heap[child + 1]] < keys[heap[child]]) {
+    			child++;
+    		}
+    		if (key <= keys[heap[child]]) {
+    			break;
+    		}
+    		heap[k] = heap[child];
+    		position[heap[k]] = k;
+    		k = child;
+    	}
+    	heap[k] = item;
+    	position[item] = k;
+    }
+
+}
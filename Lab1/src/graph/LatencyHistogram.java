@@ -0,0 +1,154 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of non-negative long values, such as latencies in
+ * nanoseconds, with a bounded relative error.
+ *
+ * <p>Like an HdrHistogram, buckets are log-linear: values below 2^SUB_BITS
+ * each have their own bucket, and every power-of-two range above that is
+ * split into 2^SUB_BITS equal buckets, so a value is known to within 1/16 of
+ * itself. The whole range of long takes 960 counters. record() is one
+ * atomic increment of the value's bucket plus two striped updates, so threads
+ * recording at once never block each other, though threads recording into
+ * the same bucket contend on its counter; reads are weakly consistent with
+ * concurrent records.
+ * This class is internal to InstrumentedGraph.
+ */
+final class LatencyHistogram {
+
+    private static final int SUB_BITS = 4;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int BUCKETS = (Long.SIZE - 1 - SUB_BITS + 1) * SUB_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    // Abstraction function:
+    //   AF(counts, total, max) = a multiset of values in which counts[i] values
+    //     lie in the range [lowerBound(i), upperBound(i)], whose sum is total
+    //     and whose greatest element is max (0 if empty)
+    // Representation invariant:
+    //   counts[i] >= 0
+    //   the ranges of the buckets are disjoint and cover 0..Long.MAX_VALUE
+    // Safety from rep exposure:
+    //   all fields are private and final and never returned
+
+    /**
+     * @param value a non-negative value
+     * @return the index of the bucket that value falls in
+     */
+    static int bucketOf(long value) {
+    	if (value < SUB_COUNT) {
+    		return (int) value;
+    	}
+    	int magnitude = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+    	int sub = (int) (value >>> (magnitude - SUB_BITS)) & (SUB_COUNT - 1);
+    	return (magnitude - SUB_BITS + 1) * SUB_COUNT + sub;
+    }
+
+    /**
+     * @param bucket index of a bucket
+     * @return the least value in that bucket
+     */
+    static long lowerBound(int bucket) {
+    	if (bucket < SUB_COUNT) {
+    		return bucket;
+    	}
+    	int magnitude = bucket / SUB_COUNT + SUB_BITS - 1;
+    	return (long) (SUB_COUNT + bucket % SUB_COUNT) << (magnitude - SUB_BITS);
+    }
+
+    /**
+     * @param bucket index of a bucket
+     * @return the greatest value in that bucket
+     */
+    static long upperBound(int bucket) {
+    	return bucket + 1 < BUCKETS ? lowerBound(bucket + 1) - 1 : Long.MAX_VALUE;
+    }
+
+    /**
+     * Record a value.
+     *
+     * @param value value to record; negative values are recorded as 0
+     */
+    void record(long value) {
+    	long clamped = Math.max(0, value);
+    	counts.incrementAndGet(bucketOf(clamped));
+    	total.add(clamped);
+    	max.accumulate(clamped);
+    }
+
+    /**
+     * Forget every value recorded. Values recorded concurrently may or may
+     * not be kept.
+     */
+    void reset() {
+    	for (int i = 0; i < BUCKETS; i++) {
+    		counts.set(i, 0);
+    	}
+    	total.reset();
+    	max.reset();
+    }
+
+    /**
+     * @return the sum of the values recorded
+     */
+    long total() {
+    	return total.sum();
+    }
+
+    /**
+     * @return the greatest value recorded, or 0 if there are none
+     */
+    long max() {
+    	return max.get();
+    }
+
+    /**
+     * @return a copy of the bucket counts, for computing percentiles
+     */
+    long[] counts() {
+    	long[] copy = new long[BUCKETS];
+    	for (int i = 0; i < BUCKETS; i++) {
+    		copy[i] = counts.get(i);
+    	}
+    	return copy;
+    }
+
+    /**
+     * Estimate a percentile from a copy of the bucket counts.
+     *
+     * @param counts bucket counts returned by counts()
+     * @param percentile a percentile in 0..100
+     * @param max greatest value recorded, to bound the estimate
+     * @return the upper bound of the bucket holding the value at that
+     *         percentile, but at most max; 0 if counts are all zero
+     */
+    static long valueAtPercentile(long[] counts, double percentile, long max) {
+    	long count = 0;
+    	for (long bucketCount : counts) {
+    		count += bucketCount;
+    	}
+    	if (count == 0) {
+    		return 0;
+    	}
+    	long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+    	long seen = 0;
+    	for (int i = 0; i < counts.length; i++) {
+    		seen += counts[i];
+    		if (seen >= rank) {
+    			return Math.min(upperBound(i), max);
+    		}
+    	}
+    	return max;
+    }
+
+}
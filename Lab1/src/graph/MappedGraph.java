@@ -0,0 +1,479 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A read-only Graph of String labels stored in a memory-mapped file.
+ *
+ * <p>{@link #write(Graph, Path)} stores a graph in the same compressed sparse
+ * row layout as CompactGraph: a label dictionary, an open-addressing hash
+ * index from labels to ids, and offset, neighbor and weight arrays for both
+ * directions. {@link #open(Path)} only reads the header and maps the file, so
+ * opening takes milliseconds regardless of the size of the graph; the
+ * operating system pages the data in as it is queried, and none of it lives
+ * on the Java heap. Every section is mapped in chunks of 1 GiB, so sections
+ * larger than 2 GB are supported.
+ *
+ * <p>sources() and targets() return unmodifiable views that read the mapped
+ * arrays on demand; only the labels they return are decoded into Strings.
+ * The mutators add(), set() and remove() throw UnsupportedOperationException.
+ * A mapping stays valid until it is garbage collected, even after the file is
+ * deleted, so there is no close() method. The file must not be modified while
+ * it is mapped.
+ */
+public final class MappedGraph implements Graph<String> {
+
+    private static final int MAGIC = 0x474D4150; // "GMAP"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+
+    private final int vertexCount;
+    private final int tableSize;
+    private final long edgeCount;
+    private final Region labelOffsets;
+    private final Region labelBytes;
+    private final Region table;
+    private final Region outOffsets;
+    private final Region outTargets;
+    private final Region outWeights;
+    private final Region inOffsets;
+    private final Region inSources;
+    private final Region inWeights;
+
+    // Abstraction function:
+    //   AF(...) = a graph whose vertices are the labels 0..vertexCount-1, the
+    //     label of id i being the UTF-8 decoding of labelBytes between
+    //     labelOffsets[i] and labelOffsets[i+1], with an edge from label s to
+    //     label outTargets[k] of weight outWeights[k] for every
+    //     outOffsets[s] <= k < outOffsets[s+1]
+    //     inOffsets, inSources and inWeights are the same edges indexed by target
+    //     table is an open-addressing hash index from labels to ids, as in CompactGraph
+    // Representation invariant:
+    //   the same as CompactGraph, read from the mapped regions
+    //   tableSize is a power of two greater than vertexCount
+    // Safety from rep exposure:
+    //   all fields are private and final, and the regions are mapped read-only
+    //   observers return unmodifiable views
+
+    /**
+     * Write a graph to a file that {@link #open(Path)} can map.
+     *
+     * @param graph graph to write
+     * @param file file to create or overwrite
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Graph<String> graph, Path file) throws IOException {
+    	CompactGraph<String> frozen = CompactGraph.freeze(graph);
+    	int n = frozen.vertexCount();
+    	int edges = (int) frozen.edgeCount();
+    	byte[][] encoded = new byte[n][];
+    	long labelBytesLength = 0;
+    	for (int id = 0; id < n; id++) {
+    		encoded[id] = frozen.label(id).getBytes(StandardCharsets.UTF_8);
+    		labelBytesLength += encoded[id].length;
+    	}
+    	int tableSize = 2;
+    	while (tableSize < 2 * n) {
+    		tableSize <<= 1;
+    	}
+    	int[] slots = new int[tableSize];
+    	for (int id = 0; id < n; id++) {
+    		int slot = slotOf(frozen.label(id), tableSize);
+    		while (slots[slot] != 0) {
+    			slot = (slot + 1) & (tableSize - 1);
+    		}
+    		slots[slot] = id + 1;
+    	}
+
+    	try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+    		out.writeInt(MAGIC);
+    		out.writeInt(VERSION);
+    		out.writeInt(n);
+    		out.writeInt(tableSize);
+    		out.writeLong(edges);
+    		out.writeLong(labelBytesLength);
+    		long offset = 0;
+    		for (int id = 0; id < n; id++) {
+    			out.writeLong(offset);
+    			offset += encoded[id].length;
+    		}
+    		out.writeLong(offset);
+    		for (int id = 0; id < n; id++) {
+    			out.write(encoded[id]);
+    		}
+    		pad(out, labelBytesLength);
+    		for (int slot : slots) {
+    			out.writeInt(slot);
+    		}
+    		pad(out, 4L * tableSize);
+    		for (int id = 0; id <= n; id++) {
+    			out.writeLong(id < n ? frozen.outStart(id) : edges);
+    		}
+    		for (int k = 0; k < edges; k++) {
+    			out.writeInt(frozen.outTarget(k));
+    		}
+    		pad(out, 4L * edges);
+    		for (int k = 0; k < edges; k++) {
+    			out.writeInt(frozen.outEdgeWeight(k));
+    		}
+    		pad(out, 4L * edges);
+    		for (int id = 0; id <= n; id++) {
+    			out.writeLong(id < n ? frozen.inStart(id) : edges);
+    		}
+    		for (int k = 0; k < edges; k++) {
+    			out.writeInt(frozen.inSource(k));
+    		}
+    		pad(out, 4L * edges);
+    		for (int k = 0; k < edges; k++) {
+    			out.writeInt(frozen.inEdgeWeight(k));
+    		}
+    		pad(out, 4L * edges);
+    	}
+    }
+
+    private static void pad(DataOutputStream out, long length) throws IOException {
+    	for (long i = length; i % 8 != 0; i++) {
+    		out.write(0);
+    	}
+    }
+
+    private static long aligned(long length) {
+    	return (length + 7) & ~7L;
+    }
+
+    private static int slotOf(String label, int tableSize) {
+    	int hash = label.hashCode();
+    	return (hash ^ (hash >>> 16)) & (tableSize - 1);
+    }
+
+    /**
+     * Map a file written by {@link #write(Graph, Path)}.
+     *
+     * @param file file to map
+     * @return a read-only graph backed by the file
+     * @throws IOException if the file cannot be read or is not a mapped graph file
+     */
+    public static MappedGraph open(Path file) throws IOException {
+    	try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+    		return new MappedGraph(channel);
+    	}
+    }
+
+    private MappedGraph(FileChannel channel) throws IOException {
+    	long fileSize = channel.size();
+    	if (fileSize < HEADER_BYTES) {
+    		throw new IOException("not a mapped graph file: too short");
+    	}
+    	Region header = new Region(channel, 0, HEADER_BYTES);
+    	if (header.getInt(0) != MAGIC) {
+    		throw new IOException("not a mapped graph file: bad magic number");
+    	}
+    	if (header.getInt(4) != VERSION) {
+    		throw new IOException("unsupported mapped graph version " + header.getInt(4));
+    	}
+    	this.vertexCount = header.getInt(8);
+    	this.tableSize = header.getInt(12);
+    	this.edgeCount = header.getLong(16);
+    	long labelBytesLength = header.getLong(24);
+    	if (vertexCount < 0 || edgeCount < 0 || labelBytesLength < 0
+    			|| Integer.bitCount(tableSize) != 1 || tableSize <= vertexCount) {
+    		throw new IOException("corrupt mapped graph header");
+    	}
+    	long offsetsBytes = 8L * (vertexCount + 1);
+    	long edgeBytes = aligned(4L * edgeCount);
+    	long expectedSize = HEADER_BYTES + offsetsBytes + aligned(labelBytesLength) + aligned(4L * tableSize)
+    			+ 2 * (offsetsBytes + 2 * edgeBytes);
+    	if (fileSize != expectedSize) {
+    		throw new IOException("corrupt mapped graph: expected " + expectedSize + " bytes, found " + fileSize);
+    	}
+    	long position = HEADER_BYTES;
+    	this.labelOffsets = new Region(channel, position, offsetsBytes);
+    	position += offsetsBytes;
+    	this.labelBytes = new Region(channel, position, labelBytesLength);
+    	position += aligned(labelBytesLength);
+    	this.table = new Region(channel, position, 4L * tableSize);
+    	position += aligned(4L * tableSize);
+    	this.outOffsets = new Region(channel, position, offsetsBytes);
+    	position += offsetsBytes;
+    	this.outTargets = new Region(channel, position, 4L * edgeCount);
+    	position += edgeBytes;
+    	this.outWeights = new Region(channel, position, 4L * edgeCount);
+    	position += edgeBytes;
+    	this.inOffsets = new Region(channel, position, offsetsBytes);
+    	position += offsetsBytes;
+    	this.inSources = new Region(channel, position, 4L * edgeCount);
+    	position += edgeBytes;
+    	this.inWeights = new Region(channel, position, 4L * edgeCount);
+    	checkRep();
+    }
+
+    /**
+     * Check the rep invariant. Reading every row would page in the whole file,
+     * so that is only done when {@link CheckLevel#current()} checks the whole rep.
+     */
+    private void checkRep() {
+    	CheckLevel level = CheckLevel.current();
+    	if (!level.checksWholeRep()) {
+    		return;
+    	}
+    	assert labelOffsets.getLong(0) == 0 && outOffsets.getLong(0) == 0 && inOffsets.getLong(0) == 0:"offsets should start at 0";
+    	assert outOffsets.getLong(8L * vertexCount) == edgeCount && inOffsets.getLong(8L * vertexCount) == edgeCount:"both directions should hold every edge";
+    	for (int id = 0; id < vertexCount; id++) {
+    		assert idOf(label(id)) == id:"every label should be indexed under its own id";
+    		checkRow(outOffsets, outTargets, outWeights, id);
+    		checkRow(inOffsets, inSources, inWeights, id);
+    	}
+    }
+
+    private void checkRow(Region offsets, Region neighbors, Region weights, int id) {
+    	long start = offsets.getLong(8L * id);
+    	long end = offsets.getLong(8L * id + 8);
+    	assert start <= end:"offsets should be non-decreasing";
+    	for (long k = start; k < end; k++) {
+    		int neighbor = neighbors.getInt(4 * k);
+    		assert neighbor >= 0 && neighbor < vertexCount:"neighbor ids should be vertex ids";
+    		assert k == start || neighbors.getInt(4 * (k - 1)) < neighbor:"rows should be sorted by neighbor id";
+    		assert weights.getInt(4 * k) > 0:"weight should be positive";
+    	}
+    }
+
+    private int idOf(Object label) {
+    	if (!(label instanceof String)) {
+    		return -1;
+    	}
+    	byte[] encoded = ((String) label).getBytes(StandardCharsets.UTF_8);
+    	for (int slot = slotOf((String) label, tableSize); ; slot = (slot + 1) & (tableSize - 1)) {
+    		int id = table.getInt(4L * slot) - 1;
+    		if (id < 0 || labelEquals(id, encoded)) {
+    			return id;
+    		}
+    	}
+    }
+
+    private boolean labelEquals(int id, byte[] encoded) {
+    	long start = labelOffsets.getLong(8L * id);
+    	long end = labelOffsets.getLong(8L * id + 8);
+    	if (end - start != encoded.length) {
+    		return false;
+    	}
+    	for (int i = 0; i < encoded.length; i++) {
+    		if (labelBytes.get(start + i) != encoded[i]) {
+    			return false;
+    		}
+    	}
+    	return true;
+    }
+
+    private String label(int id) {
+    	long start = labelOffsets.getLong(8L * id);
+    	byte[] encoded = new byte[(int) (labelOffsets.getLong(8L * id + 8) - start)];
+    	for (int i = 0; i < encoded.length; i++) {
+    		encoded[i] = labelBytes.get(start + i);
+    	}
+    	return new String(encoded, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @throws UnsupportedOperationException always, a mapped graph is read-only
+     */
+    @Override public boolean add(String vertex) {
+    	throw new UnsupportedOperationException("MappedGraph is read-only");
+    }
+
+    /**
+     * @throws UnsupportedOperationException always, a mapped graph is read-only
+     */
+    @Override public int set(String source, String target, int weight) {
+    	throw new UnsupportedOperationException("MappedGraph is read-only");
+    }
+
+    /**
+     * @throws UnsupportedOperationException always, a mapped graph is read-only
+     */
+    @Override public boolean remove(String vertex) {
+    	throw new UnsupportedOperationException("MappedGraph is read-only");
+    }
+
+    @Override public Set<String> vertices() {
+    	return new AbstractSet<String>() {
+    		@Override public int size() {
+    			return vertexCount;
+    		}
+
+    		@Override public boolean contains(Object label) {
+    			return idOf(label) >= 0;
+    		}
+
+    		@Override public Iterator<String> iterator() {
+    			return new Iterator<String>() {
+    				private int id = 0;
+
+    				@Override public boolean hasNext() {
+    					return id < vertexCount;
+    				}
+
+    				@Override public String next() {
+    					if (!hasNext()) {
+    						throw new NoSuchElementException();
+    					}
+    					return label(id++);
+    				}
+    			};
+    		}
+    	};
+    }
+
+    @Override public Map<String, Integer> sources(String target) {
+    	int id = idOf(target);
+    	if (id < 0) {
+    		return Collections.emptyMap();
+    	}
+    	return new Row(inSources, inWeights, inOffsets.getLong(8L * id), inOffsets.getLong(8L * id + 8));
+    }
+
+    @Override public Map<String, Integer> targets(String source) {
+    	int id = idOf(source);
+    	if (id < 0) {
+    		return Collections.emptyMap();
+    	}
+    	return new Row(outTargets, outWeights, outOffsets.getLong(8L * id), outOffsets.getLong(8L * id + 8));
+    }
+
+	@Override
+	public String toString() {
+		String mappedGraphString = "MappedGraph{"
+				+ "vertices=" + vertexCount
+				+ ",edges=" + edgeCount + "}";
+		return mappedGraphString;
+	}
+
+    /**
+     * An unmodifiable map view of one row of the mapped arrays.
+     */
+    private final class Row extends AbstractMap<String, Integer> {
+
+    	private final Region neighbors;
+    	private final Region weights;
+    	private final long start;
+    	private final long end;
+
+    	Row(Region neighbors, Region weights, long start, long end) {
+    		this.neighbors = neighbors;
+    		this.weights = weights;
+    		this.start = start;
+    		this.end = end;
+    	}
+
+    	private long indexOf(Object label) {
+    		int id = idOf(label);
+    		long low = start;
+    		long high = end - 1;
+    		while (id >= 0 && low <= high) {
+    			long middle = (low + high) >>> 1;
+    			int neighbor = neighbors.getInt(4 * middle);
+    			if (neighbor < id) {
+    				low = middle + 1;
+    			} else if (neighbor > id) {
+    				high = middle - 1;
+    			} else {
+    				return middle;
+    			}
+    		}
+    		return -1;
+    	}
+
+    	@Override public int size() {
+    		return (int) Math.min(Integer.MAX_VALUE, end - start);
+    	}
+
+    	@Override public boolean containsKey(Object label) {
+    		return indexOf(label) >= 0;
+    	}
+
+    	@Override public Integer get(Object label) {
+    		long k = indexOf(label);
+    		return k < 0 ? null : weights.getInt(4 * k);
+    	}
+
+    	@Override public Set<Map.Entry<String, Integer>> entrySet() {
+    		return new AbstractSet<Map.Entry<String, Integer>>() {
+    			@Override public int size() {
+    				return Row.this.size();
+    			}
+
+    			@Override public Iterator<Map.Entry<String, Integer>> iterator() {
+    				return new Iterator<Map.Entry<String, Integer>>() {
+    					private long k = start;
+
+    					@Override public boolean hasNext() {
+    						return k < end;
+    					}
+
+    					@Override public Map.Entry<String, Integer> next() {
+    						if (!hasNext()) {
+    							throw new NoSuchElementException();
+    						}
+    						Map.Entry<String, Integer> entry = new AbstractMap.SimpleImmutableEntry<>(
+    								label(neighbors.getInt(4 * k)), weights.getInt(4 * k));
+    						k++;
+    						return entry;
+    					}
+    				};
+    			}
+    		};
+    	}
+    }
+
+    /**
+     * A read-only region of a file, mapped in chunks of 1 GiB so that it can be
+     * larger than one MappedByteBuffer. Every section starts 8-byte aligned and
+     * chunks are a multiple of 8 bytes, so no int or long spans two chunks.
+     */
+    private static final class Region {
+
+    	private static final int CHUNK_SHIFT = 30;
+    	private static final long CHUNK_MASK = (1L << CHUNK_SHIFT) - 1;
+
+    	private final MappedByteBuffer[] chunks;
+
+    	Region(FileChannel channel, long position, long length) throws IOException {
+    		int count = (int) ((length + CHUNK_MASK) >>> CHUNK_SHIFT);
+    		this.chunks = new MappedByteBuffer[count];
+    		for (int i = 0; i < count; i++) {
+    			long offset = (long) i << CHUNK_SHIFT;
+    			chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, position + offset, Math.min(1L << CHUNK_SHIFT, length - offset));
+    		}
+    	}
+
+    	byte get(long offset) {
+    		return chunks[(int) (offset >>> CHUNK_SHIFT)].get((int) (offset & CHUNK_MASK));
+    	}
+
+    	int getInt(long offset) {
+    		return chunks[(int) (offset >>> CHUNK_SHIFT)].getInt((int) (offset & CHUNK_MASK));
+    	}
+
+    	long getLong(long offset) {
+    		return chunks[(int) (offset >>> CHUNK_SHIFT)].getLong((int) (offset & CHUNK_MASK));
+    	}
+    }
+
+}
@@ -0,0 +1,81 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.AbstractMap;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * A live, unmodifiable view of the sources or targets of one vertex.
+ *
+ * <p>The view does not hold on to a map: every query asks the graph for the
+ * current neighbor map of the vertex, so it keeps reflecting the graph after
+ * edges are set, after the vertex is removed (it is then empty) and after the
+ * vertex is added again. The key set, values and entry set obtained from the
+ * view read through the neighbor map the vertex had when they were obtained.
+ * Iterating over the view while the graph is mutated behaves like iterating
+ * over the map it reads through: fail-fast for a HashMap, weakly consistent
+ * for a ConcurrentHashMap.
+ * This class is internal to the rep of the graph implementations.
+ */
+final class NeighborMapView<L> extends AbstractMap<L, Integer> {
+
+    private final Supplier<Map<L, Integer>> neighbors;
+
+    // Abstraction function:
+    //   AF(neighbors) = the map neighbors.get() at the time of each query
+    // Representation invariant:
+    //   neighbors is non-null and never returns null
+    // Safety from rep exposure:
+    //   the field is private and final
+    //   every query goes through Collections.unmodifiableMap, so the graph's
+    //   map cannot be mutated through the view
+
+    /**
+     * Create a view.
+     *
+     * @param neighbors returns the current neighbor map of the vertex, or an
+     *                  empty map if the vertex is not in the graph
+     */
+    NeighborMapView(Supplier<Map<L, Integer>> neighbors) {
+    	this.neighbors = neighbors;
+    }
+
+    private Map<L, Integer> current() {
+    	return Collections.unmodifiableMap(neighbors.get());
+    }
+
+    @Override public int size() {
+    	return neighbors.get().size();
+    }
+
+    @Override public boolean isEmpty() {
+    	return neighbors.get().isEmpty();
+    }
+
+    @Override public boolean containsKey(Object key) {
+    	return neighbors.get().containsKey(key);
+    }
+
+    @Override public Integer get(Object key) {
+    	return neighbors.get().get(key);
+    }
+
+    @Override public Set<L> keySet() {
+    	return current().keySet();
+    }
+
+    @Override public Collection<Integer> values() {
+    	return current().values();
+    }
+
+    @Override public Set<Map.Entry<L, Integer>> entrySet() {
+    	return current().entrySet();
+    }
+
+}
@@ -0,0 +1,389 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * A mutable map from objects to positive ints that stores its values
+ * unboxed, in one open-addressing table with linear probing.
+ *
+ * <p>get(), put(), remove() and forEach() never allocate (put() only when the
+ * table grows), so an edge weight costs one slot in two arrays instead of a
+ * HashMap node and an Integer. A missing key is reported as the value 0,
+ * which no entry can have. {@link #asMap()} returns a boxed Map view for
+ * callers that need the Map interface.
+ * This class is internal to the rep of the graph implementations.
+ *
+ * @param <K> type of keys, must be immutable and non-null
+ */
+final class ObjectIntMap<K> {
+
+    private static final int MIN_CAPACITY = 4;
+
+    private Object[] keys;
+    private int[] values;
+    private int size;
+    private long sum;
+    private int modCount;
+    private Map<K, Integer> view;
+
+    // Abstraction function:
+    //   AF(keys, values, size) = the map {keys[i] -> values[i] | keys[i] != null}
+    // Representation invariant:
+    //   keys.length == values.length, and is a power of two at least MIN_CAPACITY
+    //   size is the number of non-null keys, and 2 * size <= keys.length
+    //   sum is the sum of the values of the non-null keys
+    //   values[i] > 0 if keys[i] != null, values[i] == 0 otherwise
+    //   every key is in the slot its hash selects or after it, with no empty
+    //   slot in between (wrapping around), and appears only once
+    // Safety from rep exposure:
+    //   all fields are private; keys are immutable
+    //   asMap() returns an unmodifiable view
+
+    /**
+     * Create an empty map.
+     */
+    ObjectIntMap() {
+    	this(0);
+    }
+
+    /**
+     * Create an empty map that holds expected entries without growing.
+     *
+     * @param expected number of entries expected, non-negative
+     */
+    ObjectIntMap(int expected) {
+    	int capacity = MIN_CAPACITY;
+    	while (capacity < 2 * expected) {
+    		capacity <<= 1;
+    	}
+    	this.keys = new Object[capacity];
+    	this.values = new int[capacity];
+    }
+
+    /**
+     * Check the rep invariant. It is only called from tests and other
+     * checkRep methods, because it takes time linear in the capacity.
+     */
+    void checkRep() {
+    	assert keys.length == values.length && Integer.bitCount(keys.length) == 1 && keys.length >= MIN_CAPACITY:"capacity should be a power of two";
+    	assert 2 * size <= keys.length:"the table should be at most half full";
+    	int count = 0;
+    	long total = 0;
+    	for (int i = 0; i < keys.length; i++) {
+    		if (keys[i] == null) {
+    			assert values[i] == 0:"an empty slot should have no value";
+    			continue;
+    		}
+    		count++;
+    		total += values[i];
+    		assert values[i] > 0:"value should be positive";
+    		assert slotOf(keys[i]) == i:"key should be reachable from its home slot";
+    	}
+    	assert count == size:"size should count the keys";
+    	assert total == sum:"sum should add up the values";
+    }
+
+    private int home(Object key) {
+    	int hash = key.hashCode() * 0x9E3779B9;
+    	return (hash ^ (hash >>> 16)) & (keys.length - 1);
+    }
+
+    /**
+     * @return the slot that holds key, or -1 - the empty slot where it would go
+     */
+    private int slotOf(Object key) {
+    	int mask = keys.length - 1;
+    	for (int slot = home(key); ; slot = (slot + 1) & mask) {
+    		Object candidate = keys[slot];
+    		if (candidate == null) {
+    			return -1 - slot;
+    		}
+    		if (candidate == key || candidate.equals(key)) {
+    			return slot;
+    		}
+    	}
+    }
+
+    /**
+     * @return the number of entries
+     */
+    int size() {
+    	return size;
+    }
+
+    /**
+     * @return the sum of the values, kept up to date by put() and remove()
+     */
+    long sum() {
+    	return sum;
+    }
+
+    /**
+     * @return true if and only if there are no entries
+     */
+    boolean isEmpty() {
+    	return size == 0;
+    }
+
+    /**
+     * @param key key to look up, may be null or of any type
+     * @return the value of key, or 0 if it is not in the map
+     */
+    int get(Object key) {
+    	if (key == null) {
+    		return 0;
+    	}
+    	int slot = slotOf(key);
+    	return slot < 0 ? 0 : values[slot];
+    }
+
+    /**
+     * @param key key to look up, may be null or of any type
+     * @return true if and only if key is in the map
+     */
+    boolean containsKey(Object key) {
+    	return key != null && slotOf(key) >= 0;
+    }
+
+    /**
+     * Map key to value, replacing its previous value if any.
+     *
+     * @param key non-null key
+     * @param value positive value
+     * @return the previous value of key, or 0 if it was not in the map
+     */
+    int put(K key, int value) {
+    	Objects.requireNonNull(key, "key");
+    	assert value > 0:"value should be positive";
+    	int slot = slotOf(key);
+    	if (slot >= 0) {
+    		int previous = values[slot];
+    		values[slot] = value;
+    		sum += value - previous;
+    		return previous;
+    	}
+    	if (2 * (size + 1) > keys.length) {
+    		grow();
+    		slot = slotOf(key);
+    	}
+    	slot = -1 - slot;
+    	keys[slot] = key;
+    	values[slot] = value;
+    	size++;
+    	sum += value;
+    	modCount++;
+    	return 0;
+    }
+
+    /**
+     * Remove key from the map.
+     *
+     * @param key key to remove, may be null or of any type
+     * @return the value key had, or 0 if it was not in the map
+     */
+    int remove(Object key) {
+    	if (key == null) {
+    		return 0;
+    	}
+    	int slot = slotOf(key);
+    	if (slot < 0) {
+    		return 0;
+    	}
+    	int previous = values[slot];
+    	deleteSlot(slot);
+    	sum -= previous;
+    	return previous;
+    }
+
+    /**
+     * Empty a slot and shift later keys of the same probe run back into the
+     * gap, so that lookups never need tombstones.
+     */
+    private void deleteSlot(int gap) {
+    	int mask = keys.length - 1;
+    	for (int slot = (gap + 1) & mask; keys[slot] != null; slot = (slot + 1) & mask) {
+    		int home = home(keys[slot]);
+    		// move the key back unless its home lies cyclically in (gap, slot]
+    		if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+    			keys[gap] = keys[slot];
+    			values[gap] = values[slot];
+    			gap = slot;
+    		}
+    	}
+    	keys[gap] = null;
+    	values[gap] = 0;
+    	size--;
+    	modCount++;
+    }
+
+    private void grow() {
+    	Object[] oldKeys = keys;
+    	int[] oldValues = values;
+    	keys = new Object[2 * oldKeys.length];
+    	values = new int[2 * oldValues.length];
+    	for (int i = 0; i < oldKeys.length; i++) {
+    		if (oldKeys[i] != null) {
+    			int slot = -1 - slotOf(oldKeys[i]);
+    			keys[slot] = oldKeys[i];
+    			values[slot] = oldValues[i];
+    		}
+    	}
+    }
+
+    /**
+     * Call action with every key and its value, without boxing. action must
+     * not modify this map.
+     *
+     * @param action called once per entry
+     * @throws ConcurrentModificationException if action adds or removes keys
+     */
+    @SuppressWarnings("unchecked")
+    void forEach(ObjIntConsumer<? super K> action) {
+    	int expectedModCount = modCount;
+    	Object[] table = keys;
+    	for (int i = 0; i < table.length; i++) {
+    		if (table[i] != null) {
+    			action.accept((K) table[i], values[i]);
+    			if (modCount != expectedModCount) {
+    				throw new ConcurrentModificationException();
+    			}
+    		}
+    	}
+    }
+
+    /**
+     * @return a live unmodifiable Map view of this map, whose values are boxed
+     *         on access; iterating over it while this map gains or loses keys
+     *         fails fast with ConcurrentModificationException
+     */
+    Map<K, Integer> asMap() {
+    	if (view == null) {
+    		view = new MapView();
+    	}
+    	return view;
+    }
+
+    @Override public String toString() {
+    	return asMap().toString();
+    }
+
+    /**
+     * Iterates over the occupied slots.
+     */
+    private abstract class SlotIterator<T> implements Iterator<T> {
+
+    	private int next = advance(0);
+    	private final int expectedModCount = modCount;
+
+    	private int advance(int from) {
+    		while (from < keys.length && keys[from] == null) {
+    			from++;
+    		}
+    		return from;
+    	}
+
+    	@Override public boolean hasNext() {
+    		return next < keys.length;
+    	}
+
+    	/**
+    	 * @return the next occupied slot
+    	 */
+    	int nextSlot() {
+    		if (modCount != expectedModCount) {
+    			throw new ConcurrentModificationException();
+    		}
+    		if (!hasNext()) {
+    			throw new NoSuchElementException();
+    		}
+    		int slot = next;
+    		next = advance(next + 1);
+    		return slot;
+    	}
+    }
+
+    private final class MapView extends AbstractMap<K, Integer> {
+
+    	@Override public int size() {
+    		return size;
+    	}
+
+    	@Override public boolean containsKey(Object key) {
+    		return ObjectIntMap.this.containsKey(key);
+    	}
+
+    	@Override public Integer get(Object key) {
+    		int value = ObjectIntMap.this.get(key);
+    		return value == 0 ? null : value;
+    	}
+
+    	@Override public Set<K> keySet() {
+    		return new AbstractSet<K>() {
+    			@Override public int size() {
+    				return size;
+    			}
+
+    			@Override public boolean contains(Object key) {
+    				return ObjectIntMap.this.containsKey(key);
+    			}
+
+    			@Override public Iterator<K> iterator() {
+    				return new SlotIterator<K>() {
+    					@SuppressWarnings("unchecked")
+    					@Override public K next() {
+    						return (K) keys[nextSlot()];
+    					}
+    				};
+    			}
+    		};
+    	}
+
+    	@Override public Collection<Integer> values() {
+    		return new AbstractCollection<Integer>() {
+    			@Override public int size() {
+    				return size;
+    			}
+
+    			@Override public Iterator<Integer> iterator() {
+    				return new SlotIterator<Integer>() {
+    					@Override public Integer next() {
+    						return values[nextSlot()];
+    					}
+    				};
+    			}
+    		};
+    	}
+
+    	@Override public Set<Map.Entry<K, Integer>> entrySet() {
+    		return new AbstractSet<Map.Entry<K, Integer>>() {
+    			@Override public int size() {
+    				return size;
+    			}
+
+    			@Override public Iterator<Map.Entry<K, Integer>> iterator() {
+    				return new SlotIterator<Map.Entry<K, Integer>>() {
+    					@SuppressWarnings("unchecked")
+    					@Override public Map.Entry<K, Integer> next() {
+    						int slot = nextSlot();
+    						return new AbstractMap.SimpleImmutableEntry<>((K) keys[slot], values[slot]);
+    					}
+    				};
+    			}
+    		};
+    	}
+    }
+
+}
@@ -0,0 +1,225 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A Graph that reports its mutations to listeners, so that data derived from
+ * the graph can be updated incrementally instead of recomputed.
+ *
+ * <p>An ObservableGraph wraps another graph, which holds the vertices and
+ * edges; it must not be mutated except through the ObservableGraph. Every
+ * mutation that changes the graph is recorded as GraphEvents: add() records
+ * VERTEX_ADDED, set() records VERTEX_ADDED for each vertex it adds and then
+ * EDGE_CHANGED, and remove() records EDGE_CHANGED to weight zero for each
+ * incident edge (a self-loop once) and then VERTEX_REMOVED. Calls that do not
+ * change the graph record nothing.
+ *
+ * <p>Events are buffered and delivered in batches: a batch is delivered to
+ * every listener once it holds batchSize events, when {@link #flush()} is
+ * called, and at the end of {@link #batch(Runnable)}. Delivery happens on the
+ * mutating thread. While there are no listeners no events are recorded, so an
+ * unobserved graph costs one list check per mutation.
+ *
+ * <p>Like the graphs it usually wraps, this class is not thread-safe.
+ *
+ * @param <L> type of vertex labels in this graph, must be immutable
+ */
+public class ObservableGraph<L> implements Graph<L> {
+
+    private final Graph<L> graph;
+    private final int batchSize;
+    private final List<GraphListener<L>> listeners = new CopyOnWriteArrayList<>();
+    private List<GraphEvent<L>> pending = new ArrayList<>();
+    private int batchDepth = 0;
+
+    // Abstraction function:
+    //   AF(graph, pending) = the graph graph, whose mutations pending have not
+    //     yet been delivered to listeners
+    // Representation invariant:
+    //   batchSize is positive, batchDepth is non-negative
+    //   pending.size() < batchSize unless batchDepth > 0
+    //   pending is empty if listeners is empty
+    // Safety from rep exposure:
+    //   all fields are private
+    //   listeners receive an unmodifiable list that is never used again here
+    //   the observers return what graph returns; graph's own observers keep
+    //   callers from mutating it
+
+    /**
+     * Observe an empty AdjacencyMapGraph, delivering each event as it happens.
+     */
+    public ObservableGraph() {
+    	this(new AdjacencyMapGraph<>(), 1);
+    }
+
+    /**
+     * Observe a graph.
+     *
+     * @param graph graph to observe; must not be mutated afterwards except
+     *              through this graph
+     * @param batchSize number of events to buffer before delivering them, positive
+     * @throws IllegalArgumentException if batchSize is not positive
+     */
+    public ObservableGraph(Graph<L> graph, int batchSize) {
+    	if (batchSize <= 0) {
+    		throw new IllegalArgumentException("batchSize should be positive: " + batchSize);
+    	}
+    	this.graph = graph;
+    	this.batchSize = batchSize;
+    	checkRep();
+    }
+
+    private void checkRep() {
+    	assert batchSize > 0 && batchDepth >= 0:"batchSize should be positive";
+    	assert pending.size() < batchSize || batchDepth > 0:"a full batch should have been delivered";
+    	assert pending.isEmpty() || !listeners.isEmpty():"events should only be recorded for listeners";
+    }
+
+    /**
+     * Register a listener. It receives the events of mutations made from now
+     * on, including those already buffered but not yet delivered.
+     *
+     * @param listener listener to add
+     */
+    public void addListener(GraphListener<L> listener) {
+    	listeners.add(listener);
+    }
+
+    /**
+     * Unregister a listener. If no listeners remain, buffered events are dropped.
+     *
+     * @param listener listener to remove
+     * @return true if listener was registered
+     */
+    public boolean removeListener(GraphListener<L> listener) {
+    	boolean removed = listeners.remove(listener);
+    	if (listeners.isEmpty()) {
+    		pending.clear();
+    	}
+    	return removed;
+    }
+
+    /**
+     * Deliver the buffered events to every listener now, if there are any.
+     */
+    public void flush() {
+    	if (pending.isEmpty()) {
+    		return;
+    	}
+    	List<GraphEvent<L>> events = Collections.unmodifiableList(pending);
+    	pending = new ArrayList<>();
+    	for (GraphListener<L> listener : listeners) {
+    		listener.onEvents(events);
+    	}
+    }
+
+    /**
+     * Run some mutations of this graph and deliver all of their events as
+     * one batch, however many there are. Calls may be nested; the batch is
+     * delivered when the outermost call returns, even if mutations throws.
+     *
+     * @param mutations code that mutates this graph
+     */
+    public void batch(Runnable mutations) {
+    	batchDepth++;
+    	try {
+    		mutations.run();
+    	} finally {
+    		batchDepth--;
+    		if (batchDepth == 0) {
+    			flush();
+    		}
+    	}
+    }
+
+    private void record(GraphEvent<L> event) {
+    	pending.add(event);
+    }
+
+    private void endMutation() {
+    	if (pending.size() >= batchSize && batchDepth == 0) {
+    		flush();
+    	}
+    	checkRep();
+    }
+
+    @Override public boolean add(L vertex) {
+    	boolean added = graph.add(vertex);
+    	if (added && !listeners.isEmpty()) {
+    		record(GraphEvent.vertexAdded(vertex));
+    		endMutation();
+    	}
+    	return added;
+    }
+
+    @Override public int set(L source, L target, int weight) {
+    	if (listeners.isEmpty()) {
+    		return graph.set(source, target, weight);
+    	}
+    	Set<L> vertices = graph.vertices();
+    	boolean hadSource = vertices.contains(source);
+    	boolean hadTarget = vertices.contains(target);
+    	int previousWeight = graph.set(source, target, weight);
+    	// some implementations add missing vertices even when weight is zero
+    	if (!hadSource && graph.vertices().contains(source)) {
+    		record(GraphEvent.vertexAdded(source));
+    	}
+    	if (!hadTarget && !target.equals(source) && graph.vertices().contains(target)) {
+    		record(GraphEvent.vertexAdded(target));
+    	}
+    	if (previousWeight != weight) {
+    		record(GraphEvent.edgeChanged(source, target, previousWeight, weight));
+    	}
+    	endMutation();
+    	return previousWeight;
+    }
+
+    @Override public boolean remove(L vertex) {
+    	if (listeners.isEmpty()) {
+    		return graph.remove(vertex);
+    	}
+    	List<GraphEvent<L>> removedEdges = new ArrayList<>();
+    	for (Map.Entry<L, Integer> edge : graph.targets(vertex).entrySet()) {
+    		removedEdges.add(GraphEvent.edgeChanged(vertex, edge.getKey(), edge.getValue(), 0));
+    	}
+    	for (Map.Entry<L, Integer> edge : graph.sources(vertex).entrySet()) {
+    		if (!edge.getKey().equals(vertex)) {
+    			removedEdges.add(GraphEvent.edgeChanged(edge.getKey(), vertex, edge.getValue(), 0));
+    		}
+    	}
+    	if (!graph.remove(vertex)) {
+    		return false;
+    	}
+    	pending.addAll(removedEdges);
+    	record(GraphEvent.vertexRemoved(vertex));
+    	endMutation();
+    	return true;
+    }
+
+    @Override public Set<L> vertices() {
+    	return graph.vertices();
+    }
+
+    @Override public Map<L, Integer> sources(L target) {
+    	return graph.sources(target);
+    }
+
+    @Override public Map<L, Integer> targets(L source) {
+    	return graph.targets(source);
+    }
+
+	@Override
+	public String toString() {
+		String observableGraphString = "ObservableGraph{" + graph + "}";
+		return observableGraphString;
+	}
+
+}
@@ -0,0 +1,211 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable version of a graph whose updates return new versions.
+ *
+ * <p>The adjacency of every vertex is a persistent hash map, and so is the map
+ * from vertices to their adjacency. {@link #withVertex(Object) withVertex},
+ * {@link #withEdge(Object, Object, int) withEdge} and
+ * {@link #withoutVertex(Object) withoutVertex} copy only the trie paths to the
+ * vertices they touch and share everything else with this version, so an
+ * update costs memory proportional to the touched vertices (times a
+ * logarithmic factor), not to the size of the graph. Any number of threads
+ * may read a version without locking; see VersionedGraph for a mutable Graph
+ * that publishes new versions atomically.
+ *
+ * <p>The Graph mutators add(), set() and remove() throw
+ * UnsupportedOperationException; observers return unmodifiable views.
+ *
+ * @param <L> type of vertex labels in this graph, must be immutable
+ */
+public final class PersistentGraph<L> implements Graph<L> {
+
+    private static final PersistentGraph<Object> EMPTY =
+    		new PersistentGraph<>(PersistentMap.empty(), PersistentMap.empty());
+
+    private final PersistentMap<L, PersistentMap<L, Integer>> outgoing;
+    private final PersistentMap<L, PersistentMap<L, Integer>> incoming;
+
+    // Abstraction function:
+    //   AF(outgoing, incoming) = a graph whose vertices are the keys of outgoing,
+    //     with an edge from s to t of weight w for every outgoing[s][t] = w
+    //     incoming is the same set of edges indexed by target
+    // Representation invariant:
+    //   outgoing and incoming have the same key set
+    //   outgoing[s][t] = w if and only if incoming[t][s] = w
+    //   every key of the inner maps is a vertex, every weight is positive
+    // Safety from rep exposure:
+    //   all fields are private and final, and persistent maps are immutable
+    //   observers return unmodifiable views
+
+    private PersistentGraph(PersistentMap<L, PersistentMap<L, Integer>> outgoing,
+    		PersistentMap<L, PersistentMap<L, Integer>> incoming) {
+    	this.outgoing = outgoing;
+    	this.incoming = incoming;
+    }
+
+    /**
+     * @param <L> type of vertex labels in the graph
+     * @return the empty graph
+     */
+    @SuppressWarnings("unchecked")
+    public static <L> PersistentGraph<L> empty() {
+    	return (PersistentGraph<L>) EMPTY;
+    }
+
+    /**
+     * Check the rep invariant around the vertices touched by an update, as much
+     * as {@link CheckLevel#current()} asks for.
+     */
+    private PersistentGraph<L> checkRep(L source, L target) {
+    	CheckLevel level = CheckLevel.current();
+    	if (level.checksWholeRep()) {
+    		assert outgoing.size() == incoming.size():"outgoing and incoming should have the same key set";
+    		for (L vertex : outgoing.asMap().keySet()) {
+    			checkVertex(vertex);
+    		}
+    	} else if (level.checksTouchedVertices()) {
+    		checkVertex(source);
+    		checkVertex(target);
+    	}
+    	return this;
+    }
+
+    private void checkVertex(L vertex) {
+    	PersistentMap<L, Integer> targetsMap = outgoing.get(vertex);
+    	PersistentMap<L, Integer> sourcesMap = incoming.get(vertex);
+    	assert (targetsMap == null) == (sourcesMap == null):"a vertex should be a key of both outgoing and incoming";
+    	if (targetsMap == null) {
+    		return;
+    	}
+    	for (Map.Entry<L, Integer> entry : targetsMap.asMap().entrySet()) {
+    		assert entry.getValue() > 0:"weight should be positive";
+    		PersistentMap<L, Integer> mirror = incoming.get(entry.getKey());
+    		assert mirror != null && entry.getValue().equals(mirror.get(vertex)):"an outgoing edge should be stored as an incoming edge of its target";
+    	}
+    	for (Map.Entry<L, Integer> entry : sourcesMap.asMap().entrySet()) {
+    		PersistentMap<L, Integer> mirror = outgoing.get(entry.getKey());
+    		assert mirror != null && entry.getValue().equals(mirror.get(vertex)):"an incoming edge should be stored as an outgoing edge of its source";
+    	}
+    }
+
+    /**
+     * @param vertex label of a vertex
+     * @return a version with the vertex added; this version if it already has the vertex
+     */
+    public PersistentGraph<L> withVertex(L vertex) {
+    	if (outgoing.containsKey(vertex)) {
+    		return this;
+    	}
+    	return new PersistentGraph<>(outgoing.put(vertex, PersistentMap.empty()),
+    			incoming.put(vertex, PersistentMap.empty())).checkRep(vertex, vertex);
+    }
+
+    /**
+     * Add, change, or remove a weighted directed edge, with the same meaning as
+     * {@link Graph#set(Object, Object, int)}.
+     *
+     * @param source label of the source vertex
+     * @param target label of the target vertex
+     * @param weight nonnegative weight of the edge
+     * @return a version with the edge set; this version if nothing changes
+     */
+    public PersistentGraph<L> withEdge(L source, L target, int weight) {
+    	assert weight >= 0:"weight should be non-negative";
+    	if (weight == 0) {
+    		PersistentMap<L, Integer> targetsMap = outgoing.get(source);
+    		if (targetsMap == null || !targetsMap.containsKey(target)) {
+    			return this;
+    		}
+    		return new PersistentGraph<>(outgoing.put(source, targetsMap.remove(target)),
+    				incoming.put(target, incoming.get(target).remove(source))).checkRep(source, target);
+    	}
+    	PersistentGraph<L> graph = this.withVertex(source).withVertex(target);
+    	Integer previousWeight = graph.outgoing.get(source).get(target);
+    	if (previousWeight != null && previousWeight == weight) {
+    		return graph;
+    	}
+    	return new PersistentGraph<>(graph.outgoing.put(source, graph.outgoing.get(source).put(target, weight)),
+    			graph.incoming.put(target, graph.incoming.get(target).put(source, weight))).checkRep(source, target);
+    }
+
+    /**
+     * Remove a vertex and all of its edges.
+     *
+     * @param vertex label of the vertex to remove
+     * @return a version without the vertex; this version if it has no such vertex
+     */
+    public PersistentGraph<L> withoutVertex(L vertex) {
+    	PersistentMap<L, Integer> targetsMap = outgoing.get(vertex);
+    	if (targetsMap == null) {
+    		return this;
+    	}
+    	PersistentMap<L, Integer> sourcesMap = incoming.get(vertex);
+    	PersistentMap<L, PersistentMap<L, Integer>> newOutgoing = outgoing.remove(vertex);
+    	PersistentMap<L, PersistentMap<L, Integer>> newIncoming = incoming.remove(vertex);
+    	for (L target : targetsMap.asMap().keySet()) {
+    		PersistentMap<L, Integer> mirror = newIncoming.get(target);
+    		if (mirror != null) {
+    			newIncoming = newIncoming.put(target, mirror.remove(vertex));
+    		}
+    	}
+    	for (L source : sourcesMap.asMap().keySet()) {
+    		PersistentMap<L, Integer> mirror = newOutgoing.get(source);
+    		if (mirror != null) {
+    			newOutgoing = newOutgoing.put(source, mirror.remove(vertex));
+    		}
+    	}
+    	return new PersistentGraph<>(newOutgoing, newIncoming).checkRep(vertex, vertex);
+    }
+
+    /**
+     * @throws UnsupportedOperationException always, use withVertex() instead
+     */
+    @Override public boolean add(L vertex) {
+    	throw new UnsupportedOperationException("PersistentGraph is immutable, use withVertex");
+    }
+
+    /**
+     * @throws UnsupportedOperationException always, use withEdge() instead
+     */
+    @Override public int set(L source, L target, int weight) {
+    	throw new UnsupportedOperationException("PersistentGraph is immutable, use withEdge");
+    }
+
+    /**
+     * @throws UnsupportedOperationException always, use withoutVertex() instead
+     */
+    @Override public boolean remove(L vertex) {
+    	throw new UnsupportedOperationException("PersistentGraph is immutable, use withoutVertex");
+    }
+
+    @Override public Set<L> vertices() {
+    	return outgoing.asMap().keySet();
+    }
+
+    @Override public Map<L, Integer> sources(L target) {
+    	PersistentMap<L, Integer> sourcesMap = incoming.get(target);
+    	return sourcesMap == null ? Collections.emptyMap() : sourcesMap.asMap();
+    }
+
+    @Override public Map<L, Integer> targets(L source) {
+    	PersistentMap<L, Integer> targetsMap = outgoing.get(source);
+    	return targetsMap == null ? Collections.emptyMap() : targetsMap.asMap();
+    }
+
+	@Override
+	public String toString() {
+		String persistentGraphString = "PersistentGraph{"
+				+ "vertices=" + vertices()
+				+ ",edges=" + outgoing + "}";
+		return persistentGraphString;
+	}
+
+}
@@ -0,0 +1,395 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An immutable hash map with structural sharing: a hash array mapped trie.
+ *
+ * <p>put() and remove() return a new map that shares every node off the path
+ * to the changed key with this map, so an update allocates O(log n) nodes of
+ * at most 32 entries each and old versions stay valid and unchanged.
+ * Keys and values must be non-null.
+ * This class is internal to the rep of PersistentGraph.
+ *
+ * @param <K> type of keys, must be immutable
+ * @param <V> type of values, must be immutable
+ */
+final class PersistentMap<K, V> {
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    private static final PersistentMap<Object, Object> EMPTY = new PersistentMap<>(null, 0);
+
+    private final Node root;
+    private final int size;
+
+    // Abstraction function:
+    //   AF(root, size) = the map from every key stored in a leaf of the trie
+    //     rooted at root to the value stored next to it; the empty map if root is null
+    // Representation invariant:
+    //   size is the number of leaves in the trie
+    //   a key is stored on the path selected by successive 5-bit chunks of its
+    //     spread hash, or in a CollisionNode holding only keys with that hash
+    //   keys are distinct, keys and values are non-null
+    // Safety from rep exposure:
+    //   all fields are private and final, and nodes are never mutated after
+    //   they are published
+    //   asMap() is an unmodifiable view
+
+    private PersistentMap(Node root, int size) {
+    	this.root = root;
+    	this.size = size;
+    }
+
+    /**
+     * @param <K> type of keys
+     * @param <V> type of values
+     * @return the empty map
+     */
+    @SuppressWarnings("unchecked")
+    static <K, V> PersistentMap<K, V> empty() {
+    	return (PersistentMap<K, V>) EMPTY;
+    }
+
+    private static int hash(Object key) {
+    	int hash = key.hashCode();
+    	return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * @return the number of keys in this map
+     */
+    int size() {
+    	return size;
+    }
+
+    /**
+     * @param key a key
+     * @return the value for key, or null if key is not in this map
+     */
+    @SuppressWarnings("unchecked")
+    V get(Object key) {
+    	if (root == null || key == null) {
+    		return null;
+    	}
+    	return (V) root.get(0, hash(key), key);
+    }
+
+    /**
+     * @param key a key
+     * @return true iff key is in this map
+     */
+    boolean containsKey(Object key) {
+    	return get(key) != null;
+    }
+
+    /**
+     * @param key a non-null key
+     * @param value a non-null value
+     * @return a map like this one except that key maps to value; this map if
+     *         key already maps to the same value object
+     */
+    PersistentMap<K, V> put(K key, V value) {
+    	boolean[] added = new boolean[1];
+    	Node start = root == null ? BitmapNode.EMPTY : root;
+    	Node newRoot = start.put(0, hash(key), key, value, added);
+    	if (newRoot == root) {
+    		return this;
+    	}
+    	return new PersistentMap<>(newRoot, added[0] ? size + 1 : size);
+    }
+
+    /**
+     * @param key a key
+     * @return a map like this one without key; this map if key is not in it
+     */
+    PersistentMap<K, V> remove(Object key) {
+    	if (root == null || key == null) {
+    		return this;
+    	}
+    	Node newRoot = root.remove(0, hash(key), key);
+    	if (newRoot == root) {
+    		return this;
+    	}
+    	return newRoot == null ? empty() : new PersistentMap<>(newRoot, size - 1);
+    }
+
+    /**
+     * @return an unmodifiable java.util.Map view of this map
+     */
+    Map<K, V> asMap() {
+    	return new AbstractMap<K, V>() {
+    		@Override public int size() {
+    			return size;
+    		}
+
+    		@Override public boolean containsKey(Object key) {
+    			return PersistentMap.this.containsKey(key);
+    		}
+
+    		@Override public V get(Object key) {
+    			return PersistentMap.this.get(key);
+    		}
+
+    		@Override public Set<Map.Entry<K, V>> entrySet() {
+    			return new AbstractSet<Map.Entry<K, V>>() {
+    				@Override public int size() {
+    					return size;
+    				}
+
+    				@Override public Iterator<Map.Entry<K, V>> iterator() {
+    					return new EntryIterator<>(root);
+    				}
+    			};
+    		}
+    	};
+    }
+
+	@Override
+	public String toString() {
+		return asMap().toString();
+	}
+
+    /**
+     * A node of the trie. Its array holds pairs: a key followed by its value,
+     * or null followed by a child node.
+     */
+    private abstract static class Node {
+
+    	final Object[] array;
+
+    	Node(Object[] array) {
+    		this.array = array;
+    	}
+
+    	abstract Object get(int shift, int hash, Object key);
+
+    	abstract Node put(int shift, int hash, Object key, Object value, boolean[] added);
+
+    	abstract Node remove(int shift, int hash, Object key);
+
+    	static Object[] cloneAndSet(Object[] array, int i, Object value) {
+    		Object[] clone = array.clone();
+    		clone[i] = value;
+    		return clone;
+    	}
+    }
+
+    /**
+     * An inner node with up to 32 slots, of which only the occupied ones are
+     * stored, in the order of their bits in bitmap.
+     */
+    private static final class BitmapNode extends Node {
+
+    	static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+    	private final int bitmap;
+
+    	BitmapNode(int bitmap, Object[] array) {
+    		super(array);
+    		this.bitmap = bitmap;
+    	}
+
+    	private int index(int bit) {
+    		return Integer.bitCount(bitmap & (bit - 1));
+    	}
+
+    	@Override Object get(int shift, int hash, Object key) {
+    		int bit = 1 << ((hash >>> shift) & MASK);
+    		if ((bitmap & bit) == 0) {
+    			return null;
+    		}
+    		int i = 2 * index(bit);
+    		Object keyOrNull = array[i];
+    		if (keyOrNull == null) {
+    			return ((Node) array[i + 1]).get(shift + BITS, hash, key);
+    		}
+    		return key.equals(keyOrNull) ? array[i + 1] : null;
+    	}
+
+    	@Override Node put(int shift, int hash, Object key, Object value, boolean[] added) {
+    		int bit = 1 << ((hash >>> shift) & MASK);
+    		int i = 2 * index(bit);
+    		if ((bitmap & bit) == 0) {
+    			Object[] newArray = new Object[array.length + 2];
+    			System.arraycopy(array, 0, newArray, 0, i);
+    			newArray[i] = key;
+    			newArray[i + 1] = value;
+    			System.arraycopy(array, i, newArray, i + 2, array.length - i);
+    			added[0] = true;
+    			return new BitmapNode(bitmap | bit, newArray);
+    		}
+    		Object keyOrNull = array[i];
+    		Object valueOrNode = array[i + 1];
+    		if (keyOrNull == null) {
+    			Node child = ((Node) valueOrNode).put(shift + BITS, hash, key, value, added);
+    			return child == valueOrNode ? this : new BitmapNode(bitmap, cloneAndSet(array, i + 1, child));
+    		}
+    		if (key.equals(keyOrNull)) {
+    			return value == valueOrNode ? this : new BitmapNode(bitmap, cloneAndSet(array, i + 1, value));
+    		}
+    		added[0] = true;
+    		Node child = pair(shift + BITS, keyOrNull, valueOrNode, hash, key, value);
+    		Object[] newArray = cloneAndSet(array, i, null);
+    		newArray[i + 1] = child;
+    		return new BitmapNode(bitmap, newArray);
+    	}
+
+    	private static Node pair(int shift, Object key1, Object value1, int hash2, Object key2, Object value2) {
+    		int hash1 = hash(key1);
+    		if (hash1 == hash2) {
+    			return new CollisionNode(hash1, new Object[] { key1, value1, key2, value2 });
+    		}
+    		boolean[] ignored = new boolean[1];
+    		return EMPTY.put(shift, hash1, key1, value1, ignored).put(shift, hash2, key2, value2, ignored);
+    	}
+
+    	@Override Node remove(int shift, int hash, Object key) {
+    		int bit = 1 << ((hash >>> shift) & MASK);
+    		if ((bitmap & bit) == 0) {
+    			return this;
+    		}
+    		int i = 2 * index(bit);
+    		Object keyOrNull = array[i];
+    		if (keyOrNull == null) {
+    			Node child = (Node) array[i + 1];
+    			Node newChild = child.remove(shift + BITS, hash, key);
+    			if (newChild == child) {
+    				return this;
+    			}
+    			if (newChild != null) {
+    				return new BitmapNode(bitmap, cloneAndSet(array, i + 1, newChild));
+    			}
+    		} else if (!key.equals(keyOrNull)) {
+    			return this;
+    		}
+    		if (bitmap == bit) {
+    			return null;
+    		}
+    		Object[] newArray = new Object[array.length - 2];
+    		System.arraycopy(array, 0, newArray, 0, i);
+    		System.arraycopy(array, i + 2, newArray, i, array.length - i - 2);
+    		return new BitmapNode(bitmap ^ bit, newArray);
+    	}
+    }
+
+    /**
+     * A leaf holding two or more keys whose spread hashes are all equal.
+     */
+    private static final class CollisionNode extends Node {
+
+    	private final int hash;
+
+    	CollisionNode(int hash, Object[] array) {
+    		super(array);
+    		this.hash = hash;
+    	}
+
+    	private int indexOf(Object key) {
+    		for (int i = 0; i < array.length; i += 2) {
+    			if (key.equals(array[i])) {
+    				return i;
+    			}
+    		}
+    		return -1;
+    	}
+
+    	@Override Object get(int shift, int hash, Object key) {
+    		int i = indexOf(key);
+    		return i < 0 ? null : array[i + 1];
+    	}
+
+    	@Override Node put(int shift, int hash, Object key, Object value, boolean[] added) {
+    		if (hash != this.hash) {
+    			Object[] wrapper = { null, this };
+    			return new BitmapNode(1 << ((this.hash >>> shift) & MASK), wrapper).put(shift, hash, key, value, added);
+    		}
+    		int i = indexOf(key);
+    		if (i >= 0) {
+    			return array[i + 1] == value ? this : new CollisionNode(hash, cloneAndSet(array, i + 1, value));
+    		}
+    		Object[] newArray = new Object[array.length + 2];
+    		System.arraycopy(array, 0, newArray, 0, array.length);
+    		newArray[array.length] = key;
+    		newArray[array.length + 1] = value;
+    		added[0] = true;
+    		return new CollisionNode(hash, newArray);
+    	}
+
+    	@Override Node remove(int shift, int hash, Object key) {
+    		int i = indexOf(key);
+    		if (i < 0) {
+    			return this;
+    		}
+    		if (array.length == 2) {
+    			return null;
+    		}
+    		Object[] newArray = new Object[array.length - 2];
+    		System.arraycopy(array, 0, newArray, 0, i);
+    		System.arraycopy(array, i + 2, newArray, i, array.length - i - 2);
+    		return new CollisionNode(hash, newArray);
+    	}
+    }
+
+    /**
+     * Depth-first iterator over the leaves of a trie.
+     */
+    private static final class EntryIterator<K, V> implements Iterator<Map.Entry<K, V>> {
+
+    	// 7 levels of 5 bits cover a 32-bit hash, plus one level of collision nodes
+    	private final Object[][] arrays = new Object[8][];
+    	private final int[] positions = new int[8];
+    	private int depth = -1;
+    	private Map.Entry<K, V> next;
+
+    	EntryIterator(Node root) {
+    		if (root != null) {
+    			arrays[++depth] = root.array;
+    		}
+    		advance();
+    	}
+
+    	@SuppressWarnings("unchecked")
+    	private void advance() {
+    		next = null;
+    		while (depth >= 0) {
+    			Object[] array = arrays[depth];
+    			int position = positions[depth];
+    			if (position >= array.length) {
+    				positions[depth--] = 0;
+    				continue;
+    			}
+    			positions[depth] = position + 2;
+    			if (array[position] == null) {
+    				arrays[++depth] = ((Node) array[position + 1]).array;
+    				positions[depth] = 0;
+    			} else {
+    				next = new AbstractMap.SimpleImmutableEntry<>((K) array[position], (V) array[position + 1]);
+    				return;
+    			}
+    		}
+    	}
+
+    	@Override public boolean hasNext() {
+    		return next != null;
+    	}
+
+    	@Override public Map.Entry<K, V> next() {
+    		if (next == null) {
+    			throw new NoSuchElementException();
+    		}
+    		Map.Entry<K, V> entry = next;
+    		advance();
+    		return entry;
+    	}
+    }
+
+}
@@ -0,0 +1,530 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ToLongFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Shortest-path queries over any Graph.
+ *
+ * <p>The length of a path is the sum of the weights of its edges, so for an
+ * affinity graph a short path goes through rare adjacencies; callers that
+ * want strong connections should search a graph whose weights they have
+ * transformed accordingly.
+ *
+ * <p>The searches work on dense int ids: distances, parents and heap
+ * positions are kept in primitive arrays indexed by id, and the priority
+ * queue is a primitive binary heap, so a search allocates a few arrays and no
+ * object per vertex or edge. A CompactGraph already numbers its vertices.
+ * Any other graph is walked where it is, through forEachTarget() and
+ * forEachSource() for a WeightedGraph and targets() and sources() otherwise,
+ * and its vertices are numbered in a SymbolTable as the search reaches
+ * them. The arrays grow with the table, so a search that stops early costs
+ * in proportion to the part of the graph it visited, not to the whole graph.
+ * parallelDistancesFrom() is the exception: its threads need the whole graph
+ * numbered up front, so it freezes the graph with
+ * {@link CompactGraph#freeze}, which is free when the graph is already a
+ * CompactGraph. Callers that ask many queries of a large graph that does not
+ * change can also freeze it once and pass the snapshot, whose rows are
+ * faster to walk.
+ */
+public final class ShortestPaths {
+
+    private static final long UNREACHED = Long.MAX_VALUE;
+    private static final int NONE = -1;
+
+    private ShortestPaths() {
+    	throw new AssertionError("ShortestPaths is not instantiable");
+    }
+
+    /**
+     * Find a shortest path with Dijkstra's algorithm.
+     *
+     * @param <L> type of vertex labels in the graph
+     * @param graph graph to search
+     * @param source label of the first vertex of the path
+     * @param target label of the last vertex of the path
+     * @return a path from source to target of minimum weight, or empty if
+     *         there is none or either vertex is not in the graph; the path
+     *         from a vertex to itself is that vertex alone, of weight 0
+     */
+    public static <L> Optional<WeightedPath<L>> dijkstra(Graph<L> graph, L source, L target) {
+    	return aStar(graph, source, target, vertex -> 0);
+    }
+
+    /**
+     * Find a shortest path with A* search, which visits fewer vertices than
+     * Dijkstra's algorithm when heuristic is informative.
+     *
+     * @param <L> type of vertex labels in the graph
+     * @param graph graph to search
+     * @param source label of the first vertex of the path
+     * @param target label of the last vertex of the path
+     * @param heuristic lower bound on the weight of a path from a vertex to
+     *                  target; must be non-negative and never overestimate.
+     *                  A consistent heuristic (one that never drops by more
+     *                  than the weight of an edge) expands each vertex once.
+     * @return a path from source to target of minimum weight, or empty if
+     *         there is none or either vertex is not in the graph
+     */
+    public static <L> Optional<WeightedPath<L>> aStar(Graph<L> graph, L source, L target, ToLongFunction<? super L> heuristic) {
+    	SearchGraph<L> search = SearchGraph.of(graph);
+    	int s = search.idOf(source);
+    	int t = search.idOf(target);
+    	if (s < 0 || t < 0) {
+    		return Optional.empty();
+    	}
+    	int n = search.idCount();
+    	long[] distance = grown(new long[0], n, UNREACHED);
+    	long[] estimate = grown(new long[0], n, -1);
+    	int[] parent = new int[n];
+    	IntMinHeap frontier = new IntMinHeap(n);
+    	distance[s] = 0;
+    	parent[s] = NONE;
+    	frontier.offer(s, 0);
+    	while (!frontier.isEmpty()) {
+    		int u = frontier.pollMin();
+    		if (u == t) {
+    			return Optional.of(pathOf(search, parent, null, t, NONE, distance[t]));
+    		}
+    		int degree = search.expand(u, true);
+    		if (search.idCount() > distance.length) {
+    			distance = grown(distance, search.idCount(), UNREACHED);
+    			estimate = grown(estimate, search.idCount(), -1);
+    			parent = Arrays.copyOf(parent, distance.length);
+    		}
+    		for (int k = 0; k < degree; k++) {
+    			int v = search.neighbors[k];
+    			long candidate = distance[u] + search.weights[k];
+    			if (candidate < distance[v]) {
+    				distance[v] = candidate;
+    				parent[v] = u;
+    				if (estimate[v] < 0) {
+    					estimate[v] = heuristic.applyAsLong(search.label(v));
+    					assert estimate[v] >= 0:"heuristic should be non-negative";
+    				}
+    				// re-inserts a vertex that was already expanded if the
+    				// heuristic is admissible but not consistent
+    				frontier.offer(v, candidate + estimate[v]);
+    			}
+    		}
+    	}
+    	return Optional.empty();
+    }
+
+    /**
+     * Find a shortest path by searching forward from source and backward from
+     * target at once, which visits far fewer vertices than a one-sided search
+     * when both ends are in a large, well-connected graph.
+     *
+     * @param <L> type of vertex labels in the graph
+     * @param graph graph to search
+     * @param source label of the first vertex of the path
+     * @param target label of the last vertex of the path
+     * @return a path from source to target of minimum weight, or empty if
+     *         there is none or either vertex is not in the graph
+     */
+    public static <L> Optional<WeightedPath<L>> bidirectional(Graph<L> graph, L source, L target) {
+    	SearchGraph<L> search = SearchGraph.of(graph);
+    	int s = search.idOf(source);
+    	int t = search.idOf(target);
+    	if (s < 0 || t < 0) {
+    		return Optional.empty();
+    	}
+    	int n = search.idCount();
+    	long[] forward = grown(new long[0], n, UNREACHED);
+    	long[] backward = grown(new long[0], n, UNREACHED);
+    	int[] forwardParent = new int[n];
+    	int[] backwardParent = new int[n];
+    	IntMinHeap forwardFrontier = new IntMinHeap(n);
+    	IntMinHeap backwardFrontier = new IntMinHeap(n);
+    	forward[s] = 0;
+    	backward[t] = 0;
+    	forwardParent[s] = NONE;
+    	backwardParent[t] = NONE;
+    	forwardFrontier.offer(s, 0);
+    	backwardFrontier.offer(t, 0);
+    	long best = s == t ? 0 : UNREACHED;
+    	int meeting = s == t ? s : NONE;
+    	while (!forwardFrontier.isEmpty() && !backwardFrontier.isEmpty()
+    			&& forwardFrontier.minKey() + backwardFrontier.minKey() < best) {
+    		boolean forwardStep = forwardFrontier.minKey() <= backwardFrontier.minKey();
+    		int u = forwardStep ? forwardFrontier.pollMin() : backwardFrontier.pollMin();
+    		int degree = search.expand(u, forwardStep);
+    		if (search.idCount() > forward.length) {
+    			forward = grown(forward, search.idCount(), UNREACHED);
+    			backward = grown(backward, search.idCount(), UNREACHED);
+    			forwardParent = Arrays.copyOf(forwardParent, forward.length);
+    			backwardParent = Arrays.copyOf(backwardParent, forward.length);
+    		}
+    		if (forwardStep) {
+    			for (int k = 0; k < degree; k++) {
+    				int v = search.neighbors[k];
+    				long candidate = forward[u] + search.weights[k];
+    				if (candidate < forward[v]) {
+    					forward[v] = candidate;
+    					forwardParent[v] = u;
+    					forwardFrontier.offer(v, candidate);
+    					if (backward[v] != UNREACHED && candidate + backward[v] < best) {
+    						best = candidate + backward[v];
+    						meeting = v;
+    					}
+    				}
+    			}
+    		} else {
+    			for (int k = 0; k < degree; k++) {
+    				int v = search.neighbors[k];
+    				long candidate = backward[u] + search.weights[k];
+    				if (candidate < backward[v]) {
+    					backward[v] = candidate;
+    					backwardParent[v] = u;
+    					backwardFrontier.offer(v, candidate);
+    					if (forward[v] != UNREACHED && candidate + forward[v] < best) {
+    						best = candidate + forward[v];
+    						meeting = v;
+    					}
+    				}
+    			}
+    		}
+    	}
+    	if (meeting == NONE) {
+    		return Optional.empty();
+    	}
+    	return Optional.of(pathOf(search, forwardParent, backwardParent, meeting, NONE, best));
+    }
+
+    /**
+     * Find the weight of a shortest path from source to every vertex it can
+     * reach, with Dijkstra's algorithm.
+     *
+     * @param <L> type of vertex labels in the graph
+     * @param graph graph to search
+     * @param source label of the vertex the paths start from
+     * @return map from every vertex reachable from source, including source,
+     *         to the weight of a shortest path to it; empty if source is not
+     *         in the graph
+     */
+    public static <L> Map<L, Long> distancesFrom(Graph<L> graph, L source) {
+    	SearchGraph<L> search = SearchGraph.of(graph);
+    	int s = search.idOf(source);
+    	if (s < 0) {
+    		return Collections.emptyMap();
+    	}
+    	int n = search.idCount();
+    	long[] distance = grown(new long[0], n, UNREACHED);
+    	IntMinHeap frontier = new IntMinHeap(n);
+    	distance[s] = 0;
+    	frontier.offer(s, 0);
+    	while (!frontier.isEmpty()) {
+    		int u = frontier.pollMin();
+    		int degree = search.expand(u, true);
+    		distance = grown(distance, search.idCount(), UNREACHED);
+    		for (int k = 0; k < degree; k++) {
+    			int v = search.neighbors[k];
+    			long candidate = distance[u] + search.weights[k];
+    			if (candidate < distance[v]) {
+    				distance[v] = candidate;
+    				frontier.offer(v, candidate);
+    			}
+    		}
+    	}
+    	return distanceMap(search, distance);
+    }
+
+    /**
+     * Find the weight of a shortest path from source to every vertex it can
+     * reach, with parallel delta-stepping; the result is the same as
+     * {@link #distancesFrom(Graph, Object)}.
+     *
+     * <p>Vertices are kept in buckets of tentative distances of width delta.
+     * The vertices of the lowest bucket relax their light edges (weight at
+     * most delta) in parallel, repeatedly, until the bucket stays empty; then
+     * all the vertices that left the bucket relax their heavy edges in
+     * parallel. Distances are lowered with compare-and-set, so threads never
+     * lock. A bucket is a list of the vertices put in it, so memory grows with
+     * the vertices queued, not with the number of buckets. A small delta approaches Dijkstra's algorithm with little
+     * parallelism; a large one approaches Bellman-Ford with redundant work.
+     *
+     * @param <L> type of vertex labels in the graph
+     * @param graph graph to search
+     * @param source label of the vertex the paths start from
+     * @param delta width of a bucket, positive
+     * @return map from every vertex reachable from source, including source,
+     *         to the weight of a shortest path to it; empty if source is not
+     *         in the graph
+     * @throws IllegalArgumentException if delta is not positive
+     */
+    public static <L> Map<L, Long> parallelDistancesFrom(Graph<L> graph, L source, long delta) {
+    	if (delta <= 0) {
+    		throw new IllegalArgumentException("delta should be positive: " + delta);
+    	}
+    	CompactGraph<L> compact = CompactGraph.freeze(graph);
+    	int s = compact.idOf(source);
+    	if (s < 0) {
+    		return Collections.emptyMap();
+    	}
+    	int n = compact.vertexCount();
+    	AtomicLongArray distance = new AtomicLongArray(n);
+    	for (int v = 0; v < n; v++) {
+    		distance.set(v, UNREACHED);
+    	}
+    	distance.set(s, 0);
+    	TreeMap<Long, IntStream.Builder> buckets = new TreeMap<>();
+    	buckets.computeIfAbsent(0L, index -> IntStream.builder()).add(s);
+    	while (!buckets.isEmpty()) {
+    		long index = buckets.firstKey();
+    		IntStream.Builder settled = IntStream.builder();
+    		IntStream.Builder bucket;
+    		while ((bucket = buckets.remove(index)) != null) {
+    			// skip repeats, and vertices that have since moved to a lower
+    			// distance in another bucket
+    			int[] frontier = bucket.build().distinct().filter(v -> distance.get(v) / delta == index).toArray();
+    			for (int v : frontier) {
+    				settled.add(v);
+    			}
+    			enqueue(buckets, distance, delta, relax(compact, distance, delta, frontier, true));
+    		}
+    		enqueue(buckets, distance, delta, relax(compact, distance, delta, settled.build().distinct().toArray(), false));
+    	}
+    	long[] result = new long[n];
+    	for (int v = 0; v < n; v++) {
+    		result[v] = distance.get(v);
+    	}
+    	return distanceMap(new CompactSearchGraph<>(compact), result);
+    }
+
+    /**
+     * Relax the light or heavy edges from every vertex of frontier in parallel.
+     *
+     * @return the targets whose distance was lowered, possibly with repeats
+     */
+    private static <L> int[] relax(CompactGraph<L> compact, AtomicLongArray distance, long delta, int[] frontier, boolean light) {
+    	return IntStream.of(frontier).parallel().flatMap(u -> {
+    		long base = distance.get(u);
+    		IntStream.Builder lowered = IntStream.builder();
+    		for (int k = compact.outStart(u); k < compact.outEnd(u); k++) {
+    			int weight = compact.outEdgeWeight(k);
+    			if ((weight <= delta) == light && lower(distance, compact.outTarget(k), base + weight)) {
+    				lowered.add(compact.outTarget(k));
+    			}
+    		}
+    		return lowered.build();
+    	}).toArray();
+    }
+
+    /**
+     * Atomically lower distance[v] to candidate if candidate is smaller.
+     *
+     * @return true if and only if distance[v] was lowered
+     */
+    private static boolean lower(AtomicLongArray distance, int v, long candidate) {
+    	while (true) {
+    		long current = distance.get(v);
+    		if (candidate >= current) {
+    			return false;
+    		}
+    		if (distance.compareAndSet(v, current, candidate)) {
+    			return true;
+    		}
+    	}
+    }
+
+    private static void enqueue(TreeMap<Long, IntStream.Builder> buckets, AtomicLongArray distance, long delta, int[] vertices) {
+    	for (int v : vertices) {
+    		buckets.computeIfAbsent(distance.get(v) / delta, index -> IntStream.builder()).add(v);
+    	}
+    }
+
+    private static <L> Map<L, Long> distanceMap(SearchGraph<L> search, long[] distance) {
+    	Map<L, Long> distances = new HashMap<>();
+    	for (int v = 0; v < Math.min(distance.length, search.idCount()); v++) {
+    		if (distance[v] != UNREACHED) {
+    			distances.put(search.label(v), distance[v]);
+    		}
+    	}
+    	return distances;
+    }
+
+    /**
+     * @return array if it has at least size elements, otherwise a copy at
+     *         least twice as long whose new elements are fill
+     */
+    private static long[] grown(long[] array, int size, long fill) {
+    	if (size <= array.length) {
+    		return array;
+    	}
+    	long[] grown = Arrays.copyOf(array, Math.max(size, 2 * array.length));
+    	Arrays.fill(grown, array.length, grown.length, fill);
+    	return grown;
+    }
+
+    /**
+     * Build the path that follows parent links from middle back to the source
+     * and, if nextToTarget is non-null, next links from middle on to the target.
+     */
+    private static <L> WeightedPath<L> pathOf(SearchGraph<L> search, int[] parent, int[] nextToTarget, int middle, int end, long weight) {
+    	List<L> vertices = new ArrayList<>();
+    	for (int v = middle; v != end; v = parent[v]) {
+    		vertices.add(search.label(v));
+    	}
+    	Collections.reverse(vertices);
+    	if (nextToTarget != null) {
+    		for (int v = nextToTarget[middle]; v != end; v = nextToTarget[v]) {
+    			vertices.add(search.label(v));
+    		}
+    	}
+    	return new WeightedPath<>(vertices, weight);
+    }
+
+    /**
+     * The graph a search walks, by dense int ids from 0 to idCount()-1.
+     */
+    private abstract static class SearchGraph<L> {
+
+    	/** neighbors of the vertex last expanded, in neighbors[0..degree-1] */
+    	int[] neighbors = new int[16];
+    	/** weights of the edges to or from those neighbors */
+    	int[] weights = new int[16];
+
+    	/**
+    	 * @return a search graph over the vertices and edges of graph
+    	 */
+    	static <L> SearchGraph<L> of(Graph<L> graph) {
+    		if (graph instanceof CompactGraph) {
+    			return new CompactSearchGraph<>((CompactGraph<L>) graph);
+    		}
+    		return new LazySearchGraph<>(graph);
+    	}
+
+    	/**
+    	 * @return the id of label, or NONE if it is not a vertex
+    	 */
+    	abstract int idOf(L label);
+
+    	/**
+    	 * @return the label of an id
+    	 */
+    	abstract L label(int id);
+
+    	/**
+    	 * @return a bound on the ids handed out so far; it only grows
+    	 */
+    	abstract int idCount();
+
+    	/**
+    	 * Put the targets, or the sources, of a vertex in neighbors and the
+    	 * weights of their edges in weights, giving ids to new neighbors.
+    	 *
+    	 * @param u id of the vertex
+    	 * @param out true for the targets of u, false for its sources
+    	 * @return the number of neighbors, degree
+    	 */
+    	abstract int expand(int u, boolean out);
+
+    	void put(int k, int neighbor, int weight) {
+    		if (k == neighbors.length) {
+    			neighbors = Arrays.copyOf(neighbors, 2 * k);
+    			weights = Arrays.copyOf(weights, 2 * k);
+    		}
+    		neighbors[k] = neighbor;
+    		weights[k] = weight;
+    	}
+    }
+
+    /**
+     * The ids of a CompactGraph, which has numbered all its vertices.
+     */
+    private static final class CompactSearchGraph<L> extends SearchGraph<L> {
+
+    	private final CompactGraph<L> compact;
+
+    	CompactSearchGraph(CompactGraph<L> compact) {
+    		this.compact = compact;
+    	}
+
+    	@Override int idOf(L label) {
+    		return compact.idOf(label);
+    	}
+
+    	@Override L label(int id) {
+    		return compact.label(id);
+    	}
+
+    	@Override int idCount() {
+    		return compact.vertexCount();
+    	}
+
+    	@Override int expand(int u, boolean out) {
+    		int degree = 0;
+    		if (out) {
+    			for (int k = compact.outStart(u); k < compact.outEnd(u); k++) {
+    				put(degree++, compact.outTarget(k), compact.outEdgeWeight(k));
+    			}
+    		} else {
+    			for (int k = compact.inStart(u); k < compact.inEnd(u); k++) {
+    				put(degree++, compact.inSource(k), compact.inEdgeWeight(k));
+    			}
+    		}
+    		return degree;
+    	}
+    }
+
+    /**
+     * Ids given to the vertices of any other graph as a search reaches them,
+     * so that the rest of the graph is never looked at.
+     */
+    private static final class LazySearchGraph<L> extends SearchGraph<L> {
+
+    	private final Graph<L> graph;
+    	private final SymbolTable<L> symbols = new SymbolTable<>();
+    	private int degree;
+    	private final ObjIntConsumer<L> collect = (neighbor, weight) -> put(degree++, symbols.id(neighbor), weight);
+
+    	LazySearchGraph(Graph<L> graph) {
+    		this.graph = graph;
+    	}
+
+    	@Override int idOf(L label) {
+    		return graph.vertices().contains(label) ? symbols.id(label) : NONE;
+    	}
+
+    	@Override L label(int id) {
+    		return symbols.label(id);
+    	}
+
+    	@Override int idCount() {
+    		return symbols.size();
+    	}
+
+    	@Override int expand(int u, boolean out) {
+    		L label = symbols.label(u);
+    		degree = 0;
+    		if (graph instanceof WeightedGraph) {
+    			WeightedGraph<L> weighted = (WeightedGraph<L>) graph;
+    			if (out) {
+    				weighted.forEachTarget(label, collect);
+    			} else {
+    				weighted.forEachSource(label, collect);
+    			}
+    		} else {
+    			for (Map.Entry<L, Integer> edge : (out ? graph.targets(label) : graph.sources(label)).entrySet()) {
+    				collect.accept(edge.getKey(), edge.getValue());
+    			}
+    		}
+    		return degree;
+    	}
+    }
+
+}
@@ -0,0 +1,78 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+/**
+ * A Graph that keeps degree and weight statistics up to date as it is
+ * mutated, so reading them takes constant time.
+ *
+ * <p>Without these methods a client has to call targets() or sources() and
+ * sum the map, which takes time proportional to the degree of the vertex (or
+ * to the number of edges in the whole graph, for ConcreteEdgesGraph).
+ * Implementations instead update per-vertex in- and out-degrees and weight
+ * totals, and the global vertex count, edge count and total weight, in add(),
+ * set() and remove().
+ *
+ * @param <L> type of vertex labels in this graph, must be immutable
+ */
+public interface StatisticsGraph<L> extends Graph<L> {
+
+    /**
+     * @return the number of vertices in this graph, the same as vertices().size()
+     */
+    public int vertexCount();
+
+    /**
+     * @return the number of edges in this graph
+     */
+    public long edgeCount();
+
+    /**
+     * @return the sum of the weights of all the edges in this graph
+     */
+    public long totalWeight();
+
+    /**
+     * @param vertex label of a vertex
+     * @return the number of edges from vertex, or zero if it is not in the
+     *         graph; the same as targets(vertex).size()
+     */
+    public int outDegree(L vertex);
+
+    /**
+     * @param vertex label of a vertex
+     * @return the number of edges to vertex, or zero if it is not in the
+     *         graph; the same as sources(vertex).size()
+     */
+    public int inDegree(L vertex);
+
+    /**
+     * @param vertex label of a vertex
+     * @return the sum of the weights of the edges from vertex, or zero if it
+     *         is not in the graph
+     */
+    public long outWeight(L vertex);
+
+    /**
+     * @param vertex label of a vertex
+     * @return the sum of the weights of the edges to vertex, or zero if it is
+     *         not in the graph
+     */
+    public long inWeight(L vertex);
+
+    /**
+     * Get the probability of following an edge when leaving a vertex along an
+     * edge chosen in proportion to its weight.
+     *
+     * @param source label of the source vertex
+     * @param target label of the target vertex
+     * @return the weight of the edge from source to target divided by
+     *         outWeight(source), or zero if there is no such edge
+     */
+    public default double transitionProbability(L source, L target) {
+    	Integer weight = targets(source).get(target);
+    	return weight == null ? 0 : (double) weight / outWeight(source);
+    }
+
+}
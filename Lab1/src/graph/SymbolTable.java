@@ -0,0 +1,142 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A table that interns labels: it maps every distinct label to one canonical
+ * instance and to a dense int id, given in the order labels are first seen.
+ *
+ * <p>Storing the canonical instance wherever a label is needed keeps each
+ * distinct label in memory once, however many times equal copies of it are
+ * passed in, and lets equals() on canonical instances succeed on identity
+ * without comparing their contents. Labels are never forgotten, so ids stay
+ * valid for the life of the table. A SymbolTable is not thread-safe.
+ *
+ * @param <L> type of labels, must be immutable
+ */
+public final class SymbolTable<L> {
+
+    private final ObjectIntMap<L> ids;
+    private final List<L> labels;
+    private final List<L> labelView;
+
+    // Abstraction function:
+    //   AF(ids, labels) = the table mapping labels.get(i) to id i, for every
+    //     i in 0..labels.size()-1
+    // Representation invariant:
+    //   labels are non-null and distinct
+    //   ids maps labels.get(i) to i + 1 (ObjectIntMap only holds positive
+    //     values), and has no other keys
+    //   labelView is an unmodifiable view of labels
+    // Safety from rep exposure:
+    //   all fields are private and final
+    //   labels are immutable; labels() returns an unmodifiable view
+
+    /**
+     * Create an empty table.
+     */
+    public SymbolTable() {
+    	this(0);
+    }
+
+    /**
+     * Create an empty table sized for a number of labels.
+     *
+     * @param expectedLabels number of distinct labels expected, must be non-negative
+     * @throws IllegalArgumentException if expectedLabels is negative
+     */
+    public SymbolTable(int expectedLabels) {
+    	if (expectedLabels < 0) {
+    		throw new IllegalArgumentException("expectedLabels should be non-negative: " + expectedLabels);
+    	}
+    	this.ids = new ObjectIntMap<>(expectedLabels);
+    	this.labels = new ArrayList<>(expectedLabels);
+    	this.labelView = Collections.unmodifiableList(labels);
+    }
+
+    /**
+     * Check the rep invariant. It is only called from tests, because it takes
+     * time linear in the size of the table.
+     */
+    void checkRep() {
+    	assert ids.size() == labels.size():"ids should have one key per label";
+    	for (int id = 0; id < labels.size(); id++) {
+    		assert labels.get(id) != null && ids.get(labels.get(id)) == id + 1:"every label should map to its own id";
+    	}
+    }
+
+    /**
+     * Intern a label, giving it the next id if it is new.
+     *
+     * @param label non-null label
+     * @return the id of label
+     */
+    public int id(L label) {
+    	Objects.requireNonNull(label, "label");
+    	int id = ids.get(label) - 1;
+    	if (id < 0) {
+    		id = labels.size();
+    		labels.add(label);
+    		ids.put(label, id + 1);
+    	}
+    	return id;
+    }
+
+    /**
+     * Intern a label.
+     *
+     * @param label non-null label
+     * @return the canonical instance equal to label: label itself if it is
+     *         new, otherwise the instance that was interned first
+     */
+    public L intern(L label) {
+    	return labels.get(id(label));
+    }
+
+    /**
+     * Look up a label without interning it.
+     *
+     * @param label label to look up, may be null or of any type
+     * @return the id of label, or -1 if it has not been interned
+     */
+    public int idOf(Object label) {
+    	return ids.get(label) - 1;
+    }
+
+    /**
+     * @param id an id in 0..size()-1
+     * @return the canonical label with that id
+     * @throws IndexOutOfBoundsException if id is not in 0..size()-1
+     */
+    public L label(int id) {
+    	return labels.get(id);
+    }
+
+    /**
+     * @return the number of distinct labels interned
+     */
+    public int size() {
+    	return labels.size();
+    }
+
+    /**
+     * @return an unmodifiable view of the canonical labels in id order; it
+     *         reflects labels interned later
+     */
+    public List<L> labels() {
+    	return labelView;
+    }
+
+	@Override
+	public String toString() {
+		String symbolTableString = "SymbolTable{" + labels + "}";
+		return symbolTableString;
+	}
+
+}
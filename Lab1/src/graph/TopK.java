@@ -0,0 +1,129 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * A bounded min-heap that keeps the k heaviest of the (label, weight) pairs
+ * offered to it.
+ *
+ * <p>Offering d pairs takes O(d log k) time and O(min(k, d)) space: the heap
+ * starts small and grows as pairs are kept, so a k much larger than the
+ * number of pairs offered costs nothing, and a pair lighter than the
+ * lightest one kept is rejected after one comparison. Weights are
+ * kept unboxed; only the k results are boxed, by {@link #toList()}.
+ * This class is internal to the rep of the graph implementations.
+ *
+ * @param <L> type of labels
+ */
+final class TopK<L> implements ObjIntConsumer<L> {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int k;
+    private Object[] labels;
+    private int[] weights;
+    private int size;
+
+    // Abstraction function:
+    //   AF(k, labels, weights, size) = the pairs (labels[i], weights[i]) for 0 <= i < size,
+    //     the k heaviest of the pairs offered so far
+    // Representation invariant:
+    //   0 <= size <= labels.length == weights.length <= k
+    //   weights[(i-1)/2] <= weights[i] for 0 < i < size
+    // Safety from rep exposure:
+    //   all fields are private; toList() returns a new list of immutable entries
+
+    /**
+     * Create an empty heap.
+     *
+     * @param k number of pairs to keep, non-negative
+     * @throws IllegalArgumentException if k is negative
+     */
+    TopK(int k) {
+    	if (k < 0) {
+    		throw new IllegalArgumentException("k should be non-negative: " + k);
+    	}
+    	this.k = k;
+    	this.labels = new Object[Math.min(k, INITIAL_CAPACITY)];
+    	this.weights = new int[labels.length];
+    }
+
+    /**
+     * Offer a pair; it is kept if fewer than k pairs are kept or it is
+     * heavier than the lightest pair kept, which it then replaces.
+     */
+    @Override public void accept(L label, int weight) {
+    	if (size < k) {
+    		if (size == labels.length) {
+    			int capacity = (int) Math.min(k, 2L * labels.length);
+    			labels = Arrays.copyOf(labels, capacity);
+    			weights = Arrays.copyOf(weights, capacity);
+    		}
+    		int i = size++;
+    		while (i > 0 && weights[(i - 1) >>> 1] > weight) {
+    			int parent = (i - 1) >>> 1;
+    			labels[i] = labels[parent];
+    			weights[i] = weights[parent];
+    			i = parent;
+    		}
+    		labels[i] = label;
+    		weights[i] = weight;
+    	} else if (size > 0 && weight > weights[0]) {
+    		siftDown(label, weight);
+    	}
+    }
+
+    private void siftDown(Object label, int weight) {
+    	int i = 0;
+    	while (true) {
+    		int child = 2 * i + 1;
+    		if (child >= size) {
+    			break;
+    		}
+    		if (child + 1 < size && weights[child + 1] < weights[child]) {
+    			child++;
+    		}
+    		if (weight <= weights[child]) {
+    			break;
+    		}
+    		labels[i] = labels[child];
+    		weights[i] = weights[child];
+    		i = child;
+    	}
+    	labels[i] = label;
+    	weights[i] = weight;
+    }
+
+    /**
+     * Empty the heap.
+     *
+     * @return the pairs kept, heaviest first
+     */
+    @SuppressWarnings("unchecked")
+    List<Map.Entry<L, Integer>> toList() {
+    	List<Map.Entry<L, Integer>> result = new ArrayList<>(size);
+    	while (size > 0) {
+    		result.add(new AbstractMap.SimpleImmutableEntry<>((L) labels[0], weights[0]));
+    		size--;
+    		Object lastLabel = labels[size];
+    		int lastWeight = weights[size];
+    		labels[size] = null;
+    		if (size > 0) {
+    			siftDown(lastLabel, lastWeight);
+    		}
+    	}
+    	// popped lightest first
+    	Collections.reverse(result);
+    	return result;
+    }
+
+}
@@ -0,0 +1,129 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A thread-safe implementation of Graph that publishes immutable versions.
+ *
+ * <p>The current state is a PersistentGraph. Each mutation builds the next
+ * version from the current one, sharing all unchanged adjacency, and publishes
+ * it with a single compare-and-set; if another writer published first, the
+ * mutation is retried on the newer version. Mutations are therefore atomic and
+ * lock-free.
+ *
+ * <p>Readers never lock. {@link #snapshot()} returns the current version,
+ * which stays consistent no matter what is published afterwards. The Graph
+ * observers read from the version that is current when they are called, so
+ * a map returned by targets() does not change after it is returned.
+ *
+ * @param <L> type of vertex labels in this graph, must be immutable
+ */
+public class VersionedGraph<L> implements Graph<L> {
+
+    private final AtomicReference<PersistentGraph<L>> current;
+
+    // Abstraction function:
+    //   AF(current) = the graph current.get()
+    // Representation invariant:
+    //   current.get() is non-null
+    // Safety from rep exposure:
+    //   current is private and final
+    //   the versions it holds are immutable, so they can be shared with readers
+    // Thread safety argument:
+    //   the only mutable state is the AtomicReference; every mutation replaces
+    //   the version with compareAndSet, so concurrent mutations are linearized
+    //   and readers always see a complete version
+
+    /**
+     * Create an empty graph.
+     */
+    public VersionedGraph() {
+    	this(PersistentGraph.empty());
+    }
+
+    /**
+     * Create a graph whose first version is the given one.
+     *
+     * @param initial first version of the graph
+     */
+    public VersionedGraph(PersistentGraph<L> initial) {
+    	this.current = new AtomicReference<>(initial);
+    	checkRep();
+    }
+
+    private void checkRep() {
+    	assert current.get() != null:"current version should be non-null";
+    }
+
+    /**
+     * Get the current version of this graph. The version never changes, so it
+     * can be read without locking while this graph keeps being mutated.
+     *
+     * @return the current version
+     */
+    public PersistentGraph<L> snapshot() {
+    	return current.get();
+    }
+
+    @Override public boolean add(L vertex) {
+    	while (true) {
+    		PersistentGraph<L> version = current.get();
+    		PersistentGraph<L> next = version.withVertex(vertex);
+    		if (next == version) {
+    			return false;
+    		}
+    		if (current.compareAndSet(version, next)) {
+    			return true;
+    		}
+    	}
+    }
+
+    @Override public int set(L source, L target, int weight) {
+    	while (true) {
+    		PersistentGraph<L> version = current.get();
+    		Integer previousWeight = version.targets(source).get(target);
+    		PersistentGraph<L> next = version.withEdge(source, target, weight);
+    		if (next == version || current.compareAndSet(version, next)) {
+    			return previousWeight == null ? 0 : previousWeight;
+    		}
+    	}
+    }
+
+    @Override public boolean remove(L vertex) {
+    	while (true) {
+    		PersistentGraph<L> version = current.get();
+    		PersistentGraph<L> next = version.withoutVertex(vertex);
+    		if (next == version) {
+    			return false;
+    		}
+    		if (current.compareAndSet(version, next)) {
+    			return true;
+    		}
+    	}
+    }
+
+    @Override public Set<L> vertices() {
+    	return current.get().vertices();
+    }
+
+    @Override public Map<L, Integer> sources(L target) {
+    	return current.get().sources(target);
+    }
+
+    @Override public Map<L, Integer> targets(L source) {
+    	return current.get().targets(source);
+    }
+
+	@Override
+	public String toString() {
+		String versionedGraphString = "VersionedGraph{"
+				+ "current=" + current.get() + "}";
+		return versionedGraphString;
+	}
+
+}
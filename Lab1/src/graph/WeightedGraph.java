@@ -0,0 +1,97 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * A Graph that also answers weight queries with primitive ints.
+ *
+ * <p>The Graph observers return Map&lt;L, Integer&gt;, so every weight they
+ * hand out is an Integer. Implementations of this interface store weights
+ * unboxed and let hot loops read them without allocating: weight() looks up
+ * one edge, and forEachTarget() and forEachSource() visit the edges of a
+ * vertex through a callback that takes the weight as an int.
+ *
+ * <p>topTargets() and topSources() return only the heaviest few edges of a
+ * vertex. By default they scan the vertex's edges with a bounded heap in
+ * O(d log k) time for a vertex of degree d; implementations that keep rows
+ * sorted by weight answer them in O(k).
+ *
+ * @param <L> type of vertex labels in this graph, must be immutable
+ */
+public interface WeightedGraph<L> extends Graph<L> {
+
+    /**
+     * Get the weight of an edge.
+     *
+     * @param source label of the source vertex
+     * @param target label of the target vertex
+     * @return the weight of the edge from source to target, or zero if there
+     *         is no such edge (including when either vertex is not in the graph);
+     *         the same as targets(source).getOrDefault(target, 0)
+     */
+    public int weight(L source, L target);
+
+    /**
+     * Visit the targets of a vertex. action must not mutate this graph.
+     *
+     * @param source label of the source vertex
+     * @param action called once for each edge from source, with the label of
+     *               its target and its weight; not called if source is not in
+     *               the graph
+     */
+    public void forEachTarget(L source, ObjIntConsumer<? super L> action);
+
+    /**
+     * Visit the sources of a vertex. action must not mutate this graph.
+     *
+     * @param target label of the target vertex
+     * @param action called once for each edge to target, with the label of its
+     *               source and its weight; not called if target is not in the
+     *               graph
+     */
+    public void forEachSource(L target, ObjIntConsumer<? super L> action);
+
+    /**
+     * Get the heaviest edges from a vertex.
+     *
+     * @param source label of the source vertex
+     * @param k maximum number of edges to return, non-negative
+     * @return the min(k, d) edges of greatest weight among the d edges from
+     *         source, as (target, weight) entries in non-increasing order of
+     *         weight; edges of equal weight are in unspecified order. Empty if
+     *         source is not in the graph. The list is not backed by the graph.
+     * @throws IllegalArgumentException if k is negative
+     */
+    public default List<Map.Entry<L, Integer>> topTargets(L source, int k) {
+    	TopK<L> top = new TopK<>(k);
+    	if (k > 0) {
+    		forEachTarget(source, top);
+    	}
+    	return top.toList();
+    }
+
+    /**
+     * Get the heaviest edges to a vertex.
+     *
+     * @param target label of the target vertex
+     * @param k maximum number of edges to return, non-negative
+     * @return the min(k, d) edges of greatest weight among the d edges to
+     *         target, as (source, weight) entries in non-increasing order of
+     *         weight; edges of equal weight are in unspecified order. Empty if
+     *         target is not in the graph. The list is not backed by the graph.
+     * @throws IllegalArgumentException if k is negative
+     */
+    public default List<Map.Entry<L, Integer>> topSources(L target, int k) {
+    	TopK<L> top = new TopK<>(k);
+    	if (k > 0) {
+    		forEachSource(target, top);
+    	}
+    	return top.toList();
+    }
+
+}
@@ -0,0 +1,99 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable path in a graph: a non-empty sequence of vertices in which
+ * each vertex is connected to the next by an edge, and the total weight of
+ * those edges.
+ *
+ * @param <L> type of vertex labels, must be immutable
+ */
+public final class WeightedPath<L> {
+
+    private final List<L> vertices;
+    private final long weight;
+
+    // Abstraction function:
+    //   AF(vertices, weight) = the path vertices[0] -> vertices[1] -> ... of total weight weight
+    // Representation invariant:
+    //   vertices is non-empty and unmodifiable
+    //   weight is non-negative
+    // Safety from rep exposure:
+    //   all fields are private and final
+    //   the constructor copies the list and vertices() returns an unmodifiable list
+
+    /**
+     * Create a path.
+     *
+     * @param vertices vertices of the path in order, non-empty
+     * @param weight total weight of the edges of the path, non-negative
+     */
+    public WeightedPath(List<L> vertices, long weight) {
+    	this.vertices = Collections.unmodifiableList(new ArrayList<>(vertices));
+    	this.weight = weight;
+    	checkRep();
+    }
+
+    private void checkRep() {
+    	assert !vertices.isEmpty():"a path should have at least one vertex";
+    	assert weight >= 0:"weight should be non-negative";
+    }
+
+    /**
+     * @return the vertices of the path in order, from source to target
+     */
+    public List<L> vertices() {
+    	return vertices;
+    }
+
+    /**
+     * @return the first vertex of the path
+     */
+    public L source() {
+    	return vertices.get(0);
+    }
+
+    /**
+     * @return the last vertex of the path
+     */
+    public L target() {
+    	return vertices.get(vertices.size() - 1);
+    }
+
+    /**
+     * @return the sum of the weights of the edges of the path
+     */
+    public long weight() {
+    	return weight;
+    }
+
+    @Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof WeightedPath))
+			return false;
+		WeightedPath<?> other = (WeightedPath<?>) obj;
+		return weight == other.weight && vertices.equals(other.vertices);
+	}
+
+    @Override
+	public int hashCode() {
+		return 31 * vertices.hashCode() + Long.hashCode(weight);
+	}
+
+	@Override
+	public String toString() {
+		String weightedPathString = "WeightedPath{"
+				+ "vertices=" + vertices
+				+ ",weight=" + weight + "}";
+		return weightedPathString;
+	}
+
+}
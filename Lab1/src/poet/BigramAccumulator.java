@@ -0,0 +1,221 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package poet;
+
+import graph.GraphBuilder;
+
+/**
+ * Feeds the words of a corpus, one at a time, into the edges of GraphPoet's
+ * affinity graph.
+ *
+ * <p>The corpus is seen as a sequence of runs of equal adjacent words. If the
+ * first run has length n >= 2, the first word gets a self-loop of weight n-1.
+ * Then, for every two adjacent runs of words a and b, the edge from a to b is
+ * set to the length of the run of b; when the same pair of runs occurs again
+ * later, the later weight wins. A corpus of one word is a single vertex.
+ *
+ * <p>An edge is set in the builder as soon as the run of its target ends, so
+ * only the first run and the last two runs are kept, and memory does not
+ * grow with the length of the corpus. Because of that, an accumulator is
+ * also a summary of a piece of a corpus: accumulators of consecutive pieces,
+ * filled independently, can be joined with {@link #append(BigramAccumulator)},
+ * which sets the edges of the runs that span the boundary. The self-loop of
+ * the first run and the edge into the last run are only set by finish(),
+ * once it is known that the runs have ended.
+ * This class is internal to GraphPoet.
+ */
+final class BigramAccumulator {
+
+    private final GraphBuilder<String> builder;
+    private String first = null;
+    private int firstLength = 0;
+    private String previous = null;
+    private String current = null;
+    private int runLength = 0;
+    private long runs = 0;
+    private long words = 0;
+
+    // Abstraction function:
+    //   AF(builder, first, firstLength, previous, current, runLength, runs, words) =
+    //     a piece of a corpus of words words in runs runs, whose first run is
+    //     of first (firstLength long once it has ended), whose last run is
+    //     runLength copies of current, preceded by a run of previous (null if
+    //     there is one run), and whose edges into every run but the first and
+    //     the last have been set in builder, in corpus order
+    // Representation invariant:
+    //   runs == 0 if and only if words == 0, and then first, previous and
+    //     current are null and runLength is 0
+    //   otherwise first and current are non-null, 1 <= runLength <= words,
+    //     and previous is null if and only if runs == 1
+    //   firstLength >= 1 if runs >= 2
+    // Safety from rep exposure:
+    //   all fields are private; words are immutable
+    //   builder is shared with the caller on purpose: it is where the edges go
+
+    /**
+     * Create an accumulator with no words yet.
+     *
+     * @param builder builder the edges are set in, in corpus order
+     */
+    BigramAccumulator(GraphBuilder<String> builder) {
+    	this.builder = builder;
+    	checkRep();
+    }
+
+    private void checkRep() {
+    	assert (runs == 0) == (words == 0):"there should be runs if and only if there are words";
+    	assert runs != 0 || (first == null && previous == null && current == null && runLength == 0):"an empty accumulator should have no runs";
+    	assert runs == 0 || (first != null && current != null && runLength >= 1 && runLength <= words):"the last run should have between 1 and words words";
+    	assert runs == 0 || (previous == null) == (runs == 1):"previous should be null if and only if there is one run";
+    	assert runs < 2 || firstLength >= 1:"an ended first run should have a length";
+    }
+
+    /**
+     * @return the length of the first run so far
+     */
+    private int firstRunLength() {
+    	return runs == 1 ? runLength : firstLength;
+    }
+
+    /**
+     * Start a new run of word after the last run has ended.
+     */
+    private void startRun(String word, int length) {
+    	if (runs == 1) {
+    		firstLength = runLength;
+    	}
+    	previous = current;
+    	current = word;
+    	runLength = length;
+    	runs++;
+    }
+
+    /**
+     * Feed the next word of the corpus.
+     *
+     * @param word next word, non-null
+     */
+    void accept(String word) {
+    	words++;
+    	if (word.equals(current)) {
+    		runLength++;
+    		return;
+    	}
+    	if (runs == 0) {
+    		first = word;
+    	} else if (previous != null) {
+    		builder.set(previous, current, runLength);
+    	}
+    	startRun(word, 1);
+    }
+
+    /**
+     * Append the piece of corpus that later summarizes, which comes right
+     * after the words fed to this accumulator so far. Edges of later that
+     * its builder already holds are set in this accumulator's builder; the
+     * first run of later is merged into the last run of this one if they are
+     * of the same word.
+     *
+     * @param later accumulator of the words that follow; it was not finished
+     *              and must not be used afterwards
+     */
+    void append(BigramAccumulator later) {
+    	if (later.words == 0) {
+    		return;
+    	}
+    	if (words == 0) {
+    		first = later.first;
+    		firstLength = later.firstLength;
+    		previous = later.previous;
+    		current = later.current;
+    		runLength = later.runLength;
+    		runs = later.runs;
+    		words = later.words;
+    		builder.setAll(later.builder);
+    		checkRep();
+    		return;
+    	}
+    	int laterFirstLength = later.firstRunLength();
+    	if (current.equals(later.first)) {
+    		// the run spans the boundary
+    		int length = runLength + laterFirstLength;
+    		if (later.runs == 1) {
+    			runLength = length;
+    		} else {
+    			if (previous != null) {
+    				builder.set(previous, current, length);
+    			}
+    			builder.setAll(later.builder);
+    			if (runs == 1) {
+    				firstLength = length;
+    			}
+    			previous = later.previous;
+    			current = later.current;
+    			runLength = later.runLength;
+    		}
+    		runs += later.runs - 1;
+    	} else {
+    		if (previous != null) {
+    			builder.set(previous, current, runLength);
+    		}
+    		if (runs == 1) {
+    			firstLength = runLength;
+    		}
+    		if (later.runs == 1) {
+    			previous = current;
+    		} else {
+    			builder.set(current, later.first, laterFirstLength);
+    			builder.setAll(later.builder);
+    			previous = later.previous;
+    		}
+    		current = later.current;
+    		runLength = later.runLength;
+    		runs += later.runs;
+    	}
+    	words += later.words;
+    	checkRep();
+    }
+
+    /**
+     * Complete the first and last runs, after the last word of the corpus.
+     * No word may be fed or appended afterwards.
+     */
+    void finish() {
+    	if (words == 1) {
+    		builder.addVertex(current);
+    	}
+    	// the self-loop is the only edge from a word to itself, so setting it
+    	// late does not change which weight wins
+    	int length = firstRunLength();
+    	if (length >= 2) {
+    		builder.set(first, first, length - 1);
+    	}
+    	if (previous != null) {
+    		builder.set(previous, current, runLength);
+    	}
+    	checkRep();
+    }
+
+    /**
+     * @return the last word fed or appended so far, or null if there is none
+     */
+    String lastWord() {
+    	return current;
+    }
+
+    /**
+     * @return the number of words fed or appended so far
+     */
+    long words() {
+    	return words;
+    }
+
+	@Override
+	public String toString() {
+		String bigramAccumulatorString = "BigramAccumulator{" + "first=" + first + ",previous=" + previous
+				+ ",current=" + current + ",runLength=" + runLength + ",runs=" + runs + ",words=" + words + "}";
+		return bigramAccumulatorString;
+	}
+
+}
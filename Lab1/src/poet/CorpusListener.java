@@ -0,0 +1,22 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package poet;
+
+/**
+ * A consumer of the progress of a GraphPoet reading a corpus of many files.
+ */
+@FunctionalInterface
+public interface CorpusListener {
+
+    /**
+     * Receive the progress made by reading one more file of the corpus.
+     * Called once per file, as each file is counted, one call at a time but
+     * on the threads that read the files, in no particular order of files.
+     * It should return quickly, since reading waits for it.
+     *
+     * @param progress the file just counted, and the totals so far
+     */
+    public void fileRead(CorpusProgress progress);
+
+}
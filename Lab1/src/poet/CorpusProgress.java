@@ -0,0 +1,128 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package poet;
+
+import java.io.File;
+
+/**
+ * The progress of a GraphPoet reading a corpus of many files, as reported to
+ * a CorpusListener each time a file has been counted.
+ * Immutable.
+ */
+public final class CorpusProgress {
+
+    private final File file;
+    private final long bytes;
+    private final long words;
+    private final long nanos;
+    private final int filesRead;
+    private final int filesTotal;
+    private final long bytesRead;
+    private final long elapsedNanos;
+
+    // Abstraction function:
+    //   AF(file, bytes, words, nanos, filesRead, filesTotal, bytesRead, elapsedNanos) =
+    //     file, of bytes bytes and words words, was read and counted in
+    //     nanos; it makes filesRead of the filesTotal files of the corpus,
+    //     holding bytesRead bytes in all, read in the elapsedNanos since
+    //     reading the corpus started
+    // Representation invariant:
+    //   file is non-null; all the numbers are non-negative
+    //   1 <= filesRead <= filesTotal and bytes <= bytesRead
+    // Safety from rep exposure:
+    //   all fields are private and final; File is immutable
+
+    CorpusProgress(File file, long bytes, long words, long nanos, int filesRead, int filesTotal, long bytesRead, long elapsedNanos) {
+    	this.file = file;
+    	this.bytes = bytes;
+    	this.words = words;
+    	this.nanos = Math.max(0, nanos);
+    	this.filesRead = filesRead;
+    	this.filesTotal = filesTotal;
+    	this.bytesRead = bytesRead;
+    	this.elapsedNanos = Math.max(0, elapsedNanos);
+    	checkRep();
+    }
+
+    private void checkRep() {
+    	assert file != null:"file should be non-null";
+    	assert bytes >= 0 && words >= 0:"sizes should be non-negative";
+    	assert filesRead >= 1 && filesRead <= filesTotal:"filesRead should be between 1 and filesTotal";
+    	assert bytes <= bytesRead:"bytesRead should include the file";
+    }
+
+    /**
+     * @return the file just counted
+     */
+    public File file() {
+    	return file;
+    }
+
+    /**
+     * @return the size of the file in bytes
+     */
+    public long bytes() {
+    	return bytes;
+    }
+
+    /**
+     * @return the number of words in the file
+     */
+    public long words() {
+    	return words;
+    }
+
+    /**
+     * @return the time from starting to read the file until it was counted,
+     *         in nanoseconds, including time spent waiting for a thread
+     */
+    public long nanos() {
+    	return nanos;
+    }
+
+    /**
+     * @return the number of files counted so far, including this one
+     */
+    public int filesRead() {
+    	return filesRead;
+    }
+
+    /**
+     * @return the number of files in the corpus
+     */
+    public int filesTotal() {
+    	return filesTotal;
+    }
+
+    /**
+     * @return the bytes in the files counted so far, including this one
+     */
+    public long bytesRead() {
+    	return bytesRead;
+    }
+
+    /**
+     * @return the time since reading the corpus started, in nanoseconds
+     */
+    public long elapsedNanos() {
+    	return elapsedNanos;
+    }
+
+    /**
+     * @return the throughput so far, bytesRead() per second of elapsedNanos(),
+     *         or 0 if no time has elapsed
+     */
+    public double bytesPerSecond() {
+    	return elapsedNanos == 0 ? 0 : bytesRead * 1e9 / elapsedNanos;
+    }
+
+	@Override
+	public String toString() {
+		String corpusProgressString = "CorpusProgress{" + file + ",bytes=" + bytes + ",words=" + words
+				+ ",nanos=" + nanos + ",files=" + filesRead + "/" + filesTotal + ",bytesRead=" + bytesRead
+				+ ",elapsedNanos=" + elapsedNanos + "}";
+		return corpusProgressString;
+	}
+
+}
@@ -0,0 +1,115 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package poet;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Splits a stream of text into the words of GraphPoet, one at a time.
+ *
+ * <p>Words are maximal runs of characters that are not whitespace, as defined
+ * by {@link Character#isWhitespace(char)}, lower-cased by
+ * {@link String#toLowerCase()}; these are exactly the tokens a
+ * {@link java.util.Scanner} with its default delimiter would return. The text
+ * is read through a fixed buffer, and only the word being returned is ever
+ * held as a String, so memory does not grow with the size of the text.
+ * This class is internal to GraphPoet.
+ */
+final class CorpusTokenizer implements WordSource {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Reader in;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position = 0;
+    private int limit = 0;
+    private final StringBuilder spill = new StringBuilder();
+
+    // Abstraction function:
+    //   AF(in, buffer, position, limit) = the words of buffer[position..limit)
+    //     followed by the rest of in
+    // Representation invariant:
+    //   0 <= position <= limit <= buffer.length
+    //   spill is empty between calls to next()
+    // Safety from rep exposure:
+    //   all fields are private; in is only read
+
+    /**
+     * Create a tokenizer. It reads in, but does not close it.
+     *
+     * @param in text to split; it need not be buffered
+     */
+    CorpusTokenizer(Reader in) {
+    	this.in = in;
+    }
+
+    private void checkRep() {
+    	assert 0 <= position && position <= limit && limit <= buffer.length:"position and limit should be within the buffer";
+    	assert spill.length() == 0:"spill should be empty between words";
+    }
+
+    /**
+     * Refill the buffer once it is used up.
+     *
+     * @return false if and only if the text has ended
+     * @throws IOException if the text cannot be read
+     */
+    private boolean fill() throws IOException {
+    	int read;
+    	do {
+    		read = in.read(buffer, 0, buffer.length);
+    	} while (read == 0);
+    	position = 0;
+    	limit = Math.max(read, 0);
+    	return read > 0;
+    }
+
+    @Override public String next() throws IOException {
+    	// skip whitespace
+    	while (true) {
+    		while (position < limit && Character.isWhitespace(buffer[position])) {
+    			position++;
+    		}
+    		if (position < limit) {
+    			break;
+    		}
+    		if (!fill()) {
+    			checkRep();
+    			return null;
+    		}
+    	}
+    	int start = position;
+    	while (true) {
+    		while (position < limit && !Character.isWhitespace(buffer[position])) {
+    			position++;
+    		}
+    		if (position < limit) {
+    			break;
+    		}
+    		// the word runs past the buffer: keep what we have and read on
+    		spill.append(buffer, start, position - start);
+    		start = 0;
+    		if (!fill()) {
+    			break;
+    		}
+    	}
+    	String word;
+    	if (spill.length() == 0) {
+    		word = new String(buffer, start, position - start);
+    	} else {
+    		word = spill.append(buffer, start, position - start).toString();
+    		spill.setLength(0);
+    	}
+    	checkRep();
+    	return word.toLowerCase();
+    }
+
+	@Override
+	public String toString() {
+		String corpusTokenizerString = "CorpusTokenizer{" + "buffered=" + (limit - position) + "}";
+		return corpusTokenizerString;
+	}
+
+}
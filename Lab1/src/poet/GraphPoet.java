@@ -3,21 +3,27 @@
  */
 package poet;
 
-import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
-import java.util.Scanner;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import graph.BinaryGraphFormat;
 import graph.Graph;
+import graph.GraphBuilder;
+import graph.SymbolTable;
 
 /**
  * A graph-based poetry generator.
@@ -63,78 +69,79 @@ import graph.Graph;
  */
 public class GraphPoet {
     
-    private final Graph<String> graph = Graph.empty();
+    /**
+     * How a corpus file is read.
+     */
+    public enum CorpusMode {
+    	/**
+    	 * read as characters in the platform's default charset, with words
+    	 * delimited by any whitespace, as described above
+    	 */
+    	STREAMING,
+    	/**
+    	 * memory-mapped and scanned as UTF-8 bytes, with words delimited by
+    	 * ASCII whitespace only; much faster on large corpora, and the same
+    	 * words as STREAMING for a UTF-8 corpus whose whitespace is all ASCII
+    	 */
+    	MAPPED,
+    	/**
+    	 * like MAPPED, but large corpora are cut at whitespace into pieces
+    	 * that are scanned in parallel on the common ForkJoinPool and then
+    	 * stitched together; the graph is exactly the same as MAPPED's
+    	 */
+    	PARALLEL
+    }
+    
+    private final Graph<String> graph;
+    private String lastWord;
+    private SymbolTable<String> words;
     
     // Abstraction function:
     //   AF(graph, corpus) = a poetry generator which modified by graph
+    //   lastWord is the last word of the corpus read so far, which appended
+    //     text may continue from; null if unknown or if there were no words
+    //   words is only a cache of the instances graph holds
     // Representation invariant:
     //   poetry is not null
+    //   lastWord is null or a vertex of graph
+    //   words is null until the first append(), then every vertex of graph
+    //     is a label of words, as the instance graph stores; words may also
+    //     hold words of text whose append() failed
     // Safety from rep exposure:
     //   graph is private and final
+    //   lastWord is private and immutable
+    //   words is private and never returned
     
     // TODO checkRep
     public void checkRep() {
     	assert this.graph != null:"graphPoetry is not null";
+    	assert this.lastWord == null || this.graph.vertices().contains(this.lastWord):"the last word is a vertex";
     }
     
     /**
-     * Convert letters in corpus from upper to lower, separation done at whitespace
+     * Derive the affinity graph from a corpus in one streaming pass: words are
+     * fed to a BigramAccumulator as they are read, so only the previous and
+     * current words are held in memory, never the corpus.
      * 
-     * @param corpus text file
-     * @return Returns a list of words in lower, separation done at whitespace
-     * @throws IOException if the corpus file cannot be found or read
+     * @param corpus words to derive the graph from
+     * @param builder builder that collects the edges of the graph; edges are
+     * fed to it in corpus order, with the same last-one-wins semantics as
+     * Graph.set, and the graph is built once at the end
+     * @param before word taken to come right before the corpus, or null
+     * @return the last word of the corpus, or before if the corpus has no
+     * words
+     * @throws IOException if the corpus cannot be read
      */
-	private List<String> toLowerCaseFile(File corpus) throws IOException {
-		List<String> wordList = new ArrayList<>();
-        try (Scanner s = new Scanner(new BufferedReader(new FileReader(corpus)))) {
-            while (s.hasNext()) {
-                wordList.add(s.next().toLowerCase());
-            }
-        }
-    	return wordList;
-    }
-	
-	/**
-	 * generate a graphPoetry with the graph
-	 * 
-	 * @param graph to modified
-	 * @param wordList basis for generation, any element in it would be added in the graph and
-	 * the edge's weight represent the number of target which is followed by source
-	 */
-	private void generateGraph(Graph<String> graph, List<String> wordList) {
-		if(wordList.isEmpty())
-			return;
-		if(wordList.size() == 1) {
-			graph.add(wordList.get(0));
-			return;
+	private static String generateGraph(WordSource corpus, GraphBuilder<String> builder, String before) throws IOException {
+		BigramAccumulator accumulator = new BigramAccumulator(builder);
+		if (before != null) {
+			accumulator.accept(before);
 		}
-		int i = 1;
-		String sourceWord = wordList.get(0);
-		while(i < wordList.size() && sourceWord.equals(wordList.get(i))) {
-			i++;
+		for (String word = corpus.next(); word != null; word = corpus.next()) {
+			accumulator.accept(word);
 		}
-		if(i == 1) {
-			int j = i + 1;
-			while(j < wordList.size() && wordList.get(1).equals(wordList.get(j))) {
-				j++;
-			}
-			graph.set(sourceWord, wordList.get(1), j - 1);
-			i = j - 1;
-		} else {
-			graph.set(sourceWord, sourceWord, i - 1);
-			i = i - 1;
-		}
-		for(; i < wordList.size() - 1; i++) {
-			String source = wordList.get(i);
-			String target = wordList.get(i + 1);
-			int j = i + 2;
-			while(j < wordList.size() && target.equals(wordList.get(j))) {
-				j++;
-			}
-			graph.set(source, target, j - i - 1);
-			i = j - 2;
-		}
-		checkRep();
+		accumulator.finish();
+		return accumulator.lastWord();
 	}
     
     /**
@@ -145,11 +152,205 @@ public class GraphPoet {
      */
     public GraphPoet(File corpus) throws IOException {
 //        throw new RuntimeException("not implemented");
-    	List<String> wordList = this.toLowerCaseFile(corpus);
-    	generateGraph(this.graph, wordList);
+    	this(corpus, CorpusMode.STREAMING);
+    }
+    
+    /**
+     * Create a new poet with the graph from corpus, read as mode says.
+     * 
+     * @param corpus text file from which to derive the poet's affinity graph
+     * @param mode how to read the corpus
+     * @throws IOException if the corpus file cannot be found or read
+     */
+    public GraphPoet(File corpus, CorpusMode mode) throws IOException {
+    	GraphBuilder<String> builder = new GraphBuilder<>();
+    	switch (mode) {
+    	case PARALLEL:
+    		this.lastWord = ParallelCorpusReader.generateGraph(corpus, builder);
+    		break;
+    	case MAPPED:
+    		try (MappedCorpusScanner scanner = new MappedCorpusScanner(corpus)) {
+    			this.lastWord = generateGraph(scanner, builder, null);
+    		}
+    		break;
+    	default:
+    		try (Reader in = new FileReader(corpus)) {
+    			this.lastWord = generateGraph(new CorpusTokenizer(in), builder, null);
+    		}
+    	}
+    	this.graph = builder.build();
     	checkRep();
     }
     
+    /**
+     * Create a new poet with the graph from a corpus of many text files.
+     * 
+     * <p>Each file is split into words as {@link #GraphPoet(File)} would, and
+     * is a separate piece of text: the graph is the one a poet of the first
+     * file would have after {@link #append(File, boolean) appending} the
+     * others without joining them, so no edge goes from the last word of a
+     * file to the first word of another. Files are read and counted on
+     * several threads at once, in no particular order, which does not change
+     * the graph. The poet has no last word to join appended text to.
+     * 
+     * @param corpus text files from which to derive the poet's affinity
+     *               graph; none gives an empty graph
+     * @param listener listener told about the progress made by each file as
+     *                 it is counted, or null for none
+     * @return a poet with the graph from corpus
+     * @throws IOException if a corpus file cannot be found or read
+     * @throws ArithmeticException if a summed weight overflows an int
+     */
+    public static GraphPoet fromFiles(List<File> corpus, CorpusListener listener) throws IOException {
+    	GraphBuilder<String> builder = new GraphBuilder<>();
+    	new MultiFileCorpusReader(corpus, listener).generateGraph(builder);
+    	return new GraphPoet(builder.build());
+    }
+    
+    /**
+     * Create a new poet with the graph from the text files under a directory,
+     * as {@link #fromFiles(List, CorpusListener)} does.
+     * 
+     * @param directory directory to search, including its subdirectories
+     * @param glob pattern that selects the corpus files, in the syntax of
+     *             FileSystem.getPathMatcher("glob:..."), matched against the
+     *             path of each file relative to directory; e.g. "*.txt" for
+     *             the .txt files directly in directory, "**.txt" for those at
+     *             any depth, "**" for every file
+     * @param listener listener told about the progress made by each file as
+     *                 it is counted, or null for none
+     * @return a poet with the graph from the matching files
+     * @throws IOException if directory is not a directory, or it or a corpus
+     *         file cannot be read
+     * @throws ArithmeticException if a summed weight overflows an int
+     */
+    public static GraphPoet fromDirectory(File directory, String glob, CorpusListener listener) throws IOException {
+    	return fromFiles(MultiFileCorpusReader.list(directory, glob), listener);
+    }
+    
+    /**
+     * Create a new poet with an affinity graph that has already been derived.
+     * 
+     * @param graph the poet's affinity graph, not shared with any other client
+     */
+    private GraphPoet(Graph<String> graph) {
+    	this.graph = graph;
+    	checkRep();
+    }
+    
+    /**
+     * Add more text to this poet's corpus, updating its affinity graph in
+     * place, in time proportional to the new text rather than to the corpus.
+     * 
+     * <p>The text is split into words as the corpus was by
+     * {@link #GraphPoet(File)}, and the graph that text alone would derive,
+     * as described above, is added to this poet's graph: its words become
+     * vertices, and the weight of each of its edges is added to the weight of
+     * the same edge here (0 if it had none). If join is true, the text is
+     * taken to continue right after the last word read by this poet, so that
+     * word is put in front of the text before deriving its graph; a poet
+     * returned by {@link #load(File)} has no last word until text is
+     * appended to it, and then join has no effect.
+     * 
+     * <p>Words already in the graph are stored as the instances the graph
+     * already holds, so the graph keeps one String per word. The first call
+     * on a poet also takes time linear in its number of words, to index
+     * them.
+     * 
+     * @param text text to add; it is read to the end but not closed
+     * @param join true to join the text to the last word read so far, false
+     *             to treat it as a separate piece of text
+     * @throws IOException if the text cannot be read; this poet is then
+     *         unchanged
+     * @throws ArithmeticException if an added weight overflows an int; this
+     *         poet is then unchanged
+     */
+    public void append(Reader text, boolean join) throws IOException {
+    	if (words == null) {
+    		words = new SymbolTable<>(graph.vertices().size());
+    		for (String vertex : graph.vertices()) {
+    			words.intern(vertex);
+    		}
+    	}
+    	WordSource tokens = new CorpusTokenizer(text);
+    	// words not yet in the graph are interned too, but they only become
+    	// vertices below; a failure leaves them in words without harm
+    	WordSource canonical = () -> {
+    		String word = tokens.next();
+    		return word == null ? null : words.intern(word);
+    	};
+    	GraphBuilder<String> builder = new GraphBuilder<>();
+    	String last = generateGraph(canonical, builder, join && this.lastWord != null ? words.intern(this.lastWord) : null);
+    	Graph<String> added = builder.build();
+    	// sum every weight before the first mutation, so an overflow changes nothing
+    	List<String> sources = new ArrayList<>();
+    	List<String> targets = new ArrayList<>();
+    	List<Integer> weights = new ArrayList<>();
+    	for (String source : added.vertices()) {
+    		Map<String, Integer> oldTargets = this.graph.targets(source);
+    		for (Map.Entry<String, Integer> edge : added.targets(source).entrySet()) {
+    			Integer weight = oldTargets.get(edge.getKey());
+    			sources.add(source);
+    			targets.add(edge.getKey());
+    			weights.add(Math.addExact(weight == null ? 0 : weight, edge.getValue()));
+    		}
+    	}
+    	for (String vertex : added.vertices()) {
+    		this.graph.add(vertex);
+    	}
+    	for (int i = 0; i < sources.size(); i++) {
+    		this.graph.set(sources.get(i), targets.get(i), weights.get(i));
+    	}
+    	if (last != null) {
+    		this.lastWord = last;
+    	}
+    	checkRep();
+    }
+    
+    /**
+     * Add a text file to this poet's corpus, as {@link #append(Reader, boolean)}
+     * does.
+     * 
+     * @param corpus text file to add
+     * @param join true to join the file to the last word read so far, false
+     *             to treat it as a separate piece of text
+     * @throws IOException if the file cannot be found or read
+     * @throws ArithmeticException if an added weight overflows an int
+     */
+    public void append(File corpus, boolean join) throws IOException {
+    	try (Reader in = new FileReader(corpus)) {
+    		append(in, join);
+    	}
+    }
+    
+    /**
+     * Load a poet whose affinity graph was stored by {@link #save(File)}.
+     * Loading is much faster than deriving the graph from the corpus again.
+     * 
+     * @param file file written by save()
+     * @return a poet with the same affinity graph as the one that was saved
+     * @throws IOException if the file cannot be found or read, or was not
+     *         written by save()
+     */
+    public static GraphPoet load(File file) throws IOException {
+    	try (InputStream in = new FileInputStream(file)) {
+    		return new GraphPoet(BinaryGraphFormat.read(in));
+    	}
+    }
+    
+    /**
+     * Store this poet's affinity graph, in the format of BinaryGraphFormat,
+     * so that {@link #load(File)} can recreate the poet without the corpus.
+     * 
+     * @param file file to create or overwrite
+     * @throws IOException if the file cannot be written
+     */
+    public void save(File file) throws IOException {
+    	try (OutputStream out = new FileOutputStream(file)) {
+    		BinaryGraphFormat.write(graph, out);
+    	}
+    }
+    
     /**
      * Generate a poem.
      * 
@@ -0,0 +1,219 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package poet;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Splits a UTF-8 corpus file into the words of GraphPoet by scanning its
+ * bytes in memory-mapped windows.
+ *
+ * <p>Words are maximal runs of bytes that are not ASCII whitespace (the bytes
+ * 0x09-0x0D, 0x1C-0x1F and 0x20, which are the ASCII characters
+ * {@link Character#isWhitespace(char)} accepts). The bytes of a word are only
+ * decoded as UTF-8 and lower-cased by {@link String#toLowerCase()} when the
+ * word is returned; whitespace is skipped without decoding anything. UTF-8
+ * never uses bytes below 0x80 inside a multi-byte character, so a word
+ * boundary never splits a character.
+ *
+ * <p>For a UTF-8 corpus whose whitespace is all ASCII, the words are the same
+ * as CorpusTokenizer's reading the same file as UTF-8. Unicode whitespace
+ * beyond ASCII, such as U+2003 EM SPACE, does not separate words here.
+ *
+ * <p>The file is mapped one window at a time (1 GiB by default), so corpora
+ * larger than a single MappedByteBuffer can hold are scanned too; a word
+ * that crosses two windows is reassembled. A scanner may also be limited to
+ * a byte range of the file, which should start and end at whitespace or at
+ * the ends of the file so that no word is cut. The file should not be
+ * modified while it is scanned.
+ * This class is internal to GraphPoet.
+ */
+final class MappedCorpusScanner implements WordSource, Closeable {
+
+    /** default number of bytes mapped at once */
+    static final long DEFAULT_WINDOW = 1L << 30;
+
+    private static final boolean[] WHITESPACE = new boolean[256];
+    static {
+    	for (int b = 0; b < 128; b++) {
+    		WHITESPACE[b] = Character.isWhitespace((char) b);
+    	}
+    }
+
+    private final FileChannel channel;
+    private final long end;
+    private final long window;
+    private long mapped;
+    private MappedByteBuffer buffer = null;
+    private int position = 0;
+    private int limit = 0;
+    private byte[] bytes = new byte[64];
+    private int spilled = 0;
+
+    // Abstraction function:
+    //   AF(channel, end, mapped, buffer, position, limit) = the words of
+    //     buffer[position..limit) followed by the words of the file from byte
+    //     mapped to byte end
+    // Representation invariant:
+    //   0 < window <= Integer.MAX_VALUE
+    //   0 <= mapped <= end; 0 <= position <= limit
+    //   buffer is null if and only if no window has been mapped, and then
+    //     position == limit == 0; otherwise limit == buffer.capacity()
+    //   spilled == 0 between calls to next()
+    // Safety from rep exposure:
+    //   all fields are private; the file is only read
+
+    /**
+     * Open a corpus file with the default window.
+     *
+     * @param corpus UTF-8 text file
+     * @throws IOException if the file cannot be found or opened
+     */
+    MappedCorpusScanner(File corpus) throws IOException {
+    	this(corpus, DEFAULT_WINDOW);
+    }
+
+    /**
+     * Open a corpus file.
+     *
+     * @param corpus UTF-8 text file
+     * @param window number of bytes to map at once, in 1..Integer.MAX_VALUE
+     * @throws IOException if the file cannot be found or opened
+     */
+    MappedCorpusScanner(File corpus, long window) throws IOException {
+    	this(corpus, 0, Long.MAX_VALUE, window);
+    }
+
+    /**
+     * Open a byte range of a corpus file.
+     *
+     * @param corpus UTF-8 text file
+     * @param start offset of the first byte to scan, non-negative
+     * @param end offset after the last byte to scan, at least start; bytes
+     *            past the end of the file are ignored
+     * @param window number of bytes to map at once, in 1..Integer.MAX_VALUE
+     * @throws IOException if the file cannot be found or opened
+     */
+    MappedCorpusScanner(File corpus, long start, long end, long window) throws IOException {
+    	if (window <= 0 || window > Integer.MAX_VALUE) {
+    		throw new IllegalArgumentException("window should be in 1..Integer.MAX_VALUE: " + window);
+    	}
+    	if (start < 0 || end < start) {
+    		throw new IllegalArgumentException("bad range: " + start + ".." + end);
+    	}
+    	this.channel = FileChannel.open(corpus.toPath(), StandardOpenOption.READ);
+    	this.end = Math.min(end, channel.size());
+    	this.mapped = Math.min(start, this.end);
+    	this.window = window;
+    	checkRep();
+    }
+
+    /**
+     * @param b a byte
+     * @return true if and only if b is an ASCII whitespace byte
+     */
+    static boolean isWhitespace(byte b) {
+    	return WHITESPACE[b & 0xFF];
+    }
+
+    private void checkRep() {
+    	assert 0 <= mapped && mapped <= end:"mapped should be within the range";
+    	assert 0 <= position && position <= limit:"position should be within the window";
+    	assert buffer != null || limit == 0:"an unmapped scanner should have an empty window";
+    	assert buffer == null || limit == buffer.capacity():"limit should be the end of the window";
+    	assert spilled == 0:"no bytes should be spilled between words";
+    }
+
+    /**
+     * Map the next window once the current one is used up.
+     *
+     * @return false if and only if the file has ended
+     * @throws IOException if the file cannot be mapped
+     */
+    private boolean nextWindow() throws IOException {
+    	if (mapped >= end) {
+    		return false;
+    	}
+    	long length = Math.min(window, end - mapped);
+    	buffer = channel.map(FileChannel.MapMode.READ_ONLY, mapped, length);
+    	mapped += length;
+    	position = 0;
+    	limit = (int) length;
+    	return true;
+    }
+
+    /**
+     * Append buffer[start..end) to bytes after the spilled bytes.
+     */
+    private void spill(int start, int end) {
+    	int length = end - start;
+    	if (spilled + length > bytes.length) {
+    		bytes = Arrays.copyOf(bytes, Math.max(2 * bytes.length, spilled + length));
+    	}
+    	buffer.position(start);
+    	buffer.get(bytes, spilled, length);
+    	spilled += length;
+    }
+
+    @Override public String next() throws IOException {
+    	// skip whitespace
+    	while (true) {
+    		while (position < limit && WHITESPACE[buffer.get(position) & 0xFF]) {
+    			position++;
+    		}
+    		if (position < limit) {
+    			break;
+    		}
+    		if (!nextWindow()) {
+    			checkRep();
+    			return null;
+    		}
+    	}
+    	int start = position;
+    	while (true) {
+    		while (position < limit && !WHITESPACE[buffer.get(position) & 0xFF]) {
+    			position++;
+    		}
+    		if (position < limit) {
+    			break;
+    		}
+    		// the word runs past the window: keep its bytes and map the next one
+    		spill(start, position);
+    		if (!nextWindow()) {
+    			start = position;
+    			break;
+    		}
+    		start = 0;
+    	}
+    	spill(start, position);
+    	String word = new String(bytes, 0, spilled, StandardCharsets.UTF_8);
+    	spilled = 0;
+    	checkRep();
+    	return word.toLowerCase();
+    }
+
+    /**
+     * Close the file. The mapped windows are released by the garbage collector.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override public void close() throws IOException {
+    	channel.close();
+    }
+
+	@Override
+	public String toString() {
+		String mappedCorpusScannerString = "MappedCorpusScanner{" + "end=" + end
+				+ ",scanned=" + (mapped - limit + position) + "}";
+		return mappedCorpusScannerString;
+	}
+
+}
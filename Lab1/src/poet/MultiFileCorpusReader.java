@@ -0,0 +1,352 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package poet;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import graph.GraphBuilder;
+
+/**
+ * Derives GraphPoet's affinity graph from a corpus of many files, several
+ * files at a time.
+ *
+ * <p>Each file is a separate piece of text, as GraphPoet.append(File, false)
+ * treats it: its graph is derived on its own, and the weights of the graphs
+ * of all the files are added up. Since addition does not depend on order,
+ * files can be read and counted in any order and the graph is always the
+ * same.
+ *
+ * <p>Reading and counting are split across two bounded thread pools. The
+ * I/O threads read and decode files, as FileReader does, into chunks of
+ * CHUNK_SIZE characters, which mostly waits on the disk; the CPU threads, one
+ * per processor, split the chunks of a file into words with a CorpusTokenizer
+ * as they arrive and feed them to a BigramAccumulator, then add the file's
+ * graph into one of a few shared GraphBuilders, one per CPU thread, which
+ * are summed once at the end. Each file passes its chunks through a queue of
+ * at most QUEUED_CHUNKS, and a semaphore bounds the number of files between
+ * the two pools, so memory is bounded whatever the sizes of the files, and a
+ * slow CPU side holds back the I/O side instead of filling the heap.
+ * This class is internal to GraphPoet.
+ */
+final class MultiFileCorpusReader {
+
+    /** most threads reading files at once */
+    static final int MAX_IO_THREADS = 16;
+
+    /** characters in a chunk of a file handed from an I/O thread to a CPU thread */
+    static final int CHUNK_SIZE = 8192;
+
+    /** most chunks of a file read but not yet counted */
+    static final int QUEUED_CHUNKS = 4;
+
+    private final List<File> corpus;
+    private final CorpusListener listener;
+    private final int ioThreads;
+    private final int cpuThreads;
+    private int filesRead = 0;
+    private long bytesRead = 0;
+    private long startNanos;
+
+    // Abstraction function:
+    //   AF(corpus, listener, ioThreads, cpuThreads, filesRead, bytesRead, startNanos) =
+    //     a reading of the files corpus on ioThreads I/O threads and
+    //     cpuThreads CPU threads, reporting to listener (none if null), of
+    //     which filesRead files of bytesRead bytes in all have been counted
+    //     since startNanos
+    // Representation invariant:
+    //   corpus and its files are non-null
+    //   ioThreads and cpuThreads are positive
+    //   0 <= filesRead <= corpus.size() and bytesRead >= 0
+    // Safety from rep exposure:
+    //   all fields are private; corpus is a copy that is never returned
+    // Thread safety argument:
+    //   filesRead and bytesRead are only read and written while holding the
+    //     lock on this reader, which also serializes calls to listener
+    //   the other fields are written before the threads start
+
+    /**
+     * Prepare to read a corpus.
+     *
+     * @param corpus files to read
+     * @param listener listener told about each file once it is counted, or
+     *                 null for none
+     * @param ioThreads number of threads reading and decoding files, positive
+     * @param cpuThreads number of threads counting words, positive
+     */
+    MultiFileCorpusReader(List<File> corpus, CorpusListener listener, int ioThreads, int cpuThreads) {
+    	if (ioThreads <= 0 || cpuThreads <= 0) {
+    		throw new IllegalArgumentException("thread counts should be positive: " + ioThreads + ", " + cpuThreads);
+    	}
+    	this.corpus = new ArrayList<>(corpus);
+    	this.listener = listener;
+    	this.ioThreads = ioThreads;
+    	this.cpuThreads = cpuThreads;
+    	checkRep();
+    }
+
+    /**
+     * Prepare to read a corpus with as many threads as are useful on this
+     * machine: up to MAX_IO_THREADS to read and one per processor to count,
+     * but never more than there are files.
+     *
+     * @param corpus files to read
+     * @param listener listener told about each file once it is counted, or
+     *                 null for none
+     */
+    MultiFileCorpusReader(List<File> corpus, CorpusListener listener) {
+    	this(corpus, listener, Math.max(1, Math.min(MAX_IO_THREADS, corpus.size())),
+    			Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), corpus.size())));
+    }
+
+    private synchronized void checkRep() {
+    	assert !corpus.contains(null):"files should be non-null";
+    	assert ioThreads > 0 && cpuThreads > 0:"thread counts should be positive";
+    	assert filesRead >= 0 && filesRead <= corpus.size() && bytesRead >= 0:"counts should be within the corpus";
+    }
+
+    /**
+     * List the regular files under a directory whose paths match a glob.
+     *
+     * @param directory directory to search, including its subdirectories
+     * @param glob pattern in the syntax of FileSystem.getPathMatcher("glob:..."),
+     *             matched against the path of each file relative to directory,
+     *             e.g. "*.txt" for the text files directly in directory or
+     *             "**.txt" for those at any depth
+     * @return the matching files, in order of their paths
+     * @throws IOException if directory is not a directory or cannot be read
+     */
+    static List<File> list(File directory, String glob) throws IOException {
+    	Path root = directory.toPath();
+    	if (!Files.isDirectory(root)) {
+    		throw new FileNotFoundException("not a directory: " + directory);
+    	}
+    	PathMatcher matcher = root.getFileSystem().getPathMatcher("glob:" + glob);
+    	try (Stream<Path> paths = Files.walk(root)) {
+    		return paths.filter(Files::isRegularFile)
+    				.filter(path -> matcher.matches(root.relativize(path)))
+    				.sorted()
+    				.map(Path::toFile)
+    				.collect(Collectors.toList());
+    	}
+    }
+
+    /**
+     * Read and count every file of the corpus.
+     *
+     * @param builder builder the weights of every file are added to
+     * @throws IOException if a file cannot be found or read; the other files
+     *         are then abandoned
+     */
+    void generateGraph(GraphBuilder<String> builder) throws IOException {
+    	BlockingQueue<GraphBuilder<String>> partials = new ArrayBlockingQueue<>(cpuThreads);
+    	for (int i = 0; i < cpuThreads; i++) {
+    		partials.add(new GraphBuilder<>());
+    	}
+    	Semaphore inFlight = new Semaphore(2 * cpuThreads);
+    	ExecutorService io = Executors.newFixedThreadPool(ioThreads);
+    	ExecutorService cpu = Executors.newFixedThreadPool(cpuThreads);
+    	startNanos = System.nanoTime();
+    	try {
+    		List<Future<Future<?>>> reads = new ArrayList<>();
+    		for (File file : corpus) {
+    			reads.add(io.submit(() -> {
+    				inFlight.acquire();
+    				long fileStartNanos = System.nanoTime();
+    				Reader in;
+    				try {
+    					// decoded as GraphPoet(File) decodes, so a file gives the same words
+    					in = new FileReader(file);
+    				} catch (IOException | RuntimeException e) {
+    					inFlight.release();
+    					throw e;
+    				}
+    				// the counting is queued before the first chunk is read, so
+    				// the CPU threads take files in the order the I/O threads
+    				// started them and a full chunk queue is always drained
+    				ChunkReader chunks = new ChunkReader();
+    				Future<?> counted = cpu.submit(() -> {
+    					try (Reader closing = chunks) {
+    						count(file, closing, fileStartNanos, partials);
+    					} finally {
+    						inFlight.release();
+    					}
+    					return null;
+    				});
+    				try (Reader reading = in) {
+    					chunks.readAll(reading);
+    				}
+    				return counted;
+    			}));
+    		}
+    		for (Future<Future<?>> read : reads) {
+    			read.get().get();
+    		}
+    	} catch (ExecutionException e) {
+    		Throwable cause = e.getCause();
+    		if (cause instanceof IOException) {
+    			throw (IOException) cause;
+    		} else if (cause instanceof RuntimeException) {
+    			throw (RuntimeException) cause;
+    		} else if (cause instanceof Error) {
+    			throw (Error) cause;
+    		}
+    		throw new IOException(cause);
+    	} catch (InterruptedException e) {
+    		Thread.currentThread().interrupt();
+    		throw new InterruptedIOException("interrupted while reading the corpus");
+    	} finally {
+    		io.shutdownNow();
+    		cpu.shutdownNow();
+    	}
+    	for (GraphBuilder<String> partial : partials) {
+    		builder.addAll(partial);
+    	}
+    	checkRep();
+    }
+
+    /**
+     * Derive the graph of one file and add it to one of the partial builders.
+     * The file is read, but not closed.
+     */
+    private void count(File file, Reader in, long fileStartNanos, BlockingQueue<GraphBuilder<String>> partials) throws IOException, InterruptedException {
+    	GraphBuilder<String> fileBuilder = new GraphBuilder<>();
+    	BigramAccumulator accumulator = new BigramAccumulator(fileBuilder);
+    	WordSource words = new CorpusTokenizer(in);
+    	for (String word = words.next(); word != null; word = words.next()) {
+    		accumulator.accept(word);
+    	}
+    	accumulator.finish();
+    	GraphBuilder<String> partial = partials.take();
+    	try {
+    		partial.addAll(fileBuilder);
+    	} finally {
+    		partials.put(partial);
+    	}
+    	report(file, file.length(), accumulator.words(), fileStartNanos);
+    }
+
+    private synchronized void report(File file, long bytes, long words, long fileStartNanos) {
+    	filesRead++;
+    	bytesRead += bytes;
+    	if (listener != null) {
+    		long now = System.nanoTime();
+    		listener.fileRead(new CorpusProgress(file, bytes, words, now - fileStartNanos,
+    				filesRead, corpus.size(), bytesRead, now - startNanos));
+    	}
+    }
+
+    /**
+     * The text of one file as chunks handed from the I/O thread that reads
+     * it, by readAll(), to the CPU thread that counts it, by read(). At most
+     * QUEUED_CHUNKS chunks are held at once. Closing it abandons the rest of
+     * the file: readAll() then stops at its next chunk.
+     */
+    private static final class ChunkReader extends Reader {
+
+    	/** chunk that marks the end of the text, or of what could be read */
+    	private static final char[] END = new char[0];
+
+    	private final BlockingQueue<char[]> chunks = new ArrayBlockingQueue<>(QUEUED_CHUNKS);
+    	private volatile IOException failure;
+    	private volatile boolean closed = false;
+    	private char[] chunk = null;
+    	private int position = 0;
+
+    	// Abstraction function:
+    	//   AF(chunks, failure, closed, chunk, position) = the text
+    	//     chunk[position..] followed by the chunks queued, up to END,
+    	//     followed by failure if it is non-null
+    	// Representation invariant:
+    	//   chunks holds END at most once, and only last
+    	//   chunk is null or 0 <= position <= chunk.length
+    	// Safety from rep exposure:
+    	//   all fields are private; chunks are copies never returned
+    	// Thread safety argument:
+    	//   one thread calls readAll() and another calls read() and close();
+    	//   they only share chunks, which is thread-safe, and the volatile
+    	//   failure and closed; chunk and position are confined to the reader
+
+    	/**
+    	 * Read a text to its end into this reader's chunks, then mark the end.
+    	 * A failure to read is handed to the reading side instead of thrown.
+    	 *
+    	 * @param in text to read, not closed
+    	 * @throws InterruptedException if interrupted while waiting for room
+    	 */
+    	void readAll(Reader in) throws InterruptedException {
+    		char[] buffer = new char[CHUNK_SIZE];
+    		try {
+    			for (int read = in.read(buffer); read >= 0 && !closed; read = in.read(buffer)) {
+    				if (read > 0) {
+    					chunks.put(Arrays.copyOf(buffer, read));
+    				}
+    			}
+    		} catch (IOException e) {
+    			failure = e;
+    		}
+    		if (!closed) {
+    			chunks.put(END);
+    		}
+    	}
+
+    	@Override public int read(char[] buffer, int offset, int length) throws IOException {
+    		if (length == 0) {
+    			return 0;
+    		}
+    		while (chunk == null || position == chunk.length) {
+    			if (chunk == END) {
+    				if (failure != null) {
+    					throw failure;
+    				}
+    				return -1;
+    			}
+    			try {
+    				chunk = chunks.take();
+    			} catch (InterruptedException e) {
+    				Thread.currentThread().interrupt();
+    				throw new InterruptedIOException("interrupted while waiting for the corpus");
+    			}
+    			position = 0;
+    		}
+    		int read = Math.min(length, chunk.length - position);
+    		System.arraycopy(chunk, position, buffer, offset, read);
+    		position += read;
+    		return read;
+    	}
+
+    	@Override public void close() {
+    		// readAll() sees closed before it waits again, since this makes room
+    		closed = true;
+    		chunks.clear();
+    	}
+    }
+
+	@Override
+	public String toString() {
+		String multiFileCorpusReaderString = "MultiFileCorpusReader{" + "files=" + corpus.size()
+				+ ",ioThreads=" + ioThreads + ",cpuThreads=" + cpuThreads + "}";
+		return multiFileCorpusReaderString;
+	}
+
+}
@@ -0,0 +1,182 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package poet;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import graph.GraphBuilder;
+
+/**
+ * Derives GraphPoet's affinity graph from a UTF-8 corpus file on several
+ * threads at once.
+ *
+ * <p>The file is cut into byte ranges that start at ASCII whitespace, so no
+ * word is split. Each range is scanned by a MappedCorpusScanner into its own
+ * BigramAccumulator and GraphBuilder, whose rows are primitive int maps, on
+ * a ForkJoinPool. The accumulators of neighboring ranges are then appended
+ * pairwise up the fork-join tree, which sets the edges of the runs that span
+ * each boundary, so the graph is exactly the one a single MappedCorpusScanner
+ * over the whole file would give, whatever the number of ranges.
+ * This class is internal to GraphPoet.
+ */
+final class ParallelCorpusReader {
+
+    /** fewest bytes worth giving their own range */
+    static final long MIN_CHUNK = 1L << 20;
+
+    private ParallelCorpusReader() {
+    	throw new AssertionError("ParallelCorpusReader is not instantiable");
+    }
+
+    /**
+     * Derive the affinity graph from a corpus on the common ForkJoinPool,
+     * with a few ranges per thread, each at least MIN_CHUNK bytes.
+     *
+     * @param corpus UTF-8 text file
+     * @param builder builder the edges are set in
+     * @return the last word of the corpus, or null if it has no words
+     * @throws IOException if the corpus file cannot be found or read
+     */
+    static String generateGraph(File corpus, GraphBuilder<String> builder) throws IOException {
+    	ForkJoinPool pool = ForkJoinPool.commonPool();
+    	long chunks = Math.max(1, Math.min(4L * pool.getParallelism(), corpus.length() / MIN_CHUNK));
+    	return generateGraph(corpus, builder, (int) chunks, pool);
+    }
+
+    /**
+     * Derive the affinity graph from a corpus.
+     *
+     * @param corpus UTF-8 text file
+     * @param builder builder the edges are set in
+     * @param chunks number of byte ranges to cut the file into, positive;
+     *               ranges may be empty if a word is longer than a range
+     * @param pool pool the ranges are scanned on
+     * @return the last word of the corpus, or null if it has no words
+     * @throws IOException if the corpus file cannot be found or read
+     */
+    static String generateGraph(File corpus, GraphBuilder<String> builder, int chunks, ForkJoinPool pool) throws IOException {
+    	if (chunks <= 0) {
+    		throw new IllegalArgumentException("chunks should be positive: " + chunks);
+    	}
+    	long[] bounds = boundaries(corpus, chunks);
+    	BigramAccumulator accumulator;
+    	try {
+    		accumulator = pool.invoke(new ChunkTask(corpus, bounds, 0, chunks, builder));
+    	} catch (UncheckedIOException e) {
+    		throw e.getCause();
+    	}
+    	accumulator.finish();
+    	return accumulator.lastWord();
+    }
+
+    /**
+     * Cut a file into byte ranges of about the same size that start at
+     * whitespace.
+     *
+     * @param corpus file to cut
+     * @param chunks number of ranges, positive
+     * @return chunks + 1 non-decreasing offsets, from 0 to the size of the
+     *         file; range i is bounds[i]..bounds[i+1], and every bound but
+     *         the first and last is the offset of a whitespace byte or the
+     *         end of the file
+     * @throws IOException if the file cannot be found or read
+     */
+    static long[] boundaries(File corpus, int chunks) throws IOException {
+    	try (FileChannel channel = FileChannel.open(corpus.toPath(), StandardOpenOption.READ)) {
+    		long size = channel.size();
+    		long[] bounds = new long[chunks + 1];
+    		bounds[chunks] = size;
+    		ByteBuffer probe = ByteBuffer.allocate(4096);
+    		for (int i = 1; i < chunks; i++) {
+    			long bound = Math.max(bounds[i - 1], size / chunks * i);
+    			bounds[i] = nextWhitespace(channel, bound, size, probe);
+    		}
+    		return bounds;
+    	}
+    }
+
+    /**
+     * @return the offset of the first whitespace byte at or after from, or
+     *         size if there is none
+     */
+    private static long nextWhitespace(FileChannel channel, long from, long size, ByteBuffer probe) throws IOException {
+    	long offset = from;
+    	while (offset < size) {
+    		probe.clear();
+    		int read = channel.read(probe, offset);
+    		if (read <= 0) {
+    			break;
+    		}
+    		for (int k = 0; k < read; k++) {
+    			if (MappedCorpusScanner.isWhitespace(probe.get(k))) {
+    				return offset + k;
+    			}
+    		}
+    		offset += read;
+    	}
+    	return size;
+    }
+
+    /**
+     * Scans ranges lo..hi-1 and appends their accumulators in order.
+     */
+    private static final class ChunkTask extends RecursiveTask<BigramAccumulator> {
+
+    	private static final long serialVersionUID = 1L;
+
+    	private final File corpus;
+    	private final long[] bounds;
+    	private final int lo;
+    	private final int hi;
+    	private final transient GraphBuilder<String> builder;
+
+    	/**
+    	 * @param builder builder of the accumulator of range 0, the one the
+    	 *                others are appended to
+    	 */
+    	ChunkTask(File corpus, long[] bounds, int lo, int hi, GraphBuilder<String> builder) {
+    		this.corpus = corpus;
+    		this.bounds = bounds;
+    		this.lo = lo;
+    		this.hi = hi;
+    		this.builder = builder;
+    	}
+
+    	@Override protected BigramAccumulator compute() {
+    		if (hi - lo == 1) {
+    			return scan();
+    		}
+    		int mid = (lo + hi) >>> 1;
+    		ChunkTask left = new ChunkTask(corpus, bounds, lo, mid, builder);
+    		left.fork();
+    		BigramAccumulator right = new ChunkTask(corpus, bounds, mid, hi, builder).compute();
+    		BigramAccumulator accumulator = left.join();
+    		accumulator.append(right);
+    		return accumulator;
+    	}
+
+    	private BigramAccumulator scan() {
+    		BigramAccumulator accumulator = new BigramAccumulator(lo == 0 ? builder : new GraphBuilder<>());
+    		if (bounds[lo] == bounds[hi]) {
+    			return accumulator;
+    		}
+    		try (MappedCorpusScanner scanner = new MappedCorpusScanner(corpus, bounds[lo], bounds[hi], MappedCorpusScanner.DEFAULT_WINDOW)) {
+    			for (String word = scanner.next(); word != null; word = scanner.next()) {
+    				accumulator.accept(word);
+    			}
+    		} catch (IOException e) {
+    			throw new UncheckedIOException(e);
+    		}
+    		return accumulator;
+    	}
+    }
+
+}
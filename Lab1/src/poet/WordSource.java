@@ -0,0 +1,20 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package poet;
+
+import java.io.IOException;
+
+/**
+ * A source of the words of a corpus, lower-cased, in corpus order.
+ * This interface is internal to GraphPoet.
+ */
+interface WordSource {
+
+    /**
+     * @return the next word, lower-cased, or null if there are no more words
+     * @throws IOException if the corpus cannot be read
+     */
+    String next() throws IOException;
+
+}
@@ -0,0 +1,198 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Tests for AdaptiveGraph and GraphFactory.
+ *
+ * This class runs the GraphInstanceTest tests against AdaptiveGraph, as well
+ * as tests for its migrations and for the graphs GraphFactory chooses.
+ *
+ * Tests against the Graph spec should be in GraphInstanceTest.
+ */
+public class AdaptiveGraphTest extends GraphInstanceTest {
+
+    /*
+     * Provide an AdaptiveGraph for tests in GraphInstanceTest.
+     */
+    @Override public Graph<String> emptyInstance() {
+        return new AdaptiveGraph<>();
+    }
+
+    /*
+     * Testing AdaptiveGraph...
+     */
+
+    // Testing strategy for AdaptiveGraph
+    //   migration:
+    //     1.edge list up to smallEdgeLimit edges, adjacency map past it
+    //     2.smallEdgeLimit 0 starts as an adjacency map
+    //     3.adjacency map read many times is frozen, and thawed by the next
+    //       mutation but not by a call that changes nothing
+    //     4.no compaction: never frozen
+    //   set():
+    //     1.weight 0 on a missing edge adds no vertices
+    //   views:
+    //     1.views taken before a migration read the graph after it
+    //   random mutations and reads, compared with an AdjacencyMapGraph
+    //   constructor: negative smallEdgeLimit
+
+    @Test
+    public void testMigratesPastLimit() {
+    	AdaptiveGraph<String> graph = new AdaptiveGraph<>(3, true);
+    	assertEquals("expected an edge list", AdaptiveGraph.Representation.EDGE_LIST, graph.representation());
+    	graph.set("a", "b", 1);
+    	graph.set("b", "c", 2);
+    	graph.set("c", "a", 3);
+    	assertEquals("expected an edge list at the limit", AdaptiveGraph.Representation.EDGE_LIST, graph.representation());
+    	graph.set("a", "c", 4);
+    	assertEquals("expected an adjacency map past the limit", AdaptiveGraph.Representation.ADJACENCY_MAP, graph.representation());
+    	assertEquals("expected the edges kept", Map.of("b", 1, "c", 4), graph.targets("a"));
+    	assertEquals("expected the edges kept", Map.of("a", 3), graph.targets("c"));
+    	assertEquals("expected the vertices kept", Set.of("a", "b", "c"), graph.vertices());
+    	assertEquals("expected an adjacency map from the start", AdaptiveGraph.Representation.ADJACENCY_MAP,
+    			new AdaptiveGraph<String>(0, true).representation());
+    }
+
+    @Test
+    public void testCompactsAfterReadsAndThaws() {
+    	AdaptiveGraph<String> graph = new AdaptiveGraph<>(0, true);
+    	graph.set("a", "b", 1);
+    	graph.set("b", "c", 2);
+    	for (int i = 0; i < AdaptiveGraph.MIN_READS_TO_COMPACT - 1; i++) {
+    		graph.targets("a");
+    	}
+    	assertEquals("expected no freezing before enough reads", AdaptiveGraph.Representation.ADJACENCY_MAP, graph.representation());
+    	graph.sources("b");
+    	assertEquals("expected a compact graph", AdaptiveGraph.Representation.COMPACT, graph.representation());
+    	assertEquals("expected the edges kept", Map.of("a", 1), graph.sources("b"));
+    	assertFalse("expected an existing vertex not added", graph.add("a"));
+    	assertEquals("expected a set with the same weight", 1, graph.set("a", "b", 1));
+    	assertFalse("expected a missing vertex not removed", graph.remove("z"));
+    	assertEquals("expected no thawing without a change", AdaptiveGraph.Representation.COMPACT, graph.representation());
+    	assertEquals("expected the previous weight", 2, graph.set("b", "c", 5));
+    	assertEquals("expected an adjacency map after a change", AdaptiveGraph.Representation.ADJACENCY_MAP, graph.representation());
+    	assertEquals("expected the new weight", Map.of("c", 5), graph.targets("b"));
+    	assertEquals("expected the other edges kept", Map.of("b", 1), graph.targets("a"));
+    }
+
+    @Test
+    public void testNoCompaction() {
+    	AdaptiveGraph<String> graph = new AdaptiveGraph<>(0, false);
+    	graph.set("a", "b", 1);
+    	for (int i = 0; i < 2 * AdaptiveGraph.MIN_READS_TO_COMPACT; i++) {
+    		graph.targets("a");
+    	}
+    	assertEquals("expected no freezing", AdaptiveGraph.Representation.ADJACENCY_MAP, graph.representation());
+    }
+
+    @Test
+    public void testSetZeroAddsNoVertices() {
+    	AdaptiveGraph<String> graph = new AdaptiveGraph<>();
+    	assertEquals("expected no previous edge", 0, graph.set("a", "b", 0));
+    	assertEquals("expected no vertices", Collections.emptySet(), graph.vertices());
+    }
+
+    @Test
+    public void testViewsAcrossMigrations() {
+    	AdaptiveGraph<String> graph = new AdaptiveGraph<>(1, true);
+    	Set<String> vertices = graph.vertices();
+    	Map<String, Integer> targets = graph.targets("a");
+    	Map<String, Integer> sources = graph.sources("c");
+    	graph.set("a", "b", 1);
+    	graph.set("a", "c", 2);
+    	assertEquals("expected an adjacency map", AdaptiveGraph.Representation.ADJACENCY_MAP, graph.representation());
+    	assertEquals("expected the view to see the migrated vertices", Set.of("a", "b", "c"), vertices);
+    	assertEquals("expected the view to see the migrated edges", Map.of("b", 1, "c", 2), targets);
+    	for (int i = 0; i < AdaptiveGraph.MIN_READS_TO_COMPACT; i++) {
+    		graph.vertices();
+    	}
+    	assertEquals("expected a compact graph", AdaptiveGraph.Representation.COMPACT, graph.representation());
+    	assertEquals("expected the view to see the frozen edges", Map.of("a", 2), sources);
+    	graph.remove("b");
+    	assertEquals("expected the view to see the thawed vertices", Set.of("a", "c"), vertices);
+    	assertEquals("expected the view to see the thawed edges", Map.of("c", 2), targets);
+    }
+
+    @Test
+    public void testRandomAgainstAdjacencyMap() {
+    	Random random = new Random(6005);
+    	for (int round = 0; round < 5; round++) {
+    		AdaptiveGraph<String> graph = new AdaptiveGraph<>(random.nextInt(64), true);
+    		Graph<String> expected = new AdjacencyMapGraph<>();
+    		long seed = random.nextLong();
+    		AdjacencyMapGraphTest.mutateRandomly(graph, new Random(seed));
+    		AdjacencyMapGraphTest.mutateRandomly(expected, new Random(seed));
+    		for (int i = 0; i < AdaptiveGraph.MIN_READS_TO_COMPACT; i++) {
+    			graph.targets("v" + random.nextInt(30));
+    		}
+    		assertEquals("expected a compact graph", AdaptiveGraph.Representation.COMPACT, graph.representation());
+    		AdjacencyMapGraphTest.mutateRandomly(graph, new Random(seed + 1));
+    		AdjacencyMapGraphTest.mutateRandomly(expected, new Random(seed + 1));
+    		assertEquals("expected the same vertices", expected.vertices(), graph.vertices());
+    		for (String vertex : expected.vertices()) {
+    			assertEquals("expected the same targets", expected.targets(vertex), graph.targets(vertex));
+    			assertEquals("expected the same sources", expected.sources(vertex), graph.sources(vertex));
+    		}
+    	}
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testNegativeLimit() {
+    	new AdaptiveGraph<String>(-1, true);
+    }
+
+    /*
+     * Testing GraphFactory...
+     */
+
+    // Testing strategy for GraphFactory.create()
+    //   pattern: MIXED, READ_MOSTLY, WRITE_HEAVY, CONCURRENT
+    //   expected edges: at most, more than DEFAULT_SMALL_EDGE_LIMIT
+    //   expected sizes negative
+
+    @Test
+    public void testFactoryChoices() {
+    	Graph<String> small = GraphFactory.create(10, 20);
+    	assertTrue("expected an adaptive graph", small instanceof AdaptiveGraph);
+    	assertEquals("expected a small graph to start as an edge list", AdaptiveGraph.Representation.EDGE_LIST,
+    			((AdaptiveGraph<String>) small).representation());
+    	Graph<String> large = GraphFactory.create(1000, 100000, GraphFactory.AccessPattern.READ_MOSTLY);
+    	assertEquals("expected a large graph to start as an adjacency map", AdaptiveGraph.Representation.ADJACENCY_MAP,
+    			((AdaptiveGraph<String>) large).representation());
+    	assertTrue("expected an adjacency map graph",
+    			GraphFactory.create(1000, 100000, GraphFactory.AccessPattern.WRITE_HEAVY) instanceof AdjacencyMapGraph);
+    	assertTrue("expected a concurrent graph",
+    			GraphFactory.create(0, 0, GraphFactory.AccessPattern.CONCURRENT) instanceof ConcurrentGraph);
+    }
+
+    @Test
+    public void testFactoryCompactionByPattern() {
+    	AdaptiveGraph<String> mixed = (AdaptiveGraph<String>) GraphFactory.<String>create(100, 1000, GraphFactory.AccessPattern.MIXED);
+    	AdaptiveGraph<String> readMostly = (AdaptiveGraph<String>) GraphFactory.<String>create(100, 1000, GraphFactory.AccessPattern.READ_MOSTLY);
+    	for (AdaptiveGraph<String> graph : Set.of(mixed, readMostly)) {
+    		graph.set("a", "b", 1);
+    		for (int i = 0; i < AdaptiveGraph.MIN_READS_TO_COMPACT; i++) {
+    			graph.targets("a");
+    		}
+    	}
+    	assertEquals("expected a mixed graph never frozen", AdaptiveGraph.Representation.ADJACENCY_MAP, mixed.representation());
+    	assertEquals("expected a read-mostly graph frozen", AdaptiveGraph.Representation.COMPACT, readMostly.representation());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testFactoryNegativeSize() {
+    	GraphFactory.create(-1, 0);
+    }
+
+}
@@ -0,0 +1,368 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Tests for AdjacencyMapGraph.
+ *
+ * This class runs the GraphInstanceTest tests against AdjacencyMapGraph, as
+ * well as tests for that particular implementation.
+ *
+ * Tests against the Graph spec should be in GraphInstanceTest.
+ */
+public class AdjacencyMapGraphTest extends GraphInstanceTest {
+
+    /*
+     * Provide an AdjacencyMapGraph for tests in GraphInstanceTest.
+     */
+    @Override public Graph<String> emptyInstance() {
+        return new AdjacencyMapGraph<>();
+    }
+
+    /*
+     * Testing AdjacencyMapGraph...
+     */
+
+    // Testing strategy for AdjacencyMapGraph
+    //   set(source, target, weight):
+    //     1.remove an edge that does not exist, the graph is not modified
+    //     2.add a self-loop
+    //   remove(vertex):
+    //     1.the vertex has a self-loop
+    //     2.the vertex is added again after being removed
+    //   toString():
+    //     1.the graph has not vertices
+    //     2.the graph has some vertices and edges
+
+    @Test
+    public void testRemoveNonExistingEdge() {
+    	Graph<String> graph = emptyInstance();
+    	int result = graph.set("source vertex", "target vertex", 0);
+    	assertEquals("expected that there was no such edge", 0, result);
+    	assertEquals("expected that no vertices are added", Collections.emptySet(), graph.vertices());
+    }
+
+    @Test
+    public void testSetSelfLoop() {
+    	Graph<String> graph = emptyInstance();
+    	graph.set("vertex", "vertex", 2);
+    	assertEquals("expected the self-loop to be a source", 2, graph.sources("vertex").get("vertex").intValue());
+    	assertEquals("expected the self-loop to be a target", 2, graph.targets("vertex").get("vertex").intValue());
+    }
+
+    @Test
+    public void testRemoveVertexWithSelfLoop() {
+    	Graph<String> graph = emptyInstance();
+    	graph.set("vertex", "vertex", 2);
+    	graph.set("vertex", "target vertex", 1);
+    	assertTrue("expected to remove the vertex", graph.remove("vertex"));
+    	assertTrue("expected that the target has no sources", graph.sources("target vertex").isEmpty());
+    	assertEquals("expected only the target vertex to remain", Collections.singleton("target vertex"), graph.vertices());
+    }
+
+    @Test
+    public void testAddVertexAgainAfterRemove() {
+    	Graph<String> graph = emptyInstance();
+    	graph.set("source vertex", "target vertex", 1);
+    	graph.remove("target vertex");
+    	graph.add("target vertex");
+    	Map<String, Integer> sourcesMap = graph.sources("target vertex");
+    	assertTrue("expected the vertex to come back without its old edges", sourcesMap.isEmpty());
+    	assertTrue("expected the source to have no targets", graph.targets("source vertex").isEmpty());
+    }
+
+    // Testing strategy for live views
+    //   vertices(), sources(target), targets(source):
+    //     1.the graph is mutated after the view is obtained
+    //       1.1.an edge is added
+    //       1.2.the vertex is removed
+    //       1.3.the vertex is added again
+    //     2.the view is mutated
+    @Test
+    public void testViewsReflectMutations() {
+    	Graph<String> graph = emptyInstance();
+    	Set<String> vertices = graph.vertices();
+    	Map<String, Integer> targetsMap = graph.targets("source vertex");
+    	Map<String, Integer> sourcesMap = graph.sources("target vertex");
+    	graph.set("source vertex", "target vertex", 2);
+    	assertEquals("expected vertices to see the new vertices", 2, vertices.size());
+    	assertEquals("expected targets to see the new edge", 2, targetsMap.get("target vertex").intValue());
+    	assertEquals("expected sources to see the new edge", 2, sourcesMap.get("source vertex").intValue());
+    	graph.remove("source vertex");
+    	assertTrue("expected targets of a removed vertex to be empty", targetsMap.isEmpty());
+    	assertTrue("expected sources to see the removed edge", sourcesMap.isEmpty());
+    	graph.set("source vertex", "target vertex", 3);
+    	assertEquals("expected targets to see the vertex added again", 3, targetsMap.get("target vertex").intValue());
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testViewsAreUnmodifiable() {
+    	Graph<String> graph = emptyInstance();
+    	graph.set("source vertex", "target vertex", 1);
+    	graph.targets("source vertex").put("another vertex", 1);
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testVerticesViewIsUnmodifiable() {
+    	Graph<String> graph = emptyInstance();
+    	graph.vertices().add("a vertex");
+    }
+
+    // Testing strategy for WeightedGraph methods
+    //   weight(source, target):
+    //     1.the edge exists
+    //     2.the edge does not exist, or source is not a vertex
+    //   forEachTarget(source, action), forEachSource(target, action):
+    //     1.the vertex has edges, including a self-loop
+    //     2.the vertex is not in the graph
+    //   topTargets(source, k), topSources(target, k):
+    //     1.k is 0, less than the degree, greater than the degree, far greater
+    //       than the degree (Integer.MAX_VALUE)
+    //     2.the vertex is not in the graph
+    //     3.k is negative
+
+    @Test
+    public void testWeight() {
+    	AdjacencyMapGraph<String> graph = new AdjacencyMapGraph<>();
+    	graph.set("source vertex", "target vertex", 300);
+    	assertEquals("expected the weight of the edge", 300, graph.weight("source vertex", "target vertex"));
+    	assertEquals("expected zero for an edge in the other direction", 0, graph.weight("target vertex", "source vertex"));
+    	assertEquals("expected zero for a missing vertex", 0, graph.weight("missing", "target vertex"));
+    }
+
+    @Test
+    public void testForEachTargetAndSource() {
+    	AdjacencyMapGraph<String> graph = new AdjacencyMapGraph<>();
+    	graph.set("a", "a", 1);
+    	graph.set("a", "b", 2);
+    	graph.set("c", "a", 3);
+    	Map<String, Integer> targetsMap = new HashMap<>();
+    	graph.forEachTarget("a", targetsMap::put);
+    	Map<String, Integer> sourcesMap = new HashMap<>();
+    	graph.forEachSource("a", sourcesMap::put);
+    	assertEquals("expected every target of a", new HashMap<>(graph.targets("a")), targetsMap);
+    	assertEquals("expected every source of a", new HashMap<>(graph.sources("a")), sourcesMap);
+    	graph.forEachTarget("missing", (target, weight) -> fail("expected no targets of a missing vertex"));
+    }
+
+    @Test
+    public void testTopTargetsAndSources() {
+    	Random random = new Random(6005);
+    	AdjacencyMapGraph<String> graph = new AdjacencyMapGraph<>();
+    	for (int i = 0; i < 200; i++) {
+    		graph.set("hub", "t" + i, 1 + random.nextInt(50));
+    		graph.set("s" + i, "hub", 1 + random.nextInt(50));
+    	}
+    	for (int k : new int[] { 0, 1, 10, 200, 500 }) {
+    		assertTopK(graph.targets("hub"), graph.topTargets("hub", k), k);
+    		assertTopK(graph.sources("hub"), graph.topSources("hub", k), k);
+    	}
+    	assertTrue("expected no targets of a missing vertex", graph.topTargets("missing", 3).isEmpty());
+    }
+
+    @Test
+    public void testTopTargetsAndSourcesLargeK() {
+    	AdjacencyMapGraph<String> graph = new AdjacencyMapGraph<>();
+    	graph.set("x", "y", 1);
+    	graph.set("x", "z", 2);
+    	assertTopK(graph.targets("x"), graph.topTargets("x", Integer.MAX_VALUE), Integer.MAX_VALUE);
+    	assertTopK(graph.sources("y"), graph.topSources("y", Integer.MAX_VALUE), Integer.MAX_VALUE);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testTopTargetsNegativeK() {
+    	new AdjacencyMapGraph<String>().topTargets("hub", -1);
+    }
+
+    /**
+     * Assert that top holds min(k, |all|) entries of all in non-increasing
+     * order of weight, and that no entry left out is heavier than those kept.
+     */
+    static void assertTopK(Map<String, Integer> all, List<Map.Entry<String, Integer>> top, int k) {
+    	assertEquals("expected min(k, degree) entries", Math.min(k, all.size()), top.size());
+    	List<Integer> weights = new ArrayList<>(all.values());
+    	weights.sort(Collections.reverseOrder());
+    	for (int i = 0; i < top.size(); i++) {
+    		Map.Entry<String, Integer> entry = top.get(i);
+    		assertEquals("expected an edge of the graph", all.get(entry.getKey()), entry.getValue());
+    		assertEquals("expected the " + i + "th heaviest weight", weights.get(i), entry.getValue());
+    	}
+    }
+
+    // Testing strategy for StatisticsGraph methods
+    //   vertexCount(), edgeCount(), totalWeight(), outDegree(), inDegree(),
+    //   outWeight(), inWeight():
+    //     1.after random add(), set() and remove(), including self-loops, edges
+    //       set to zero and removed vertices, compared with sums recomputed
+    //       from vertices(), targets() and sources()
+    //     2.the vertex is not in the graph
+    //   transitionProbability(source, target):
+    //     1.the edge exists
+    //     2.the edge does not exist
+
+    @Test
+    public void testStatisticsAfterRandomMutations() {
+    	AdjacencyMapGraph<String> graph = new AdjacencyMapGraph<>();
+    	mutateRandomly(graph, new Random(6005));
+    	assertStatistics(graph);
+    }
+
+    @Test
+    public void testTransitionProbability() {
+    	AdjacencyMapGraph<String> graph = new AdjacencyMapGraph<>();
+    	graph.set("a", "b", 1);
+    	graph.set("a", "c", 3);
+    	assertEquals("expected the weight over the total weight out of a", 0.75, graph.transitionProbability("a", "c"), 0);
+    	assertEquals("expected zero without an edge", 0, graph.transitionProbability("b", "a"), 0);
+    	assertEquals("expected zero from a missing vertex", 0, graph.transitionProbability("missing", "a"), 0);
+    }
+
+    /**
+     * Apply random add(), set() and remove() calls to a graph over a small set
+     * of labels, so that edges are often replaced, set to zero and lost with
+     * their vertex, and some are self-loops.
+     */
+    static void mutateRandomly(Graph<String> graph, Random random) {
+    	for (int i = 0; i < 2000; i++) {
+    		String source = "v" + random.nextInt(30);
+    		String target = "v" + random.nextInt(30);
+    		int choice = random.nextInt(10);
+    		if (choice == 0) {
+    			graph.remove(source);
+    		} else if (choice == 1) {
+    			graph.add(source);
+    		} else if (choice < 4) {
+    			graph.set(source, target, 0);
+    		} else {
+    			graph.set(source, target, 1 + random.nextInt(1000));
+    		}
+    	}
+    }
+
+    /**
+     * Assert that the statistics of graph match the sums of its edges, as
+     * observed through vertices(), targets() and sources().
+     */
+    static void assertStatistics(StatisticsGraph<String> graph) {
+    	long edges = 0;
+    	long totalWeight = 0;
+    	for (String vertex : graph.vertices()) {
+    		Map<String, Integer> targetsMap = graph.targets(vertex);
+    		Map<String, Integer> sourcesMap = graph.sources(vertex);
+    		long outWeight = targetsMap.values().stream().mapToLong(Integer::longValue).sum();
+    		long inWeight = sourcesMap.values().stream().mapToLong(Integer::longValue).sum();
+    		assertEquals("expected the out-degree of " + vertex, targetsMap.size(), graph.outDegree(vertex));
+    		assertEquals("expected the in-degree of " + vertex, sourcesMap.size(), graph.inDegree(vertex));
+    		assertEquals("expected the weight out of " + vertex, outWeight, graph.outWeight(vertex));
+    		assertEquals("expected the weight into " + vertex, inWeight, graph.inWeight(vertex));
+    		for (Map.Entry<String, Integer> edge : targetsMap.entrySet()) {
+    			assertEquals("expected the share of the edge to " + edge.getKey(), (double) edge.getValue() / outWeight, graph.transitionProbability(vertex, edge.getKey()), 1e-12);
+    		}
+    		edges += targetsMap.size();
+    		totalWeight += outWeight;
+    	}
+    	assertEquals("expected the number of vertices", graph.vertices().size(), graph.vertexCount());
+    	assertEquals("expected the number of edges", edges, graph.edgeCount());
+    	assertEquals("expected the total weight", totalWeight, graph.totalWeight());
+    	assertEquals("expected no edges from a missing vertex", 0, graph.outDegree("missing"));
+    	assertEquals("expected no weight into a missing vertex", 0, graph.inWeight("missing"));
+    }
+
+    /*
+     * Testing ObjectIntMap...
+     */
+
+    // Testing strategy for ObjectIntMap
+    //   put(key, value), remove(key), get(key):
+    //     1.many keys, compared against a HashMap after random updates
+    //     2.keys in the same probe run, removed from the middle of the run
+    //   asMap():
+    //     1.iterating while a key is added fails fast
+
+    @Test
+    public void testObjectIntMapAgainstHashMap() {
+    	Random random = new Random(6005);
+    	ObjectIntMap<Integer> map = new ObjectIntMap<>();
+    	Map<Integer, Integer> expected = new HashMap<>();
+    	for (int i = 0; i < 20000; i++) {
+    		int key = random.nextInt(2000);
+    		if (random.nextInt(3) == 0) {
+    			assertEquals("expected remove to return the old value", expected.getOrDefault(key, 0).intValue(), map.remove(key));
+    			expected.remove(key);
+    		} else {
+    			assertEquals("expected put to return the old value", expected.getOrDefault(key, 0).intValue(), map.put(key, i + 1));
+    			expected.put(key, i + 1);
+    		}
+    	}
+    	map.checkRep();
+    	assertEquals("expected the same size", expected.size(), map.size());
+    	assertEquals("expected the same sum", expected.values().stream().mapToLong(Integer::longValue).sum(), map.sum());
+    	assertEquals("expected the same entries", expected, new HashMap<>(map.asMap()));
+    	for (int key = 0; key < 2000; key++) {
+    		assertEquals("expected the same value for " + key, expected.getOrDefault(key, 0).intValue(), map.get(key));
+    	}
+    }
+
+    @Test
+    public void testObjectIntMapRemoveFromProbeRun() {
+    	// "Aa" and "BB" have the same hash code, so all these keys collide
+    	String[] keys = new String[16];
+    	for (int i = 0; i < keys.length; i++) {
+    		keys[i] = "";
+    		for (int bit = 0; bit < 4; bit++) {
+    			keys[i] += (i >> bit & 1) == 0 ? "Aa" : "BB";
+    		}
+    	}
+    	ObjectIntMap<String> map = new ObjectIntMap<>();
+    	for (int i = 0; i < keys.length; i++) {
+    		map.put(keys[i], i + 1);
+    	}
+    	for (int i = 0; i < keys.length; i += 3) {
+    		map.remove(keys[i]);
+    	}
+    	map.checkRep();
+    	for (int i = 0; i < keys.length; i++) {
+    		assertEquals("expected the value of " + keys[i], i % 3 == 0 ? 0 : i + 1, map.get(keys[i]));
+    	}
+    }
+
+    @Test(expected=ConcurrentModificationException.class)
+    public void testObjectIntMapViewFailsFast() {
+    	ObjectIntMap<String> map = new ObjectIntMap<>();
+    	map.put("a", 1);
+    	map.put("b", 2);
+    	Iterator<String> iterator = map.asMap().keySet().iterator();
+    	iterator.next();
+    	map.put("c", 3);
+    	iterator.next();
+    }
+
+    @Test
+    public void testAdjacencyMapGraphWithoutVertices() {
+    	Graph<String> graph = emptyInstance();
+    	System.out.println("A graph without any vertices:" + graph.toString());
+    }
+
+    @Test
+    public void testAdjacencyMapGraphWithVerticesAndEdges() {
+    	Graph<String> graph = emptyInstance();
+    	graph.set("source vertex", "target vertex", 1);
+    	System.out.println("A graph with vertices and edges:" + graph.toString());
+    }
+
+}
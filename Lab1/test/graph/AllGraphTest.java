@@ -4,7 +4,7 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 
 @RunWith(Suite.class)
-@Suite.SuiteClasses({GraphStaticTest.class,ConcreteVerticesGraphTest.class,ConcreteEdgesGraphTest.class})
+@Suite.SuiteClasses({GraphStaticTest.class,ConcreteVerticesGraphTest.class,ConcreteEdgesGraphTest.class,AdjacencyMapGraphTest.class,CheckLevelTest.class,GraphBuilderTest.class,CompactGraphTest.class,ConcurrentGraphTest.class,VersionedGraphTest.class,MappedGraphTest.class,BinaryGraphFormatTest.class,ShortestPathsTest.class,ObservableGraphTest.class,InstrumentedGraphTest.class,AdaptiveGraphTest.class,GraphViewsTest.class})
 public class AllGraphTest {
 
 }
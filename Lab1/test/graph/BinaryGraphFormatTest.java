@@ -0,0 +1,109 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * Tests for BinaryGraphFormat.
+ *
+ * This class runs the GraphInstanceTest tests against graphs read back by
+ * BinaryGraphFormat, so a graph that went through the format must still meet
+ * the Graph spec, as well as round-trip tests of the format itself.
+ *
+ * Tests against the Graph spec should be in GraphInstanceTest.
+ */
+public class BinaryGraphFormatTest extends GraphInstanceTest {
+
+    /*
+     * Provide an empty graph read back from the binary format for tests in
+     * GraphInstanceTest.
+     */
+    @Override public Graph<String> emptyInstance() {
+        try {
+            return roundTrip(Graph.empty());
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    /*
+     * Testing BinaryGraphFormat...
+     */
+
+    // Testing strategy for BinaryGraphFormat
+    //   write(graph, out), read(in):
+    //     1.graph is empty
+    //     2.graph has a self-loop, isolated vertices, non-ASCII labels and
+    //       weights that need several varint bytes
+    //     3.graph has many vertices, so target ids are delta-encoded across a wide range
+    //     4.the stream is not in the format, or is truncated
+    //   the graph that is read:
+    //     1.is mutable and independent of the graph that was written
+
+    private static byte[] bytesOf(Graph<String> graph) throws IOException {
+    	ByteArrayOutputStream out = new ByteArrayOutputStream();
+    	BinaryGraphFormat.write(graph, out);
+    	return out.toByteArray();
+    }
+
+    private static Graph<String> roundTrip(Graph<String> graph) throws IOException {
+    	return BinaryGraphFormat.read(new ByteArrayInputStream(bytesOf(graph)));
+    }
+
+    @Test
+    public void testRoundTripSample() throws IOException {
+    	Graph<String> expected = TestGraphs.sampleGraph();
+    	TestGraphs.assertSameGraph(expected, roundTrip(expected));
+    }
+
+    @Test
+    public void testRoundTripManyVertices() throws IOException {
+    	Graph<String> expected = Graph.empty();
+    	for (int i = 0; i < 3000; i++) {
+    		expected.set("w" + i, "w" + (i * 37 % 3000), 1 + i % 200);
+    		expected.set("w" + i, "w" + (i * 101 % 3000), 1 + i);
+    	}
+    	TestGraphs.assertSameGraph(expected, roundTrip(expected));
+    }
+
+    @Test
+    public void testReadGraphIsIndependent() throws IOException {
+    	Graph<String> original = TestGraphs.sampleGraph();
+    	Graph<String> copy = roundTrip(original);
+    	copy.set("hello,", "new", 1);
+    	copy.remove("isolated");
+    	assertFalse("expected the original to keep its vertex", original.targets("hello,").containsKey("new"));
+    	assertTrue("expected the original to keep isolated", original.vertices().contains("isolated"));
+    }
+
+    @Test
+    public void testFormatIsCompact() throws IOException {
+    	Graph<String> graph = Graph.empty();
+    	graph.set("a", "b", 1);
+    	graph.set("b", "a", 1);
+    	// magic, version, count, two labels, two rows of one edge each
+    	assertEquals("expected a byte per small number", 4 + 1 + 1 + 2 * 2 + 2 * 3, bytesOf(graph).length);
+    }
+
+    @Test(expected=IOException.class)
+    public void testBadMagic() throws IOException {
+    	BinaryGraphFormat.read(new ByteArrayInputStream("GRAPH".getBytes("UTF-8")));
+    }
+
+    @Test(expected=EOFException.class)
+    public void testTruncated() throws IOException {
+    	byte[] bytes = bytesOf(TestGraphs.sampleGraph());
+    	BinaryGraphFormat.read(new ByteArrayInputStream(Arrays.copyOf(bytes, bytes.length - 1)));
+    }
+
+}
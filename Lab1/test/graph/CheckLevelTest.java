@@ -0,0 +1,184 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Tests for CheckLevel.
+ */
+public class CheckLevelTest {
+
+    // Testing strategy
+    //   current():
+    //     1.assertions are enabled and the property is not set, so it is FULL
+    //   setCurrent(level):
+    //     1.level is null
+    //     2.level is each of OFF, SAMPLED, INCREMENTAL, FULL
+    //       run the same mutations on every implementation and observe with
+    //       vertices(), sources() and targets()
+    //   fromProperty(property):
+    //     1.null, a level in any case with surrounding whitespace, a name of
+    //       no level
+    //   a rep corrupted behind the graph's back, then a mutation touching
+    //   the corrupted vertex, for every implementation:
+    //     1.FULL and INCREMENTAL report it
+    //     2.SAMPLED reports it within many mutations
+    //     3.OFF does not check, so the mutation succeeds
+
+    private final CheckLevel initialLevel = CheckLevel.current();
+
+    @After
+    public void restoreLevel() {
+    	CheckLevel.setCurrent(initialLevel);
+    }
+
+    private static List<Graph<String>> allImplementations() {
+    	return Arrays.asList(new ConcreteEdgesGraph<>(), new ConcreteVerticesGraph<>(), new AdjacencyMapGraph<>());
+    }
+
+    private static void mutateAndObserve(CheckLevel level) {
+    	CheckLevel.setCurrent(level);
+    	for (Graph<String> graph : allImplementations()) {
+    		for (int i = 0; i < 2 * CheckLevel.SAMPLE_PERIOD; i++) {
+    			graph.set("v" + i, "v" + (i + 1), i + 1);
+    		}
+    		graph.set("v0", "v0", 3);
+    		graph.set("v1", "v2", 0);
+    		graph.remove("v3");
+    		String name = graph.getClass().getSimpleName() + " at " + level;
+    		assertFalse(name + ": expected v3 to be removed", graph.vertices().contains("v3"));
+    		assertEquals(name + ": expected the self-loop", 3, graph.targets("v0").get("v0").intValue());
+    		assertTrue(name + ": expected the removed edge to be gone", graph.sources("v2").isEmpty());
+    		assertTrue(name + ": expected edges to v3 to be removed", graph.targets("v2").isEmpty());
+    		assertEquals(name + ": expected the remaining edges", 5, graph.targets("v4").get("v5").intValue());
+    	}
+    }
+
+    /**
+     * @return the value of a private field of object
+     */
+    private static Object field(Object object, String name) throws ReflectiveOperationException {
+    	Field field = object.getClass().getDeclaredField(name);
+    	field.setAccessible(true);
+    	return field.get(object);
+    }
+
+    /**
+     * @return a graph of each implementation with the edge a -> b, whose rep
+     *         has been corrupted around a behind the graph's back: the totals
+     *         of a no longer add up, or the edge is only stored at a's end
+     */
+    @SuppressWarnings("unchecked")
+    private static List<Graph<String>> corruptedGraphs() throws ReflectiveOperationException {
+    	CheckLevel.setCurrent(CheckLevel.OFF);
+    	ConcreteEdgesGraph<String> edgesGraph = new ConcreteEdgesGraph<>();
+    	edgesGraph.set("a", "b", 1);
+    	Object totalsOfA = ((Map<String, ?>) field(edgesGraph, "totals")).get("a");
+    	Field outWeight = totalsOfA.getClass().getDeclaredField("outWeight");
+    	outWeight.setAccessible(true);
+    	outWeight.setLong(totalsOfA, -100);
+
+    	ConcreteVerticesGraph<String> verticesGraph = new ConcreteVerticesGraph<>();
+    	verticesGraph.set("a", "b", 1);
+    	((Map<String, Vertex<String>>) field(verticesGraph, "index")).get("b").predecessorWeights().remove("a");
+
+    	AdjacencyMapGraph<String> mapGraph = new AdjacencyMapGraph<>();
+    	mapGraph.set("a", "b", 1);
+    	((Map<String, ObjectIntMap<String>>) field(mapGraph, "incoming")).get("b").remove("a");
+    	return Arrays.asList(edgesGraph, verticesGraph, mapGraph);
+    }
+
+    /**
+     * Mutate each corrupted graph at level, touching a, up to mutations times
+     * or until the corruption is reported.
+     */
+    private static void assertReported(CheckLevel level, int mutations) throws ReflectiveOperationException {
+    	for (Graph<String> graph : corruptedGraphs()) {
+    		CheckLevel.setCurrent(level);
+    		boolean reported = false;
+    		try {
+    			for (int i = 0; i < mutations; i++) {
+    				graph.set("a", "c" + i, 1);
+    			}
+    		} catch (AssertionError e) {
+    			reported = true;
+    		}
+    		assertTrue(graph.getClass().getSimpleName() + ": expected " + level + " to report the corrupted rep", reported);
+    	}
+    }
+
+    @Test
+    public void testFullWhenAssertionsEnabled() {
+    	if (System.getProperty("graph.checkLevel") == null) {
+    		assertEquals("expected FULL checks when running with -ea", CheckLevel.FULL, initialLevel);
+    	}
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testSetNullLevel() {
+    	CheckLevel.setCurrent(null);
+    }
+
+    @Test
+    public void testOff() {
+    	mutateAndObserve(CheckLevel.OFF);
+    }
+
+    @Test
+    public void testSampled() {
+    	mutateAndObserve(CheckLevel.SAMPLED);
+    }
+
+    @Test
+    public void testIncremental() {
+    	mutateAndObserve(CheckLevel.INCREMENTAL);
+    }
+
+    @Test
+    public void testFull() {
+    	mutateAndObserve(CheckLevel.FULL);
+    }
+
+    @Test
+    public void testFromProperty() {
+    	assertEquals("expected FULL without the property when running with -ea", CheckLevel.FULL, CheckLevel.fromProperty(null));
+    	assertEquals("expected the named level", CheckLevel.INCREMENTAL, CheckLevel.fromProperty(" incremental "));
+    	assertEquals("expected the named level", CheckLevel.OFF, CheckLevel.fromProperty("OFF"));
+    	assertEquals("expected the default for a name of no level", CheckLevel.FULL, CheckLevel.fromProperty("everything"));
+    }
+
+    @Test
+    public void testFullReportsCorruption() throws ReflectiveOperationException {
+    	assertReported(CheckLevel.FULL, 1);
+    }
+
+    @Test
+    public void testIncrementalReportsCorruption() throws ReflectiveOperationException {
+    	assertReported(CheckLevel.INCREMENTAL, 1);
+    }
+
+    @Test
+    public void testSampledReportsCorruption() throws ReflectiveOperationException {
+    	assertReported(CheckLevel.SAMPLED, 100 * CheckLevel.SAMPLE_PERIOD);
+    }
+
+    @Test
+    public void testOffSkipsCorruption() throws ReflectiveOperationException {
+    	for (Graph<String> graph : corruptedGraphs()) {
+    		CheckLevel.setCurrent(CheckLevel.OFF);
+    		assertEquals("expected no previous edge", 0, graph.set("a", "c", 1));
+    		assertEquals(graph.getClass().getSimpleName() + ": expected the mutation to succeed unchecked", 1, graph.targets("a").get("c").intValue());
+    	}
+    }
+
+}
@@ -0,0 +1,212 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests for CompactGraph.
+ *
+ * A CompactGraph is immutable, so it cannot run the GraphInstanceTest tests;
+ * instead every test freezes a graph of each mutable implementation and
+ * compares the snapshot with it.
+ */
+public class CompactGraphTest {
+
+    // Testing strategy
+    //   freeze(graph):
+    //     1.graph is empty
+    //     2.graph has vertices without edges
+    //     3.graph has edges, including a self-loop and a vertex with several targets
+    //     4.graph is already a CompactGraph
+    //     5.graph is mutated after it is frozen
+    //     6.graph.targets() is asked once per vertex
+    //   vertices(), sources(target), targets(source):
+    //     1.the label is a vertex
+    //     2.the label is not a vertex
+    //     3.the label is a vertex but not a neighbor (get returns null)
+    //   weight(), forEachTarget(), forEachSource():
+    //     1.agree with targets() and sources() for every vertex and a missing label
+    //   topTargets(source, k), topSources(target, k):
+    //     1.k is 0, less than the degree, greater than the degree
+    //     2.the vertex is not in the graph
+    //   vertexCount(), edgeCount(), totalWeight(), degrees and weight totals:
+    //     1.a randomly mutated graph, compared with sums recomputed from it
+    //   add(), set(), remove():
+    //     always throw UnsupportedOperationException
+    //   toString():
+    //     1.the graph has vertices and edges
+
+    private static List<Graph<String>> allImplementations() {
+    	return Arrays.asList(new ConcreteEdgesGraph<>(), new ConcreteVerticesGraph<>(), new AdjacencyMapGraph<>());
+    }
+
+    private static Graph<String> sampleGraph(Graph<String> graph) {
+    	graph.set("a", "b", 1);
+    	graph.set("a", "c", 2);
+    	graph.set("a", "d", 3);
+    	graph.set("b", "b", 4);
+    	graph.set("c", "a", 5);
+    	graph.add("isolated");
+    	return graph;
+    }
+
+    @Test
+    public void testWeightedGraphMethods() {
+    	WeightedGraph<String> frozen = CompactGraph.freeze(sampleGraph(new AdjacencyMapGraph<>()));
+    	for (String vertex : Arrays.asList("a", "b", "c", "d", "isolated", "missing")) {
+    		Map<String, Integer> targetsMap = new HashMap<>();
+    		frozen.forEachTarget(vertex, targetsMap::put);
+    		Map<String, Integer> sourcesMap = new HashMap<>();
+    		frozen.forEachSource(vertex, sourcesMap::put);
+    		assertEquals("expected the targets of " + vertex, new HashMap<>(frozen.targets(vertex)), targetsMap);
+    		assertEquals("expected the sources of " + vertex, new HashMap<>(frozen.sources(vertex)), sourcesMap);
+    		for (String target : Arrays.asList("a", "b", "c", "d", "missing")) {
+    			assertEquals("expected the weight from " + vertex + " to " + target,
+    					frozen.targets(vertex).getOrDefault(target, 0).intValue(), frozen.weight(vertex, target));
+    		}
+    	}
+    }
+
+    @Test
+    public void testTopTargetsAndSources() {
+    	Random random = new Random(6005);
+    	Graph<String> graph = new AdjacencyMapGraph<>();
+    	for (int i = 0; i < 200; i++) {
+    		graph.set("hub", "t" + i, 1 + random.nextInt(50));
+    		graph.set("s" + i, "hub", 1 + random.nextInt(50));
+    	}
+    	CompactGraph<String> frozen = CompactGraph.freeze(graph);
+    	for (int k : new int[] { 0, 1, 10, 200, 500 }) {
+    		AdjacencyMapGraphTest.assertTopK(graph.targets("hub"), frozen.topTargets("hub", k), k);
+    		AdjacencyMapGraphTest.assertTopK(graph.sources("hub"), frozen.topSources("hub", k), k);
+    	}
+    	assertTrue("expected no sources of a missing vertex", frozen.topSources("missing", 3).isEmpty());
+    }
+
+    @Test
+    public void testStatistics() {
+    	Graph<String> graph = new AdjacencyMapGraph<>();
+    	AdjacencyMapGraphTest.mutateRandomly(graph, new Random(6005));
+    	AdjacencyMapGraphTest.assertStatistics(CompactGraph.freeze(graph));
+    }
+
+    @Test
+    public void testFreezeEmpty() {
+    	for (Graph<String> graph : allImplementations()) {
+    		CompactGraph<String> frozen = CompactGraph.freeze(graph);
+    		assertEquals("expected no vertices", Collections.emptySet(), frozen.vertices());
+    		assertTrue("expected no targets", frozen.targets("a").isEmpty());
+    	}
+    }
+
+    @Test
+    public void testFreezeVerticesWithoutEdges() {
+    	for (Graph<String> graph : allImplementations()) {
+    		graph.add("a");
+    		graph.add("b");
+    		TestGraphs.assertSameGraph(graph, CompactGraph.freeze(graph));
+    	}
+    }
+
+    @Test
+    public void testFreezeEdges() {
+    	for (Graph<String> graph : allImplementations()) {
+    		TestGraphs.assertSameGraph(sampleGraph(graph), CompactGraph.freeze(graph));
+    	}
+    }
+
+    @Test
+    public void testFreezeManyVertices() {
+    	Graph<Integer> graph = new AdjacencyMapGraph<>();
+    	for (int i = 0; i < 1000; i++) {
+    		graph.set(i, (i * 7) % 1000, i + 1);
+    		graph.set(i, (i * 13) % 1000, i + 2);
+    	}
+    	CompactGraph<Integer> frozen = CompactGraph.freeze(graph);
+    	for (int i = 0; i < 1000; i++) {
+    		assertEquals("expected the same targets of " + i, graph.targets(i), new HashMap<>(frozen.targets(i)));
+    		assertEquals("expected the same sources of " + i, graph.sources(i), new HashMap<>(frozen.sources(i)));
+    	}
+    }
+
+    @Test
+    public void testFreezeAsksForEachRowOnce() {
+    	Map<String, Integer> calls = new HashMap<>();
+    	Graph<String> graph = sampleGraph(new ConcreteEdgesGraph<String>() {
+    		@Override public Map<String, Integer> targets(String source) {
+    			calls.merge(source, 1, Integer::sum);
+    			return super.targets(source);
+    		}
+    	});
+    	calls.clear();
+    	CompactGraph<String> frozen = CompactGraph.freeze(graph);
+    	for (String vertex : graph.vertices()) {
+    		assertEquals("expected targets(" + vertex + ") to be asked once", 1, calls.get(vertex).intValue());
+    	}
+    	TestGraphs.assertSameGraph(graph, frozen);
+    }
+
+    @Test
+    public void testFreezeCompactGraph() {
+    	CompactGraph<String> frozen = CompactGraph.freeze(sampleGraph(new AdjacencyMapGraph<>()));
+    	assertSame("expected the same snapshot", frozen, CompactGraph.freeze(frozen));
+    }
+
+    @Test
+    public void testSnapshotIsIndependent() {
+    	Graph<String> graph = sampleGraph(new AdjacencyMapGraph<>());
+    	CompactGraph<String> frozen = CompactGraph.freeze(graph);
+    	graph.remove("a");
+    	graph.set("b", "c", 9);
+    	assertTrue("expected the snapshot to keep a", frozen.vertices().contains("a"));
+    	assertEquals("expected the snapshot to keep the old edge", 5, frozen.sources("a").get("c").intValue());
+    	assertNull("expected the snapshot not to see the new edge", frozen.targets("b").get("c"));
+    }
+
+    @Test
+    public void testLookupOfNonNeighbor() {
+    	CompactGraph<String> frozen = CompactGraph.freeze(sampleGraph(new AdjacencyMapGraph<>()));
+    	Map<String, Integer> targetsMap = frozen.targets("a");
+    	assertNull("expected no edge from a to isolated", targetsMap.get("isolated"));
+    	assertFalse("expected no edge from a to missing", targetsMap.containsKey("missing"));
+    	assertFalse("expected missing not to be a vertex", frozen.vertices().contains("missing"));
+    	assertTrue("expected no sources of missing", frozen.sources("missing").isEmpty());
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testAddUnsupported() {
+    	CompactGraph.freeze(new AdjacencyMapGraph<String>()).add("a");
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testSetUnsupported() {
+    	CompactGraph.freeze(new AdjacencyMapGraph<String>()).set("a", "b", 1);
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testRemoveUnsupported() {
+    	CompactGraph.freeze(sampleGraph(new AdjacencyMapGraph<>())).remove("a");
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testTargetsUnmodifiable() {
+    	CompactGraph.freeze(sampleGraph(new AdjacencyMapGraph<>())).targets("a").put("b", 2);
+    }
+
+    @Test
+    public void testCompactGraphToString() {
+    	System.out.println(CompactGraph.freeze(sampleGraph(new AdjacencyMapGraph<>())).toString());
+    }
+
+}
@@ -5,6 +5,8 @@ package graph;
 
 import static org.junit.Assert.*;
 
+import java.util.Objects;
+import java.util.Random;
 
 import org.junit.Test;
 
@@ -60,6 +62,17 @@ public class ConcreteEdgesGraphTest extends GraphInstanceTest {
     	System.out.println("A graph with vertcies and edges:" + graph.toString());
     }
     
+    // Testing strategy for StatisticsGraph methods
+    //   1.after random add(), set() and remove(), compared with sums
+    //     recomputed from vertices(), targets() and sources()
+    
+    @Test
+    public void testStatisticsAfterRandomMutations() {
+    	ConcreteEdgesGraph<String> graph = new ConcreteEdgesGraph<>();
+    	AdjacencyMapGraphTest.mutateRandomly(graph, new Random(6005));
+    	AdjacencyMapGraphTest.assertStatistics(graph);
+    }
+    
     /*
      * Testing Edge...
      */
@@ -71,8 +84,10 @@ public class ConcreteEdgesGraphTest extends GraphInstanceTest {
     //     3.Edge1 is different from Edge2
     //     4.one of the edges to be tested is null
     //     5.the types of two edges are different
+    //     6.the weight is too large for the Integer cache
     //   hashCode():
     //     equal objects have the same hash code but the converse is not all true
+    //     the hash code is the same as Objects.hash of the fields
     
     @Test
     public void testCompareTheSameEdgeByEquals() {
@@ -115,6 +130,20 @@ public class ConcreteEdgesGraphTest extends GraphInstanceTest {
     	assertEquals("expected that the equal objects should have the same hash code", edge1, edge2);
     }
     
+    @Test
+    public void testCompareEdgesWithLargeWeightByEquals() {
+    	Edge<?> edge1 = new Edge<String>("source vertex", "target vertex", 1000);
+    	Edge<?> edge2 = new Edge<String>("source vertex", "target vertex", 1000);
+    	assertTrue("expected edges with the same large weight to be equal", edge1.equals(edge2) && edge2.equals(edge1));
+    	assertEquals("expected that the equal objects should have the same hash code", edge1.hashCode(), edge2.hashCode());
+    }
+    
+    @Test
+    public void testHashCodeMatchesObjectsHash() {
+    	Edge<?> edge = new Edge<String>("source vertex", "target vertex", 1000);
+    	assertEquals("expected the hash code of Objects.hash", Objects.hash("source vertex", "target vertex", 1000), edge.hashCode());
+    }
+    
     // The equal objects must have the same hash code
     // The not equal objects may have the same hash code
     
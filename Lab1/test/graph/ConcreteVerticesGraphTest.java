@@ -4,8 +4,12 @@
 package graph;
 
 import static org.junit.Assert.*;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Map;
+import java.util.Set;
 import java.util.HashMap;
+import java.util.Random;
 
 import org.junit.Test;
 
@@ -30,6 +34,117 @@ public class ConcreteVerticesGraphTest extends GraphInstanceTest {
      * Testing ConcreteVerticesGraph...
      */
     
+    // Testing strategy for ConcreteVerticesGraph lookups by label
+    //   sources(target), targets(source):
+    //     1.the graph is not empty but the label is not a vertex
+    //   remove(vertex):
+    //     1.the vertex is added again after being removed
+    //     2.vertices at the start and in the middle are removed, the others
+    //       keep their order
+    
+    @Test
+    public void testNeighborsOfNonExistingVertexInNonEmptyGraph() {
+    	Graph<String> graph = emptyInstance();
+    	graph.set("source vertex", "target vertex", 1);
+    	assertTrue("expected that sources is empty for a label which is not a vertex", graph.sources("non-existing vertex").isEmpty());
+    	assertTrue("expected that targets is empty for a label which is not a vertex", graph.targets("non-existing vertex").isEmpty());
+    }
+    
+    @Test
+    public void testRemoveKeepsOrderOfOthers() {
+    	ConcreteVerticesGraph<String> graph = new ConcreteVerticesGraph<>();
+    	for (String label : new String[] { "a", "b", "c", "d", "e" }) {
+    		graph.add(label);
+    	}
+    	graph.set("b", "c", 2);
+    	graph.set("c", "d", 3);
+    	assertTrue("expected to remove a vertex in the middle", graph.remove("c"));
+    	assertTrue("expected to remove the first vertex", graph.remove("a"));
+    	graph.checkRep();
+    	assertEquals("expected the other vertices in the order they were added",
+    			Arrays.asList("b", "d", "e"), new ArrayList<>(graph.vertices()));
+    	assertTrue("expected the edges of the removed vertex to be gone", graph.targets("b").isEmpty() && graph.sources("d").isEmpty());
+    }
+    
+    @Test
+    public void testAddVertexAgainAfterRemove() {
+    	Graph<String> graph = emptyInstance();
+    	graph.set("source vertex", "target vertex", 1);
+    	graph.remove("target vertex");
+    	assertTrue("expected to add the removed vertex again", graph.add("target vertex"));
+    	assertEquals("expected the graph to have 2 vertices", 2, graph.vertices().size());
+    	assertTrue("expected the vertex to come back without its old edges", graph.sources("target vertex").isEmpty());
+    }
+    
+    // Testing strategy for live views
+    //   vertices(), sources(target), targets(source):
+    //     1.the graph is mutated after the view is obtained
+    //       1.1.an edge is added
+    //       1.2.the vertex is removed
+    //       1.3.the vertex is added again
+    //     2.the view is mutated
+    @Test
+    public void testViewsReflectMutations() {
+    	Graph<String> graph = emptyInstance();
+    	Set<String> vertices = graph.vertices();
+    	Map<String, Integer> targetsMap = graph.targets("source vertex");
+    	Map<String, Integer> sourcesMap = graph.sources("target vertex");
+    	graph.set("source vertex", "target vertex", 2);
+    	assertEquals("expected vertices to see the new vertices", 2, vertices.size());
+    	assertEquals("expected targets to see the new edge", 2, targetsMap.get("target vertex").intValue());
+    	assertEquals("expected sources to see the new edge", 2, sourcesMap.get("source vertex").intValue());
+    	graph.remove("source vertex");
+    	assertTrue("expected targets of a removed vertex to be empty", targetsMap.isEmpty());
+    	assertTrue("expected sources to see the removed edge", sourcesMap.isEmpty());
+    	graph.set("source vertex", "target vertex", 3);
+    	assertEquals("expected targets to see the vertex added again", 3, targetsMap.get("target vertex").intValue());
+    }
+    
+    @Test(expected=UnsupportedOperationException.class)
+    public void testViewsAreUnmodifiable() {
+    	Graph<String> graph = emptyInstance();
+    	graph.set("source vertex", "target vertex", 1);
+    	graph.targets("source vertex").put("another vertex", 1);
+    }
+    
+    @Test(expected=UnsupportedOperationException.class)
+    public void testVerticesViewIsUnmodifiable() {
+    	Graph<String> graph = emptyInstance();
+    	graph.vertices().add("a vertex");
+    }
+    
+    // Testing strategy for StatisticsGraph methods
+    //   1.after random add(), set() and remove(), compared with sums
+    //     recomputed from vertices(), targets() and sources()
+    
+    @Test
+    public void testStatisticsAfterRandomMutations() {
+    	ConcreteVerticesGraph<String> graph = new ConcreteVerticesGraph<>();
+    	AdjacencyMapGraphTest.mutateRandomly(graph, new Random(6005));
+    	AdjacencyMapGraphTest.assertStatistics(graph);
+    }
+    
+    // Testing strategy for label storage
+    //   set(source, target, weight):
+    //     1.labels passed are equal copies of the labels of existing vertices
+    
+    @Test
+    public void testEdgesKeyedByVertexLabels() {
+    	ConcreteVerticesGraph<String> graph = new ConcreteVerticesGraph<>();
+    	String source = "source vertex";
+    	String target = "target vertex";
+    	graph.add(source);
+    	graph.add(target);
+    	graph.set(new String(source), new String(target), 1);
+    	for (String key : graph.targets(source).keySet()) {
+    		assertSame("expected the target key to be the vertex's label", target, key);
+    	}
+    	for (String key : graph.sources(target).keySet()) {
+    		assertSame("expected the source key to be the vertex's label", source, key);
+    	}
+    	graph.checkRep();
+    }
+    
     // Testing strategy for ConcreteVerticesGraph.toString()
     //   1.the graph has not vertices
     //   2.the graph has some vertices
@@ -0,0 +1,207 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Tests for ConcurrentGraph.
+ *
+ * This class runs the GraphInstanceTest tests against ConcurrentGraph, as
+ * well as multithreaded stress tests for that particular implementation.
+ *
+ * Tests against the Graph spec should be in GraphInstanceTest.
+ */
+public class ConcurrentGraphTest extends GraphInstanceTest {
+
+    /*
+     * Provide a ConcurrentGraph for tests in GraphInstanceTest.
+     */
+    @Override public Graph<String> emptyInstance() {
+        return new ConcurrentGraph<>();
+    }
+
+    /*
+     * Testing ConcurrentGraph...
+     */
+
+    // Testing strategy for ConcurrentGraph
+    //   several threads at once:
+    //     1.set() edges between disjoint pairs of vertices
+    //     2.set() edges that share vertices, with the same and different weights
+    //     3.set() edges while other threads remove() vertices
+    //     4.read sources() and targets() while other threads set() and remove()
+    //   observe with vertices(), sources() and targets() after all threads
+    //   finish: every edge must be seen from both of its ends with the same weight
+    //   stress tests run at the default level (FULL under -ea) and at
+    //   INCREMENTAL; either way a mutation checks the vertices it touched
+    //   while their locks are held, and checkRep() checks the whole rep once
+    //   all threads have finished
+
+    private static final int THREADS = 8;
+    private static final int OPERATIONS = 2000;
+
+    private final CheckLevel initialLevel = CheckLevel.current();
+
+    @After
+    public void restoreLevel() {
+    	CheckLevel.setCurrent(initialLevel);
+    }
+
+    private static void runConcurrently(List<Callable<Void>> tasks) throws Exception {
+    	ExecutorService pool = Executors.newFixedThreadPool(tasks.size());
+    	CountDownLatch start = new CountDownLatch(1);
+    	try {
+    		List<Future<Void>> futures = new ArrayList<>();
+    		for (Callable<Void> task : tasks) {
+    			futures.add(pool.submit(() -> {
+    				start.await();
+    				return task.call();
+    			}));
+    		}
+    		start.countDown();
+    		for (Future<Void> future : futures) {
+    			future.get(60, TimeUnit.SECONDS);
+    		}
+    	} finally {
+    		pool.shutdownNow();
+    	}
+    }
+
+    private static void assertConsistent(ConcurrentGraph<String> graph) {
+    	graph.checkRep();
+    	for (String vertex : graph.vertices()) {
+    		for (Map.Entry<String, Integer> edge : graph.targets(vertex).entrySet()) {
+    			assertTrue("expected the target to be a vertex", graph.vertices().contains(edge.getKey()));
+    			assertEquals("expected the edge from both ends", edge.getValue(), graph.sources(edge.getKey()).get(vertex));
+    		}
+    		for (Map.Entry<String, Integer> edge : graph.sources(vertex).entrySet()) {
+    			assertTrue("expected the source to be a vertex", graph.vertices().contains(edge.getKey()));
+    			assertEquals("expected the edge from both ends", edge.getValue(), graph.targets(edge.getKey()).get(vertex));
+    		}
+    	}
+    }
+
+    @Test
+    public void testConcurrentSetOnDisjointPairs() throws Exception {
+    	ConcurrentGraph<String> graph = new ConcurrentGraph<>();
+    	List<Callable<Void>> tasks = new ArrayList<>();
+    	for (int t = 0; t < THREADS; t++) {
+    		final int thread = t;
+    		tasks.add(() -> {
+    			for (int i = 0; i < OPERATIONS; i++) {
+    				graph.set("s" + thread + "_" + i, "t" + thread + "_" + i, i + 1);
+    			}
+    			return null;
+    		});
+    	}
+    	runConcurrently(tasks);
+    	assertEquals("expected every vertex", 2 * THREADS * OPERATIONS, graph.vertices().size());
+    	for (int t = 0; t < THREADS; t++) {
+    		for (int i = 0; i < OPERATIONS; i++) {
+    			assertEquals("expected every edge", i + 1, graph.targets("s" + t + "_" + i).get("t" + t + "_" + i).intValue());
+    		}
+    	}
+    	assertConsistent(graph);
+    }
+
+    @Test
+    public void testConcurrentSetOnSharedVertices() throws Exception {
+    	CheckLevel.setCurrent(CheckLevel.INCREMENTAL);
+    	ConcurrentGraph<String> graph = new ConcurrentGraph<>();
+    	List<Callable<Void>> tasks = new ArrayList<>();
+    	for (int t = 0; t < THREADS; t++) {
+    		final int thread = t;
+    		tasks.add(() -> {
+    			for (int i = 0; i < OPERATIONS; i++) {
+    				String source = "v" + (i % 10);
+    				String target = "v" + ((i + thread) % 10);
+    				graph.set(source, target, i % 3);
+    			}
+    			return null;
+    		});
+    	}
+    	runConcurrently(tasks);
+    	assertEquals("expected the ten shared vertices", 10, graph.vertices().size());
+    	assertConsistent(graph);
+    }
+
+    @Test
+    public void testConcurrentSetAndRemove() throws Exception {
+    	ConcurrentGraph<String> graph = new ConcurrentGraph<>();
+    	List<Callable<Void>> tasks = new ArrayList<>();
+    	for (int t = 0; t < THREADS; t++) {
+    		final int thread = t;
+    		tasks.add(() -> {
+    			for (int i = 0; i < OPERATIONS; i++) {
+    				String vertex = "v" + ((i * 7 + thread) % 50);
+    				if (thread % 2 == 0) {
+    					graph.set(vertex, "v" + (i % 50), 1 + i % 5);
+    				} else if (i % 4 == 0) {
+    					graph.remove(vertex);
+    				} else {
+    					graph.add(vertex);
+    				}
+    			}
+    			return null;
+    		});
+    	}
+    	runConcurrently(tasks);
+    	assertConsistent(graph);
+    }
+
+    @Test
+    public void testReadersDuringWrites() throws Exception {
+    	CheckLevel.setCurrent(CheckLevel.INCREMENTAL);
+    	ConcurrentGraph<String> graph = new ConcurrentGraph<>();
+    	List<Callable<Void>> tasks = new ArrayList<>();
+    	for (int t = 0; t < THREADS; t++) {
+    		final int thread = t;
+    		tasks.add(() -> {
+    			for (int i = 0; i < OPERATIONS; i++) {
+    				String vertex = "v" + (i % 20);
+    				if (thread < THREADS / 2) {
+    					if (i % 10 == 0) {
+    						graph.remove(vertex);
+    					} else {
+    						graph.set(vertex, "v" + ((i + 1) % 20), 1 + i % 4);
+    					}
+    				} else {
+    					for (Map.Entry<String, Integer> edge : graph.targets(vertex).entrySet()) {
+    						assertTrue("expected only positive weights", edge.getValue() > 0);
+    					}
+    					for (Integer weight : graph.sources(vertex).values()) {
+    						assertTrue("expected only positive weights", weight > 0);
+    					}
+    					graph.vertices().size();
+    				}
+    			}
+    			return null;
+    		});
+    	}
+    	runConcurrently(tasks);
+    	assertConsistent(graph);
+    }
+
+    @Test
+    public void testConcurrentGraphToString() {
+    	Graph<String> graph = emptyInstance();
+    	graph.set("source vertex", "target vertex", 1);
+    	System.out.println("A graph with vertices and edges:" + graph.toString());
+    }
+
+}
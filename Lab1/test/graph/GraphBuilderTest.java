@@ -0,0 +1,226 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Tests for GraphBuilder and SymbolTable.
+ */
+public class GraphBuilderTest {
+
+    // Testing strategy
+    //   GraphBuilder(expectedVertices):
+    //     1.expectedVertices is negative
+    //   addVertex(vertex):
+    //     1.the vertex has no edges
+    //   add(source, target, weight):
+    //     1.the edge is new
+    //     2.the edge was already added, weights are summed
+    //     3.weight is zero, only the vertices are added
+    //     4.weight is negative
+    //   set(source, target, weight):
+    //     1.the edge was already set, the last weight wins
+    //     2.weight is zero and the edge exists, it is removed but the vertices stay
+    //   addAll(other):
+    //     1.the builders share some edges
+    //   setAll(other):
+    //     1.the builders share some edges, the other's weights win
+    //     2.the other has a vertex without edges
+    //   build():
+    //     1.nothing was added
+    //     2.the graph built is mutable
+    //     3.the builder is empty afterwards
+    //     4.labels passed are equal copies, the graph keeps the first instance
+
+    @Test
+    public void testBuildEmpty() {
+    	assertEquals("expected an empty graph", Collections.emptySet(), new GraphBuilder<String>().build().vertices());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testNegativeExpectedVertices() {
+    	new GraphBuilder<String>(-1);
+    }
+
+    @Test
+    public void testAddVertex() {
+    	Graph<String> graph = new GraphBuilder<String>().addVertex("vertex").build();
+    	assertEquals("expected one vertex", Collections.singleton("vertex"), graph.vertices());
+    	assertTrue("expected no edges", graph.targets("vertex").isEmpty());
+    }
+
+    @Test
+    public void testAddSumsDuplicateEdges() {
+    	Graph<String> graph = new GraphBuilder<String>(2)
+    			.add("source vertex", "target vertex", 1)
+    			.add("source vertex", "target vertex", 2)
+    			.build();
+    	assertEquals("expected the weights to be summed", 3, graph.targets("source vertex").get("target vertex").intValue());
+    	assertEquals("expected the incoming edge too", 3, graph.sources("target vertex").get("source vertex").intValue());
+    }
+
+    @Test
+    public void testAddZeroWeight() {
+    	Graph<String> graph = new GraphBuilder<String>().add("source vertex", "target vertex", 0).build();
+    	assertEquals("expected both vertices", 2, graph.vertices().size());
+    	assertTrue("expected no edge", graph.targets("source vertex").isEmpty());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testAddNegativeWeight() {
+    	new GraphBuilder<String>().add("source vertex", "target vertex", -1);
+    }
+
+    @Test
+    public void testSetLastWeightWins() {
+    	Graph<String> graph = new GraphBuilder<String>()
+    			.set("source vertex", "target vertex", 4)
+    			.set("source vertex", "target vertex", 2)
+    			.build();
+    	assertEquals("expected the last weight", 2, graph.targets("source vertex").get("target vertex").intValue());
+    }
+
+    @Test
+    public void testSetZeroRemovesEdge() {
+    	Graph<String> graph = new GraphBuilder<String>()
+    			.set("source vertex", "target vertex", 4)
+    			.set("source vertex", "target vertex", 0)
+    			.build();
+    	assertEquals("expected the vertices to stay", 2, graph.vertices().size());
+    	assertTrue("expected the edge to be removed", graph.sources("target vertex").isEmpty());
+    }
+
+    @Test
+    public void testAddAll() {
+    	GraphBuilder<String> builder = new GraphBuilder<String>().add("a", "b", 1).add("b", "c", 1);
+    	GraphBuilder<String> other = new GraphBuilder<String>().add("a", "b", 2).add("c", "a", 5);
+    	Graph<String> graph = builder.addAll(other).build();
+    	assertEquals("expected shared edges to be summed", 3, graph.targets("a").get("b").intValue());
+    	assertEquals("expected edges only in this builder", 1, graph.targets("b").get("c").intValue());
+    	assertEquals("expected edges only in the other builder", 5, graph.targets("c").get("a").intValue());
+    	assertEquals("expected the other builder not to be modified", 1, other.build().targets("c").size());
+    }
+
+    @Test
+    public void testSetAll() {
+    	GraphBuilder<String> builder = new GraphBuilder<String>().set("a", "b", 1).set("b", "c", 1);
+    	GraphBuilder<String> other = new GraphBuilder<String>().set("a", "b", 2).set("c", "a", 5).addVertex("d");
+    	Graph<String> graph = builder.setAll(other).build();
+    	assertEquals("expected the other's weight for shared edges", 2, graph.targets("a").get("b").intValue());
+    	assertEquals("expected edges only in this builder", 1, graph.targets("b").get("c").intValue());
+    	assertEquals("expected edges only in the other builder", 5, graph.targets("c").get("a").intValue());
+    	assertTrue("expected the other's vertices", graph.vertices().contains("d"));
+    	assertEquals("expected the other builder not to be modified", 2, other.build().targets("a").get("b").intValue());
+    }
+
+    @Test
+    public void testBuiltGraphIsMutable() {
+    	Graph<String> graph = new GraphBuilder<String>().add("a", "b", 1).build();
+    	assertEquals("expected the previous weight", 1, graph.set("a", "b", 7));
+    	assertTrue("expected to remove a vertex", graph.remove("b"));
+    	assertTrue("expected no edges from a", graph.targets("a").isEmpty());
+    }
+
+    @Test
+    public void testBuilderIsEmptyAfterBuild() {
+    	GraphBuilder<String> builder = new GraphBuilder<String>().add("a", "b", 1);
+    	Graph<String> first = builder.build();
+    	Set<String> vertices = builder.build().vertices();
+    	assertTrue("expected the second graph to be empty", vertices.isEmpty());
+    	assertEquals("expected the first graph to be unaffected", 2, first.vertices().size());
+    }
+
+    @Test
+    public void testBuiltGraphHoldsCanonicalLabels() {
+    	String a = "a vertex";
+    	String b = "b vertex";
+    	Graph<String> graph = new GraphBuilder<String>()
+    			.set(a, b, 1)
+    			.add(new String(b), new String(a), 2)
+    			.set(new String(a), new String(a), 3)
+    			.build();
+    	for (String vertex : graph.vertices()) {
+    		assertTrue("expected the first instances as vertices", vertex == a || vertex == b);
+    		for (String key : graph.targets(vertex).keySet()) {
+    			assertTrue("expected the first instances as targets", key == a || key == b);
+    		}
+    		for (String key : graph.sources(vertex).keySet()) {
+    			assertTrue("expected the first instances as sources", key == a || key == b);
+    		}
+    	}
+    	assertEquals("expected every edge", 3, graph.targets("a vertex").get("a vertex").intValue());
+    }
+
+    /*
+     * Testing SymbolTable...
+     */
+
+    // Testing strategy for SymbolTable
+    //   SymbolTable(expectedLabels):
+    //     1.expectedLabels is negative
+    //   id(label), intern(label):
+    //     1.the label is new, it gets the next id
+    //     2.an equal copy was interned before, the first instance is returned
+    //     3.label is null
+    //   idOf(label):
+    //     1.the label was interned, was not, is null
+    //   label(id), labels(), size():
+    //     1.many labels, in id order
+    //     2.id out of range
+
+    @Test
+    public void testSymbolTableInterns() {
+    	SymbolTable<String> symbols = new SymbolTable<>();
+    	String first = "word";
+    	assertEquals("expected the first id", 0, symbols.id(first));
+    	assertSame("expected a new label to be its own canonical instance", first, symbols.intern(first));
+    	assertSame("expected the first instance for an equal copy", first, symbols.intern(new String(first)));
+    	assertEquals("expected the same id for an equal copy", 0, symbols.id(new String(first)));
+    	assertEquals("expected the next id", 1, symbols.id("other"));
+    	assertEquals("expected idOf to find the label", 1, symbols.idOf("other"));
+    	assertEquals("expected -1 for a label never interned", -1, symbols.idOf("missing"));
+    	assertEquals("expected -1 for null", -1, symbols.idOf(null));
+    	assertEquals("expected idOf not to intern", 2, symbols.size());
+    	symbols.checkRep();
+    }
+
+    @Test
+    public void testSymbolTableManyLabels() {
+    	SymbolTable<Integer> symbols = new SymbolTable<>(4);
+    	List<Integer> labels = symbols.labels();
+    	for (int i = 0; i < 1000; i++) {
+    		assertEquals("expected dense ids", i, symbols.id(i * 7));
+    	}
+    	for (int i = 0; i < 1000; i++) {
+    		assertEquals("expected the label of each id", i * 7, symbols.label(i).intValue());
+    		assertEquals("expected the id of each label", i, symbols.idOf(i * 7));
+    	}
+    	assertEquals("expected the view to see every label", 1000, labels.size());
+    	assertEquals("expected labels in id order", 14, labels.get(2).intValue());
+    	symbols.checkRep();
+    }
+
+    @Test(expected=IndexOutOfBoundsException.class)
+    public void testSymbolTableIdOutOfRange() {
+    	new SymbolTable<String>().label(0);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testSymbolTableNull() {
+    	new SymbolTable<String>().intern(null);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testSymbolTableNegativeExpectedLabels() {
+    	new SymbolTable<String>(-1);
+    }
+
+}
@@ -0,0 +1,217 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+import org.junit.Test;
+
+/**
+ * Tests for GraphViews.
+ */
+public class GraphViewsTest {
+
+    // Testing strategy
+    //   induced(graph, vertices):
+    //     1.vertices(), sources() and targets() of kept and dropped vertices
+    //     2.get() and containsKey() of a dropped neighbor, of a label not in graph
+    //   filterEdges(graph, weights):
+    //     1.edges below and above a threshold, self-loop
+    //   reversed(graph):
+    //     1.sources and targets swapped, self-loop kept
+    //   all views:
+    //     1.the graph is mutated after the view is taken, the view sees it
+    //       (including a graph whose vertices() is a snapshot)
+    //     2.views composed, compared with copies filtered by hand after
+    //       random mutations
+    //     3.add(), set() and remove() throw
+    //     4.the views returned are unmodifiable
+
+    /**
+     * @return a graph a->b (1), a->c (5), b->c (2), c->a (3), c->c (4), and d alone
+     */
+    private static Graph<String> sampleGraph() {
+    	Graph<String> graph = new AdjacencyMapGraph<>();
+    	graph.set("a", "b", 1);
+    	graph.set("a", "c", 5);
+    	graph.set("b", "c", 2);
+    	graph.set("c", "a", 3);
+    	graph.set("c", "c", 4);
+    	graph.add("d");
+    	return graph;
+    }
+
+    @Test
+    public void testInduced() {
+    	Graph<String> view = GraphViews.induced(sampleGraph(), label -> !label.equals("b"));
+    	assertEquals("expected the kept vertices", Set.of("a", "c", "d"), view.vertices());
+    	assertEquals("expected edges to dropped vertices to be hidden", Map.of("c", 5), view.targets("a"));
+    	assertEquals("expected edges from dropped vertices to be hidden", Map.of("a", 5, "c", 4), view.sources("c"));
+    	assertTrue("expected no edges of a dropped vertex", view.targets("b").isEmpty());
+    	assertFalse("expected a dropped vertex not to be contained", view.vertices().contains("b"));
+    	assertNull("expected no weight to a dropped vertex", view.sources("c").get("b"));
+    	assertFalse("expected no edge to a dropped vertex", view.targets("a").containsKey("b"));
+    	assertFalse("expected no vertex of another type", view.vertices().contains(Integer.valueOf(1)));
+    	assertNull("expected no weight to a label not in the graph", view.targets("a").get("z"));
+    }
+
+    @Test
+    public void testFilterEdges() {
+    	Graph<String> view = GraphViews.filterEdges(sampleGraph(), weight -> weight >= 3);
+    	assertEquals("expected every vertex", Set.of("a", "b", "c", "d"), view.vertices());
+    	assertEquals("expected only heavy edges", Map.of("c", 5), view.targets("a"));
+    	assertEquals("expected only heavy edges", Map.of("a", 5, "c", 4), view.sources("c"));
+    	assertTrue("expected light edges to be hidden", view.targets("b").isEmpty());
+    	assertEquals("expected the self-loop", 4, view.targets("c").get("c").intValue());
+    	assertNull("expected a light edge to be hidden", view.sources("c").get("b"));
+    }
+
+    @Test
+    public void testReversed() {
+    	Graph<String> view = GraphViews.reversed(sampleGraph());
+    	assertEquals("expected every vertex", Set.of("a", "b", "c", "d"), view.vertices());
+    	assertEquals("expected the sources as targets", Map.of("a", 5, "b", 2, "c", 4), view.targets("c"));
+    	assertEquals("expected the targets as sources", Map.of("b", 1, "c", 5), view.sources("a"));
+    }
+
+    @Test
+    public void testInducedSeesSnapshotGraphMutations() {
+    	Graph<String> graph = new VersionedGraph<>();
+    	Set<String> inducedVertices = GraphViews.induced(graph, label -> true).vertices();
+    	graph.set("a", "b", 1);
+    	assertEquals("expected the induced view to see vertices added to a snapshot graph", Set.of("a", "b"), inducedVertices);
+    	assertTrue("expected contains() to see a new vertex", inducedVertices.contains("a"));
+    	assertEquals("expected size() to see the new vertices", 2, inducedVertices.size());
+    }
+
+    @Test
+    public void testViewsSeeSnapshotGraphMutations() {
+    	Graph<String> graph = new VersionedGraph<>();
+    	graph.set("a", "b", 5);
+    	Graph<String> induced = GraphViews.induced(graph, label -> !label.equals("x"));
+    	Graph<String> filtered = GraphViews.filterEdges(graph, weight -> weight >= 3);
+    	Graph<String> reversed = GraphViews.reversed(graph);
+    	Map<String, Integer> inducedTargets = induced.targets("a");
+    	Map<String, Integer> inducedSources = induced.sources("b");
+    	Map<String, Integer> filteredTargets = filtered.targets("a");
+    	Map<String, Integer> filteredSources = filtered.sources("b");
+    	Map<String, Integer> reversedTargets = reversed.targets("b");
+    	Map<String, Integer> reversedSources = reversed.sources("a");
+    	Set<String> filteredVertices = filtered.vertices();
+    	Set<String> reversedVertices = reversed.vertices();
+    	graph.set("a", "c", 4);
+    	graph.set("c", "b", 6);
+    	graph.set("a", "b", 0);
+    	assertEquals("expected the induced view to see new edges", Map.of("c", 4), inducedTargets);
+    	assertEquals("expected the induced view to see new edges", Map.of("c", 6), inducedSources);
+    	assertEquals("expected the filtered view to see new edges", Map.of("c", 4), filteredTargets);
+    	assertEquals("expected the filtered view to see new edges", Map.of("c", 6), filteredSources);
+    	assertEquals("expected the reversed view to see new edges", Map.of("c", 6), reversedTargets);
+    	assertEquals("expected the reversed view to see new edges", Map.of("c", 4), reversedSources);
+    	assertEquals("expected the filtered view to see new vertices", Set.of("a", "b", "c"), filteredVertices);
+    	assertEquals("expected the reversed view to see new vertices", Set.of("a", "b", "c"), reversedVertices);
+    	assertTrue("expected containsKey() to see a new edge", reversedTargets.containsKey("c"));
+    	assertEquals("expected get() to see a new edge", 4, filteredTargets.get("c").intValue());
+    }
+
+    @Test
+    public void testViewsSeeMutations() {
+    	Graph<String> graph = sampleGraph();
+    	Graph<String> induced = GraphViews.induced(graph, label -> !label.equals("b"));
+    	Graph<String> filtered = GraphViews.filterEdges(graph, weight -> weight >= 3);
+    	Graph<String> reversed = GraphViews.reversed(graph);
+    	Map<String, Integer> inducedTargets = induced.targets("d");
+    	Map<String, Integer> filteredTargets = filtered.targets("d");
+    	Set<String> inducedVertices = induced.vertices();
+    	graph.set("d", "a", 7);
+    	graph.set("d", "b", 8);
+    	graph.remove("c");
+    	assertEquals("expected the induced view to see new edges", Map.of("a", 7), inducedTargets);
+    	assertEquals("expected the filtered view to see new edges", Map.of("a", 7, "b", 8), filteredTargets);
+    	assertEquals("expected the induced view to see removed vertices", Set.of("a", "d"), inducedVertices);
+    	assertEquals("expected the reversed view to see new edges", Map.of("d", 7), reversed.targets("a"));
+    }
+
+    @Test
+    public void testComposedAgainstCopies() {
+    	Random random = new Random(6005);
+    	for (int round = 0; round < 5; round++) {
+    		Graph<String> graph = new AdjacencyMapGraph<>();
+    		Predicate<String> vertices = label -> label.hashCode() % 3 != 0;
+    		IntPredicate weights = weight -> weight % 2 == 0;
+    		Graph<String> view = GraphViews.reversed(GraphViews.induced(GraphViews.filterEdges(graph, weights), vertices));
+    		AdjacencyMapGraphTest.mutateRandomly(graph, random);
+    		Set<String> expectedVertices = new HashSet<>();
+    		for (String vertex : graph.vertices()) {
+    			if (vertices.test(vertex)) {
+    				expectedVertices.add(vertex);
+    			}
+    		}
+    		assertEquals("expected the induced vertices", expectedVertices, view.vertices());
+    		for (String vertex : graph.vertices()) {
+    			Map<String, Integer> expectedTargets = new HashMap<>();
+    			if (vertices.test(vertex)) {
+    				graph.sources(vertex).forEach((source, weight) -> {
+    					if (vertices.test(source) && weights.test(weight)) {
+    						expectedTargets.put(source, weight);
+    					}
+    				});
+    			}
+    			assertEquals("expected the filtered reversed targets", expectedTargets, view.targets(vertex));
+    			assertEquals("expected the size to agree", expectedTargets.size(), view.targets(vertex).size());
+    			for (String source : graph.vertices()) {
+    				assertEquals("expected get to agree with iteration", expectedTargets.get(source), view.targets(vertex).get(source));
+    			}
+    		}
+    	}
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testAddThrows() {
+    	GraphViews.induced(sampleGraph(), label -> true).add("e");
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testSetThrows() {
+    	GraphViews.filterEdges(sampleGraph(), weight -> true).set("a", "b", 2);
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testRemoveThrows() {
+    	GraphViews.reversed(sampleGraph()).remove("a");
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testTargetsUnmodifiable() {
+    	GraphViews.induced(sampleGraph(), label -> true).targets("a").put("d", 1);
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testEntriesUnmodifiable() {
+    	GraphViews.filterEdges(sampleGraph(), weight -> true).targets("a").entrySet().iterator().next().setValue(9);
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testVerticesUnmodifiable() {
+    	GraphViews.induced(sampleGraph(), label -> true).vertices().iterator().remove();
+    }
+
+    @Test
+    public void testToString() {
+    	assertTrue("expected the edges listed", GraphViews.reversed(sampleGraph()).toString().contains("b={a=1}"));
+    	assertEquals("expected an empty view", "InducedView{vertices=[],edges={}}",
+    			GraphViews.induced(sampleGraph(), label -> false).toString());
+    	assertEquals("expected no entries", Collections.emptyMap(), GraphViews.filterEdges(sampleGraph(), weight -> false).targets("a"));
+    }
+
+}
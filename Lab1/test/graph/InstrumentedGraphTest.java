@@ -0,0 +1,202 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Tests for InstrumentedGraph.
+ *
+ * This class runs the GraphInstanceTest tests against InstrumentedGraph, as
+ * well as tests for its figures, and for LatencyHistogram.
+ *
+ * Tests against the Graph spec should be in GraphInstanceTest.
+ */
+public class InstrumentedGraphTest extends GraphInstanceTest {
+
+    /*
+     * Provide an InstrumentedGraph for tests in GraphInstanceTest.
+     */
+    @Override public Graph<String> emptyInstance() {
+        return new InstrumentedGraph<>(new AdjacencyMapGraph<>());
+    }
+
+    /*
+     * Testing InstrumentedGraph...
+     */
+
+    // Testing strategy for InstrumentedGraph
+    //   snapshot():
+    //     1.each operation is called a different number of times
+    //     2.an operation is never called
+    //     3.calls from several threads at once, none is lost
+    //   setEnabled():
+    //     1.calls while disabled are not counted, and are again once enabled
+    //   reset():
+    //     1.figures recorded before are forgotten
+    //   report():
+    //     1.has a line for every operation
+    //   Stats.percentileNanos():
+    //     1.percentile out of range
+
+    @Test
+    public void testCountsPerOperation() {
+    	InstrumentedGraph<String> graph = new InstrumentedGraph<>(new AdjacencyMapGraph<>());
+    	graph.add("a");
+    	graph.set("a", "b", 1);
+    	graph.set("b", "c", 1);
+    	graph.targets("a");
+    	graph.targets("a");
+    	graph.targets("b");
+    	graph.sources("c");
+    	graph.remove("c");
+    	Map<InstrumentedGraph.Operation, InstrumentedGraph.Stats> stats = graph.snapshot();
+    	assertEquals("expected one add", 1, stats.get(InstrumentedGraph.Operation.ADD).calls());
+    	assertEquals("expected two sets", 2, stats.get(InstrumentedGraph.Operation.SET).calls());
+    	assertEquals("expected three targets", 3, stats.get(InstrumentedGraph.Operation.TARGETS).calls());
+    	assertEquals("expected one sources", 1, stats.get(InstrumentedGraph.Operation.SOURCES).calls());
+    	assertEquals("expected one remove", 1, stats.get(InstrumentedGraph.Operation.REMOVE).calls());
+    	InstrumentedGraph.Stats vertices = stats.get(InstrumentedGraph.Operation.VERTICES);
+    	assertEquals("expected no vertices calls", 0, vertices.calls());
+    	assertEquals("expected no time without calls", 0, vertices.meanNanos(), 0);
+    	assertEquals("expected no percentile without calls", 0, vertices.percentileNanos(99));
+    	InstrumentedGraph.Stats sets = stats.get(InstrumentedGraph.Operation.SET);
+    	assertTrue("expected the median within the slowest call", sets.percentileNanos(50) <= sets.maxNanos());
+    	assertTrue("expected the total to bound the slowest call", sets.maxNanos() <= sets.totalNanos());
+    }
+
+    @Test
+    public void testAllocationTracking() {
+    	InstrumentedGraph<String> graph = new InstrumentedGraph<>(new AdjacencyMapGraph<>());
+    	for (int i = 0; i < 1000; i++) {
+    		graph.set("source" + i, "target" + i, 1);
+    	}
+    	long bytes = graph.snapshot().get(InstrumentedGraph.Operation.SET).allocatedBytes();
+    	if (InstrumentedGraph.allocationTracking()) {
+    		assertTrue("expected new vertices to allocate", bytes > 0);
+    	} else {
+    		assertEquals("expected zero without allocation tracking", 0, bytes);
+    	}
+    }
+
+    @Test
+    public void testDisabledAndReset() {
+    	InstrumentedGraph<String> graph = new InstrumentedGraph<>(new AdjacencyMapGraph<>());
+    	graph.setEnabled(false);
+    	assertFalse("expected measuring to be off", graph.isEnabled());
+    	graph.add("a");
+    	assertEquals("expected no calls counted while disabled", 0, graph.snapshot().get(InstrumentedGraph.Operation.ADD).calls());
+    	assertTrue("expected the graph to be mutated anyway", graph.vertices().contains("a"));
+    	graph.setEnabled(true);
+    	graph.add("b");
+    	assertEquals("expected calls counted once enabled", 1, graph.snapshot().get(InstrumentedGraph.Operation.ADD).calls());
+    	graph.reset();
+    	InstrumentedGraph.Stats adds = graph.snapshot().get(InstrumentedGraph.Operation.ADD);
+    	assertEquals("expected no calls after reset", 0, adds.calls());
+    	assertEquals("expected no time after reset", 0, adds.totalNanos());
+    }
+
+    @Test
+    public void testConcurrentCalls() throws Exception {
+    	InstrumentedGraph<String> graph = new InstrumentedGraph<>(new ConcurrentGraph<>());
+    	ExecutorService executor = Executors.newFixedThreadPool(4);
+    	List<Future<?>> futures = new ArrayList<>();
+    	for (int thread = 0; thread < 4; thread++) {
+    		String prefix = "thread" + thread;
+    		futures.add(executor.submit(() -> {
+    			for (int i = 0; i < 1000; i++) {
+    				graph.set(prefix + i, prefix + (i + 1), 1);
+    				graph.targets(prefix + i);
+    			}
+    		}));
+    	}
+    	for (Future<?> future : futures) {
+    		future.get();
+    	}
+    	executor.shutdown();
+    	assertTrue("expected the threads to finish", executor.awaitTermination(10, TimeUnit.SECONDS));
+    	Map<InstrumentedGraph.Operation, InstrumentedGraph.Stats> stats = graph.snapshot();
+    	assertEquals("expected every set counted", 4000, stats.get(InstrumentedGraph.Operation.SET).calls());
+    	assertEquals("expected every targets counted", 4000, stats.get(InstrumentedGraph.Operation.TARGETS).calls());
+    }
+
+    @Test
+    public void testReport() {
+    	InstrumentedGraph<String> graph = new InstrumentedGraph<>(new AdjacencyMapGraph<>());
+    	graph.set("a", "b", 1);
+    	String report = graph.report();
+    	for (InstrumentedGraph.Operation operation : InstrumentedGraph.Operation.values()) {
+    		assertTrue("expected a line for " + operation, report.contains(operation.name()));
+    	}
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testPercentileOutOfRange() {
+    	new InstrumentedGraph<String>(new AdjacencyMapGraph<>()).snapshot().get(InstrumentedGraph.Operation.ADD).percentileNanos(101);
+    }
+
+    /*
+     * Testing LatencyHistogram...
+     */
+
+    // Testing strategy for LatencyHistogram
+    //   bucketOf(), lowerBound(), upperBound():
+    //     1.small values, powers of two and their neighbors, Long.MAX_VALUE
+    //   valueAtPercentile():
+    //     1.random values over many magnitudes, compared with the exact
+    //       percentiles of the sorted values
+    //     2.negative values are recorded as zero
+
+    @Test
+    public void testBuckets() {
+    	List<Long> values = new ArrayList<>(Arrays.asList(0L, 1L, 15L, 16L, 17L, 31L, 32L, 33L, 1000L, Long.MAX_VALUE));
+    	for (int shift = 5; shift < 63; shift++) {
+    		values.add((1L << shift) - 1);
+    		values.add(1L << shift);
+    		values.add((1L << shift) + 1);
+    	}
+    	for (long value : values) {
+    		int bucket = LatencyHistogram.bucketOf(value);
+    		long lower = LatencyHistogram.lowerBound(bucket);
+    		long upper = LatencyHistogram.upperBound(bucket);
+    		assertTrue("expected " + value + " within its bucket", lower <= value && value <= upper);
+    		assertTrue("expected the bucket of " + value + " to be narrow", upper - lower <= Math.max(0, lower / 16));
+    	}
+    }
+
+    @Test
+    public void testPercentilesAgainstSortedValues() {
+    	Random random = new Random(6005);
+    	LatencyHistogram histogram = new LatencyHistogram();
+    	long[] values = new long[10000];
+    	for (int i = 0; i < values.length; i++) {
+    		values[i] = (long) Math.pow(10, 1 + 6 * random.nextDouble());
+    		histogram.record(values[i]);
+    	}
+    	Arrays.sort(values);
+    	long[] counts = histogram.counts();
+    	for (double percentile : new double[] { 1, 50, 90, 99, 99.9, 100 }) {
+    		long exact = values[(int) Math.ceil(percentile / 100 * values.length) - 1];
+    		long estimate = LatencyHistogram.valueAtPercentile(counts, percentile, histogram.max());
+    		assertTrue("expected p" + percentile + " no lower than exact", estimate >= exact);
+    		assertTrue("expected p" + percentile + " within 1/16", estimate <= exact + exact / 16);
+    	}
+    	assertEquals("expected the greatest value", values[values.length - 1], histogram.max());
+    	histogram.record(-5);
+    	assertEquals("expected a negative value to count as zero", 0, LatencyHistogram.valueAtPercentile(histogram.counts(), 0, histogram.max()));
+    }
+
+}
@@ -0,0 +1,108 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for MappedGraph.
+ *
+ * A MappedGraph is read-only, so it cannot run the GraphInstanceTest tests;
+ * instead every test writes a graph to a temporary file, maps it and compares
+ * the mapped graph with the original.
+ */
+public class MappedGraphTest {
+
+    // Testing strategy
+    //   write(graph, file), open(file):
+    //     1.graph is empty
+    //     2.graph has a self-loop, isolated vertices, the largest weight, an
+    //       empty label and non-ASCII labels
+    //     3.graph has many vertices, so lookups probe the hash index
+    //     4.file is not a mapped graph file, or is truncated
+    //   vertices(), sources(target), targets(source):
+    //     1.the label is a vertex
+    //     2.the label is not a vertex
+    //   add(), set(), remove():
+    //     always throw UnsupportedOperationException
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private MappedGraph roundTrip(Graph<String> graph) throws IOException {
+    	Path file = folder.newFile().toPath();
+    	MappedGraph.write(graph, file);
+    	return MappedGraph.open(file);
+    }
+
+    @Test
+    public void testEmptyGraph() throws IOException {
+    	MappedGraph graph = roundTrip(Graph.empty());
+    	assertEquals("expected no vertices", Collections.emptySet(), graph.vertices());
+    	assertTrue("expected no targets", graph.targets("a").isEmpty());
+    }
+
+    @Test
+    public void testSampleGraph() throws IOException {
+    	Graph<String> expected = TestGraphs.sampleGraph();
+    	MappedGraph actual = roundTrip(expected);
+    	TestGraphs.assertSameGraph(expected, actual);
+    	assertEquals("expected the weight of the non-ASCII edge", 300, actual.targets("\u54c8\u5c14\u6ee8").get("\u5a01\u6d77").intValue());
+    }
+
+    @Test
+    public void testManyVertices() throws IOException {
+    	Graph<String> expected = new GraphBuilder<String>().build();
+    	for (int i = 0; i < 2000; i++) {
+    		expected.set("w" + i, "w" + (i * 31 % 2000), 1 + i % 7);
+    	}
+    	TestGraphs.assertSameGraph(expected, roundTrip(expected));
+    }
+
+    @Test
+    public void testMissingLabels() throws IOException {
+    	MappedGraph graph = roundTrip(TestGraphs.sampleGraph());
+    	assertFalse("expected missing not to be a vertex", graph.vertices().contains("missing"));
+    	assertTrue("expected no sources of missing", graph.sources("missing").isEmpty());
+    	assertNull("expected no edge to a vertex that is not a target", graph.targets("hello,").get("isolated"));
+    }
+
+    @Test(expected=IOException.class)
+    public void testNotAGraphFile() throws IOException {
+    	File file = folder.newFile();
+    	Files.write(file.toPath(), "This is a test of the Mugar Omni Theater sound system.".getBytes("UTF-8"));
+    	MappedGraph.open(file.toPath());
+    }
+
+    @Test(expected=IOException.class)
+    public void testTruncatedFile() throws IOException {
+    	Path file = folder.newFile().toPath();
+    	MappedGraph.write(TestGraphs.sampleGraph(), file);
+    	byte[] bytes = Files.readAllBytes(file);
+    	Files.write(file, Arrays.copyOf(bytes, bytes.length - 8));
+    	MappedGraph.open(file);
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testSetUnsupported() throws IOException {
+    	roundTrip(TestGraphs.sampleGraph()).set("a", "b", 1);
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testRemoveUnsupported() throws IOException {
+    	roundTrip(TestGraphs.sampleGraph()).remove("isolated");
+    }
+
+}
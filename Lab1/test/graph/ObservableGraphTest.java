@@ -0,0 +1,219 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests for ObservableGraph.
+ *
+ * This class runs the GraphInstanceTest tests against ObservableGraph, as
+ * well as tests for its events, and for GraphEvent.
+ *
+ * Tests against the Graph spec should be in GraphInstanceTest.
+ */
+public class ObservableGraphTest extends GraphInstanceTest {
+
+    /*
+     * Provide an ObservableGraph for tests in GraphInstanceTest.
+     */
+    @Override public Graph<String> emptyInstance() {
+        ObservableGraph<String> graph = new ObservableGraph<>();
+        graph.addListener(events -> { });
+        return graph;
+    }
+
+    /*
+     * Testing ObservableGraph...
+     */
+
+    // Testing strategy for ObservableGraph
+    //   add(), set(), remove():
+    //     1.random mutations of each implementation, replayed from the events
+    //       onto a copy, give the same graph
+    //     2.set() adds both vertices, or a self-loop adds one
+    //     3.the call does not change the graph, no event
+    //     4.remove() of a vertex with a self-loop and other edges
+    //   batching:
+    //     1.batchSize events are delivered together, the rest on flush()
+    //     2.batch() delivers once at the end of the outermost call
+    //   listeners:
+    //     1.a removed listener receives nothing more
+    //   constructor:
+    //     1.batchSize is not positive
+
+    /**
+     * A listener that keeps every batch it receives.
+     */
+    private static final class Recorder implements GraphListener<String> {
+    	final List<List<GraphEvent<String>>> batches = new ArrayList<>();
+
+    	@Override public void onEvents(List<GraphEvent<String>> events) {
+    		batches.add(events);
+    	}
+
+    	List<GraphEvent<String>> all() {
+    		List<GraphEvent<String>> all = new ArrayList<>();
+    		batches.forEach(all::addAll);
+    		return all;
+    	}
+    }
+
+    /**
+     * Apply events to a graph, checking each against the state it changes.
+     */
+    private static void replay(List<GraphEvent<String>> events, Graph<String> copy) {
+    	for (GraphEvent<String> event : events) {
+    		switch (event.kind()) {
+    		case VERTEX_ADDED:
+    			assertTrue("expected the vertex to be new", copy.add(event.source()));
+    			break;
+    		case VERTEX_REMOVED:
+    			assertTrue("expected the vertex to have no edges left", copy.targets(event.source()).isEmpty() && copy.sources(event.source()).isEmpty());
+    			assertTrue("expected the vertex to exist", copy.remove(event.source()));
+    			break;
+    		default:
+    			assertTrue("expected the vertices of the edge to exist", copy.vertices().contains(event.source()) && copy.vertices().contains(event.target()));
+    			assertEquals("expected the old weight", event.oldWeight(), copy.set(event.source(), event.target(), event.newWeight()));
+    		}
+    	}
+    }
+
+    @Test
+    public void testReplayReproducesGraph() {
+    	List<Graph<String>> implementations = Arrays.asList(new AdjacencyMapGraph<>(), new ConcreteEdgesGraph<>(), new ConcreteVerticesGraph<>());
+    	for (Graph<String> implementation : implementations) {
+    		ObservableGraph<String> graph = new ObservableGraph<>(implementation, 7);
+    		Recorder recorder = new Recorder();
+    		graph.addListener(recorder);
+    		AdjacencyMapGraphTest.mutateRandomly(graph, new Random(6005));
+    		graph.flush();
+    		Graph<String> copy = new AdjacencyMapGraph<>();
+    		replay(recorder.all(), copy);
+    		assertEquals("expected the same vertices", graph.vertices(), copy.vertices());
+    		for (String vertex : graph.vertices()) {
+    			assertEquals("expected the same targets of " + vertex, new HashMap<>(graph.targets(vertex)), new HashMap<>(copy.targets(vertex)));
+    		}
+    	}
+    }
+
+    @Test
+    public void testSetEvents() {
+    	ObservableGraph<String> graph = new ObservableGraph<>();
+    	Recorder recorder = new Recorder();
+    	graph.addListener(recorder);
+    	graph.set("a", "b", 2);
+    	graph.set("c", "c", 1);
+    	graph.set("a", "b", 2);
+    	graph.set("b", "a", 0);
+    	graph.add("a");
+    	graph.set("a", "b", 5);
+    	List<GraphEvent<String>> expected = Arrays.asList(
+    			GraphEvent.vertexAdded("a"), GraphEvent.vertexAdded("b"), GraphEvent.edgeChanged("a", "b", 0, 2),
+    			GraphEvent.vertexAdded("c"), GraphEvent.edgeChanged("c", "c", 0, 1),
+    			GraphEvent.edgeChanged("a", "b", 2, 5));
+    	assertEquals("expected only the changes, one per batch", expected, recorder.all());
+    	assertEquals("expected one batch per changing mutation", 3, recorder.batches.size());
+    }
+
+    @Test
+    public void testRemoveEvents() {
+    	ObservableGraph<String> graph = new ObservableGraph<>();
+    	graph.set("v", "v", 1);
+    	graph.set("v", "t", 2);
+    	graph.set("s", "v", 3);
+    	Recorder recorder = new Recorder();
+    	graph.addListener(recorder);
+    	assertFalse("expected no such vertex", graph.remove("missing"));
+    	assertTrue("expected to remove the vertex", graph.remove("v"));
+    	List<GraphEvent<String>> events = recorder.all();
+    	assertEquals("expected the three edges and then the vertex", 4, events.size());
+    	assertTrue("expected the self-loop once", events.contains(GraphEvent.edgeChanged("v", "v", 1, 0)));
+    	assertTrue("expected the outgoing edge", events.contains(GraphEvent.edgeChanged("v", "t", 2, 0)));
+    	assertTrue("expected the incoming edge", events.contains(GraphEvent.edgeChanged("s", "v", 3, 0)));
+    	assertEquals("expected the vertex last", GraphEvent.vertexRemoved("v"), events.get(3));
+    }
+
+    @Test
+    public void testBatchSizeAndFlush() {
+    	ObservableGraph<String> graph = new ObservableGraph<>(new AdjacencyMapGraph<>(), 3);
+    	Recorder recorder = new Recorder();
+    	graph.addListener(recorder);
+    	graph.add("a");
+    	graph.add("b");
+    	assertTrue("expected nothing before the batch is full", recorder.batches.isEmpty());
+    	graph.add("c");
+    	graph.add("d");
+    	assertEquals("expected one full batch", 1, recorder.batches.size());
+    	assertEquals("expected batchSize events", 3, recorder.batches.get(0).size());
+    	graph.flush();
+    	graph.flush();
+    	assertEquals("expected the rest on flush, and nothing on an empty flush", 2, recorder.batches.size());
+    	assertEquals("expected the last vertex", Arrays.asList(GraphEvent.vertexAdded("d")), recorder.batches.get(1));
+    }
+
+    @Test
+    public void testBatch() {
+    	ObservableGraph<String> graph = new ObservableGraph<>();
+    	Recorder recorder = new Recorder();
+    	graph.addListener(recorder);
+    	graph.batch(() -> {
+    		graph.set("a", "b", 1);
+    		graph.batch(() -> graph.set("b", "c", 1));
+    		assertTrue("expected nothing inside the batch", recorder.batches.isEmpty());
+    	});
+    	assertEquals("expected one batch", 1, recorder.batches.size());
+    	assertEquals("expected every event of the batch", 5, recorder.batches.get(0).size());
+    }
+
+    @Test
+    public void testRemoveListener() {
+    	ObservableGraph<String> graph = new ObservableGraph<>();
+    	Recorder recorder = new Recorder();
+    	graph.addListener(recorder);
+    	graph.add("a");
+    	assertTrue("expected the listener to be removed", graph.removeListener(recorder));
+    	assertFalse("expected the listener to be gone", graph.removeListener(recorder));
+    	graph.add("b");
+    	assertEquals("expected only the event before removal", Arrays.asList(GraphEvent.vertexAdded("a")), recorder.all());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testNonPositiveBatchSize() {
+    	new ObservableGraph<String>(new AdjacencyMapGraph<>(), 0);
+    }
+
+    /*
+     * Testing GraphEvent...
+     */
+
+    // Testing strategy for GraphEvent
+    //   equals(), hashCode():
+    //     1.equal events, events of different kinds or weights
+    //   toString():
+    //     1.a vertex event and an edge event
+
+    @Test
+    public void testGraphEventEquality() {
+    	assertEquals("expected equal edge events", GraphEvent.edgeChanged("a", "b", 1, 2), GraphEvent.edgeChanged("a", "b", 1, 2));
+    	assertEquals("expected equal hash codes", GraphEvent.edgeChanged("a", "b", 1, 2).hashCode(), GraphEvent.edgeChanged("a", "b", 1, 2).hashCode());
+    	assertNotEquals("expected different weights to differ", GraphEvent.edgeChanged("a", "b", 1, 2), GraphEvent.edgeChanged("a", "b", 1, 3));
+    	assertNotEquals("expected different kinds to differ", GraphEvent.vertexAdded("a"), GraphEvent.vertexRemoved("a"));
+    }
+
+    @Test
+    public void testGraphEventToString() {
+    	assertEquals("expected the vertex", "GraphEvent{VERTEX_ADDED,vertex=a}", GraphEvent.vertexAdded("a").toString());
+    	assertEquals("expected the edge and weights", "GraphEvent{EDGE_CHANGED,source=a,target=b,oldWeight=0,newWeight=2}", GraphEvent.edgeChanged("a", "b", 0, 2).toString());
+    }
+
+}
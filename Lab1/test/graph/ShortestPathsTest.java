@@ -0,0 +1,233 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests for ShortestPaths, and for IntMinHeap and WeightedPath, which it uses.
+ */
+public class ShortestPathsTest {
+
+    // Testing strategy
+    //   dijkstra(), aStar(), bidirectional():
+    //     1.source equals target
+    //     2.target is reachable, by one or several paths of different weights
+    //     3.target is not reachable
+    //     4.source or target is not in the graph
+    //     5.random graphs, compared with Bellman-Ford, searched frozen, as a
+    //       WeightedGraph and as a plain Graph
+    //   aStar() heuristic:
+    //     1.zero
+    //     2.exact distances to the target (consistent)
+    //   distancesFrom(), parallelDistancesFrom(delta):
+    //     1.random graphs, compared with Bellman-Ford, with small and large
+    //       delta, frozen and not
+    //     2.source is not in the graph
+    //     3.delta is not positive
+
+    /**
+     * @return a graph with two paths from a to d: a-b-d of weight 6 and a-c-d
+     *         of weight 4, and a vertex e that reaches a but not back
+     */
+    private static Graph<String> diamond() {
+    	Graph<String> graph = Graph.empty();
+    	graph.set("a", "b", 1);
+    	graph.set("b", "d", 5);
+    	graph.set("a", "c", 2);
+    	graph.set("c", "d", 2);
+    	graph.set("e", "a", 1);
+    	return graph;
+    }
+
+    private static Graph<Integer> randomGraph(Random random, int n, int edges, int maxWeight) {
+    	Graph<Integer> graph = new AdjacencyMapGraph<>();
+    	for (int v = 0; v < n; v++) {
+    		graph.add(v);
+    	}
+    	for (int i = 0; i < edges; i++) {
+    		graph.set(random.nextInt(n), random.nextInt(n), 1 + random.nextInt(maxWeight));
+    	}
+    	return graph;
+    }
+
+    /**
+     * @return distances from source by Bellman-Ford, for every reachable vertex
+     */
+    private static <L> Map<L, Long> bellmanFord(Graph<L> graph, L source) {
+    	Map<L, Long> distances = new HashMap<>();
+    	distances.put(source, 0L);
+    	for (int round = 0; round < graph.vertices().size(); round++) {
+    		for (L u : graph.vertices()) {
+    			Long base = distances.get(u);
+    			if (base == null) {
+    				continue;
+    			}
+    			for (Map.Entry<L, Integer> edge : graph.targets(u).entrySet()) {
+    				long candidate = base + edge.getValue();
+    				Long current = distances.get(edge.getKey());
+    				if (current == null || candidate < current) {
+    					distances.put(edge.getKey(), candidate);
+    				}
+    			}
+    		}
+    	}
+    	return distances;
+    }
+
+    private static <L> Graph<L> reversed(Graph<L> graph) {
+    	Graph<L> reversed = new AdjacencyMapGraph<>();
+    	for (L u : graph.vertices()) {
+    		reversed.add(u);
+    		for (Map.Entry<L, Integer> edge : graph.targets(u).entrySet()) {
+    			reversed.set(edge.getKey(), u, edge.getValue());
+    		}
+    	}
+    	return reversed;
+    }
+
+    private static <L> void assertValidPath(Graph<L> graph, WeightedPath<L> path, L source, L target) {
+    	assertEquals("expected the path to start at the source", source, path.source());
+    	assertEquals("expected the path to end at the target", target, path.target());
+    	long weight = 0;
+    	List<L> vertices = path.vertices();
+    	for (int i = 0; i + 1 < vertices.size(); i++) {
+    		Integer edge = graph.targets(vertices.get(i)).get(vertices.get(i + 1));
+    		assertNotNull("expected an edge between consecutive vertices", edge);
+    		weight += edge;
+    	}
+    	assertEquals("expected the weight to be the sum of the edges", weight, path.weight());
+    }
+
+    @Test
+    public void testSourceEqualsTarget() {
+    	Graph<String> graph = diamond();
+    	WeightedPath<String> expected = new WeightedPath<>(Collections.singletonList("a"), 0);
+    	assertEquals("expected the empty path from Dijkstra", Optional.of(expected), ShortestPaths.dijkstra(graph, "a", "a"));
+    	assertEquals("expected the empty path from bidirectional search", Optional.of(expected), ShortestPaths.bidirectional(graph, "a", "a"));
+    }
+
+    @Test
+    public void testShorterOfTwoPaths() {
+    	Graph<String> graph = diamond();
+    	WeightedPath<String> expected = new WeightedPath<>(Arrays.asList("e", "a", "c", "d"), 5);
+    	assertEquals("expected the lighter path from Dijkstra", Optional.of(expected), ShortestPaths.dijkstra(graph, "e", "d"));
+    	assertEquals("expected the lighter path from A*", Optional.of(expected), ShortestPaths.aStar(graph, "e", "d", vertex -> 0));
+    	assertEquals("expected the lighter path from bidirectional search", Optional.of(expected), ShortestPaths.bidirectional(graph, "e", "d"));
+    }
+
+    @Test
+    public void testUnreachableAndMissing() {
+    	Graph<String> graph = diamond();
+    	assertFalse("expected no path against the edges", ShortestPaths.dijkstra(graph, "d", "a").isPresent());
+    	assertFalse("expected no path against the edges", ShortestPaths.bidirectional(graph, "d", "a").isPresent());
+    	assertFalse("expected no path from a missing vertex", ShortestPaths.dijkstra(graph, "missing", "a").isPresent());
+    	assertFalse("expected no path to a missing vertex", ShortestPaths.bidirectional(graph, "a", "missing").isPresent());
+    	assertTrue("expected no distances from a missing vertex", ShortestPaths.distancesFrom(graph, "missing").isEmpty());
+    	assertTrue("expected no distances from a missing vertex", ShortestPaths.parallelDistancesFrom(graph, "missing", 1).isEmpty());
+    }
+
+    @Test
+    public void testRandomGraphsAgainstBellmanFord() {
+    	Random random = new Random(6005);
+    	for (int trial = 0; trial < 20; trial++) {
+    		Graph<Integer> graph = randomGraph(random, 60, 150, trial % 2 == 0 ? 5 : 1000);
+    		Graph<Integer> edgesGraph = new ConcreteEdgesGraph<>();
+    		for (int u : graph.vertices()) {
+    			edgesGraph.add(u);
+    			graph.targets(u).forEach((v, weight) -> edgesGraph.set(u, v, weight));
+    		}
+    		int source = random.nextInt(60);
+    		Map<Integer, Long> expected = bellmanFord(graph, source);
+    		Graph<Integer> reversed = reversed(graph);
+    		// frozen, walked through forEachTarget(), walked through targets()
+    		for (Graph<Integer> searched : Arrays.asList(CompactGraph.freeze(graph), graph, edgesGraph)) {
+    			assertEquals("expected the distances of Bellman-Ford", expected, ShortestPaths.distancesFrom(searched, source));
+    			assertEquals("expected the same distances with a small delta", expected, ShortestPaths.parallelDistancesFrom(searched, source, 3));
+    			assertEquals("expected the same distances with a large delta", expected, ShortestPaths.parallelDistancesFrom(searched, source, 10000));
+    			for (int target = 0; target < 60; target++) {
+    				Long distance = expected.get(target);
+    				Map<Integer, Long> toTarget = target % 10 == 0 ? bellmanFord(reversed, target) : Collections.emptyMap();
+    				Optional<WeightedPath<Integer>> dijkstra = ShortestPaths.dijkstra(searched, source, target);
+    				Optional<WeightedPath<Integer>> aStar = ShortestPaths.aStar(searched, source, target, vertex -> toTarget.getOrDefault(vertex, 0L));
+    				Optional<WeightedPath<Integer>> bidirectional = ShortestPaths.bidirectional(searched, source, target);
+    				for (Optional<WeightedPath<Integer>> path : Arrays.asList(dijkstra, aStar, bidirectional)) {
+    					assertEquals("expected a path if and only if the target is reachable", distance != null, path.isPresent());
+    					if (path.isPresent()) {
+    						assertValidPath(graph, path.get(), source, target);
+    						assertEquals("expected a shortest path", distance.longValue(), path.get().weight());
+    					}
+    				}
+    			}
+    		}
+    	}
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testNonPositiveDelta() {
+    	ShortestPaths.parallelDistancesFrom(diamond(), "a", 0);
+    }
+
+    /*
+     * Testing IntMinHeap...
+     */
+
+    // Testing strategy for IntMinHeap
+    //   offer(item, key), pollMin():
+    //     1.items come out in key order, after inserts and decreases
+    //     2.a key that is not lower is ignored
+    //     3.items beyond the capacity, which grows
+
+    @Test
+    public void testHeapOrder() {
+    	Random random = new Random(6005);
+    	IntMinHeap heap = new IntMinHeap(500);
+    	long[] keys = new long[500];
+    	for (int item = 0; item < 500; item++) {
+    		keys[item] = random.nextInt(10000);
+    		heap.offer(item, keys[item]);
+    	}
+    	for (int item = 0; item < 500; item += 7) {
+    		keys[item] /= 2;
+    		assertTrue("expected a lower key to be accepted", heap.offer(item, keys[item]));
+    	}
+    	assertFalse("expected a higher key to be ignored", heap.offer(1, keys[1] + 1));
+    	heap.checkRep();
+    	long previous = Long.MIN_VALUE;
+    	while (!heap.isEmpty()) {
+    		long key = heap.minKey();
+    		int item = heap.pollMin();
+    		assertEquals("expected the key of the item", keys[item], key);
+    		assertTrue("expected non-decreasing keys", key >= previous);
+    		assertFalse("expected the item to be removed", heap.contains(item));
+    		previous = key;
+    	}
+    }
+
+    @Test
+    public void testHeapGrows() {
+    	IntMinHeap heap = new IntMinHeap(1);
+    	assertFalse("expected an item beyond the capacity to be absent", heap.contains(100));
+    	for (int item = 0; item < 100; item++) {
+    		heap.offer(item, 1000 - item);
+    	}
+    	heap.offer(250, 5);
+    	heap.checkRep();
+    	assertTrue("expected an item beyond the first capacity", heap.contains(250));
+    	assertEquals("expected the smallest key", 5, heap.minKey());
+    	assertEquals("expected the item of the smallest key", 250, heap.pollMin());
+    	assertEquals("expected the next smallest key", 99, heap.pollMin());
+    }
+
+}
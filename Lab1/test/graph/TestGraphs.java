@@ -0,0 +1,52 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.HashSet;
+
+/**
+ * A sample graph and a graph comparison shared by the tests of the graph
+ * implementations that copy, freeze or store another graph.
+ */
+final class TestGraphs {
+
+    private TestGraphs() {
+    	throw new AssertionError("TestGraphs is not instantiable");
+    }
+
+    /**
+     * @return a new mutable graph with a self-loop, the largest weight, an
+     *         isolated vertex, an empty label and non-ASCII labels
+     */
+    static Graph<String> sampleGraph() {
+    	Graph<String> graph = Graph.empty();
+    	graph.set("hello,", "hello,", 2);
+    	graph.set("hello,", "goodbye!", Integer.MAX_VALUE);
+    	graph.set("\u54c8\u5c14\u6ee8", "\u5a01\u6d77", 300);
+    	graph.set("\u5a01\u6d77", "hello,", 4);
+    	graph.add("isolated");
+    	graph.add("");
+    	return graph;
+    }
+
+    /**
+     * Assert that two graphs have the same vertices and the same weighted
+     * edges, as seen through vertices(), targets() and sources().
+     *
+     * @param expected graph to compare with
+     * @param actual graph under test
+     */
+    static void assertSameGraph(Graph<String> expected, Graph<String> actual) {
+    	assertEquals("expected the same vertices", new HashSet<>(expected.vertices()), new HashSet<>(actual.vertices()));
+    	for (String vertex : expected.vertices()) {
+    		assertTrue("expected vertices() to contain " + vertex, actual.vertices().contains(vertex));
+    		assertEquals("expected the same targets of " + vertex, new HashMap<>(expected.targets(vertex)), new HashMap<>(actual.targets(vertex)));
+    		assertEquals("expected the same sources of " + vertex, new HashMap<>(expected.sources(vertex)), new HashMap<>(actual.sources(vertex)));
+    	}
+    }
+
+}
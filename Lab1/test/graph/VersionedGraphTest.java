@@ -0,0 +1,216 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Tests for VersionedGraph.
+ *
+ * This class runs the GraphInstanceTest tests against VersionedGraph, as
+ * well as tests for PersistentGraph and PersistentMap, which make up its rep.
+ *
+ * Tests against the Graph spec should be in GraphInstanceTest.
+ */
+public class VersionedGraphTest extends GraphInstanceTest {
+
+    /*
+     * Provide a VersionedGraph for tests in GraphInstanceTest.
+     */
+    @Override public Graph<String> emptyInstance() {
+        return new VersionedGraph<>();
+    }
+
+    /*
+     * Testing VersionedGraph...
+     */
+
+    // Testing strategy for VersionedGraph
+    //   snapshot():
+    //     1.the graph is mutated after the snapshot is taken
+    //       by add(), set() and remove()
+    //   several threads mutate the graph at once:
+    //     1.each thread sets its own edges, none is lost
+
+    @Test
+    public void testSnapshotIsUnaffectedByMutations() {
+    	VersionedGraph<String> graph = new VersionedGraph<>();
+    	graph.set("a", "b", 1);
+    	PersistentGraph<String> snapshot = graph.snapshot();
+    	Map<String, Integer> targetsMap = graph.targets("a");
+    	graph.set("a", "b", 2);
+    	graph.add("c");
+    	graph.remove("b");
+    	assertEquals("expected the old weight in the snapshot", 1, snapshot.targets("a").get("b").intValue());
+    	assertEquals("expected the old weight in the returned map", 1, targetsMap.get("b").intValue());
+    	assertEquals("expected the old vertices in the snapshot", 2, snapshot.vertices().size());
+    	assertTrue("expected the graph to see the removal", graph.targets("a").isEmpty());
+    	assertTrue("expected the graph to see the new vertex", graph.vertices().contains("c"));
+    }
+
+    @Test
+    public void testConcurrentWritersLoseNothing() throws Exception {
+    	VersionedGraph<String> graph = new VersionedGraph<>();
+    	ExecutorService pool = Executors.newFixedThreadPool(4);
+    	try {
+    		List<Future<?>> futures = new ArrayList<>();
+    		for (int t = 0; t < 4; t++) {
+    			final int thread = t;
+    			futures.add(pool.submit(() -> {
+    				for (int i = 0; i < 300; i++) {
+    					graph.set("hub", "t" + thread + "_" + i, i + 1);
+    				}
+    			}));
+    		}
+    		for (Future<?> future : futures) {
+    			future.get(60, TimeUnit.SECONDS);
+    		}
+    	} finally {
+    		pool.shutdownNow();
+    	}
+    	assertEquals("expected every edge from the hub", 1200, graph.targets("hub").size());
+    	assertEquals("expected every vertex", 1201, graph.vertices().size());
+    }
+
+    /*
+     * Testing PersistentGraph...
+     */
+
+    // Testing strategy for PersistentGraph
+    //   withVertex(), withEdge(), withoutVertex():
+    //     1.the update changes nothing, the same version is returned
+    //     2.the update changes the graph, the old version is unchanged
+    //   add(), set(), remove():
+    //     always throw UnsupportedOperationException
+
+    @Test
+    public void testUpdatesReturnNewVersions() {
+    	PersistentGraph<String> empty = PersistentGraph.empty();
+    	PersistentGraph<String> one = empty.withEdge("a", "b", 3);
+    	PersistentGraph<String> two = one.withEdge("b", "a", 4);
+    	PersistentGraph<String> three = two.withoutVertex("a");
+    	assertTrue("expected the empty version to stay empty", empty.vertices().isEmpty());
+    	assertEquals("expected one edge in the first version", 3, one.sources("b").get("a").intValue());
+    	assertTrue("expected no edge back in the first version", one.targets("b").isEmpty());
+    	assertEquals("expected the edge back in the second version", 4, two.targets("b").get("a").intValue());
+    	assertTrue("expected the third version to drop the edges of a", three.targets("b").isEmpty() && three.sources("b").isEmpty());
+    	assertEquals("expected the second version to keep a", 2, two.vertices().size());
+    }
+
+    @Test
+    public void testUpdatesThatChangeNothing() {
+    	PersistentGraph<String> graph = PersistentGraph.<String>empty().withEdge("a", "b", 3);
+    	assertSame("expected the same version for an existing vertex", graph, graph.withVertex("a"));
+    	assertSame("expected the same version for the same weight", graph, graph.withEdge("a", "b", 3));
+    	assertSame("expected the same version for removing a missing edge", graph, graph.withEdge("b", "a", 0));
+    	assertSame("expected the same version for removing a missing vertex", graph, graph.withoutVertex("c"));
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testPersistentGraphSetUnsupported() {
+    	PersistentGraph.<String>empty().set("a", "b", 1);
+    }
+
+    /*
+     * Testing PersistentMap...
+     */
+
+    // Testing strategy for PersistentMap
+    //   put(key, value), remove(key), get(key):
+    //     1.many keys, compared against a HashMap after random updates
+    //     2.keys with equal hash codes (collision nodes)
+    //     3.old versions are unchanged after updates
+    //   asMap():
+    //     1.iteration visits every key exactly once
+
+    /**
+     * A key whose hash code is chosen by the test, to force collisions.
+     */
+    private static final class Key {
+    	private final int id;
+    	private final int hash;
+
+    	Key(int id, int hash) {
+    		this.id = id;
+    		this.hash = hash;
+    	}
+
+    	@Override public boolean equals(Object obj) {
+    		return obj instanceof Key && ((Key) obj).id == id;
+    	}
+
+    	@Override public int hashCode() {
+    		return hash;
+    	}
+    }
+
+    @Test
+    public void testPersistentMapAgainstHashMap() {
+    	Random random = new Random(6005);
+    	PersistentMap<Integer, Integer> map = PersistentMap.empty();
+    	Map<Integer, Integer> expected = new HashMap<>();
+    	for (int i = 0; i < 20000; i++) {
+    		int key = random.nextInt(3000);
+    		if (random.nextInt(3) == 0) {
+    			map = map.remove(key);
+    			expected.remove(key);
+    		} else {
+    			map = map.put(key, i);
+    			expected.put(key, i);
+    		}
+    	}
+    	assertEquals("expected the same size", expected.size(), map.size());
+    	assertEquals("expected the same entries", expected, new HashMap<>(map.asMap()));
+    	for (int key = 0; key < 3000; key++) {
+    		assertEquals("expected the same value for " + key, expected.get(key), map.get(key));
+    	}
+    }
+
+    @Test
+    public void testPersistentMapCollisions() {
+    	PersistentMap<Key, Integer> map = PersistentMap.empty();
+    	for (int i = 0; i < 10; i++) {
+    		map = map.put(new Key(i, i % 2 == 0 ? 42 : 42 + (1 << 20)), i);
+    	}
+    	PersistentMap<Key, Integer> removed = map.remove(new Key(4, 42)).remove(new Key(5, 42 + (1 << 20)));
+    	assertEquals("expected every colliding key", 10, map.size());
+    	assertEquals("expected two keys to be removed", 8, removed.size());
+    	for (int i = 0; i < 10; i++) {
+    		assertEquals("expected the old version to keep " + i, Integer.valueOf(i), map.get(new Key(i, i % 2 == 0 ? 42 : 42 + (1 << 20))));
+    	}
+    	assertNull("expected the key to be removed", removed.get(new Key(4, 42)));
+    	assertEquals("expected iteration to visit every key", 8, new HashMap<>(removed.asMap()).size());
+    }
+
+    @Test
+    public void testPersistentMapOldVersions() {
+    	PersistentMap<String, Integer> one = PersistentMap.<String, Integer>empty().put("a", 1);
+    	PersistentMap<String, Integer> two = one.put("a", 2).put("b", 3);
+    	assertEquals("expected the old value in the old version", Integer.valueOf(1), one.get("a"));
+    	assertFalse("expected no b in the old version", one.containsKey("b"));
+    	assertEquals("expected the new value in the new version", Integer.valueOf(2), two.get("a"));
+    	assertSame("expected the same version for removing a missing key", two, two.remove("c"));
+    	assertEquals("expected the empty map after removing every key", 0, two.remove("a").remove("b").size());
+    }
+
+    @Test
+    public void testVersionedGraphToString() {
+    	Graph<String> graph = emptyInstance();
+    	graph.set("source vertex", "target vertex", 1);
+    	System.out.println("A graph with vertices and edges:" + graph.toString());
+    }
+
+}
@@ -6,12 +6,33 @@ package poet;
 import static org.junit.Assert.*;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Scanner;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
+import graph.BinaryGraphFormat;
 import graph.ConcreteEdgesGraph;
 import graph.Graph;
+import graph.GraphBuilder;
 
 /**
  * Tests for GraphPoet.
@@ -44,6 +65,9 @@ public class GraphPoetTest {
     //     the weight of edge from A to B is greater than 1, A's index is not 1
     //   3.like 2 but A's index is 1
     //   4.there are at least two two-long-edges
+    //   save(file), load(file)
+    //   1.the loaded poet writes the same poems as the saved one
+    //   2.the file was not written by save()
     
     @Test(expected=AssertionError.class)
     public void testAssertionsEnabled() {
@@ -116,6 +140,26 @@ public class GraphPoetTest {
     	assertEquals("expected that add only one bridge word", "A great teacher", output);
     }
     
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    
+    @Test
+    public void testSaveAndLoad() throws IOException {
+    	File saved = folder.newFile();
+    	graphPoetWithMultipleLines.save(saved);
+    	GraphPoet loaded = GraphPoet.load(saved);
+    	String input = "In eye, fear losing I never For XGD";
+    	assertEquals("expected the loaded poet to write the same poem",
+    			graphPoetWithMultipleLines.poem(input), loaded.poem(input));
+    	assertEquals("expected the loaded poet to keep the case of input words",
+    			graphPoetWithMultipleLines.poem("IN EYE, FEAR"), loaded.poem("IN EYE, FEAR"));
+    }
+    
+    @Test(expected=IOException.class)
+    public void testLoadNotSaved() throws IOException {
+    	GraphPoet.load(new File("test/poet/MultipleLines.txt"));
+    }
+    
     @Test
     public void testToStringEmpty() {
     	System.out.println(graphPoetWithNoWords.toString());
@@ -128,4 +172,604 @@ public class GraphPoetTest {
     	assert graphPoetWithAtLeastTwoPaths.toString() != null:"toString is non-null";
     }
     
+    /*
+     * Testing CorpusTokenizer and BigramAccumulator...
+     */
+    
+    // Testing strategy
+    //   CorpusTokenizer.next():
+    //     1.mixed whitespace (spaces, tabs, newlines, no-break and other
+    //       Unicode spaces), leading and trailing whitespace, empty text
+    //     2.a word longer than the buffer
+    //     3.a reader that returns a few characters at a time
+    //   BigramAccumulator:
+    //     1.random corpora with many repeated words and runs, compared with
+    //       the list-based derivation GraphPoet used before streaming
+    //   MappedCorpusScanner.next():
+    //     1.random UTF-8 corpora with ASCII whitespace, windows of 1 byte, a
+    //       few bytes (words and multi-byte characters cross windows) and the
+    //       default, compared with CorpusTokenizer
+    //     2.Unicode whitespace beyond ASCII does not separate words
+    //     3.empty file
+    //   GraphPoet(corpus, MAPPED):
+    //     1.writes the same poems as GraphPoet(corpus) on the test corpora
+    //   BigramAccumulator.append():
+    //     1.random corpora cut into pieces at random words, inside runs and
+    //       between them, some pieces empty, appended left to right and as a
+    //       tree, compared with the list-based derivation
+    //   ParallelCorpusReader:
+    //     1.random corpora cut into 1 to 40 ranges, compared with a single
+    //       MappedCorpusScanner
+    //     2.boundaries() are non-decreasing and fall on whitespace
+    //   GraphPoet(corpus, PARALLEL):
+    //     1.writes the same poems as GraphPoet(corpus) on the test corpora
+    //   append(text, join):
+    //     1.join is false: weights of the text's own graph are added
+    //     2.join is true: the last word read so far comes before the text,
+    //       whether or not the text starts with that word
+    //     3.text without words, poet without words, poet from load()
+    //     4.random corpora appended in random pieces, compared with sums of
+    //       the list-based derivation
+    //     5.words already in the graph keep their instance; an overflowing
+    //       weight leaves the poet unchanged
+    //   fromFiles(corpus, listener), MultiFileCorpusReader:
+    //     1.random corpora cut into 0 to 30 files, some empty, read with 1 to
+    //       4 threads of each kind, compared with sums of the list-based
+    //       derivation of each file
+    //     2.files of many more chunks than a chunk queue holds, with one or
+    //       more threads of each kind
+    //     3.the listener hears once per file, with totals that add up
+    //     4.a file that does not exist
+    //   fromDirectory(directory, glob, listener):
+    //     1.globs that select files directly in the directory, at any depth,
+    //       and none; a directory that is not a directory
+    
+    /**
+     * The words of text, as GraphPoet split them before streaming.
+     */
+    private static List<String> scannerWords(String text) {
+    	List<String> words = new ArrayList<>();
+    	try (Scanner scanner = new Scanner(text)) {
+    		while (scanner.hasNext()) {
+    			words.add(scanner.next().toLowerCase());
+    		}
+    	}
+    	return words;
+    }
+    
+    /**
+     * The words of text, from a CorpusTokenizer reading at most chunk
+     * characters at a time.
+     */
+    private static List<String> tokenizerWords(String text, int chunk) throws IOException {
+    	Reader in = new StringReader(text) {
+    		@Override public int read(char[] buffer, int offset, int length) throws IOException {
+    			return super.read(buffer, offset, Math.min(length, chunk));
+    		}
+    	};
+    	CorpusTokenizer tokenizer = new CorpusTokenizer(in);
+    	List<String> words = new ArrayList<>();
+    	for (String word = tokenizer.next(); word != null; word = tokenizer.next()) {
+    		words.add(word);
+    	}
+    	return words;
+    }
+    
+    /**
+     * Feed words to builder the way GraphPoet did before streaming.
+     */
+    private static void listGenerateGraph(GraphBuilder<String> graph, List<String> wordList) {
+    	if(wordList.isEmpty())
+    		return;
+    	if(wordList.size() == 1) {
+    		graph.addVertex(wordList.get(0));
+    		return;
+    	}
+    	int i = 1;
+    	String sourceWord = wordList.get(0);
+    	while(i < wordList.size() && sourceWord.equals(wordList.get(i))) {
+    		i++;
+    	}
+    	if(i == 1) {
+    		int j = i + 1;
+    		while(j < wordList.size() && wordList.get(1).equals(wordList.get(j))) {
+    			j++;
+    		}
+    		graph.set(sourceWord, wordList.get(1), j - 1);
+    		i = j - 1;
+    	} else {
+    		graph.set(sourceWord, sourceWord, i - 1);
+    		i = i - 1;
+    	}
+    	for(; i < wordList.size() - 1; i++) {
+    		String source = wordList.get(i);
+    		String target = wordList.get(i + 1);
+    		int j = i + 2;
+    		while(j < wordList.size() && target.equals(wordList.get(j))) {
+    			j++;
+    		}
+    		graph.set(source, target, j - i - 1);
+    		i = j - 2;
+    	}
+    }
+    
+    /**
+     * Assert that two graphs have the same vertices and edges.
+     */
+    static void assertSameGraph(Graph<String> expected, Graph<String> actual) {
+    	assertEquals("expected the same vertices", expected.vertices(), actual.vertices());
+    	for (String vertex : expected.vertices()) {
+    		assertEquals("expected the same edges from " + vertex, expected.targets(vertex), actual.targets(vertex));
+    	}
+    }
+    
+    /**
+     * @return a random text of words from a small vocabulary in mixed case,
+     *         often repeated, separated by assorted whitespace
+     */
+    static String randomCorpus(Random random, int words) {
+    	String[] vocabulary = { "a", "B", "the", "The", "word,", "x", "\u00c9t\u00e9", "longer-word" };
+    	String[] whitespace = { " ", "  ", "\t", "\n", "\r\n", "\u2003", "\u000b", " \n " };
+    	StringBuilder text = new StringBuilder();
+    	if (random.nextBoolean()) {
+    		text.append(whitespace[random.nextInt(whitespace.length)]);
+    	}
+    	String word = vocabulary[random.nextInt(vocabulary.length)];
+    	for (int i = 0; i < words; i++) {
+    		if (random.nextInt(3) != 0) {
+    			word = vocabulary[random.nextInt(vocabulary.length)];
+    		}
+    		text.append(word).append(whitespace[random.nextInt(whitespace.length)]);
+    	}
+    	return text.toString();
+    }
+    
+    @Test
+    public void testTokenizerWhitespace() throws IOException {
+    	String text = "  Hello,\tWORLD!\n\r\nmixed\u2003Case\u000bword \u00a0 end";
+    	assertEquals("expected the words of a Scanner", scannerWords(text), tokenizerWords(text, 8192));
+    	assertEquals("expected no words", Collections.emptyList(), tokenizerWords(" \n\t ", 8192));
+    	assertEquals("expected no words", Collections.emptyList(), tokenizerWords("", 8192));
+    }
+    
+    @Test
+    public void testTokenizerLongWordAndShortReads() throws IOException {
+    	StringBuilder text = new StringBuilder("first ");
+    	for (int i = 0; i < 20000; i++) {
+    		text.append((char) ('A' + i % 26));
+    	}
+    	text.append(" last");
+    	List<String> words = tokenizerWords(text.toString(), 8192);
+    	assertEquals("expected the words of a Scanner", scannerWords(text.toString()), words);
+    	assertEquals("expected the long word whole", 20000, words.get(1).length());
+    	Random random = new Random(6005);
+    	for (int chunk = 1; chunk <= 3; chunk++) {
+    		String corpus = randomCorpus(random, 200);
+    		assertEquals("expected the words of a Scanner", scannerWords(corpus), tokenizerWords(corpus, chunk));
+    	}
+    }
+    
+    @Test
+    public void testStreamingMatchesListDerivation() throws IOException {
+    	Random random = new Random(6005);
+    	for (int round = 0; round < 200; round++) {
+    		String corpus = randomCorpus(random, random.nextInt(round < 20 ? 4 : 300));
+    		GraphBuilder<String> expected = new GraphBuilder<>();
+    		listGenerateGraph(expected, scannerWords(corpus));
+    		GraphBuilder<String> actual = new GraphBuilder<>();
+    		BigramAccumulator accumulator = new BigramAccumulator(actual);
+    		for (String word : tokenizerWords(corpus, 1 + random.nextInt(64))) {
+    			accumulator.accept(word);
+    		}
+    		accumulator.finish();
+    		assertSameGraph(expected.build(), actual.build());
+    	}
+    }
+    
+    /**
+     * The words of a file, from a MappedCorpusScanner mapping window bytes at a time.
+     */
+    private static List<String> mappedWords(File file, long window) throws IOException {
+    	List<String> words = new ArrayList<>();
+    	try (MappedCorpusScanner scanner = new MappedCorpusScanner(file, window)) {
+    		for (String word = scanner.next(); word != null; word = scanner.next()) {
+    			words.add(word);
+    		}
+    	}
+    	return words;
+    }
+    
+    private File writeUtf8(String text) throws IOException {
+    	File file = folder.newFile();
+    	Files.write(file.toPath(), text.getBytes(StandardCharsets.UTF_8));
+    	return file;
+    }
+    
+    @Test
+    public void testMappedMatchesTokenizer() throws IOException {
+    	Random random = new Random(6005);
+    	for (int round = 0; round < 30; round++) {
+    		String corpus = randomCorpus(random, random.nextInt(500)).replace('\u2003', ' ');
+    		File file = writeUtf8(corpus);
+    		List<String> expected = tokenizerWords(corpus, 8192);
+    		assertEquals("expected the tokenizer's words", expected, mappedWords(file, MappedCorpusScanner.DEFAULT_WINDOW));
+    		assertEquals("expected the same words across windows", expected, mappedWords(file, 1 + random.nextInt(16)));
+    	}
+    	File file = writeUtf8("\u00c9t\u00c9 LONGWORD  x");
+    	assertEquals("expected words from one-byte windows", Arrays.asList("\u00e9t\u00e9", "longword", "x"), mappedWords(file, 1));
+    }
+    
+    @Test
+    public void testMappedAsciiWhitespaceOnly() throws IOException {
+    	File file = writeUtf8("a\u2003b\u001fc\u000bd");
+    	assertEquals("expected only ASCII whitespace to separate words", Arrays.asList("a\u2003b", "c", "d"),
+    			mappedWords(file, MappedCorpusScanner.DEFAULT_WINDOW));
+    	assertEquals("expected no words in an empty file", Collections.emptyList(),
+    			mappedWords(folder.newFile(), MappedCorpusScanner.DEFAULT_WINDOW));
+    }
+    
+    /**
+     * Accumulate pieces lo..hi-1 of words, cut at cuts, appending them as a tree.
+     */
+    private static BigramAccumulator treeAccumulator(List<String> words, int[] cuts, int lo, int hi) {
+    	if (hi - lo == 1) {
+    		BigramAccumulator accumulator = new BigramAccumulator(new GraphBuilder<>());
+    		for (String word : words.subList(cuts[lo], cuts[hi])) {
+    			accumulator.accept(word);
+    		}
+    		return accumulator;
+    	}
+    	int mid = (lo + hi) / 2;
+    	BigramAccumulator left = treeAccumulator(words, cuts, lo, mid);
+    	left.append(treeAccumulator(words, cuts, mid, hi));
+    	return left;
+    }
+    
+    @Test
+    public void testAppendMatchesListDerivation() {
+    	Random random = new Random(6005);
+    	for (int round = 0; round < 300; round++) {
+    		List<String> words = scannerWords(randomCorpus(random, random.nextInt(round < 50 ? 6 : 200)));
+    		int pieces = 1 + random.nextInt(8);
+    		int[] cuts = new int[pieces + 1];
+    		cuts[pieces] = words.size();
+    		for (int i = 1; i < pieces; i++) {
+    			cuts[i] = random.nextInt(words.size() + 1);
+    		}
+    		Arrays.sort(cuts, 1, pieces);
+    		GraphBuilder<String> expected = new GraphBuilder<>();
+    		listGenerateGraph(expected, words);
+    		Graph<String> expectedGraph = expected.build();
+    		
+    		GraphBuilder<String> leftToRight = new GraphBuilder<>();
+    		BigramAccumulator accumulator = new BigramAccumulator(leftToRight);
+    		for (int i = 0; i < pieces; i++) {
+    			BigramAccumulator piece = new BigramAccumulator(new GraphBuilder<>());
+    			for (String word : words.subList(cuts[i], cuts[i + 1])) {
+    				piece.accept(word);
+    			}
+    			accumulator.append(piece);
+    		}
+    		accumulator.finish();
+    		assertSameGraph(expectedGraph, leftToRight.build());
+    		
+    		GraphBuilder<String> tree = new GraphBuilder<>();
+    		BigramAccumulator root = new BigramAccumulator(tree);
+    		root.append(treeAccumulator(words, cuts, 0, pieces));
+    		root.finish();
+    		assertSameGraph(expectedGraph, tree.build());
+    	}
+    }
+    
+    @Test
+    public void testParallelMatchesMapped() throws IOException {
+    	Random random = new Random(6005);
+    	for (int round = 0; round < 40; round++) {
+    		String corpus = randomCorpus(random, random.nextInt(round < 10 ? 5 : 2000)).replace('\u2003', ' ');
+    		File file = writeUtf8(corpus);
+    		GraphBuilder<String> expected = new GraphBuilder<>();
+    		BigramAccumulator accumulator = new BigramAccumulator(expected);
+    		for (String word : mappedWords(file, MappedCorpusScanner.DEFAULT_WINDOW)) {
+    			accumulator.accept(word);
+    		}
+    		accumulator.finish();
+    		int chunks = 1 + random.nextInt(40);
+    		long[] bounds = ParallelCorpusReader.boundaries(file, chunks);
+    		byte[] bytes = Files.readAllBytes(file.toPath());
+    		assertEquals("expected the first bound at the start", 0, bounds[0]);
+    		assertEquals("expected the last bound at the end", bytes.length, bounds[chunks]);
+    		for (int i = 1; i < chunks; i++) {
+    			assertTrue("expected non-decreasing bounds", bounds[i - 1] <= bounds[i]);
+    			assertTrue("expected bounds at whitespace", bounds[i] == bytes.length || MappedCorpusScanner.isWhitespace(bytes[(int) bounds[i]]));
+    		}
+    		GraphBuilder<String> actual = new GraphBuilder<>();
+    		ParallelCorpusReader.generateGraph(file, actual, chunks, ForkJoinPool.commonPool());
+    		assertSameGraph(expected.build(), actual.build());
+    	}
+    }
+    
+    /**
+     * @return the affinity graph of poet, read back from save()
+     */
+    private Graph<String> graphOf(GraphPoet poet) throws IOException {
+    	File saved = folder.newFile();
+    	poet.save(saved);
+    	try (InputStream in = new FileInputStream(saved)) {
+    		return BinaryGraphFormat.read(in);
+    	}
+    }
+    
+    /**
+     * @return a poet of text, derived as GraphPoet(File) would
+     */
+    private GraphPoet poetOf(String text) throws IOException {
+    	File corpus = folder.newFile();
+    	Files.write(corpus.toPath(), text.getBytes());
+    	return new GraphPoet(corpus);
+    }
+    
+    /**
+     * Add the list-based graph of words to sum, adding weights.
+     */
+    private static void addListGraph(GraphBuilder<String> sum, List<String> words) {
+    	GraphBuilder<String> builder = new GraphBuilder<>();
+    	listGenerateGraph(builder, words);
+    	Graph<String> graph = builder.build();
+    	for (String source : graph.vertices()) {
+    		sum.addVertex(source);
+    		graph.targets(source).forEach((target, weight) -> sum.add(source, target, weight));
+    	}
+    }
+    
+    @Test
+    public void testAppendWithoutJoin() throws IOException {
+    	GraphPoet poet = poetOf("a b a");
+    	poet.append(new StringReader("A c c b"), false);
+    	Graph<String> graph = graphOf(poet);
+    	assertEquals("expected the new words", new HashSet<>(Arrays.asList("a", "b", "c")), graph.vertices());
+    	assertEquals("expected weights of both texts", 1, graph.targets("a").get("b").intValue());
+    	assertEquals("expected an edge of the new text only", 2, graph.targets("a").get("c").intValue());
+    	assertEquals("expected an edge of the new text only", 1, graph.targets("c").get("b").intValue());
+    	assertFalse("expected no edge across the texts", graph.sources("a").containsKey("a"));
+    	assertEquals("expected the old edges kept", 1, graph.targets("b").get("a").intValue());
+    }
+    
+    @Test
+    public void testAppendWithJoin() throws IOException {
+    	GraphPoet poet = poetOf("x a b");
+    	poet.append(new StringReader("b c"), true);
+    	Graph<String> graph = graphOf(poet);
+    	assertEquals("expected the self-loop across the texts", 1, graph.targets("b").get("b").intValue());
+    	assertEquals("expected the edge of the new text", 1, graph.targets("b").get("c").intValue());
+    	poet.append(new StringReader("  "), true);
+    	poet.append(new StringReader("a"), true);
+    	graph = graphOf(poet);
+    	assertEquals("expected the edge from the last word of the previous text", 1, graph.targets("c").get("a").intValue());
+    	assertEquals("expected the edge added to", 2, graph.targets("x").get("a").intValue() + graph.targets("a").get("b").intValue());
+    	
+    	GraphPoet empty = poetOf("");
+    	empty.append(new StringReader("Hello"), true);
+    	assertEquals("expected a single vertex", Collections.singleton("hello"), graphOf(empty).vertices());
+    	
+    	File saved = folder.newFile();
+    	poetOf("a b").save(saved);
+    	GraphPoet loaded = GraphPoet.load(saved);
+    	loaded.append(new StringReader("c"), true);
+    	assertFalse("expected no last word after load", graphOf(loaded).sources("c").containsKey("b"));
+    	loaded.append(new StringReader("d"), true);
+    	assertEquals("expected appended text to set the last word", 1, graphOf(loaded).targets("c").get("d").intValue());
+    }
+    
+    /**
+     * @return the poet's own affinity graph, read from its private field
+     */
+    @SuppressWarnings("unchecked")
+    private static Graph<String> liveGraphOf(GraphPoet poet) throws ReflectiveOperationException {
+    	Field field = GraphPoet.class.getDeclaredField("graph");
+    	field.setAccessible(true);
+    	return (Graph<String>) field.get(poet);
+    }
+    
+    /**
+     * @return the instance of word that graph holds as a vertex
+     */
+    private static String vertexInstance(Graph<String> graph, String word) {
+    	for (String vertex : graph.vertices()) {
+    		if (vertex.equals(word)) {
+    			return vertex;
+    		}
+    	}
+    	throw new AssertionError("expected " + word + " to be a vertex");
+    }
+    
+    @Test
+    public void testAppendReusesVertexInstances() throws IOException, ReflectiveOperationException {
+    	GraphPoet poet = poetOf("a b");
+    	poet.append(new StringReader("c B a"), false);
+    	poet.append(new StringReader("b"), true);
+    	Graph<String> graph = liveGraphOf(poet);
+    	String a = vertexInstance(graph, "a");
+    	String b = vertexInstance(graph, "b");
+    	for (String source : graph.vertices()) {
+    		for (String target : graph.targets(source).keySet()) {
+    			assertSame("expected one instance of each word", vertexInstance(graph, target), target);
+    		}
+    	}
+    	assertTrue("expected the appended edges", graph.targets("c").containsKey("b") && graph.targets("a").containsKey("b"));
+    	assertSame("expected one instance of a", a, vertexInstance(graph, "a"));
+    	assertSame("expected one instance of b", b, vertexInstance(graph, "b"));
+    }
+    
+    @Test
+    public void testAppendOverflowChangesNothing() throws IOException, ReflectiveOperationException {
+    	GraphPoet poet = poetOf("a b");
+    	Graph<String> graph = liveGraphOf(poet);
+    	graph.set("a", "b", Integer.MAX_VALUE);
+    	try {
+    		poet.append(new StringReader("x y a b"), false);
+    		fail("expected the weight of a -> b to overflow");
+    	} catch (ArithmeticException e) {
+    		// expected
+    	}
+    	assertEquals("expected no new vertices", new HashSet<>(Arrays.asList("a", "b")), graph.vertices());
+    	assertEquals("expected the old weight", Integer.MAX_VALUE, graph.targets("a").get("b").intValue());
+    	poet.append(new StringReader("c"), true);
+    	assertEquals("expected the last word kept", 1, graph.targets("b").get("c").intValue());
+    }
+    
+    @Test
+    public void testAppendRandomAgainstListDerivation() throws IOException {
+    	Random random = new Random(6005);
+    	for (int round = 0; round < 20; round++) {
+    		// the poet reads its corpus file in the default charset, so keep to ASCII
+    		List<String> words = scannerWords(randomCorpus(random, random.nextInt(300)).replace("\u00c9t\u00e9", "ete"));
+    		int cut = random.nextInt(words.size() + 1);
+    		boolean join = random.nextBoolean();
+    		GraphPoet poet = poetOf(String.join(" ", words.subList(0, cut)));
+    		GraphBuilder<String> expected = new GraphBuilder<>();
+    		addListGraph(expected, words.subList(0, cut));
+    		String last = cut == 0 ? null : words.get(cut - 1);
+    		for (int from = cut; from < words.size(); ) {
+    			int to = Math.min(words.size(), from + 1 + random.nextInt(50));
+    			List<String> piece = new ArrayList<>(words.subList(from, to));
+    			poet.append(new StringReader(String.join("\n", piece)), join);
+    			if (join && last != null) {
+    				piece.add(0, last);
+    			}
+    			addListGraph(expected, piece);
+    			last = words.get(to - 1);
+    			from = to;
+    		}
+    		assertSameGraph(expected.build(), graphOf(poet));
+    	}
+    }
+    
+    @Test
+    public void testMappedPoet() throws IOException {
+    	String[][] cases = {
+    			{ "test/poet/MultipleLines.txt", "In eye, fear losing I never For XGD" },
+    			{ "test/poet/SelfLoop.txt", "Hello World!" },
+    			{ "test/poet/AtLeastTwoPaths.txt", "A XGD" },
+    			{ "test/poet/NoWords.txt", "NULL" },
+    	};
+    	for (String[] poemCase : cases) {
+    		GraphPoet mapped = new GraphPoet(new File(poemCase[0]), GraphPoet.CorpusMode.MAPPED);
+    		GraphPoet parallel = new GraphPoet(new File(poemCase[0]), GraphPoet.CorpusMode.PARALLEL);
+    		String expected = graphPoetInstance(poemCase[0]).poem(poemCase[1]);
+    		assertEquals("expected the same poem as streaming", expected, mapped.poem(poemCase[1]));
+    		assertEquals("expected the same poem as streaming", expected, parallel.poem(poemCase[1]));
+    	}
+    }
+    
+    @Test
+    public void testFromFilesAgainstListDerivation() throws IOException {
+    	Random random = new Random(6005);
+    	for (int round = 0; round < 30; round++) {
+    		// files are read in the default charset, so keep to ASCII
+    		List<String> words = scannerWords(randomCorpus(random, random.nextInt(400)).replace("\u00c9t\u00e9", "ete"));
+    		int files = random.nextInt(31);
+    		List<File> corpus = new ArrayList<>();
+    		GraphBuilder<String> expected = new GraphBuilder<>();
+    		long expectedBytes = 0;
+    		for (int i = 0, from = 0; i < files; i++) {
+    			int to = i == files - 1 ? words.size() : from + random.nextInt(words.size() - from + 1);
+    			List<String> piece = words.subList(from, to);
+    			File file = folder.newFile();
+    			byte[] bytes = String.join(random.nextBoolean() ? " " : "\n", piece).getBytes();
+    			Files.write(file.toPath(), bytes);
+    			corpus.add(file);
+    			addListGraph(expected, piece);
+    			expectedBytes += bytes.length;
+    			from = to;
+    		}
+    		List<CorpusProgress> reports = new ArrayList<>();
+    		GraphBuilder<String> actual = new GraphBuilder<>();
+    		new MultiFileCorpusReader(corpus, reports::add, 1 + random.nextInt(4), 1 + random.nextInt(4)).generateGraph(actual);
+    		Graph<String> expectedGraph = expected.build();
+    		assertSameGraph(expectedGraph, actual.build());
+    		assertSameGraph(expectedGraph, graphOf(GraphPoet.fromFiles(corpus, null)));
+    		
+    		assertEquals("expected one report per file", files, reports.size());
+    		Set<File> reported = new HashSet<>();
+    		long reportedWords = 0;
+    		for (int i = 0; i < reports.size(); i++) {
+    			CorpusProgress progress = reports.get(i);
+    			assertEquals("expected files counted in order of reports", i + 1, progress.filesRead());
+    			assertEquals("expected the number of files", files, progress.filesTotal());
+    			assertEquals("expected the size of the file", progress.file().length(), progress.bytes());
+    			reported.add(progress.file());
+    			reportedWords += progress.words();
+    		}
+    		assertEquals("expected every file reported", new HashSet<>(corpus), reported);
+    		assertEquals("expected every word reported", words.size(), reportedWords);
+    		if (files > 0) {
+    			assertEquals("expected the total size", expectedBytes, reports.get(files - 1).bytesRead());
+    		}
+    	}
+    }
+    
+    @Test
+    public void testFromFilesLargerThanChunkQueue() throws IOException {
+    	Random random = new Random(6031);
+    	List<File> corpus = new ArrayList<>();
+    	GraphBuilder<String> expected = new GraphBuilder<>();
+    	for (int i = 0; i < 5; i++) {
+    		List<String> words = scannerWords(randomCorpus(random, 20000).replace("\u00c9t\u00e9", "ete"));
+    		File file = folder.newFile();
+    		Files.write(file.toPath(), String.join(" ", words).getBytes());
+    		assertTrue("expected a file of many chunks",
+    				file.length() > 2L * MultiFileCorpusReader.QUEUED_CHUNKS * MultiFileCorpusReader.CHUNK_SIZE);
+    		corpus.add(file);
+    		addListGraph(expected, words);
+    	}
+    	Graph<String> expectedGraph = expected.build();
+    	for (int[] threads : new int[][] { { 1, 1 }, { 1, 3 }, { 4, 1 }, { 3, 2 } }) {
+    		GraphBuilder<String> actual = new GraphBuilder<>();
+    		new MultiFileCorpusReader(corpus, null, threads[0], threads[1]).generateGraph(actual);
+    		assertSameGraph(expectedGraph, actual.build());
+    	}
+    }
+    
+    @Test(expected=IOException.class)
+    public void testFromFilesMissingFile() throws IOException {
+    	List<File> corpus = new ArrayList<>();
+    	for (int i = 0; i < 10; i++) {
+    		File file = folder.newFile();
+    		Files.write(file.toPath(), "a b c".getBytes());
+    		corpus.add(file);
+    	}
+    	corpus.add(5, new File(folder.getRoot(), "missing.txt"));
+    	GraphPoet.fromFiles(corpus, null);
+    }
+    
+    @Test
+    public void testFromDirectory() throws IOException {
+    	File directory = folder.newFolder();
+    	File nested = new File(directory, "nested");
+    	assertTrue("expected a new directory", nested.mkdir());
+    	Files.write(new File(directory, "a.txt").toPath(), "a b".getBytes());
+    	Files.write(new File(directory, "b.md").toPath(), "b c".getBytes());
+    	Files.write(new File(nested, "c.txt").toPath(), "c d".getBytes());
+    	
+    	List<File> reported = new ArrayList<>();
+    	Graph<String> top = graphOf(GraphPoet.fromDirectory(directory, "*.txt", progress -> reported.add(progress.file())));
+    	assertEquals("expected the words of the top text file", new HashSet<>(Arrays.asList("a", "b")), top.vertices());
+    	assertEquals("expected the top text file reported", Collections.singletonList(new File(directory, "a.txt")), reported);
+    	
+    	Graph<String> deep = graphOf(GraphPoet.fromDirectory(directory, "**.txt", null));
+    	assertEquals("expected the words of every text file", new HashSet<>(Arrays.asList("a", "b", "c", "d")), deep.vertices());
+    	assertFalse("expected no edge across files", deep.targets("b").containsKey("c"));
+    	assertEquals("expected the edges of both files", 1, deep.targets("c").get("d").intValue());
+    	
+    	Graph<String> all = graphOf(GraphPoet.fromDirectory(directory, "**", null));
+    	assertEquals("expected the edge of the markdown file", 1, all.targets("b").get("c").intValue());
+    	assertTrue("expected an empty graph", graphOf(GraphPoet.fromDirectory(directory, "*.pdf", null)).vertices().isEmpty());
+    	try {
+    		GraphPoet.fromDirectory(new File(directory, "a.txt"), "*", null);
+    		fail("expected a file not to be a directory");
+    	} catch (FileNotFoundException e) {
+    		// expected
+    	}
+    }
+    
 }